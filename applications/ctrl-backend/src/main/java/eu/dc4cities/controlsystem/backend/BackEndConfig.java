@@ -28,10 +28,15 @@ import eu.dc4cities.controlsystem.modules.easchandler.EascHandlerImpl;
 import eu.dc4cities.controlsystem.modules.erdshandler.ErdsHandlerImpl;
 import eu.dc4cities.controlsystem.modules.escalationmanager.EscalationManagerImpl;
 import eu.dc4cities.controlsystem.modules.optionconsolidator.OptionConsolidatorImpl;
+import eu.dc4cities.controlsystem.modules.optionconsolidator.WarmStartMemory;
+import eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2.ModelCache;
+import eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2.reducer.LNSReducer;
 import eu.dc4cities.controlsystem.modules.powerplanner.AggressivAdaptPowerPlannerImpl;
 import eu.dc4cities.controlsystem.modules.powersplitter.PowerSplitterImpl;
 import eu.dc4cities.controlsystem.modules.processcontroller.*;
 import eu.dc4cities.controlsystem.modules.processcontroller.rest.FederationController;
+import eu.dc4cities.controlsystem.modules.processcontroller.rest.HdbStatusController;
+import eu.dc4cities.controlsystem.modules.processcontroller.rest.LoopStatusController;
 import org.springframework.beans.factory.BeanCreationException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
@@ -40,9 +45,11 @@ import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.Scope;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -55,6 +62,10 @@ import java.util.Map;
 @Import(WebMvcConfig.class)
 public class BackEndConfig {
 	
+	// Loops queued beyond a few runs are rejected and skipped by the optimization manager, so a hung loop can't make
+	// the queues grow without limit
+	private static final int LOOP_QUEUE_CAPACITY = 8;
+	
 	@Autowired
 	private WebMvcConfig webMvcConfig;
 	
@@ -80,11 +91,79 @@ public class BackEndConfig {
 		return new ThreadPoolTaskScheduler();
 	}
 	
+	@Bean
+	public ThreadPoolTaskExecutor serviceRequestExecutor() {
+		int threads = configurationController().getTechnicalConfiguration().getServiceRequestThreads();
+		if (threads <= 0) {
+			return null;
+		}
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(threads);
+		executor.setMaxPoolSize(threads);
+		executor.setThreadNamePrefix("service-request-");
+		return executor;
+	}
+	
+	@Bean
+	public ThreadPoolTaskExecutor escalationExecutor() {
+		TechnicalConfiguration config = configurationController().getTechnicalConfiguration();
+		int threads = config.getEscalationThreads();
+		if (!config.isEscalationManagerEnabled() || threads <= 0) {
+			return null;
+		}
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(threads);
+		executor.setMaxPoolSize(threads);
+		executor.setThreadNamePrefix("escalation-");
+		return executor;
+	}
+	
+	@Bean
+	public ThreadPoolTaskExecutor powerPlanningExecutor() {
+		int threads = configurationController().getTechnicalConfiguration().getPowerPlanningThreads();
+		if (threads <= 0) {
+			return null;
+		}
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(threads);
+		executor.setMaxPoolSize(threads);
+		executor.setThreadNamePrefix("power-planning-");
+		return executor;
+	}
+	
+	@Bean
+	public ThreadPoolTaskExecutor monitoringLoopExecutor() {
+		return loopExecutor("monitoring-loop-");
+	}
+	
+	@Bean
+	public ThreadPoolTaskExecutor powerLoopExecutor() {
+		return loopExecutor("power-loop-");
+	}
+	
+	@Bean
+	public ThreadPoolTaskExecutor controlLoopExecutor() {
+		return loopExecutor("control-loop-");
+	}
+	
+	// Loops of the same type must run in order, so each loop type gets a single thread
+	private ThreadPoolTaskExecutor loopExecutor(String threadNamePrefix) {
+		if (!configurationController().getTechnicalConfiguration().isPipelinedLoops()) {
+			return null;
+		}
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(1);
+		executor.setMaxPoolSize(1);
+		executor.setQueueCapacity(LOOP_QUEUE_CAPACITY);
+		executor.setThreadNamePrefix(threadNamePrefix);
+		return executor;
+	}
+	
 	@Bean
 	public OptimizationManager optimizationManager() {
 		TechnicalConfiguration technicalConfiguration = configurationController().getTechnicalConfiguration();
 		OptimizationManager optimizationManager = new OptimizationManager(technicalConfiguration, taskScheduler(), 
-				hdbDao()) {
+				hdbDao(), hdbUploader()) {
 			@Override
 			protected MonitoringLoop newMonitoringLoop() {
 				return monitoringLoop();
@@ -98,10 +177,25 @@ public class BackEndConfig {
 				return controlLoop();
 			}
 		};
+		optimizationManager.setStatusJournal(statusJournal());
+		if (technicalConfiguration.isPipelinedLoops()) {
+			optimizationManager.setLoopExecutors(monitoringLoopExecutor().getThreadPoolExecutor(), 
+					powerLoopExecutor().getThreadPoolExecutor(), controlLoopExecutor().getThreadPoolExecutor());
+		}
 		optimizationManager.startScheduledLoops();
 		return optimizationManager;
 	}
 
+	@Bean
+	public FederationStatusJournal statusJournal() {
+		TechnicalConfiguration config = configurationController().getTechnicalConfiguration();
+		if (config.getStatusJournalDirectory() == null) {
+			return null;
+		}
+		return new FederationStatusJournal(new File(config.getStatusJournalDirectory()),
+				config.getStatusSnapshotInterval());
+	}
+	
 	@Bean
 	public HistoricalDbDao hdbDao() {
 		TechnicalConfiguration config = configurationController().getTechnicalConfiguration();
@@ -110,6 +204,7 @@ public class BackEndConfig {
 		}
 		String hdbUrl = config.getHdbUrl();
 		String companyCode = config.getCompanyCode();
+		HistoricalDbDao hdbDao;
 		if (config.isEscalationManagerEnabled()) {
 			String energisUrl = config.getEnergisUrl();
 			String energisApiKey = config.getEnergisApiKey();
@@ -117,10 +212,34 @@ public class BackEndConfig {
 				throw new BeanCreationException("You must set both energisUrl and energisApiKey when the escalation "
 						+ "manager and HDB upload are enabled");
 			}
-			return new HistoricalDbDao(hdbUrl, energisUrl, energisApiKey, companyCode, restTemplate());
+			hdbDao = new HistoricalDbDao(hdbUrl, energisUrl, energisApiKey, companyCode, restTemplate());
 		} else {
-			return new HistoricalDbDao(hdbUrl, companyCode);
+			hdbDao = new HistoricalDbDao(hdbUrl, companyCode);
+		}
+		hdbDao.setMaxDataPointsPerRequest(config.getHdbMaxDataPointsPerRequest());
+		hdbDao.setCompressionEnabled(config.isHdbCompressionEnabled());
+		return hdbDao;
+	}
+	
+	@Bean
+	public HdbUploader hdbUploader() {
+		HistoricalDbDao hdbDao = hdbDao();
+		if (hdbDao == null) {
+			return null;
+		}
+		TechnicalConfiguration config = configurationController().getTechnicalConfiguration();
+		HdbUploader.OverflowPolicy overflowPolicy;
+		try {
+			overflowPolicy = HdbUploader.OverflowPolicy.valueOf(config.getHdbQueueOverflowPolicy());
+		} catch (IllegalArgumentException e) {
+			throw new BeanCreationException("hdbUploader",
+					"Invalid hdbQueueOverflowPolicy: " + config.getHdbQueueOverflowPolicy(), e);
 		}
+		String spillDirectory = config.getHdbSpillDirectory();
+		HdbUploader hdbUploader = new HdbUploader(hdbDao, config.getHdbQueueCapacity(), overflowPolicy,
+				spillDirectory == null ? null : new File(spillDirectory), config.getHdbSpillMaxFiles());
+		hdbUploader.start();
+		return hdbUploader;
 	}
 	
 	@Bean
@@ -152,15 +271,30 @@ public class BackEndConfig {
 				escalationManagers.put(dataCenterName, escalationManager());
 			}
 		}
-		return new ControlLoop(technicalConfig, goalConfig, powerPlanners, powerSplitters, eascHandler(), 
-				optionConsolidator(), escalationManagers);
+		ControlLoop controlLoop = new ControlLoop(technicalConfig, goalConfig, powerPlanners, powerSplitters, 
+				eascHandler(), optionConsolidator(), escalationManagers);
+		ThreadPoolTaskExecutor executor = escalationExecutor();
+		if (executor != null) {
+			controlLoop.setStatusExecutor(executor.getThreadPoolExecutor());
+		}
+		executor = powerPlanningExecutor();
+		if (executor != null) {
+			controlLoop.setPlanningExecutor(executor.getThreadPoolExecutor(), 
+					technicalConfig.getPowerPlanningTimeout() * 1000L);
+		}
+		return controlLoop;
 	}
 	
 	@Bean
 	@Scope("prototype")
 	public ErdsHandler erdsHandler() {
 		TechnicalConfiguration technicalConfig = configurationController().getTechnicalConfiguration();
-		return new ErdsHandlerImpl(technicalConfig.getDataCenters(), restTemplate());
+		ThreadPoolTaskExecutor executor = serviceRequestExecutor();
+		if (executor == null) {
+			return new ErdsHandlerImpl(technicalConfig.getDataCenters(), restTemplate());
+		}
+		return new ErdsHandlerImpl(technicalConfig.getDataCenters(), restTemplate(), executor.getThreadPoolExecutor(),
+				technicalConfig.getErdsRequestTimeout() * 1000L);
 	}
 	
 	@Bean
@@ -196,7 +330,23 @@ public class BackEndConfig {
 	@Scope("prototype")
 	public EascHandler eascHandler() {
 		TechnicalConfiguration technicalConfig = configurationController().getTechnicalConfiguration();
-		return new EascHandlerImpl(technicalConfig.getEascList(), restTemplate());
+		ThreadPoolTaskExecutor executor = serviceRequestExecutor();
+		if (executor == null) {
+			return new EascHandlerImpl(technicalConfig.getEascList(), restTemplate());
+		}
+		return new EascHandlerImpl(technicalConfig.getEascList(), restTemplate(), executor.getThreadPoolExecutor(),
+				technicalConfig.getEascRequestTimeout() * 1000L);
+	}
+	
+	// Consolidators are created for each control loop, so what they keep between loops lives in singletons
+	@Bean
+	public ModelCache consolidationModelCache() {
+		return new ModelCache();
+	}
+	
+	@Bean
+	public WarmStartMemory consolidationWarmStartMemory() {
+		return new WarmStartMemory();
 	}
 	
 	@Bean
@@ -211,6 +361,16 @@ public class BackEndConfig {
 		if (heuristic != null) {
 			consolidator.setHeuristic(heuristic);
 		}
+		consolidator.setWarmStart(configurationController().getTechnicalConfiguration().isConsolidationWarmStart());
+		consolidator.setWarmStartMemory(consolidationWarmStartMemory());
+		consolidator.setModelCache(consolidationModelCache());
+		Integer workers = configurationController().getTechnicalConfiguration().getConsolidationWorkers();
+		if (workers != null) {
+			consolidator.setWorkers(workers);
+		}
+		if (configurationController().getTechnicalConfiguration().isConsolidationLns()) {
+			consolidator.reducer(new LNSReducer());
+		}
 		return consolidator;
 	}
 	
@@ -223,9 +383,17 @@ public class BackEndConfig {
         return escalationManager;
 	}
 	
+	@Bean
+	public PooledHttpTransport httpTransport() {
+		TechnicalConfiguration technicalConfig = configurationController().getTechnicalConfiguration();
+		return new PooledHttpTransport(technicalConfig.getHttpMaxConnections(), 
+				technicalConfig.getHttpMaxConnectionsPerHost(), technicalConfig.getHttpConnectTimeout() * 1000,
+				technicalConfig.getHttpReadTimeout() * 1000, technicalConfig.getHttpIdleTimeout() * 1000);
+	}
+	
 	@Bean
 	public RestTemplate restTemplate() {
-		RestTemplate template = new RestTemplate();
+		RestTemplate template = new RestTemplate(httpTransport().getRequestFactory());
 		List<HttpMessageConverter<?>> converters = new ArrayList<>(1);
 		converters.add(webMvcConfig.jacksonMessageConverter());
 		template.setMessageConverters(converters);
@@ -237,9 +405,24 @@ public class BackEndConfig {
 		return new WelcomeController();
 	}
 	
+	@Bean
+	public TransportStatusController transportStatusController() {
+		return new TransportStatusController(httpTransport());
+	}
+	
 	@Bean
 	public FederationController dataCenterController() {
 		return new FederationController(optimizationManager());
 	}
 	
+	@Bean
+	public HdbStatusController hdbStatusController() {
+		return new HdbStatusController(hdbUploader());
+	}
+	
+	@Bean
+	public LoopStatusController loopStatusController() {
+		return new LoopStatusController(optimizationManager());
+	}
+	
 }
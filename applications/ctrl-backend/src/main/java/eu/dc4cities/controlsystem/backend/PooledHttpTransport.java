@@ -0,0 +1,224 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.dc4cities.controlsystem.backend;
+
+import eu.dc4cities.controlsystem.model.json.JsonUtils;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.ManagedHttpClientConnectionFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HTTP transport for REST calls to EASCs, ERDSs and Energis, based on a pool of keep-alive connections managed by
+ * Apache HttpClient. Connections left idle for longer than the configured idle timeout are closed by a background
+ * thread, so that the pool does not hold sockets the remote server has already given up on.
+ */
+public class PooledHttpTransport implements Closeable {
+
+	private static final Logger logger = LoggerFactory.getLogger(PooledHttpTransport.class);
+
+	private PoolingHttpClientConnectionManager connectionManager;
+	private CloseableHttpClient httpClient;
+	private HttpComponentsClientHttpRequestFactory requestFactory;
+	private ScheduledExecutorService evictor;
+	private AtomicLong requestCount = new AtomicLong();
+	private AtomicLong connectionCount = new AtomicLong();
+
+	/**
+	 * Creates a new transport.
+	 *
+	 * @param maxConnections the maximum number of open connections in the pool
+	 * @param maxConnectionsPerHost the maximum number of open connections to a single host
+	 * @param connectTimeout the timeout for establishing a connection, in milliseconds (0 = no timeout)
+	 * @param readTimeout the timeout for reading data from a connection, in milliseconds (0 = no timeout)
+	 * @param idleTimeout the time after which an idle connection is closed, in milliseconds
+	 */
+	public PooledHttpTransport(int maxConnections, int maxConnectionsPerHost, int connectTimeout, int readTimeout,
+			int idleTimeout) {
+		if (maxConnections <= 0 || maxConnectionsPerHost <= 0) {
+			throw new IllegalArgumentException("Connection limits must be > 0");
+		} else if (idleTimeout <= 0) {
+			throw new IllegalArgumentException("idleTimeout must be > 0");
+		}
+		connectionManager = new PoolingHttpClientConnectionManager((route, config) -> {
+			connectionCount.incrementAndGet();
+			return ManagedHttpClientConnectionFactory.INSTANCE.create(route, config);
+		});
+		connectionManager.setMaxTotal(maxConnections);
+		connectionManager.setDefaultMaxPerRoute(maxConnectionsPerHost);
+		HttpRequestInterceptor requestCounter = (request, context) -> requestCount.incrementAndGet();
+		httpClient = HttpClients.custom()
+		                        .setConnectionManager(connectionManager)
+		                        .addInterceptorFirst(requestCounter)
+		                        .build();
+		requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+		requestFactory.setConnectTimeout(connectTimeout);
+		requestFactory.setReadTimeout(readTimeout);
+		// Waiting for a free connection in the pool counts as part of the connection phase
+		requestFactory.setConnectionRequestTimeout(connectTimeout);
+		evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "http-connection-evictor");
+			thread.setDaemon(true);
+			return thread;
+		});
+		evictor.scheduleWithFixedDelay(() -> evictIdleConnections(idleTimeout), idleTimeout, idleTimeout,
+				TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Returns the request factory to plug into a {@code RestTemplate}.
+	 *
+	 * @return the request factory backed by the connection pool
+	 */
+	public ClientHttpRequestFactory getRequestFactory() {
+		return requestFactory;
+	}
+
+	/**
+	 * Returns a snapshot of the connection pool usage.
+	 *
+	 * @return the current pool statistics
+	 */
+	public Statistics getStatistics() {
+		PoolStats poolStats = connectionManager.getTotalStats();
+		return new Statistics(poolStats, requestCount.get(), connectionCount.get());
+	}
+
+	private void evictIdleConnections(int idleTimeout) {
+		try {
+			connectionManager.closeExpiredConnections();
+			connectionManager.closeIdleConnections(idleTimeout, TimeUnit.MILLISECONDS);
+		} catch (Exception ex) {
+			logger.warn("Could not evict idle HTTP connections", ex);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		evictor.shutdownNow();
+		httpClient.close();
+	}
+
+	/**
+	 * Connection pool usage statistics. Requests and connections are counted since the transport was created, so
+	 * their ratio tells how often an already open connection was reused.
+	 */
+	public static class Statistics {
+
+		private int leased;
+		private int available;
+		private int pending;
+		private int max;
+		private long requests;
+		private long connections;
+
+		private Statistics(PoolStats poolStats, long requests, long connections) {
+			this.leased = poolStats.getLeased();
+			this.available = poolStats.getAvailable();
+			this.pending = poolStats.getPending();
+			this.max = poolStats.getMax();
+			this.requests = requests;
+			this.connections = connections;
+		}
+
+		/**
+		 * Returns the number of connections currently in use.
+		 *
+		 * @return the number of leased connections
+		 */
+		public int getLeased() {
+			return leased;
+		}
+
+		/**
+		 * Returns the number of idle connections kept open for reuse.
+		 *
+		 * @return the number of available connections
+		 */
+		public int getAvailable() {
+			return available;
+		}
+
+		/**
+		 * Returns the number of requests waiting for a free connection.
+		 *
+		 * @return the number of pending connection requests
+		 */
+		public int getPending() {
+			return pending;
+		}
+
+		/**
+		 * Returns the maximum number of open connections in the pool.
+		 *
+		 * @return the pool size
+		 */
+		public int getMax() {
+			return max;
+		}
+
+		/**
+		 * Returns the total number of HTTP requests sent through the transport.
+		 *
+		 * @return the number of requests
+		 */
+		public long getRequests() {
+			return requests;
+		}
+
+		/**
+		 * Returns the total number of connections opened by the transport.
+		 *
+		 * @return the number of connections
+		 */
+		public long getConnections() {
+			return connections;
+		}
+
+		/**
+		 * Returns the fraction of requests that were sent over an already open connection.
+		 *
+		 * @return the connection reuse rate, between 0 and 1
+		 */
+		public double getReuseRate() {
+			if (requests == 0) {
+				return 0;
+			}
+			return Math.max(0, 1 - (double) connections / requests);
+		}
+
+		@Override
+		public String toString() {
+			return JsonUtils.toString(this);
+		}
+
+	}
+
+}
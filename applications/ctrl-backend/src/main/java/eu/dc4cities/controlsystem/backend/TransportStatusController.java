@@ -0,0 +1,44 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.dc4cities.controlsystem.backend;
+
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+@Controller
+public class TransportStatusController {
+
+	private PooledHttpTransport httpTransport;
+	
+	public TransportStatusController(PooledHttpTransport httpTransport) {
+		this.httpTransport = httpTransport;
+	}
+	
+	/**
+	 * Returns usage statistics for the pool of HTTP connections used to call EASCs, ERDSs and Energis.
+	 * 
+	 * @return the current connection pool statistics
+	 */
+	@RequestMapping(value = "/v1/status/http", method = RequestMethod.GET)
+	@ResponseBody
+	public PooledHttpTransport.Statistics getHttpStatistics() {
+		return httpTransport.getStatistics();
+	}
+	
+}
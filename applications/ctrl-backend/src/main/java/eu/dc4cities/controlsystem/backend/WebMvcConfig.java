@@ -19,6 +19,7 @@ package eu.dc4cities.controlsystem.backend;
 import eu.dc4cities.controlsystem.model.json.JsonUtils;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.StringHttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
@@ -40,6 +41,8 @@ public class WebMvcConfig extends WebMvcConfigurerAdapter {
 		stringConverter.setWriteAcceptCharset(false);
 		// String converter for the welcome page
 		converters.add(stringConverter);
+		// Byte array converter for pre-serialized JSON responses
+		converters.add(new ByteArrayHttpMessageConverter());
 		// Jackson converter for the JSON API
 		converters.add(jacksonMessageConverter());
 	}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.dc4cities.controlsystem.backend;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+public class PooledHttpTransportTest {
+
+	private HttpServer server;
+	private String url;
+	private PooledHttpTransport transport;
+	
+	@Before
+	public void setUp() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/status", exchange -> {
+			byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		server.start();
+		url = "http://localhost:" + server.getAddress().getPort() + "/status";
+		transport = new PooledHttpTransport(4, 2, 5000, 5000, 60000);
+	}
+	
+	@After
+	public void tearDown() throws IOException {
+		transport.close();
+		server.stop(0);
+	}
+	
+	@Test
+	public void testNoRequests() {
+		PooledHttpTransport.Statistics statistics = transport.getStatistics();
+		Assert.assertEquals(0, statistics.getRequests());
+		Assert.assertEquals(0, statistics.getConnections());
+		Assert.assertEquals(0, statistics.getLeased());
+		Assert.assertEquals(4, statistics.getMax());
+		Assert.assertEquals(0, statistics.getReuseRate(), 0);
+	}
+	
+	@Test
+	public void testConnectionReuse() {
+		RestTemplate restTemplate = new RestTemplate(transport.getRequestFactory());
+		for (int i = 0; i < 4; i++) {
+			Assert.assertEquals("ok", restTemplate.getForObject(url, String.class));
+		}
+		// Sequential requests to the same host go over a single keep-alive connection
+		PooledHttpTransport.Statistics statistics = transport.getStatistics();
+		Assert.assertEquals(4, statistics.getRequests());
+		Assert.assertEquals(1, statistics.getConnections());
+		Assert.assertEquals(0, statistics.getLeased());
+		Assert.assertEquals(1, statistics.getAvailable());
+		Assert.assertEquals(0.75, statistics.getReuseRate(), 1e-9);
+	}
+	
+}
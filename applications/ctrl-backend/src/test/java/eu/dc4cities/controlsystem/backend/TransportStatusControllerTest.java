@@ -0,0 +1,71 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package eu.dc4cities.controlsystem.backend;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+public class TransportStatusControllerTest {
+
+	private HttpServer server;
+	private PooledHttpTransport transport;
+	private TransportStatusController controller;
+	
+	@Before
+	public void setUp() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/", exchange -> {
+			exchange.sendResponseHeaders(204, -1);
+			exchange.close();
+		});
+		server.start();
+		transport = new PooledHttpTransport(4, 2, 5000, 5000, 60000);
+		controller = new TransportStatusController(transport);
+	}
+	
+	@After
+	public void tearDown() throws IOException {
+		transport.close();
+		server.stop(0);
+	}
+	
+	@Test
+	public void testHttpStatistics() {
+		PooledHttpTransport.Statistics statistics = controller.getHttpStatistics();
+		Assert.assertEquals(0, statistics.getRequests());
+		Assert.assertEquals(0, statistics.getReuseRate(), 0);
+		RestTemplate restTemplate = new RestTemplate(transport.getRequestFactory());
+		String url = "http://localhost:" + server.getAddress().getPort() + "/";
+		restTemplate.getForObject(url, String.class);
+		restTemplate.getForObject(url, String.class);
+		// Each call returns a new snapshot of the counters
+		statistics = controller.getHttpStatistics();
+		Assert.assertEquals(2, statistics.getRequests());
+		Assert.assertEquals(1, statistics.getConnections());
+		Assert.assertEquals(0.5, statistics.getReuseRate(), 1e-9);
+		Assert.assertTrue(statistics.toString().contains("\"reuseRate\""));
+	}
+	
+}
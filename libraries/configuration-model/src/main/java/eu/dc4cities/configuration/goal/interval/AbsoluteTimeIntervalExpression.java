@@ -17,12 +17,15 @@
 package eu.dc4cities.configuration.goal.interval;
 
 import eu.dc4cities.configuration.goal.TimeFrame;
+import eu.dc4cities.controlsystem.model.TimeSlotBasedEntity;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 import org.joda.time.Interval;
 
+import javax.measure.unit.SI;
 import javax.xml.datatype.DatatypeFactory;
 import javax.xml.datatype.Duration;
+import java.util.BitSet;
 import java.util.Date;
 
 /**
@@ -33,7 +36,7 @@ import java.util.Date;
  */
 public class AbsoluteTimeIntervalExpression implements TimeIntervalExpression {
 
-	private TimeFrame timeFrame;
+	private final TimeFrame timeFrame;
 	protected final Duration duration;
 
 	/**
@@ -45,7 +48,13 @@ public class AbsoluteTimeIntervalExpression implements TimeIntervalExpression {
 	AbsoluteTimeIntervalExpression(TimeFrame timeFrame) throws TimeIntervalExpressionException {
 		Validate.notNull(timeFrame, "TimeFrame cannot be null");
 
-		this.timeFrame = timeFrame;
+		// private copy, as instances are shared by the factory while time
+		// frames are mutable
+		this.timeFrame = new TimeFrame();
+		this.timeFrame.setStartDate(timeFrame.getStartDate() == null ? null
+				: (Date) timeFrame.getStartDate().clone());
+		this.timeFrame.setRecurrentExpression(timeFrame.getRecurrentExpression());
+		this.timeFrame.setDuration(timeFrame.getDuration());
 
 		try {
 			// assuming empty duration or P0D denotes "forever" (e.g. static
@@ -81,6 +90,24 @@ public class AbsoluteTimeIntervalExpression implements TimeIntervalExpression {
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public BitSet activeTimeSlots(TimeSlotBasedEntity range) {
+		long from = range.getDateFrom().getMillis();
+		long slotMillis = range.getTimeSlotDuration().longValue(SI.MILLI(SI.SECOND));
+		int numOfTimeSlots = range.getNumOfTimeSlots();
+		BitSet active = new BitSet(numOfTimeSlots);
+		for (int i = 0; i < numOfTimeSlots; i++) {
+			// a new date per slot, as recurrent expressions may modify it
+			if (isActive(new Date(from + i * slotMillis))) {
+				active.set(i);
+			}
+		}
+		return active;
+	}
+
 	/**
 	 * Returns null if no end date (infinite duration)
 	 */
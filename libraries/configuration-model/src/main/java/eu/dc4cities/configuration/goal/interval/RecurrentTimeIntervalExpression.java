@@ -25,6 +25,10 @@ import java.util.Date;
 /**
  * Recurrent TimeExpression based on Cron expressions using Quartz's
  * CronExpression.
+ * <p>
+ * Instances are shared between threads by the factory cache, while
+ * CronExpression is not documented as thread-safe: all calls to it are
+ * synchronized on it.
  *
  *
  */
@@ -57,19 +61,21 @@ public class RecurrentTimeIntervalExpression extends AbsoluteTimeIntervalExpress
      */
     @Override
     public Date getStartDate(Date date) {
-    	if (cronExpression.isSatisfiedBy(date)) {
-    		return date;
-    	}
-    	if (duration != null) {
-    		// If we are inside the interval, return the start of it; else return the start of the next one
-    		Date prevStart = new Date(date.getTime());
-    		duration.negate().addTo(prevStart);
-    		prevStart = cronExpression.getNextValidTimeAfter(prevStart);
-    		if (prevStart.getTime() < date.getTime()) {
-    			return prevStart;
+    	synchronized (cronExpression) {
+    		if (cronExpression.isSatisfiedBy(date)) {
+    			return date;
+    		}
+    		if (duration != null) {
+    			// If we are inside the interval, return the start of it; else return the start of the next one
+    			Date prevStart = new Date(date.getTime());
+    			duration.negate().addTo(prevStart);
+    			prevStart = cronExpression.getNextValidTimeAfter(prevStart);
+    			if (prevStart.getTime() < date.getTime()) {
+    				return prevStart;
+    			}
     		}
+    		return cronExpression.getNextValidTimeAfter(date);
     	}
-    	return cronExpression.getNextValidTimeAfter(date);
     }
 
     /**
@@ -16,6 +16,9 @@
 
 package eu.dc4cities.configuration.goal.interval;
 
+import eu.dc4cities.controlsystem.model.TimeSlotBasedEntity;
+
+import java.util.BitSet;
 import java.util.Date;
 
 /**
@@ -57,4 +60,12 @@ public interface TimeIntervalExpression {
 	 * @return true if time expression matches given date
 	 */
 	public boolean isActive(Date date);
+
+	/**
+	 * @param range
+	 *            Time range divided into time slots
+	 * @return a bitmap with one bit per time slot of the range, set if the
+	 *         time expression matches the start date of the time slot
+	 */
+	public BitSet activeTimeSlots(TimeSlotBasedEntity range);
 }
@@ -23,9 +23,20 @@ import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
 /**
  * Factory for TimeExpressions
- *
+ * <p>
+ * Expressions are immutable once created and safe to share between threads,
+ * so they are cached by the content of their TimeFrame: parsing cron
+ * expressions and durations is done once per distinct TimeFrame instead of
+ * once per evaluation. The least recently used expressions are evicted when
+ * the cache is full.
  *
  * 
  */
@@ -34,6 +45,19 @@ public class TimeIntervalExpressionFactory {
 	private static final Logger LOG = LoggerFactory
 			.getLogger(TimeIntervalExpressionFactory.class);
 
+	/**
+	 * Maximum number of cached expressions
+	 */
+	static final int MAX_CACHED_EXPRESSIONS = 1024;
+
+	private static final Map<Key, TimeIntervalExpression> CACHE = Collections.synchronizedMap(
+			new LinkedHashMap<Key, TimeIntervalExpression>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<Key, TimeIntervalExpression> eldest) {
+					return size() > MAX_CACHED_EXPRESSIONS;
+				}
+			});
+
 	/**
 	 * Factory method to create TimeExpressions from TimeFrames
 	 * 
@@ -47,6 +71,19 @@ public class TimeIntervalExpressionFactory {
 			throws TimeIntervalExpressionException {
 		Validate.notNull(timeFrame, "TimeFrame cannot be null");
 
+		Key key = new Key(timeFrame);
+		TimeIntervalExpression expression = CACHE.get(key);
+		if (expression == null) {
+			// compiled outside the lock, concurrent callers may both compile
+			// the same TimeFrame, which is harmless
+			expression = compile(timeFrame);
+			CACHE.put(key, expression);
+		}
+		return expression;
+	}
+
+	private static TimeIntervalExpression compile(TimeFrame timeFrame)
+			throws TimeIntervalExpressionException {
 		// recurrent
 		if (StringUtils.isNotBlank(timeFrame.getRecurrentExpression())) {
 			if (LOG.isTraceEnabled()) {
@@ -65,4 +102,41 @@ public class TimeIntervalExpressionFactory {
 			return new AbsoluteTimeIntervalExpression(timeFrame);
 		}
 	}
+
+	/**
+	 * Content of a TimeFrame, as TimeFrames are mutable and don't implement
+	 * equals
+	 */
+	private static final class Key {
+
+		private final Long startDate;
+		private final String recurrentExpression;
+		private final String duration;
+
+		private Key(TimeFrame timeFrame) {
+			Date date = timeFrame.getStartDate();
+			this.startDate = date == null ? null : date.getTime();
+			this.recurrentExpression = timeFrame.getRecurrentExpression();
+			this.duration = timeFrame.getDuration();
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) o;
+			return Objects.equals(startDate, other.startDate)
+					&& Objects.equals(recurrentExpression, other.recurrentExpression)
+					&& Objects.equals(duration, other.duration);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(startDate, recurrentExpression, duration);
+		}
+	}
 }
@@ -19,9 +19,11 @@ package eu.dc4cities.configuration.goal.utils;
 import eu.dc4cities.configuration.goal.Objective;
 import eu.dc4cities.configuration.goal.interval.TimeIntervalExpressionException;
 import eu.dc4cities.configuration.goal.interval.TimeIntervalExpressionFactory;
+import eu.dc4cities.controlsystem.model.TimeSlotBasedEntity;
 import org.apache.commons.collections4.CollectionUtils;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Date;
 import java.util.List;
 
@@ -61,4 +63,32 @@ public class ObjectiveUtils {
 
 		return activeObjectives;
 	}
+
+	/**
+	 * Get the time slots of a time range in which at least one objective is
+	 * active
+	 * 
+	 * @param objectives
+	 *            List of objectives to be evaluated
+	 * @param range
+	 *            Time range divided into time slots
+	 * @return a bitmap with one bit per time slot, set if an objective is
+	 *         active at the start of the time slot
+	 * @throws TimeIntervalExpressionException
+	 *             TimeFrame errors discovered
+	 */
+	public static BitSet activeTimeSlots(List<Objective> objectives,
+			TimeSlotBasedEntity range) throws TimeIntervalExpressionException {
+		BitSet active = new BitSet(range.getNumOfTimeSlots());
+		if (CollectionUtils.isEmpty(objectives)) {
+			return active;
+		}
+
+		for (Objective objective : objectives) {
+			active.or(TimeIntervalExpressionFactory.create(
+					objective.getTimeFrame()).activeTimeSlots(range));
+		}
+
+		return active;
+	}
 }
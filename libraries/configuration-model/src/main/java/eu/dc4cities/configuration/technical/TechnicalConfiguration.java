@@ -26,6 +26,19 @@ import java.util.List;
 public class TechnicalConfiguration {
 
 	private static final int DEFAULT_ESCALATION_WARNING_THRESHOLD = 75;
+	private static final int DEFAULT_EASC_REQUEST_TIMEOUT = 30;
+	private static final int DEFAULT_ERDS_REQUEST_TIMEOUT = 30;
+	private static final int DEFAULT_POWER_PLANNING_TIMEOUT = 60;
+	private static final int DEFAULT_HTTP_MAX_CONNECTIONS = 50;
+	private static final int DEFAULT_HTTP_MAX_CONNECTIONS_PER_HOST = 5;
+	private static final int DEFAULT_HTTP_CONNECT_TIMEOUT = 10;
+	private static final int DEFAULT_HTTP_READ_TIMEOUT = 60;
+	private static final int DEFAULT_HTTP_IDLE_TIMEOUT = 30;
+	private static final int DEFAULT_HDB_MAX_DATA_POINTS_PER_REQUEST = 20000;
+	private static final int DEFAULT_HDB_QUEUE_CAPACITY = 16;
+	private static final String DEFAULT_HDB_QUEUE_OVERFLOW_POLICY = "DROP_OLDEST";
+	private static final int DEFAULT_HDB_SPILL_MAX_FILES = 1000;
+	private static final int DEFAULT_STATUS_SNAPSHOT_INTERVAL = 100;
 	
 	private DateTime startAt;
 	private int powerLoopInterval;
@@ -35,10 +48,33 @@ public class TechnicalConfiguration {
     private int timeWindowWidth;
     private Integer consolidationTimeout;
     private String consolidationHeuristic;
+    private boolean consolidationWarmStart;
+    private Integer consolidationWorkers;
+    private boolean consolidationLns;
+    private int serviceRequestThreads;
+    private int eascRequestTimeout = DEFAULT_EASC_REQUEST_TIMEOUT;
+    private int erdsRequestTimeout = DEFAULT_ERDS_REQUEST_TIMEOUT;
+    private int httpMaxConnections = DEFAULT_HTTP_MAX_CONNECTIONS;
+    private int httpMaxConnectionsPerHost = DEFAULT_HTTP_MAX_CONNECTIONS_PER_HOST;
+    private int httpConnectTimeout = DEFAULT_HTTP_CONNECT_TIMEOUT;
+    private int httpReadTimeout = DEFAULT_HTTP_READ_TIMEOUT;
+    private int httpIdleTimeout = DEFAULT_HTTP_IDLE_TIMEOUT;
     private boolean escalationManagerEnabled;
     private Integer escalationWarningThreshold = DEFAULT_ESCALATION_WARNING_THRESHOLD;
+    private int escalationThreads;
+    private int powerPlanningThreads;
+    private int powerPlanningTimeout = DEFAULT_POWER_PLANNING_TIMEOUT;
+    private boolean pipelinedLoops;
     private String hdbUrl;
     private boolean hdbEnabled;
+    private int hdbMaxDataPointsPerRequest = DEFAULT_HDB_MAX_DATA_POINTS_PER_REQUEST;
+    private boolean hdbCompressionEnabled;
+    private int hdbQueueCapacity = DEFAULT_HDB_QUEUE_CAPACITY;
+    private String hdbQueueOverflowPolicy = DEFAULT_HDB_QUEUE_OVERFLOW_POLICY;
+    private String hdbSpillDirectory;
+    private int hdbSpillMaxFiles = DEFAULT_HDB_SPILL_MAX_FILES;
+    private String statusJournalDirectory;
+    private int statusSnapshotInterval = DEFAULT_STATUS_SNAPSHOT_INTERVAL;
 	private String companyCode;
 	private String energisUrl;
 	private String energisApiKey;
@@ -153,6 +189,162 @@ public class TechnicalConfiguration {
 	public void setConsolidationHeuristic(String consolidationHeuristic) {
 		this.consolidationHeuristic = consolidationHeuristic;
 	}
+	
+	/**
+	 * Returns whether the option consolidator seeds each optimization with the working modes of the previous activity
+	 * plan, for the time slots the two plans have in common. Default is false.
+	 * 
+	 * @return true if the warm start is enabled
+	 */
+	public boolean isConsolidationWarmStart() {
+		return consolidationWarmStart;
+	}
+
+	public void setConsolidationWarmStart(boolean consolidationWarmStart) {
+		this.consolidationWarmStart = consolidationWarmStart;
+	}
+	
+	/**
+	 * Returns the number of solvers the option consolidator runs in parallel on each sub problem. The solvers use
+	 * different heuristics and share the best solution found so far. Default is null, meaning the consolidator default
+	 * (one solver, plus one for the IPP heuristic when enabled).
+	 * 
+	 * @return the number of solvers per sub problem or null for the default
+	 */
+	public Integer getConsolidationWorkers() {
+		return consolidationWorkers;
+	}
+
+	public void setConsolidationWorkers(Integer consolidationWorkers) {
+		this.consolidationWorkers = consolidationWorkers;
+	}
+	
+	/**
+	 * Returns whether the option consolidator optimizes with a Large Neighborhood Search, repeatedly re-optimizing
+	 * parts of the best plan found so far, instead of a complete search. Default is false.
+	 * 
+	 * @return true if the Large Neighborhood Search is enabled
+	 */
+	public boolean isConsolidationLns() {
+		return consolidationLns;
+	}
+
+	public void setConsolidationLns(boolean consolidationLns) {
+		this.consolidationLns = consolidationLns;
+	}
+	
+	/**
+	 * Returns the number of threads used to send requests to EASCs and ERDSs in parallel. Default is 0, meaning
+	 * services are called one after another.
+	 * 
+	 * @return the number of threads for parallel service requests or 0 to disable parallel requests
+	 */
+	public int getServiceRequestThreads() {
+		return serviceRequestThreads;
+	}
+
+	public void setServiceRequestThreads(int serviceRequestThreads) {
+		this.serviceRequestThreads = serviceRequestThreads;
+	}
+
+	/**
+	 * Returns the maximum time to wait for all EASCs to answer a batch of parallel requests. EASCs that do not answer
+	 * in time are skipped for the current loop. Only used when {@code serviceRequestThreads} is greater than 0.
+	 * Default is {@value #DEFAULT_EASC_REQUEST_TIMEOUT}.
+	 * 
+	 * @return the deadline for parallel EASC requests, in seconds
+	 */
+	public int getEascRequestTimeout() {
+		return eascRequestTimeout;
+	}
+
+	public void setEascRequestTimeout(int eascRequestTimeout) {
+		this.eascRequestTimeout = eascRequestTimeout;
+	}
+	
+	/**
+	 * Returns the maximum time to wait for each ERDS to return its forecast when forecasts are collected in parallel,
+	 * counted from when its request starts running. The power loop fails if any ERDS does not answer in time. Only
+	 * used when {@code serviceRequestThreads} is greater than 0. Default is {@value #DEFAULT_ERDS_REQUEST_TIMEOUT}.
+	 * 
+	 * @return the timeout for parallel ERDS requests, in seconds
+	 */
+	public int getErdsRequestTimeout() {
+		return erdsRequestTimeout;
+	}
+
+	public void setErdsRequestTimeout(int erdsRequestTimeout) {
+		this.erdsRequestTimeout = erdsRequestTimeout;
+	}
+	
+	/**
+	 * Returns the maximum number of HTTP connections kept open towards EASCs, ERDSs and Energis. Default is
+	 * {@value #DEFAULT_HTTP_MAX_CONNECTIONS}.
+	 * 
+	 * @return the size of the HTTP connection pool
+	 */
+	public int getHttpMaxConnections() {
+		return httpMaxConnections;
+	}
+
+	public void setHttpMaxConnections(int httpMaxConnections) {
+		this.httpMaxConnections = httpMaxConnections;
+	}
+
+	/**
+	 * Returns the maximum number of HTTP connections kept open towards a single host. Default is
+	 * {@value #DEFAULT_HTTP_MAX_CONNECTIONS_PER_HOST}.
+	 * 
+	 * @return the per-host limit of the HTTP connection pool
+	 */
+	public int getHttpMaxConnectionsPerHost() {
+		return httpMaxConnectionsPerHost;
+	}
+
+	public void setHttpMaxConnectionsPerHost(int httpMaxConnectionsPerHost) {
+		this.httpMaxConnectionsPerHost = httpMaxConnectionsPerHost;
+	}
+
+	/**
+	 * Returns the timeout for opening an HTTP connection, or for getting one from the pool when all connections are
+	 * busy. Default is {@value #DEFAULT_HTTP_CONNECT_TIMEOUT}.
+	 * 
+	 * @return the connect timeout in seconds or 0 for no timeout
+	 */
+	public int getHttpConnectTimeout() {
+		return httpConnectTimeout;
+	}
+
+	public void setHttpConnectTimeout(int httpConnectTimeout) {
+		this.httpConnectTimeout = httpConnectTimeout;
+	}
+
+	/**
+	 * Returns the timeout for reading data from an HTTP connection. Default is {@value #DEFAULT_HTTP_READ_TIMEOUT}.
+	 * 
+	 * @return the read timeout in seconds or 0 for no timeout
+	 */
+	public int getHttpReadTimeout() {
+		return httpReadTimeout;
+	}
+
+	public void setHttpReadTimeout(int httpReadTimeout) {
+		this.httpReadTimeout = httpReadTimeout;
+	}
+
+	/**
+	 * Returns the time after which an unused HTTP connection is closed and removed from the pool. Default is
+	 * {@value #DEFAULT_HTTP_IDLE_TIMEOUT}.
+	 * 
+	 * @return the idle timeout in seconds
+	 */
+	public int getHttpIdleTimeout() {
+		return httpIdleTimeout;
+	}
+
+	public void setHttpIdleTimeout(int httpIdleTimeout) {
+		this.httpIdleTimeout = httpIdleTimeout;
+	}
 
 	/**
 	 * Returns whether the escalation manager is enabled. Default is false. When the escalation manager is enabled, any
@@ -182,6 +374,64 @@ public class TechnicalConfiguration {
 	public void setEscalationWarningThreshold(Integer escalationWarningThreshold) {
 		this.escalationWarningThreshold = escalationWarningThreshold;
 	}
+	
+	/**
+	 * Returns the number of threads used to determine the status of the data centers in parallel when the escalation
+	 * manager is enabled. Default is 0, meaning data centers are evaluated one after another.
+	 * 
+	 * @return the number of threads for the status evaluation or 0 to evaluate data centers sequentially
+	 */
+	public int getEscalationThreads() {
+		return escalationThreads;
+	}
+
+	public void setEscalationThreads(int escalationThreads) {
+		this.escalationThreads = escalationThreads;
+	}
+	
+	/**
+	 * Returns the number of threads used to calculate the power plans of the data centers in parallel. Default is 0,
+	 * meaning power plans are calculated for one data center after another.
+	 * 
+	 * @return the number of threads for power planning or 0 to plan data centers sequentially
+	 */
+	public int getPowerPlanningThreads() {
+		return powerPlanningThreads;
+	}
+
+	public void setPowerPlanningThreads(int powerPlanningThreads) {
+		this.powerPlanningThreads = powerPlanningThreads;
+	}
+	
+	/**
+	 * Returns the maximum time to calculate the power plans of all data centers when they are planned in parallel. The
+	 * control loop fails if any data center is not done in time. Only used when {@code powerPlanningThreads} is greater
+	 * than 0. Default is {@value #DEFAULT_POWER_PLANNING_TIMEOUT}.
+	 * 
+	 * @return the timeout for parallel power planning, in seconds
+	 */
+	public int getPowerPlanningTimeout() {
+		return powerPlanningTimeout;
+	}
+
+	public void setPowerPlanningTimeout(int powerPlanningTimeout) {
+		this.powerPlanningTimeout = powerPlanningTimeout;
+	}
+	
+	/**
+	 * Tells whether monitoring, power and control loops run on separate threads. When enabled, a control loop starts
+	 * as soon as the monitoring and power loops of the same run are complete, while the next monitoring loop can start
+	 * before the control loop ends. When disabled (the default), each run executes all loops one after another.
+	 * 
+	 * @return {@code true} if loops are pipelined, {@code false} if they run in series
+	 */
+	public boolean isPipelinedLoops() {
+		return pipelinedLoops;
+	}
+
+	public void setPipelinedLoops(boolean pipelinedLoops) {
+		this.pipelinedLoops = pipelinedLoops;
+	}
 
 	/**
      * Returns the URL of the historical database server.
@@ -208,6 +458,119 @@ public class TechnicalConfiguration {
 	public void setHdbEnabled(boolean hdbEnabled) {
 		this.hdbEnabled = hdbEnabled;
 	}
+
+	/**
+	 * Returns the maximum number of data points sent to the historical database in a single request. The metrics
+	 * produced by a loop run are uploaded together, split into as many requests as needed to stay within this limit.
+	 * Default is {@value #DEFAULT_HDB_MAX_DATA_POINTS_PER_REQUEST}.
+	 * 
+	 * @return the maximum number of data points per request
+	 */
+	public int getHdbMaxDataPointsPerRequest() {
+		return hdbMaxDataPointsPerRequest;
+	}
+
+	public void setHdbMaxDataPointsPerRequest(int hdbMaxDataPointsPerRequest) {
+		this.hdbMaxDataPointsPerRequest = hdbMaxDataPointsPerRequest;
+	}
+
+	/**
+	 * Returns whether metric uploads to the historical database are gzip-compressed. Default is false.
+	 * 
+	 * @return true if uploads are compressed, false otherwise
+	 */
+	public boolean isHdbCompressionEnabled() {
+		return hdbCompressionEnabled;
+	}
+
+	public void setHdbCompressionEnabled(boolean hdbCompressionEnabled) {
+		this.hdbCompressionEnabled = hdbCompressionEnabled;
+	}
+
+	/**
+	 * Returns the maximum number of uploads waiting to be sent to the historical database. Uploads are done in the
+	 * background, so that optimization loops are not delayed by a slow database. Default is
+	 * {@value #DEFAULT_HDB_QUEUE_CAPACITY}.
+	 * 
+	 * @return the capacity of the upload queue
+	 */
+	public int getHdbQueueCapacity() {
+		return hdbQueueCapacity;
+	}
+
+	public void setHdbQueueCapacity(int hdbQueueCapacity) {
+		this.hdbQueueCapacity = hdbQueueCapacity;
+	}
+
+	/**
+	 * Returns what to do when the upload queue is full: {@code BLOCK} makes the loop wait for room in the queue, while
+	 * {@code DROP_OLDEST} discards the oldest queued upload. Default is {@value #DEFAULT_HDB_QUEUE_OVERFLOW_POLICY}.
+	 * 
+	 * @return the overflow policy of the upload queue
+	 */
+	public String getHdbQueueOverflowPolicy() {
+		return hdbQueueOverflowPolicy;
+	}
+
+	public void setHdbQueueOverflowPolicy(String hdbQueueOverflowPolicy) {
+		this.hdbQueueOverflowPolicy = hdbQueueOverflowPolicy;
+	}
+
+	/**
+	 * Returns the directory where metrics that could not be uploaded are saved, to upload them again when the
+	 * historical database is back. If {@code null} (the default) such metrics are lost.
+	 * 
+	 * @return the path of the spill directory
+	 */
+	public String getHdbSpillDirectory() {
+		return hdbSpillDirectory;
+	}
+
+	public void setHdbSpillDirectory(String hdbSpillDirectory) {
+		this.hdbSpillDirectory = hdbSpillDirectory;
+	}
+
+	/**
+	 * Returns the maximum number of upload requests kept in the spill directory. When the limit is reached, the oldest
+	 * requests are deleted. Default is {@value #DEFAULT_HDB_SPILL_MAX_FILES}.
+	 * 
+	 * @return the maximum number of spilled requests
+	 */
+	public int getHdbSpillMaxFiles() {
+		return hdbSpillMaxFiles;
+	}
+
+	public void setHdbSpillMaxFiles(int hdbSpillMaxFiles) {
+		this.hdbSpillMaxFiles = hdbSpillMaxFiles;
+	}
+
+	/**
+	 * Returns the directory where the federation status (forecasts, plans and actual metrics of the day) is saved, so
+	 * that it can be restored after a restart. If {@code null} (the default) the status is kept in memory only.
+	 * 
+	 * @return the path of the status journal directory
+	 */
+	public String getStatusJournalDirectory() {
+		return statusJournalDirectory;
+	}
+
+	public void setStatusJournalDirectory(String statusJournalDirectory) {
+		this.statusJournalDirectory = statusJournalDirectory;
+	}
+
+	/**
+	 * Returns the number of status updates recorded in the journal before a full snapshot of the status is saved and
+	 * the journal is cleared. Default is {@value #DEFAULT_STATUS_SNAPSHOT_INTERVAL}.
+	 * 
+	 * @return the number of journal records between snapshots
+	 */
+	public int getStatusSnapshotInterval() {
+		return statusSnapshotInterval;
+	}
+
+	public void setStatusSnapshotInterval(int statusSnapshotInterval) {
+		this.statusSnapshotInterval = statusSnapshotInterval;
+	}
 	
 	/**
 	 * Returns the company code used to store data into the historical database.
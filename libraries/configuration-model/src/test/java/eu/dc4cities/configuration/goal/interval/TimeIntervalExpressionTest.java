@@ -18,11 +18,21 @@ package eu.dc4cities.configuration.goal.interval;
 
 import eu.dc4cities.configuration.goal.Base;
 import eu.dc4cities.configuration.goal.TimeFrame;
+import eu.dc4cities.controlsystem.model.TimeSlotBasedEntity;
 import org.apache.commons.lang3.time.DateUtils;
+import org.joda.time.DateTime;
 import org.joda.time.LocalDate;
+import org.jscience.physics.amount.Amount;
 import org.junit.Test;
 
+import javax.measure.unit.NonSI;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.Assert.*;
 
@@ -121,6 +131,108 @@ public class TimeIntervalExpressionTest extends Base {
 				classUnderTest.getEndDate(currentDate));
 	}
 
+	/**
+	 * Expressions are shared between equal TimeFrames, and not affected by
+	 * later changes to the TimeFrame
+	 * 
+	 * @throws TimeIntervalExpressionException
+	 */
+	@Test
+	public void testTimeFrame_cached() throws TimeIntervalExpressionException {
+		TimeFrame timeFrame = createTimeFrame("PT3H", null, new Date(0));
+
+		TimeIntervalExpression classUnderTest = TimeIntervalExpressionFactory.create(timeFrame);
+
+		assertSame(classUnderTest, TimeIntervalExpressionFactory.create(createTimeFrame("PT3H", null, new Date(0))));
+
+		timeFrame.getStartDate().setTime(1000 * 60 * 60 * 24);
+		assertEquals(new Date(0), classUnderTest.getStartDate(null));
+		assertNotSame(classUnderTest, TimeIntervalExpressionFactory.create(timeFrame));
+	}
+
+	/**
+	 * Slot bitmaps match the evaluation of each slot start
+	 * 
+	 * @throws TimeIntervalExpressionException
+	 */
+	@Test
+	public void testTimeFrame_activeTimeSlots() throws TimeIntervalExpressionException {
+		TimeSlotBasedEntity range = new TimeSlotBasedEntity();
+		range.setDateFrom(new DateTime(0));
+		range.setDateTo(new DateTime(0).plusHours(6));
+		range.setTimeSlotDuration(Amount.valueOf(60, NonSI.MINUTE));
+
+		BitSet expected = new BitSet();
+		expected.set(0, 3);
+		assertEquals(expected, TimeIntervalExpressionFactory.create(
+				createTimeFrame("PT3H", null, new Date(0))).activeTimeSlots(range));
+
+		TimeIntervalExpression recurrent = TimeIntervalExpressionFactory.create(
+				createTimeFrame("PT1H", "0 0 * * * ?", null));
+		BitSet active = recurrent.activeTimeSlots(range);
+		for (int i = 0; i < 6; i++) {
+			assertEquals(recurrent.isActive(new Date(i * 1000L * 60 * 60)), active.get(i));
+		}
+	}
+
+	/**
+	 * The least recently used expressions are evicted first when the cache is
+	 * full
+	 * 
+	 * @throws TimeIntervalExpressionException
+	 */
+	@Test
+	public void testTimeFrame_cacheEviction() throws TimeIntervalExpressionException {
+		Date startDate = new Date(1000L * 60 * 60 * 24 * 365);
+		TimeIntervalExpression used = TimeIntervalExpressionFactory.create(
+				createTimeFrame("PT1H", null, startDate));
+		TimeIntervalExpression unused = TimeIntervalExpressionFactory.create(
+				createTimeFrame("PT2H", null, startDate));
+		for (int i = 1; i <= TimeIntervalExpressionFactory.MAX_CACHED_EXPRESSIONS; i++) {
+			TimeIntervalExpressionFactory.create(createTimeFrame("PT3H", null,
+					new Date(startDate.getTime() + i * 1000L)));
+			if (i % 100 == 0) {
+				assertSame(used, TimeIntervalExpressionFactory.create(
+						createTimeFrame("PT1H", null, startDate)));
+			}
+		}
+		assertSame(used, TimeIntervalExpressionFactory.create(
+				createTimeFrame("PT1H", null, startDate)));
+		assertNotSame(unused, TimeIntervalExpressionFactory.create(
+				createTimeFrame("PT2H", null, startDate)));
+	}
+
+	/**
+	 * A cached recurrent expression gives the same results when evaluated by
+	 * several threads at once
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testTimeFrame_concurrent() throws Exception {
+		TimeSlotBasedEntity range = new TimeSlotBasedEntity();
+		range.setDateFrom(new DateTime(2015, 9, 1, 0, 0));
+		range.setDateTo(new DateTime(2015, 9, 15, 0, 0));
+		range.setTimeSlotDuration(Amount.valueOf(15, NonSI.MINUTE));
+		TimeIntervalExpression recurrent = TimeIntervalExpressionFactory.create(
+				createTimeFrame("PT4H", "0 0 8 ? * MON-FRI", null));
+		BitSet expected = recurrent.activeTimeSlots(range);
+		assertFalse(expected.isEmpty());
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<BitSet>> results = new ArrayList<>();
+			for (int i = 0; i < 64; i++) {
+				results.add(executor.submit(() -> recurrent.activeTimeSlots(range)));
+			}
+			for (Future<BitSet> result : results) {
+				assertEquals(expected, result.get());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
 	private static LocalDate getNextDay(LocalDate currentDate, int day) {
 		return currentDate.isBefore(currentDate.dayOfWeek().setCopy(day)) ? currentDate
 				.dayOfWeek().setCopy(day) : currentDate.plusWeeks(1)
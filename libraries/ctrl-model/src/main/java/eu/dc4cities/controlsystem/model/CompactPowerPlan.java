@@ -0,0 +1,215 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.dc4cities.controlsystem.model;
+
+import eu.dc4cities.controlsystem.model.util.TimeRangeUtils;
+import org.joda.time.DateTime;
+import org.jscience.physics.amount.Amount;
+
+import javax.measure.quantity.Power;
+import javax.measure.unit.SI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A power plan storing the power of each time slot as a plain number of watts, indexed by time slot number.
+ * <p>
+ * This is the working representation for calculations on power plans: unlike {@link PowerPlan}, operations on it do
+ * not allocate an {@link Amount} per time slot. Convert from and to {@link PowerPlan} only where plans are exchanged
+ * with other modules or serialized to JSON.
+ */
+public class CompactPowerPlan extends TimeSlotBasedEntity {
+
+	private double[] watts;
+
+	/**
+	 * Creates a new power plan with the given time range and zero power for all time slots.
+	 *
+	 * @param timeRange the time range to initialize the plan with
+	 */
+	public CompactPowerPlan(TimeSlotBasedEntity timeRange) {
+		super(timeRange);
+		watts = new double[getNumOfTimeSlots()];
+	}
+
+	/**
+	 * Creates a new power plan as a copy of the given one.
+	 *
+	 * @param source the power plan to copy
+	 */
+	public CompactPowerPlan(CompactPowerPlan source) {
+		super(source);
+		watts = source.watts.clone();
+	}
+
+	private CompactPowerPlan(TimeSlotBasedEntity timeRange, double[] watts) {
+		super(timeRange);
+		this.watts = watts;
+	}
+
+	/**
+	 * Creates a compact copy of the given power plan. Power quotas without a power value are considered zero.
+	 *
+	 * @param source the power plan to convert
+	 * @return the compact power plan
+	 */
+	public static CompactPowerPlan valueOf(PowerPlan source) {
+		CompactPowerPlan plan = new CompactPowerPlan(source);
+		for (TimeSlotPower quota : source.getPowerQuotas()) {
+			Amount<Power> power = quota.getPower();
+			if (power != null) {
+				plan.watts[quota.getTimeSlot()] = power.doubleValue(SI.WATT);
+			}
+		}
+		return plan;
+	}
+
+	/**
+	 * Converts this plan to a {@link PowerPlan} expressed in watts. Integer values are converted to exact amounts, as
+	 * done by {@link TimeSlotPower#scalePower(double)}.
+	 *
+	 * @return the power plan
+	 */
+	public PowerPlan toPowerPlan() {
+		PowerPlan plan = new PowerPlan();
+		plan.copyIntervalFrom(this);
+		List<TimeSlotPower> powerQuotas = new ArrayList<>(watts.length);
+		for (int i = 0; i < watts.length; i++) {
+			powerQuotas.add(new TimeSlotPower(i, toAmount(watts[i])));
+		}
+		plan.setPowerQuotas(powerQuotas);
+		return plan;
+	}
+
+	private static Amount<Power> toAmount(double value) {
+		long longValue = (long) value;
+		if (longValue == value) {
+			return Amount.valueOf(longValue, SI.WATT);
+		} else {
+			return Amount.valueOf(value, SI.WATT);
+		}
+	}
+
+	/**
+	 * Returns the number of time slots in the plan, without recalculating it from the time range.
+	 *
+	 * @return the number of time slots
+	 */
+	public int size() {
+		return watts.length;
+	}
+
+	/**
+	 * Returns the power of the given time slot.
+	 *
+	 * @param timeSlot the time slot number
+	 * @return the power in watts
+	 */
+	public double getPower(int timeSlot) {
+		return watts[timeSlot];
+	}
+
+	/**
+	 * Sets the power of the given time slot.
+	 *
+	 * @param timeSlot the time slot number
+	 * @param power the power in watts
+	 */
+	public void setPower(int timeSlot, double power) {
+		watts[timeSlot] = power;
+	}
+
+	/**
+	 * Adds the given power to all time slots in a range.
+	 *
+	 * @param fromTimeSlot the first time slot of the range, inclusive
+	 * @param toTimeSlot the last time slot of the range, exclusive
+	 * @param power the power to add, in watts
+	 */
+	public void addPower(int fromTimeSlot, int toTimeSlot, double power) {
+		for (int ts = fromTimeSlot; ts < toTimeSlot; ts++) {
+			watts[ts] += power;
+		}
+	}
+
+	/**
+	 * Caps the power of all time slots to the given maximum.
+	 *
+	 * @param maxPower the maximum power, in watts
+	 */
+	public void limitPower(double maxPower) {
+		for (int i = 0; i < watts.length; i++) {
+			if (watts[i] > maxPower) {
+				watts[i] = maxPower;
+			}
+		}
+	}
+
+	/**
+	 * Multiplies the power amounts in the plan by the given factor. Values are rounded to the nearest integer value,
+	 * as in {@link PowerPlan#scalePowerAmounts(double)}.
+	 *
+	 * @param factor the scale factor
+	 */
+	public void scalePower(double factor) {
+		for (int i = 0; i < watts.length; i++) {
+			watts[i] = Math.round(watts[i] * factor);
+		}
+	}
+
+	/**
+	 * Appends the given plan at the end of this plan. Fails if the start of the plan to append doesn't match the end of
+	 * this plan.
+	 *
+	 * @param otherPlan the plan to append
+	 */
+	public void append(CompactPowerPlan otherPlan) {
+		if (!otherPlan.getTimeSlotDuration().equals(getTimeSlotDuration())) {
+			throw new IllegalArgumentException(
+					"The time slot duration of the plan to append doesn't match the one of this plan");
+		} else if (!otherPlan.getDateFrom().equals(getDateTo())) {
+			throw new IllegalArgumentException("The plan to append doesn't start at the end of this plan");
+		}
+		setDateTo(otherPlan.getDateTo());
+		double[] merged = Arrays.copyOf(watts, watts.length + otherPlan.watts.length);
+		System.arraycopy(otherPlan.watts, 0, merged, watts.length, otherPlan.watts.length);
+		watts = merged;
+	}
+
+	/**
+	 * Returns a copy of a range of this power plan starting from the time slot at the given date.
+	 *
+	 * @param rangeFrom the start of the time slot
+	 * @return the range copy of this power plan
+	 */
+	public CompactPowerPlan copyOfRange(DateTime rangeFrom) {
+		if (rangeFrom.isAfter(dateTo)) {
+			throw new IllegalArgumentException("rangeFrom is after the end of this power plan");
+		}
+		int startTimeSlot = TimeRangeUtils.getTimeSlotNumber(dateFrom, rangeFrom, timeSlotDuration);
+		CompactPowerPlan copy = new CompactPowerPlan(this, Arrays.copyOfRange(watts, startTimeSlot, watts.length));
+		copy.setDateFrom(rangeFrom);
+		return copy;
+	}
+
+	@Override
+	public String toString() {
+		return toPowerPlan().toString();
+	}
+
+}
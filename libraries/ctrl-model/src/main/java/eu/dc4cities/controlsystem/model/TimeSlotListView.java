@@ -0,0 +1,100 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.dc4cities.controlsystem.model;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.UnaryOperator;
+
+/**
+ * A read-only view of a range of a list of time slot values, with time slots numbered from zero at the start of the
+ * range.
+ * <p>
+ * The view shares the items of the source list: an item is returned as is when its time slot number already matches
+ * its position in the view, otherwise a renumbered copy is made the first time the item is accessed and kept for later
+ * accesses. Creating a view is thus constant time and items that are never read are never copied. The source list
+ * must not be modified while the view is in use, and items returned by the view must not be modified either; make a
+ * copy of the range when changes are needed.
+ *
+ * @param <T> the type of time slot values
+ */
+public final class TimeSlotListView<T extends TimeSlotPower> extends AbstractList<T> implements RandomAccess {
+
+	private final List<T> source;
+	private final int fromIndex;
+	private final int size;
+	private final UnaryOperator<T> copier;
+	private final AtomicReferenceArray<T> renumbered;
+
+	private TimeSlotListView(List<T> source, int fromIndex, int toIndex, UnaryOperator<T> copier) {
+		this.source = source;
+		this.fromIndex = fromIndex;
+		this.size = toIndex - fromIndex;
+		this.copier = copier;
+		this.renumbered = new AtomicReferenceArray<>(size);
+	}
+
+	/**
+	 * Returns a view of the given range of a list of time slot values. Views of views share the original source list.
+	 *
+	 * @param source the list to create the view for
+	 * @param fromIndex the index of the first item in the range, inclusive
+	 * @param toIndex the index of the last item in the range, exclusive
+	 * @param copier the function creating a copy of an item, used to renumber items
+	 * @return the view of the range
+	 */
+	public static <T extends TimeSlotPower> List<T> of(List<T> source, int fromIndex, int toIndex,
+			UnaryOperator<T> copier) {
+		if (fromIndex < 0 || toIndex > source.size() || fromIndex > toIndex) {
+			throw new IndexOutOfBoundsException("Invalid range [" + fromIndex + ", " + toIndex + ") for a list of "
+					+ source.size() + " items");
+		}
+		if (source instanceof TimeSlotListView) {
+			TimeSlotListView<T> view = (TimeSlotListView<T>) source;
+			return new TimeSlotListView<>(view.source, view.fromIndex + fromIndex, view.fromIndex + toIndex, copier);
+		}
+		return new TimeSlotListView<>(source, fromIndex, toIndex, copier);
+	}
+
+	@Override
+	public T get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		T item = source.get(fromIndex + index);
+		if (item.getTimeSlot() == index) {
+			return item;
+		}
+		T copy = renumbered.get(index);
+		if (copy == null) {
+			copy = copier.apply(item);
+			copy.setTimeSlot(index);
+			if (!renumbered.compareAndSet(index, null, copy)) {
+				copy = renumbered.get(index);
+			}
+		}
+		return copy;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+}
@@ -20,6 +20,7 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import org.joda.time.DateTime;
 import org.jscience.physics.amount.Amount;
 
 import java.util.ArrayList;
@@ -136,4 +137,30 @@ public class ActivitySpecification {
 		this.serviceLevelObjectives = serviceLevelObjectives;
 	}
 	
+	/**
+	 * Returns a read-only view of the specification for the given range. The view only includes the service level
+	 * objectives that overlap the range, everything else is shared with this specification.
+	 * 
+	 * @param rangeFrom the start date of the range
+	 * @param rangeTo the end date of the range (exclusive)
+	 * @return the view of the specification for the given range
+	 */
+	public ActivitySpecification rangeView(DateTime rangeFrom, DateTime rangeTo) {
+		ActivitySpecification view = new ActivitySpecification(activityName);
+		view.precedences = precedences;
+		view.relocability = relocability;
+		view.migrationPerformanceCost = migrationPerformanceCost;
+		view.dataCenters = dataCenters;
+		view.forbiddenStates = forbiddenStates;
+		if (serviceLevelObjectives != null) {
+			view.serviceLevelObjectives = new ArrayList<>(serviceLevelObjectives.size());
+			for (ServiceLevelObjective objective : serviceLevelObjectives) {
+				if (objective.getDateFrom().isBefore(rangeTo) && objective.getDateTo().isAfter(rangeFrom)) {
+					view.serviceLevelObjectives.add(objective);
+				}
+			}
+		}
+		return view;
+	}
+	
 }
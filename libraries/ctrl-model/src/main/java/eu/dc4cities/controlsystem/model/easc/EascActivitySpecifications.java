@@ -19,7 +19,9 @@ package eu.dc4cities.controlsystem.model.easc;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import eu.dc4cities.controlsystem.model.json.JsonUtils;
+import org.joda.time.DateTime;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -57,6 +59,42 @@ public class EascActivitySpecifications {
 		this.activitySpecifications = activitySpecifications;
 	}
 	
+	/**
+	 * Returns a read-only view of the specifications for the given range, as in
+	 * {@link ActivitySpecification#rangeView(DateTime, DateTime)}.
+	 * 
+	 * @param rangeFrom the start date of the range
+	 * @param rangeTo the end date of the range (exclusive)
+	 * @return the view of the specifications for the given range
+	 */
+	public EascActivitySpecifications rangeView(DateTime rangeFrom, DateTime rangeTo) {
+		EascActivitySpecifications view = new EascActivitySpecifications(eascName);
+		if (activitySpecifications != null) {
+			view.activitySpecifications = new ArrayList<>(activitySpecifications.size());
+			for (ActivitySpecification activitySpecification : activitySpecifications) {
+				view.activitySpecifications.add(activitySpecification.rangeView(rangeFrom, rangeTo));
+			}
+		}
+		return view;
+	}
+	
+	/**
+	 * Returns read-only views of a range of the specifications of the given EASCs.
+	 * 
+	 * @param rangeFrom the start date of the range
+	 * @param rangeTo the end date of the range (exclusive)
+	 * @return a list with views of the specifications for the given range
+	 * @see #rangeView(DateTime, DateTime)
+	 */
+	public static List<EascActivitySpecifications> rangeView(List<EascActivitySpecifications> eascSpecifications,
+			DateTime rangeFrom, DateTime rangeTo) {
+		List<EascActivitySpecifications> views = new ArrayList<>(eascSpecifications.size());
+		for (EascActivitySpecifications specifications : eascSpecifications) {
+			views.add(specifications.rangeView(rangeFrom, rangeTo));
+		}
+		return views;
+	}
+	
 	@Override
 	public String toString() {
 		return JsonUtils.toString(this);
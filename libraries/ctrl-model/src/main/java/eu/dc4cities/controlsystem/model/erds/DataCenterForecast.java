@@ -99,4 +99,46 @@ public class DataCenterForecast extends TimeSlotBasedEntity {
 		return copy;
 	}
 	
+	/**
+	 * Returns a read-only view of a range of all forecasts, from the given start date to the given (exclusive) end
+	 * date. Time slot forecasts are shared with this forecast, as in {@link ErdsForecast#rangeView(DateTime, DateTime)}.
+	 * 
+	 * @param rangeFrom the start date of the range (must be aligned to a time slot)
+	 * @param rangeTo the end date of the range (exclusive; must be aligned to a time slot)
+	 * @return the view of forecasts for the given range
+	 */
+	public DataCenterForecast rangeView(DateTime rangeFrom, DateTime rangeTo) {
+		// Delegate range consistency checks to ErdsForecast.rangeView()
+		DataCenterForecast view = new DataCenterForecast(dataCenterName);
+		view.copyIntervalFrom(this);
+		if (view.dateFrom != null) {
+			view.dateFrom = rangeFrom;
+		}
+		if (view.dateTo != null) {
+			view.dateTo = rangeTo;
+		}
+		view.erdsForecasts = new ArrayList<>(erdsForecasts.size());
+		for (ErdsForecast erdsForecast : erdsForecasts) {
+			view.erdsForecasts.add(erdsForecast.rangeView(rangeFrom, rangeTo));
+		}
+		return view;
+	}
+	
+	/**
+	 * Returns read-only views of a forecast range from the given list of data centers.
+	 * 
+	 * @param rangeFrom the start date of the range (must be aligned to a time slot)
+	 * @param rangeTo the end date of the range (exclusive; must be aligned to a time slot)
+	 * @return a list with views of the forecasts for the given range
+	 * @see #rangeView(DateTime, DateTime)
+	 */
+	public static List<DataCenterForecast> rangeView(List<DataCenterForecast> dataCenterForecasts, DateTime rangeFrom,
+			DateTime rangeTo) {
+		List<DataCenterForecast> views = new ArrayList<>(dataCenterForecasts.size());
+		for (DataCenterForecast forecast : dataCenterForecasts) {
+			views.add(forecast.rangeView(rangeFrom, rangeTo));
+		}
+		return views;
+	}
+	
 }
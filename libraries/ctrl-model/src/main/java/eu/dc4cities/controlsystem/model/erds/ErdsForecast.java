@@ -20,6 +20,7 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import eu.dc4cities.controlsystem.model.TimeSlotBasedEntity;
+import eu.dc4cities.controlsystem.model.TimeSlotListView;
 import eu.dc4cities.controlsystem.model.util.TimeRangeUtils;
 import org.joda.time.DateTime;
 
@@ -94,5 +95,35 @@ public class ErdsForecast extends TimeSlotBasedEntity {
 		}
 		return copy;
 	}
+	
+	/**
+	 * Returns a read-only view of a range of this forecast, from the given start date to the given (exclusive) end
+	 * date. Unlike {@link #copyOfRange(DateTime, DateTime)}, the time slot forecasts are shared with this forecast and
+	 * only renumbered when accessed (see {@link TimeSlotListView}). Use {@code copyOfRange} if the forecast needs to
+	 * be modified.
+	 * 
+	 * @param rangeFrom the start date of the range (must be aligned to a time slot)
+	 * @param rangeTo the end date of the range (exclusive; must be aligned to a time slot)
+	 * @return the view of this forecast for the given range
+	 */
+	public ErdsForecast rangeView(DateTime rangeFrom, DateTime rangeTo) {
+		if (rangeTo.isBefore(rangeFrom)) {
+			throw new IllegalArgumentException("rangeTo is before rangeFrom");
+		} else if (rangeFrom.isBefore(dateFrom)) {
+			throw new IllegalArgumentException("rangeFrom is before the start of this forecast");
+		} else if (rangeTo.isAfter(dateTo)) {
+			throw new IllegalArgumentException("rangeTo is after the end of this forecast");
+		}
+		int durationMinutes = (int) timeSlotDuration.longValue(NonSI.MINUTE);
+		int startTimeSlot = TimeRangeUtils.getTimeSlotNumber(dateFrom, rangeFrom, durationMinutes);
+		int endTimeSlot = TimeRangeUtils.getTimeSlotNumber(dateFrom, rangeTo, durationMinutes);
+		ErdsForecast view = new ErdsForecast(erdsName);
+		view.copyIntervalFrom(this);
+		view.dateFrom = rangeFrom;
+		view.dateTo = rangeTo;
+		view.timeSlotForecasts = 
+				TimeSlotListView.of(timeSlotForecasts, startTimeSlot, endTimeSlot, TimeSlotErdsForecast::new);
+		return view;
+	}
     
 }
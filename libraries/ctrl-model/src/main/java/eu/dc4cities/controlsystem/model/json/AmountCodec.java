@@ -0,0 +1,237 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.dc4cities.controlsystem.model.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.jscience.physics.amount.Amount;
+
+import javax.measure.unit.Unit;
+import java.io.IOException;
+
+/**
+ * Fast paths for converting amounts from and to their JSON representation (e.g. "1500 W" or "0.25 kW·h").
+ * <p>
+ * Parsing and formatting units through JScience is expensive compared to the number handling, and a handful of units
+ * is used over and over in forecasts and plans. This class keeps parsed units and their labels in two small
+ * direct-mapped caches, so that the unit text is only handled by JScience the first time it is seen. The output and
+ * the parsed amounts are the same as with {@link Amount#valueOf(CharSequence)} and {@link Amount#toString()}; inputs
+ * that don't use the plain "number unit" format are left to JScience by returning {@code null}.
+ * <p>
+ * The caches are bounded and lossy: a collision simply replaces the previous entry. Entries are immutable, so the
+ * caches can be shared between threads without locking.
+ */
+final class AmountCodec {
+
+	private static final int CACHE_SIZE = 256;
+	private static final int MAX_LONG_DIGITS = 18;
+
+	private static final ParsedUnit[] parsedUnits = new ParsedUnit[CACHE_SIZE];
+	private static final FormattedUnit[] formattedUnits = new FormattedUnit[CACHE_SIZE];
+	private static final ThreadLocal<char[]> buffers = new ThreadLocal<char[]>() {
+		@Override
+		protected char[] initialValue() {
+			return new char[64];
+		}
+	};
+
+	private AmountCodec() {}
+
+	/**
+	 * Parses an amount from a range of characters, without copying the number part.
+	 *
+	 * @param text the buffer holding the text
+	 * @param offset the offset of the text in the buffer
+	 * @param length the length of the text
+	 * @return the parsed amount, or {@code null} if the text must be parsed by JScience
+	 */
+	@SuppressWarnings("rawtypes")
+	static Amount parse(char[] text, int offset, int length) {
+		int end = offset + length;
+		int pos = offset;
+		boolean negative = pos < end && text[pos] == '-';
+		if (negative) {
+			pos++;
+		}
+		int digitsStart = pos;
+		long value = 0;
+		while (pos < end && text[pos] >= '0' && text[pos] <= '9') {
+			value = value * 10 + (text[pos] - '0');
+			pos++;
+		}
+		int numOfDigits = pos - digitsStart;
+		if (numOfDigits == 0 || numOfDigits > MAX_LONG_DIGITS) {
+			return null;
+		}
+		boolean decimal = pos < end && text[pos] == '.';
+		if (decimal) {
+			pos++;
+			int fractionStart = pos;
+			while (pos < end && text[pos] >= '0' && text[pos] <= '9') {
+				pos++;
+			}
+			if (pos == fractionStart) {
+				return null;
+			}
+		}
+		// Exponents, errors and amounts without a unit are left to JScience
+		if (pos >= end - 1 || text[pos] != ' ') {
+			return null;
+		}
+		int numberEnd = pos;
+		Unit<?> unit = parseUnit(text, pos + 1, end - pos - 1);
+		if (unit == null) {
+			return null;
+		} else if (decimal) {
+			return Amount.valueOf(Double.parseDouble(new String(text, offset, numberEnd - offset)), unit);
+		} else {
+			return Amount.valueOf(negative ? -value : value, unit);
+		}
+	}
+
+	private static Unit<?> parseUnit(char[] text, int offset, int length) {
+		int hash = 0;
+		for (int i = offset; i < offset + length; i++) {
+			hash = 31 * hash + text[i];
+		}
+		int index = hash & (CACHE_SIZE - 1);
+		ParsedUnit cached = parsedUnits[index];
+		if (cached != null && cached.matches(text, offset, length)) {
+			return cached.unit;
+		}
+		String label = new String(text, offset, length);
+		Unit<?> unit;
+		try {
+			unit = Unit.valueOf(label);
+		} catch (IllegalArgumentException e) {
+			// Let JScience report the error on the whole text
+			return null;
+		}
+		parsedUnits[index] = new ParsedUnit(label, unit);
+		return unit;
+	}
+
+	/**
+	 * Writes the given amount as a JSON string, in the format parsed by {@link #parse(char[], int, int)}.
+	 *
+	 * @param amount the amount to write
+	 * @param jgen the generator to write to
+	 * @throws IOException if writing fails
+	 */
+	@SuppressWarnings("rawtypes")
+	static void write(Amount amount, JsonGenerator jgen) throws IOException {
+		String unitLabel = formatUnit(amount.getUnit());
+		String decimalValue = null;
+		if (!amount.isExact()) {
+			// JScience stores double values as a range between a minimum and a maximum, which results in values with
+			// rounding errors due to floating point arithmetic when calculating an estimated value (e.g. the estimated
+			// value for 0.3 becomes 0.29999999999999993).
+			// So round to the 4th decimal to avoid this problem in output JSON.
+			// This must be kept synchronized with the precision of the optimizer (i.e. now the optimizer can handle up
+			// to four decimal figures, if this increases the precision of the serializer must also increase because it
+			// impacts the activity specifications sent by the EASC to the Control System).
+			decimalValue = String.valueOf((double) Math.round(amount.getEstimatedValue() * 10000) / 10000);
+		}
+		// Long values take at most 20 characters
+		int maxLength = (decimalValue == null ? 20 : decimalValue.length()) + 1 + unitLabel.length();
+		char[] buffer = buffers.get();
+		if (buffer.length < maxLength) {
+			buffer = new char[maxLength];
+			buffers.set(buffer);
+		}
+		int pos;
+		if (decimalValue == null) {
+			pos = writeLong(amount.getExactValue(), buffer);
+		} else {
+			decimalValue.getChars(0, decimalValue.length(), buffer, 0);
+			pos = decimalValue.length();
+		}
+		buffer[pos++] = ' ';
+		unitLabel.getChars(0, unitLabel.length(), buffer, pos);
+		jgen.writeString(buffer, 0, pos + unitLabel.length());
+	}
+
+	private static int writeLong(long value, char[] buffer) {
+		if (value == Long.MIN_VALUE) {
+			String text = String.valueOf(value);
+			text.getChars(0, text.length(), buffer, 0);
+			return text.length();
+		}
+		int pos = 0;
+		if (value < 0) {
+			buffer[pos++] = '-';
+			value = -value;
+		}
+		int numOfDigits = 1;
+		for (long limit = 10; numOfDigits < 19 && value >= limit; limit *= 10) {
+			numOfDigits++;
+		}
+		int end = pos + numOfDigits;
+		for (int i = end - 1; i >= pos; i--) {
+			buffer[i] = (char) ('0' + value % 10);
+			value /= 10;
+		}
+		return end;
+	}
+
+	private static String formatUnit(Unit<?> unit) {
+		int index = unit.hashCode() & (CACHE_SIZE - 1);
+		FormattedUnit cached = formattedUnits[index];
+		if (cached != null && (cached.unit == unit || cached.unit.equals(unit))) {
+			return cached.label;
+		}
+		String label = unit.toString();
+		formattedUnits[index] = new FormattedUnit(unit, label);
+		return label;
+	}
+
+	private static final class ParsedUnit {
+
+		private final String label;
+		private final Unit<?> unit;
+
+		private ParsedUnit(String label, Unit<?> unit) {
+			this.label = label;
+			this.unit = unit;
+		}
+
+		private boolean matches(char[] text, int offset, int length) {
+			if (label.length() != length) {
+				return false;
+			}
+			for (int i = 0; i < length; i++) {
+				if (label.charAt(i) != text[offset + i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+	}
+
+	private static final class FormattedUnit {
+
+		private final Unit<?> unit;
+		private final String label;
+
+		private FormattedUnit(Unit<?> unit, String label) {
+			this.unit = unit;
+			this.label = label;
+		}
+
+	}
+
+}
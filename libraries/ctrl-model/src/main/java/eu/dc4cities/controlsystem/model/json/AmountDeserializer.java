@@ -41,7 +41,8 @@ public final class AmountDeserializer extends StdDeserializer<Amount> {
     public Amount deserialize(JsonParser jp, DeserializationContext ctxt)
             throws IOException, JsonProcessingException {
         if (jp.getCurrentToken() == JsonToken.VALUE_STRING) {
-            return Amount.valueOf(jp.getText());
+            Amount amount = AmountCodec.parse(jp.getTextCharacters(), jp.getTextOffset(), jp.getTextLength());
+            return amount != null ? amount : Amount.valueOf(jp.getText());
         }
         throw ctxt.mappingException("Expected JSON string, found " + jp.getCurrentToken());
     }
@@ -36,21 +36,7 @@ public final class AmountSerializer extends StdSerializer<Amount> {
 	@Override
     public void serialize(Amount amount, JsonGenerator jgen, SerializerProvider provider) 
     		throws IOException, JsonGenerationException {
-    	String value;
-    	if (amount.isExact()) {
-    		value = String.valueOf(amount.getExactValue());
-    	} else {
-    		// JScience stores double values as a range between a minimum and a maximum, which results in values with
-    		// rounding errors due to floating point arithmetic when calculating an estimated value (e.g. the estimated
-    		// value for 0.3 becomes 0.29999999999999993).
-    		// So round to the 4th decimal to avoid this problem in output JSON.
-    		// This must be kept synchronized with the precision of the optimizer (i.e. now the optimizer can handle up
-    		// to four decimal figures, if this increases the precision of the serializer must also increase because it
-    		// impacts the activity specifications sent by the EASC to the Control System).
-    		double rounded = (double) Math.round(amount.getEstimatedValue() * 10000) / 10000;
-    		value = String.valueOf(rounded);
-    	}
-        jgen.writeString(value + " " + amount.getUnit());
+    	AmountCodec.write(amount, jgen);
     }
     
 }
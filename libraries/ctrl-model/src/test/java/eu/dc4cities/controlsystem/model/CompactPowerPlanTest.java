@@ -0,0 +1,93 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.dc4cities.controlsystem.model;
+
+import org.joda.time.DateTime;
+import org.jscience.physics.amount.Amount;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.measure.unit.NonSI;
+import javax.measure.unit.SI;
+
+public class CompactPowerPlanTest {
+
+	private DateTime dateFrom = new DateTime(2015, 9, 1, 0, 0);
+
+	private TimeSlotBasedEntity newTimeRange(int numOfTimeSlots) {
+		TimeSlotBasedEntity timeRange = new TimeSlotBasedEntity();
+		timeRange.setDateFrom(dateFrom);
+		timeRange.setDateTo(dateFrom.plusMinutes(numOfTimeSlots * 15));
+		timeRange.setTimeSlotDuration(Amount.valueOf(15, NonSI.MINUTE));
+		return timeRange;
+	}
+
+	private PowerPlan newPowerPlan(long... watts) {
+		PowerPlan plan = new PowerPlan(newTimeRange(watts.length), Amount.valueOf(0, SI.WATT));
+		for (int i = 0; i < watts.length; i++) {
+			plan.getPowerQuotas().get(i).setPower(Amount.valueOf(watts[i], SI.WATT));
+		}
+		return plan;
+	}
+
+	@Test
+	public void testConversion() {
+		PowerPlan plan = newPowerPlan(1000, 2000, 3000);
+		CompactPowerPlan compactPlan = CompactPowerPlan.valueOf(plan);
+		Assert.assertEquals(3, compactPlan.size());
+		Assert.assertEquals(2000, compactPlan.getPower(1), 0);
+		Assert.assertEquals(plan.toString(), compactPlan.toPowerPlan().toString());
+	}
+
+	@Test
+	public void testScaleMatchesPowerPlan() {
+		PowerPlan plan = newPowerPlan(1000, 2001, 3333);
+		CompactPowerPlan compactPlan = CompactPowerPlan.valueOf(plan);
+		plan.scalePowerAmounts(1 / 1.3);
+		compactPlan.scalePower(1 / 1.3);
+		Assert.assertEquals(plan.toString(), compactPlan.toPowerPlan().toString());
+	}
+
+	@Test
+	public void testAddAndLimitPower() {
+		CompactPowerPlan plan = new CompactPowerPlan(newTimeRange(4));
+		plan.addPower(0, 3, 500);
+		plan.addPower(2, 4, 700.5);
+		plan.limitPower(1000);
+		Assert.assertEquals(500, plan.getPower(0), 0);
+		Assert.assertEquals(1000, plan.getPower(2), 0);
+		Assert.assertEquals(700.5, plan.getPower(3), 0);
+	}
+
+	@Test
+	public void testAppendAndCopyOfRange() {
+		CompactPowerPlan plan = CompactPowerPlan.valueOf(newPowerPlan(1000, 2000));
+		PowerPlan next = newPowerPlan(3000, 4000);
+		next.setDateFrom(plan.getDateTo());
+		next.setDateTo(plan.getDateTo().plusMinutes(30));
+		plan.append(CompactPowerPlan.valueOf(next));
+		Assert.assertEquals(4, plan.size());
+		Assert.assertEquals(next.getDateTo(), plan.getDateTo());
+		CompactPowerPlan range = plan.copyOfRange(dateFrom.plusMinutes(15));
+		Assert.assertEquals(3, range.size());
+		Assert.assertEquals(dateFrom.plusMinutes(15), range.getDateFrom());
+		Assert.assertEquals(2000, range.getPower(0), 0);
+		Assert.assertEquals(4000, range.getPower(2), 0);
+		Assert.assertEquals(3, range.getNumOfTimeSlots());
+	}
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.dc4cities.controlsystem.model.easc;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests for {@link EascActivitySpecifications}.
+ */
+public class EascActivitySpecificationsTest {
+
+    @Test
+    public void testRangeView() {
+        DateTime day = new DateTime(2015, 5, 10, 0, 0, DateTimeZone.UTC);
+        ServiceLevelObjective first = new ServiceLevelObjective(day, day.plusDays(1));
+        ServiceLevelObjective second = new ServiceLevelObjective(day.plusDays(1), day.plusDays(2));
+        ServiceLevelObjective third = new ServiceLevelObjective(day.plusDays(2), day.plusDays(3));
+        ActivitySpecification activity = new ActivitySpecification("a1");
+        activity.setRelocability(Relocability.NO);
+        activity.setDataCenters(Arrays.asList(new DataCenterSpecification("dc1")));
+        activity.setServiceLevelObjectives(new ArrayList<>(Arrays.asList(first, second, third)));
+        EascActivitySpecifications specs = new EascActivitySpecifications("easc1");
+        specs.setActivitySpecifications(Arrays.asList(activity));
+
+        List<EascActivitySpecifications> views = EascActivitySpecifications.rangeView(Arrays.asList(specs),
+                day.plusHours(12), day.plusDays(2));
+        Assert.assertEquals(1, views.size());
+        Assert.assertEquals("easc1", views.get(0).getEascName());
+        ActivitySpecification view = views.get(0).getActivitySpecifications().get(0);
+        Assert.assertEquals("a1", view.getActivityName());
+        Assert.assertEquals(Relocability.NO, view.getRelocability());
+        Assert.assertSame(activity.getDataCenters(), view.getDataCenters());
+        // Only the objectives overlapping the range, the original specification is unchanged
+        Assert.assertEquals(Arrays.asList(first, second), view.getServiceLevelObjectives());
+        Assert.assertEquals(3, activity.getServiceLevelObjectives().size());
+    }
+}
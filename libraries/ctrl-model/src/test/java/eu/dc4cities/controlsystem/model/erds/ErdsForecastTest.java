@@ -0,0 +1,77 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.dc4cities.controlsystem.model.erds;
+
+import eu.dc4cities.controlsystem.model.json.JsonUtils;
+import org.joda.time.DateTime;
+import org.jscience.physics.amount.Amount;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.measure.unit.NonSI;
+import javax.measure.unit.SI;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ErdsForecastTest {
+
+	private DateTime dateFrom = new DateTime(2015, 9, 1, 0, 0);
+
+	private ErdsForecast newForecast(long... watts) {
+		ErdsForecast forecast = new ErdsForecast("erds");
+		forecast.setDateFrom(dateFrom);
+		forecast.setDateTo(dateFrom.plusMinutes(watts.length * 15));
+		forecast.setTimeSlotDuration(Amount.valueOf(15, NonSI.MINUTE));
+		List<TimeSlotErdsForecast> timeSlotForecasts = new ArrayList<>(watts.length);
+		for (int i = 0; i < watts.length; i++) {
+			TimeSlotErdsForecast timeSlotForecast = new TimeSlotErdsForecast(i);
+			timeSlotForecast.setPower(Amount.valueOf(watts[i], SI.WATT));
+			timeSlotForecast.setRenewablePercentage(Amount.valueOf(50, NonSI.PERCENT));
+			timeSlotForecasts.add(timeSlotForecast);
+		}
+		forecast.setTimeSlotForecasts(timeSlotForecasts);
+		return forecast;
+	}
+
+	@Test
+	public void testRangeViewMatchesCopy() {
+		ErdsForecast forecast = newForecast(1000, 2000, 3000, 4000);
+		DateTime rangeFrom = dateFrom.plusMinutes(15);
+		DateTime rangeTo = dateFrom.plusMinutes(45);
+		ErdsForecast view = forecast.rangeView(rangeFrom, rangeTo);
+		Assert.assertEquals(JsonUtils.toString(forecast.copyOfRange(rangeFrom, rangeTo)), JsonUtils.toString(view));
+		Assert.assertEquals(0, view.getTimeSlotForecasts().get(0).getTimeSlot());
+		// Renumbered items are copied once and the source is left untouched
+		Assert.assertSame(view.getTimeSlotForecasts().get(1), view.getTimeSlotForecasts().get(1));
+		Assert.assertEquals(1, forecast.getTimeSlotForecasts().get(1).getTimeSlot());
+	}
+
+	@Test
+	public void testRangeViewSharesAlignedItems() {
+		ErdsForecast forecast = newForecast(1000, 2000, 3000);
+		ErdsForecast view = forecast.rangeView(dateFrom, dateFrom.plusMinutes(30));
+		Assert.assertEquals(2, view.getTimeSlotForecasts().size());
+		Assert.assertSame(forecast.getTimeSlotForecasts().get(1), view.getTimeSlotForecasts().get(1));
+		// A view of a view refers to the original forecast
+		ErdsForecast nested = forecast.rangeView(dateFrom.plusMinutes(15), dateFrom.plusMinutes(45))
+				.rangeView(dateFrom.plusMinutes(30), dateFrom.plusMinutes(45));
+		Assert.assertEquals(1, nested.getTimeSlotForecasts().size());
+		Assert.assertEquals(0, nested.getTimeSlotForecasts().get(0).getTimeSlot());
+		Assert.assertEquals(3000, nested.getTimeSlotForecasts().get(0).getPower().getExactValue());
+	}
+
+}
@@ -22,6 +22,7 @@ import org.junit.Test;
 
 import javax.measure.quantity.Duration;
 import javax.measure.unit.NonSI;
+import javax.measure.unit.SI;
 import javax.measure.unit.Unit;
 import java.io.IOException;
 import java.util.Map;
@@ -92,4 +93,31 @@ public class AmountSerializeDeserializeTest {
 		System.out.println(deserializedModel.longValue(deserializedModel.getUnit()) + " "
 				+ deserializedModel.getUnit().toString());
 	}
+
+	@Test
+	public void testSameFormatAsJScience() throws IOException {
+		ObjectMapper mapper = JsonUtils.getDc4CitiesObjectMapper();
+		String[] values = new String[] {"1500 W", "-20 W", "0 kW", "0.25 kW·h", "-3.5 W", "123456789012 W",
+				"1234567890123456789 W", "1.0E7 W", "380 g/(kW·h)", "15 min", "10 W", "10 W"};
+		for (String value : values) {
+			Amount expected = Amount.valueOf(value);
+			Amount parsed = mapper.readValue("\"" + value + "\"", Amount.class);
+			assertEquals(value, expected, parsed);
+			assertEquals(value, expected.isExact(), parsed.isExact());
+			assertEquals(value, expected.getUnit().toString(), parsed.getUnit().toString());
+		}
+		Amount[] amounts = new Amount[] {Amount.valueOf(1500, SI.WATT), Amount.valueOf(-20, SI.WATT),
+				Amount.valueOf(Long.MIN_VALUE, SI.WATT), Amount.valueOf(0.3, SI.WATT), Amount.valueOf(1e8, SI.WATT),
+				Amount.valueOf(380, Unit.valueOf("g/(kW·h)")), Amount.valueOf(15, NonSI.MINUTE)};
+		for (Amount amount : amounts) {
+			String value;
+			if (amount.isExact()) {
+				value = String.valueOf(amount.getExactValue());
+			} else {
+				value = String.valueOf((double) Math.round(amount.getEstimatedValue() * 10000) / 10000);
+			}
+			assertEquals("\"" + value + " " + amount.getUnit() + "\"", mapper.writeValueAsString(amount));
+		}
+	}
+
 }
@@ -25,9 +25,11 @@ import org.slf4j.LoggerFactory;
 import org.springframework.web.client.RestOperations;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.*;
 
 public class EascHandlerImpl implements EascHandler {
 	
@@ -35,13 +37,54 @@ public class EascHandlerImpl implements EascHandler {
 
     private Map<String, ServiceConfiguration> eascMap = new LinkedHashMap<>();
 	private RestOperations restOps;
+	private ExecutorService executor;
+	private long timeout;
+	private Map<String, Exception> failures = new LinkedHashMap<>();
 	
+	/**
+	 * Creates a new EASC handler that calls EASCs one after another. Any error while contacting an EASC is propagated
+	 * to the caller.
+	 * 
+	 * @param eascList the EASCs in the federation
+	 * @param restOps the object used to perform REST calls
+	 */
 	public EascHandlerImpl(List<ServiceConfiguration> eascList, RestOperations restOps) {
 		for (ServiceConfiguration easc : eascList) {
 			eascMap.put(easc.getName(), easc);
 		}
 		this.restOps = restOps;
 	}
+	
+	/**
+	 * Creates a new EASC handler that calls all EASCs in parallel on the given executor. Each batch of requests must
+	 * complete within {@code timeout} milliseconds; EASCs that fail or do not answer in time are left out of the
+	 * results and reported by {@link #getFailures()}, while the other results are returned normally in the order of
+	 * {@code eascList}.
+	 * 
+	 * @param eascList the EASCs in the federation
+	 * @param restOps the object used to perform REST calls
+	 * @param executor the executor used to send requests in parallel
+	 * @param timeout the overall deadline for a batch of requests, in milliseconds
+	 */
+	public EascHandlerImpl(List<ServiceConfiguration> eascList, RestOperations restOps, ExecutorService executor,
+			long timeout) {
+		this(eascList, restOps);
+		if (timeout <= 0) {
+			throw new IllegalArgumentException("timeout must be > 0");
+		}
+		this.executor = executor;
+		this.timeout = timeout;
+	}
+	
+	/**
+	 * Returns the EASCs that could not be contacted in the last call to this handler, with the corresponding error.
+	 * The map is always empty when the handler calls EASCs sequentially, since errors are thrown in that case.
+	 * 
+	 * @return the errors for the last call, indexed by EASC name in configuration order
+	 */
+	public Map<String, Exception> getFailures() {
+		return Collections.unmodifiableMap(failures);
+	}
 
 	@Deprecated
 	@Override
@@ -51,21 +94,25 @@ public class EascHandlerImpl implements EascHandler {
 
 	@Override
 	public List<EascActivitySpecifications> getActivitySpecifications(TimeParameters timeRange) {
-		List<EascActivitySpecifications> specsList = new ArrayList<>(eascMap.size());
+		Map<String, Callable<EascActivitySpecifications>> requests = new LinkedHashMap<>();
 		for (ServiceConfiguration easc : eascMap.values()) {
 			String eascName = easc.getName();
 			String endpoint = easc.getEndpoint();
-			log.debug("Requesting activity specifications for EASC: " + eascName + " at " + endpoint);
-			String url = endpoint + "/v1/easc/{eascName}/activityspecifications";
-			EascActivitySpecifications specs = restOps.postForObject(url, timeRange, EascActivitySpecifications.class, eascName);
-			log.debug("Activity specifications received");
-			specsList.add(specs);
+			requests.put(eascName, () -> {
+				log.debug("Requesting activity specifications for EASC: " + eascName + " at " + endpoint);
+				String url = endpoint + "/v1/easc/{eascName}/activityspecifications";
+				EascActivitySpecifications specs = 
+						restOps.postForObject(url, timeRange, EascActivitySpecifications.class, eascName);
+				log.debug("Activity specifications received");
+				return specs;
+			});
 		}
-		return specsList;
+		return execute(requests);
 	}
 
     @Override
     public void sendActivityPlans(List<EascActivityPlan> eascActivityPlans) {
+    	Map<String, Callable<Void>> requests = new LinkedHashMap<>();
     	for (EascActivityPlan activityPlan : eascActivityPlans) {
     		String eascName = activityPlan.getEascName();
     		ServiceConfiguration service = eascMap.get(eascName);
@@ -73,26 +120,82 @@ public class EascHandlerImpl implements EascHandler {
     			throw new IllegalArgumentException("Could not find service configuration for EASC " + eascName);
     		}
     		String endpoint = service.getEndpoint();
-	        log.debug("Sending activity plan to " + eascName + " at " + endpoint);
-	        String url = endpoint + "/v1/easc/{eascName}/activityplan";
-            restOps.put(url, activityPlan, eascName);
-			log.debug("Activity plan sent");
+    		requests.put(eascName, () -> {
+    			log.debug("Sending activity plan to " + eascName + " at " + endpoint);
+    			String url = endpoint + "/v1/easc/{eascName}/activityplan";
+    			restOps.put(url, activityPlan, eascName);
+    			log.debug("Activity plan sent");
+    			return null;
+    		});
     	}
+    	execute(requests);
     }
 
 	@Override
 	public List<EascMetrics> getMetrics(TimeParameters currentTime) {
-		List<EascMetrics> metricsList = new ArrayList<>(eascMap.size());
+		Map<String, Callable<EascMetrics>> requests = new LinkedHashMap<>();
 		for (ServiceConfiguration easc : eascMap.values()) {
 			String eascName = easc.getName();
 			String endpoint = easc.getEndpoint();
-			log.debug("Requesting metrics for EASC: " + eascName + " at " + endpoint);
-			String url = endpoint + "/v1/easc/{eascName}/metrics";
-			EascMetrics metrics = restOps.postForObject(url, currentTime, EascMetrics.class, eascName);
-			log.debug("Metrics received");
-			metricsList.add(metrics);
+			requests.put(eascName, () -> {
+				log.debug("Requesting metrics for EASC: " + eascName + " at " + endpoint);
+				String url = endpoint + "/v1/easc/{eascName}/metrics";
+				EascMetrics metrics = restOps.postForObject(url, currentTime, EascMetrics.class, eascName);
+				log.debug("Metrics received");
+				return metrics;
+			});
+		}
+		return execute(requests);
+	}
+	
+	/**
+	 * Executes the given requests, either sequentially or in parallel depending on how the handler was created.
+	 * 
+	 * @param requests the requests to execute, indexed by EASC name
+	 * @return the results of successful requests, in the same order as {@code requests}
+	 */
+	private <T> List<T> execute(Map<String, Callable<T>> requests) {
+		failures.clear();
+		List<T> results = new ArrayList<>(requests.size());
+		if (executor == null) {
+			for (Callable<T> request : requests.values()) {
+				try {
+					results.add(request.call());
+				} catch (RuntimeException ex) {
+					throw ex;
+				} catch (Exception ex) {
+					throw new IllegalStateException(ex);
+				}
+			}
+			return results;
+		}
+		Map<String, Future<T>> futures = new LinkedHashMap<>();
+		for (Map.Entry<String, Callable<T>> request : requests.entrySet()) {
+			futures.put(request.getKey(), executor.submit(request.getValue()));
+		}
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+		for (Map.Entry<String, Future<T>> entry : futures.entrySet()) {
+			String eascName = entry.getKey();
+			Future<T> future = entry.getValue();
+			try {
+				results.add(future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+			} catch (TimeoutException ex) {
+				future.cancel(true);
+				log.warn("EASC " + eascName + " did not answer within " + timeout + " ms");
+				failures.put(eascName, ex);
+			} catch (ExecutionException ex) {
+				Exception cause = ex.getCause() instanceof Exception ? (Exception) ex.getCause() : ex;
+				log.warn("Request to EASC " + eascName + " failed", cause);
+				failures.put(eascName, cause);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				for (Future<T> pending : futures.values()) {
+					pending.cancel(true);
+				}
+				throw new IllegalStateException("Interrupted while waiting for EASC " + eascName, ex);
+			}
 		}
-		return metricsList;
+		return results;
 	}
 
 }
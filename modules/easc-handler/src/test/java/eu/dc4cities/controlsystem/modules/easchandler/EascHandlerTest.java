@@ -22,13 +22,18 @@ import eu.dc4cities.controlsystem.model.easc.EascActivityPlan;
 import eu.dc4cities.controlsystem.model.easc.EascActivitySpecifications;
 import eu.dc4cities.controlsystem.model.easc.EascMetrics;
 import org.joda.time.DateTime;
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
 
 import static org.mockito.Mockito.*;
 
@@ -37,6 +42,7 @@ public class EascHandlerTest {
 	private List<ServiceConfiguration> eascList;
 	private RestTemplate restTemplate;
 	private EascHandlerImpl eascHandler;
+	private ExecutorService executor;
 	
 	@Before
 	public void setUp() {
@@ -45,6 +51,12 @@ public class EascHandlerTest {
 		eascList.add(new ServiceConfiguration("easc2", "http://easc2.example.com"));
 		restTemplate = mock(RestTemplate.class);
 		eascHandler = new EascHandlerImpl(eascList, restTemplate);
+		executor = Executors.newFixedThreadPool(2);
+	}
+	
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
 	}
 	
 	@Test
@@ -102,4 +114,54 @@ public class EascHandlerTest {
 		Assert.assertEquals(expectedMetrics.get(1).getEascName(), actualMetrics.get(1).getEascName());
 	}
 
+    @Test
+	public void testGetMetricsParallel() {
+    	eascHandler = new EascHandlerImpl(eascList, restTemplate, executor, 5000);
+		TimeParameters timeParameters = new TimeParameters();
+		timeParameters.setDateNow(DateTime.now());
+		EascMetrics expected2 = new EascMetrics(eascList.get(1).getName());
+		when(restTemplate.postForObject(eascList.get(0).getEndpoint() + "/v1/easc/{eascName}/metrics", timeParameters,
+				EascMetrics.class, eascList.get(0).getName()))
+		    .thenThrow(new ResourceAccessException("Connection refused"));
+		when(restTemplate.postForObject(eascList.get(1).getEndpoint() + "/v1/easc/{eascName}/metrics", timeParameters,
+				EascMetrics.class, eascList.get(1).getName()))
+		    .thenReturn(expected2);
+		List<EascMetrics> actualMetrics = eascHandler.getMetrics(timeParameters);
+		Assert.assertEquals(1, actualMetrics.size());
+		Assert.assertEquals(expected2.getEascName(), actualMetrics.get(0).getEascName());
+		Assert.assertEquals(1, eascHandler.getFailures().size());
+		Assert.assertTrue(eascHandler.getFailures().get("easc1") instanceof ResourceAccessException);
+	}
+    
+    @Test
+	public void testGetActivitySpecificationsParallelTimeout() {
+    	eascHandler = new EascHandlerImpl(eascList, restTemplate, executor, 200);
+		TimeParameters timeParameters = new TimeParameters();
+		DateTime dateNow = DateTime.now();
+		timeParameters.setDateNow(dateNow);
+		timeParameters.setDateFrom(dateNow);
+		timeParameters.setDateTo(dateNow.plusDays(1));
+		EascActivitySpecifications expected1 = new EascActivitySpecifications(eascList.get(0).getName());
+		when(restTemplate.postForObject(eascList.get(0).getEndpoint() + "/v1/easc/{eascName}/activityspecifications",
+				timeParameters, EascActivitySpecifications.class, eascList.get(0).getName()))
+		    .thenReturn(expected1);
+		when(restTemplate.postForObject(eascList.get(1).getEndpoint() + "/v1/easc/{eascName}/activityspecifications",
+				timeParameters, EascActivitySpecifications.class, eascList.get(1).getName()))
+		    .thenAnswer(invocation -> {
+		    	Thread.sleep(10000);
+		    	return null;
+		    });
+		List<EascActivitySpecifications> actualSpecs = eascHandler.getActivitySpecifications(timeParameters);
+		Assert.assertEquals(1, actualSpecs.size());
+		Assert.assertEquals(expected1.getEascName(), actualSpecs.get(0).getEascName());
+		Assert.assertTrue(eascHandler.getFailures().get("easc2") instanceof TimeoutException);
+	}
+    
+    @Test
+    public void testSendActivityPlansParallel() {
+    	eascHandler = new EascHandlerImpl(eascList, restTemplate, executor, 5000);
+    	testSendActivityPlans();
+    	Assert.assertTrue(eascHandler.getFailures().isEmpty());
+    }
+
 }
@@ -22,18 +22,24 @@ import eu.dc4cities.controlsystem.model.TimeSlotBasedEntity;
 import eu.dc4cities.controlsystem.model.erds.DataCenterForecast;
 import eu.dc4cities.controlsystem.model.erds.ErdsForecast;
 import eu.dc4cities.controlsystem.modules.ErdsHandler;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestOperations;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
 
 public class ErdsHandlerImpl implements ErdsHandler {
 	
 	private List<DataCenterConfiguration> dataCenterConfigurations;
 	private RestOperations restOps;
+	private ExecutorService executor;
+	private long timeout;
 	
 	/**
-	 * Creates a new ERDS handler.
+	 * Creates a new ERDS handler that requests forecasts one ERDS at a time.
 	 * 
 	 * @param dataCenterConfigurations the configurations for each data center in the federation
 	 * @param restOps the object used to perform REST calls
@@ -44,6 +50,26 @@ public class ErdsHandlerImpl implements ErdsHandler {
 		this.restOps = restOps;
 	}
 	
+	/**
+	 * Creates a new ERDS handler that requests forecasts from all ERDSs in the federation at once, using the given
+	 * executor. Each ERDS must answer within {@code timeout} milliseconds from the moment its request starts running;
+	 * time spent waiting for a free thread of the executor is not counted.
+	 * 
+	 * @param dataCenterConfigurations the configurations for each data center in the federation
+	 * @param restOps the object used to perform REST calls
+	 * @param executor the executor used to send requests in parallel
+	 * @param timeout the maximum time to wait for each ERDS, in milliseconds
+	 */
+	public ErdsHandlerImpl(List<DataCenterConfiguration> dataCenterConfigurations, RestOperations restOps,
+			ExecutorService executor, long timeout) {
+		this(dataCenterConfigurations, restOps);
+		if (timeout <= 0) {
+			throw new IllegalArgumentException("timeout must be > 0");
+		}
+		this.executor = executor;
+		this.timeout = timeout;
+	}
+	
 	private void validateConfig(List<DataCenterConfiguration> dataCenterConfigurations) {
 		if (dataCenterConfigurations == null || dataCenterConfigurations.size() == 0) {
 			throw new IllegalArgumentException("No configuration provided");
@@ -58,22 +84,141 @@ public class ErdsHandlerImpl implements ErdsHandler {
 
 	@Override
 	public List<DataCenterForecast> getEnergyForecasts(TimeSlotBasedEntity timeRange) {
-		List<DataCenterForecast> forecasts = new ArrayList<>(dataCenterConfigurations.size());
-		for (DataCenterConfiguration config : dataCenterConfigurations) {
-			String dataCenter = config.getName();
-			DataCenterForecast dataCenterForecast = new DataCenterForecast(dataCenter);
-			dataCenterForecast.copyIntervalFrom(timeRange);
-			List<ServiceConfiguration> erdsList = config.getErdsList();
-			List<ErdsForecast> erdsForecasts = new ArrayList<>(erdsList.size());
-			for (ServiceConfiguration erds : erdsList) {
-				String url = erds.getEndpoint() + "/v1/erds/{erdsName}/forecast";
-				ErdsForecast erdsForecast = restOps.postForObject(url, timeRange, ErdsForecast.class, erds.getName());
-				erdsForecasts.add(erdsForecast);
+		if (executor == null) {
+			List<DataCenterForecast> forecasts = new ArrayList<>(dataCenterConfigurations.size());
+			for (DataCenterConfiguration config : dataCenterConfigurations) {
+				List<ServiceConfiguration> erdsList = config.getErdsList();
+				List<ErdsForecast> erdsForecasts = new ArrayList<>(erdsList.size());
+				for (ServiceConfiguration erds : erdsList) {
+					erdsForecasts.add(requestForecast(erds, timeRange));
+				}
+				forecasts.add(buildDataCenterForecast(config, timeRange, erdsForecasts));
+			}
+			return forecasts;
+		}
+		// Submit all requests before waiting for any of them, so the collection takes as long as the slowest ERDS
+		CompletionService<ErdsForecast> completionService = new ExecutorCompletionService<>(executor);
+		List<ErdsRequest> requests = new ArrayList<>();
+		Map<Future<ErdsForecast>, ErdsRequest> requestsByFuture = new HashMap<>();
+		try {
+			for (DataCenterConfiguration config : dataCenterConfigurations) {
+				for (ServiceConfiguration erds : config.getErdsList()) {
+					ErdsRequest request = new ErdsRequest(erds, timeRange);
+					request.future = completionService.submit(request);
+					requests.add(request);
+					requestsByFuture.put(request.future, request);
+				}
+			}
+			awaitForecasts(completionService, requests, requestsByFuture);
+			List<DataCenterForecast> forecasts = new ArrayList<>(dataCenterConfigurations.size());
+			int index = 0;
+			for (DataCenterConfiguration config : dataCenterConfigurations) {
+				List<ErdsForecast> erdsForecasts = new ArrayList<>(config.getErdsList().size());
+				for (int i = 0; i < config.getErdsList().size(); i++) {
+					erdsForecasts.add(requests.get(index++).forecast);
+				}
+				forecasts.add(buildDataCenterForecast(config, timeRange, erdsForecasts));
+			}
+			return forecasts;
+		} finally {
+			// No-op for completed requests, stops the remaining ones if an ERDS failed
+			for (ErdsRequest request : requests) {
+				request.future.cancel(true);
 			}
-			dataCenterForecast.setErdsForecasts(erdsForecasts);
-			forecasts.add(dataCenterForecast);
 		}
-		return forecasts;
+	}
+	
+	/*
+	 * Waits for all requests to complete, failing as soon as one of them fails or a running request exceeds the
+	 * timeout. The wait is always bounded by the nearest deadline among running requests, so a slow ERDS is detected
+	 * even while waiting for others.
+	 */
+	private void awaitForecasts(CompletionService<ErdsForecast> completionService, List<ErdsRequest> requests,
+			Map<Future<ErdsForecast>, ErdsRequest> requestsByFuture) {
+		long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeout);
+		int pending = requests.size();
+		while (pending > 0) {
+			long now = System.nanoTime();
+			// If no request is running yet, check again after a full timeout
+			long wait = timeoutNanos;
+			for (ErdsRequest request : requests) {
+				if (request.started && !request.future.isDone()) {
+					long remaining = request.startTime + timeoutNanos - now;
+					if (remaining <= 0) {
+						throw new ResourceAccessException("ERDS " + request.erds.getName() + " did not answer within "
+								+ timeout + " ms");
+					}
+					wait = Math.min(wait, remaining);
+				}
+			}
+			Future<ErdsForecast> future;
+			try {
+				future = completionService.poll(wait, TimeUnit.NANOSECONDS);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while waiting for ERDS forecasts", ex);
+			}
+			if (future != null) {
+				ErdsRequest request = requestsByFuture.get(future);
+				request.forecast = getForecast(request.erds, future);
+				pending--;
+			}
+		}
+	}
+	
+	private ErdsForecast requestForecast(ServiceConfiguration erds, TimeSlotBasedEntity timeRange) {
+		String url = erds.getEndpoint() + "/v1/erds/{erdsName}/forecast";
+		return restOps.postForObject(url, timeRange, ErdsForecast.class, erds.getName());
+	}
+	
+	// Only called for completed futures
+	private ErdsForecast getForecast(ServiceConfiguration erds, Future<ErdsForecast> future) {
+		try {
+			return future.get();
+		} catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new IllegalStateException("Could not get forecast from ERDS " + erds.getName(), cause);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for ERDS " + erds.getName(), ex);
+		}
+	}
+	
+	private DataCenterForecast buildDataCenterForecast(DataCenterConfiguration config, TimeSlotBasedEntity timeRange,
+			List<ErdsForecast> erdsForecasts) {
+		DataCenterForecast dataCenterForecast = new DataCenterForecast(config.getName());
+		dataCenterForecast.copyIntervalFrom(timeRange);
+		dataCenterForecast.setErdsForecasts(erdsForecasts);
+		return dataCenterForecast;
+	}
+
+	/**
+	 * A request to a single ERDS, recording when it starts running.
+	 */
+	private class ErdsRequest implements Callable<ErdsForecast> {
+		
+		private ServiceConfiguration erds;
+		private TimeSlotBasedEntity timeRange;
+		private Future<ErdsForecast> future;
+		private volatile boolean started;
+		private volatile long startTime;
+		private ErdsForecast forecast;
+		
+		public ErdsRequest(ServiceConfiguration erds, TimeSlotBasedEntity timeRange) {
+			this.erds = erds;
+			this.timeRange = timeRange;
+		}
+		
+		@Override
+		public ErdsForecast call() {
+			startTime = System.nanoTime();
+			started = true;
+			return requestForecast(erds, timeRange);
+		}
+		
 	}
 
 	@Deprecated
@@ -23,15 +23,19 @@ import eu.dc4cities.controlsystem.model.erds.DataCenterForecast;
 import eu.dc4cities.controlsystem.model.erds.ErdsForecast;
 import org.joda.time.DateTime;
 import org.jscience.physics.amount.Amount;
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
 import javax.measure.unit.NonSI;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -40,10 +44,12 @@ public class ErdsHandlerImplTest {
 
 	private RestTemplate restTemplate;
 	private ErdsHandlerImpl erdsHandler;
+	private List<DataCenterConfiguration> configurations;
+	private ExecutorService executor;
 	
 	@Before
 	public void setUp() {
-		List<DataCenterConfiguration> configurations = new ArrayList<>(2);
+		configurations = new ArrayList<>(2);
 		List<ServiceConfiguration> erdsList1 = new ArrayList<ServiceConfiguration>(2);
 		erdsList1.add(new ServiceConfiguration("erds1", "http://erds1.example.com"));
 		erdsList1.add(new ServiceConfiguration("erds2", "http://erds2.example.com"));
@@ -57,6 +63,21 @@ public class ErdsHandlerImplTest {
 		configurations.add(dc2);
 		restTemplate = mock(RestTemplate.class);
 		erdsHandler = new ErdsHandlerImpl(configurations, restTemplate);
+		executor = Executors.newFixedThreadPool(3);
+	}
+	
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+	
+	private TimeSlotBasedEntity buildTimeRange() {
+		TimeSlotBasedEntity timeRange = new TimeSlotBasedEntity();
+		DateTime dateFrom = DateTime.now();
+		timeRange.setDateFrom(dateFrom);
+		timeRange.setDateTo(dateFrom.plusDays(1));
+		timeRange.setTimeSlotDuration(Amount.valueOf(15, NonSI.MINUTE));
+		return timeRange;
 	}
 	
 	private DataCenterForecast buildDataCenterForecast(String dataCenter, TimeSlotBasedEntity timeRange, ErdsForecast... erdsForecasts) {
@@ -68,11 +89,7 @@ public class ErdsHandlerImplTest {
 	
 	@Test
 	public void testForecast() {
-		TimeSlotBasedEntity timeRange = new TimeSlotBasedEntity();
-		DateTime dateFrom = DateTime.now();
-		timeRange.setDateFrom(dateFrom);
-		timeRange.setDateTo(dateFrom.plusDays(1));
-		timeRange.setTimeSlotDuration(Amount.valueOf(15, NonSI.MINUTE));
+		TimeSlotBasedEntity timeRange = buildTimeRange();
 		ErdsForecast forecast1 = new ErdsForecast("erds1");
 		ErdsForecast forecast2 = new ErdsForecast("erds2");
 		ErdsForecast forecast3 = new ErdsForecast("erds3");
@@ -92,4 +109,46 @@ public class ErdsHandlerImplTest {
 		Assert.assertEquals(expected.toString(), actual.toString());
 	}
 	
+	@Test
+	public void testForecastParallel() {
+		erdsHandler = new ErdsHandlerImpl(configurations, restTemplate, executor, 5000);
+		testForecast();
+	}
+	
+	@Test
+	public void testForecastTimeoutPerErds() {
+		// With a single thread requests run one at a time: each ERDS is in time, but the collection takes longer than
+		// the timeout
+		executor.shutdownNow();
+		executor = Executors.newSingleThreadExecutor();
+		erdsHandler = new ErdsHandlerImpl(configurations, restTemplate, executor, 1000);
+		TimeSlotBasedEntity timeRange = buildTimeRange();
+		for (String erds : Arrays.asList("erds1", "erds2", "erds3")) {
+			when(restTemplate.postForObject(
+					"http://" + erds + ".example.com/v1/erds/{erdsName}/forecast", timeRange, ErdsForecast.class, erds))
+					.thenAnswer(invocation -> {
+						Thread.sleep(400);
+						return new ErdsForecast(erds);
+					});
+		}
+		List<DataCenterForecast> forecasts = erdsHandler.getEnergyForecasts(timeRange);
+		Assert.assertEquals("erds3", forecasts.get(1).getErdsForecasts().get(0).getErdsName());
+	}
+	
+	@Test(expected = ResourceAccessException.class)
+	public void testForecastParallelTimeout() {
+		erdsHandler = new ErdsHandlerImpl(configurations, restTemplate, executor, 200);
+		TimeSlotBasedEntity timeRange = buildTimeRange();
+		when(restTemplate.postForObject(
+				"http://erds1.example.com/v1/erds/{erdsName}/forecast", timeRange, ErdsForecast.class, "erds1"))
+				.thenReturn(new ErdsForecast("erds1"));
+		when(restTemplate.postForObject(
+				"http://erds2.example.com/v1/erds/{erdsName}/forecast", timeRange, ErdsForecast.class, "erds2"))
+				.thenAnswer(invocation -> {
+					Thread.sleep(10000);
+					return new ErdsForecast("erds2");
+				});
+		erdsHandler.getEnergyForecasts(timeRange);
+	}
+	
 }
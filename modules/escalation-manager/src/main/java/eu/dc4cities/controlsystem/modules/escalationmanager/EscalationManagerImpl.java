@@ -24,7 +24,6 @@ import eu.dc4cities.controlsystem.model.TimeSlotPower;
 import eu.dc4cities.controlsystem.model.datacenter.*;
 import eu.dc4cities.controlsystem.model.easc.*;
 import eu.dc4cities.controlsystem.model.erds.ErdsForecast;
-import eu.dc4cities.controlsystem.model.erds.TimeSlotErdsForecast;
 import eu.dc4cities.controlsystem.modules.EscalationManager;
 import org.joda.time.DateTime;
 import org.jscience.physics.amount.Amount;
@@ -32,7 +31,7 @@ import org.springframework.stereotype.Component;
 
 import javax.measure.quantity.Dimensionless;
 import javax.measure.unit.SI;
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -47,30 +46,9 @@ public class EscalationManagerImpl implements EscalationManager
 	// Warning threshold, in percentage [0..100] 
 	private int warnThreshold;
 	
-	// invocation time for the evaluation
-	private DateTime dateNow;
-
-	// Evaluation results, per time slot
-	private List<StatusAlert> alerts;	
-	private DataCenterStatus dataCenterStatus;
-	
+	// The state of an evaluation is kept in an EvaluationContext, so that
+	// the same instance can evaluate several data centers concurrently
 	// ******************************************** //
-	
-	// # FOR INTERNAL COMPUTATION # //
-	private String evalDataCenterName;
-	private TimeSlotBasedEntity evalTimeRange;
-	private List<Objective> evalDataCenterObjectives;
-	private List<ErdsForecast> evalErdsForecasts;
-	private List<EascActivitySpecifications> evalEascActivitySpecifications;
-	private DataCenterPower evalDataCenterPowerActual; 
-	private List<EascServiceLevels> evalEascServiceLevels;
-	private List<EascActivityPlan> evalEascActivityPlans;
- 	
-	private Objective evalPowerObjective;
-	private String currentEvaluationPeriod;
-	// ############################ //
-	
-	private TimeSlotBasedEntity invokTimeRange;
 		
 	public EscalationManagerImpl() 
 	{
@@ -87,52 +65,46 @@ public class EscalationManagerImpl implements EscalationManager
 			List<EascServiceLevels> eascServiceLevels,
 			List<EascActivityPlan> eascActivityPlans) 
 	{
-		this.alerts = new LinkedList<StatusAlert>();
-		this.evalDataCenterName = dataCenterName;
-		this.evalDataCenterObjectives = dataCenterObjectives;
-		this.evalEascActivitySpecifications = eascActivitySpecifications;
-		this.evalDataCenterPowerActual = dataCenterPowerActual;
-		this.evalEascServiceLevels = eascServiceLevels;
-		this.dateNow = timeParameters.getDateNow();
 		TimeSlotBasedEntity timeRange = new TimeSlotBasedEntity(timeParameters);
-		this.invokTimeRange = timeRange;
+		EvaluationContext ctx = new EvaluationContext(dataCenterName, timeParameters.getDateNow(), 
+				dataCenterObjectives, eascActivitySpecifications, dataCenterPowerActual, eascServiceLevels);
 		
 		// split data structures for current day and the day next
 		// 
 		// CURRENT DAY EVALUATION
-		this.currentEvaluationPeriod = EscalationManagerImpl.DAY_CURRENT;
-		splitTimeRange(timeRange, erdsForecasts, eascActivityPlans);
-		evaluateSystemStatus();
+		ctx.currentEvaluationPeriod = EscalationManagerImpl.DAY_CURRENT;
+		splitTimeRange(ctx, timeRange, erdsForecasts, eascActivityPlans);
+		evaluateSystemStatus(ctx);
 		
 		if((timeRange.getDateTo().getMillis() - timeRange.getDateFrom().plusDays(1).getMillis()) != 0)
 		{
 			// LONG TERM EVALUATION
-			this.currentEvaluationPeriod = EscalationManagerImpl.DAY_NEXT;
-			splitTimeRange(timeRange, erdsForecasts, eascActivityPlans);
-			evaluateSystemStatus();
+			ctx.currentEvaluationPeriod = EscalationManagerImpl.DAY_NEXT;
+			splitTimeRange(ctx, timeRange, erdsForecasts, eascActivityPlans);
+			evaluateSystemStatus(ctx);
 		}
 			
-		this.dataCenterStatus = new DataCenterStatus(dataCenterName);
-		this.dataCenterStatus.setDateFrom(timeRange.getDateFrom());
-		this.dataCenterStatus.setDateTo(timeRange.getDateTo());
-		this.dataCenterStatus.setTimeSlotDuration(timeRange.getTimeSlotDuration());
-		this.dataCenterStatus.setAlerts(this.alerts);
+		DataCenterStatus dataCenterStatus = new DataCenterStatus(dataCenterName);
+		dataCenterStatus.setDateFrom(timeRange.getDateFrom());
+		dataCenterStatus.setDateTo(timeRange.getDateTo());
+		dataCenterStatus.setTimeSlotDuration(timeRange.getTimeSlotDuration());
+		dataCenterStatus.setAlerts(ctx.alerts);
 				
-		return this.dataCenterStatus;
+		return dataCenterStatus;
 	}
 
 		
-	private void evaluateSystemStatus()
+	private void evaluateSystemStatus(EvaluationContext ctx)
 	{
 		// construction of the cumulative data structure for the evaluation
-		List<AggregateActivityValues> aggrValues = new LinkedList<AggregateActivityValues>();
-		initialize(aggrValues);
-		if(this.evalDataCenterPowerActual!=null) addPastPowerData(aggrValues);
+		List<AggregateActivityValues> aggrValues = new ArrayList<AggregateActivityValues>(ctx.evalTimeRange.getNumOfTimeSlots());
+		initialize(ctx, aggrValues);
+		if(ctx.evalDataCenterPowerActual!=null) addPastPowerData(ctx, aggrValues);
 		
 		// for all EascActivityPlan
-		for(int i=0 ; i<this.evalEascActivityPlans.size() ; i++)
+		for(int i=0 ; i<ctx.evalEascActivityPlans.size() ; i++)
 		{			
-			List<Activity> acts = this.evalEascActivityPlans.get(i).getActivities();
+			List<Activity> acts = ctx.evalEascActivityPlans.get(i).getActivities();
 			// for all the Activity in the EascActPlan
 			for(int j=0 ; j<acts.size() ; j++)
 			{
@@ -140,41 +112,41 @@ public class EscalationManagerImpl implements EscalationManager
 				// for all the DC involved in the Activity
 				for(int k=0 ; k<actDC.size() ; k++)
 				{
-					if(actDC.get(k).getDataCenterName().equalsIgnoreCase(this.evalDataCenterName))
+					if(actDC.get(k).getDataCenterName().equalsIgnoreCase(ctx.evalDataCenterName))
 					{
 						List<Work> works = actDC.get(k).getWorks();
-						addWorks(aggrValues, works, acts.get(j), this.evalEascActivityPlans.get(i));
+						addWorks(ctx, aggrValues, works, acts.get(j), ctx.evalEascActivityPlans.get(i));
 					}
 				}
 			}
 		}		
-		evaluateTimeSlotStatus(aggrValues);
+		evaluateTimeSlotStatus(ctx, aggrValues);
 		
 		/*
-		if (this.currentEvaluationPeriod.equals(DAY_CURRENT))
+		if (ctx.currentEvaluationPeriod.equals(DAY_CURRENT))
 		{
-			calculateCompletedCumulativeBusinessStatus();
+			calculateCompletedCumulativeBusinessStatus(ctx);
 		}		
-		calculateCumulativeBusinessStatus();
+		calculateCumulativeBusinessStatus(ctx);
 		*/
 		
-		computeCumulativeBusinessStatus();
+		computeCumulativeBusinessStatus(ctx);
 	}
 
-	private void initialize(List<AggregateActivityValues> aggrValues) 
+	private void initialize(EvaluationContext ctx, List<AggregateActivityValues> aggrValues) 
 	{
-		int timeSlotNumber = this.evalTimeRange.getNumOfTimeSlots();
-		DateTime currentTimeStamp = this.evalTimeRange.getDateFrom();
+		int timeSlotNumber = ctx.evalTimeRange.getNumOfTimeSlots();
+		DateTime currentTimeStamp = ctx.evalTimeRange.getDateFrom();
 		for (int i=0 ; i<timeSlotNumber ; i++)
 		{
 			aggrValues.add(new AggregateActivityValues(currentTimeStamp));
-			currentTimeStamp = currentTimeStamp.plus(this.evalTimeRange.getTimeSlotDuration().longValue(SI.MILLI(SI.SECOND)));
+			currentTimeStamp = currentTimeStamp.plus(ctx.evalTimeRange.getTimeSlotDuration().longValue(SI.MILLI(SI.SECOND)));
 		}		
 	}
 	
-	private void addPastPowerData(List<AggregateActivityValues> aggrValues) 
+	private void addPastPowerData(EvaluationContext ctx, List<AggregateActivityValues> aggrValues) 
 	{
-		List<TimeSlotPower> tsp = this.evalDataCenterPowerActual.getPowerValues();
+		List<TimeSlotPower> tsp = ctx.evalDataCenterPowerActual.getPowerValues();
 		for(int i=0 ; i<tsp.size() ; i++)
 		{
 			aggrValues.get(i).addWorkContribution(tsp.get(i).getPower(), null, null);
@@ -182,22 +154,22 @@ public class EscalationManagerImpl implements EscalationManager
 	}
 		
 
-	private void evaluateTimeSlotStatus(List<AggregateActivityValues> aggrValues) 
+	private void evaluateTimeSlotStatus(EvaluationContext ctx, List<AggregateActivityValues> aggrValues) 
 	{
 		for(int i=0 ; i<aggrValues.size() ; i++)
 		{
 			AggregateActivityValues currentEval = aggrValues.get(i);
 			
-			calculateRenPctStatus(currentEval, i);
-			if(currentEval.getTimestamp().isBefore(this.dateNow))
-				calculatePastInstantBusinessStatus(currentEval, i);
-			else calculateFutureInstantBusinessStatus(currentEval, i);			
+			calculateRenPctStatus(ctx, currentEval, i);
+			if(currentEval.getTimestamp().isBefore(ctx.dateNow))
+				calculatePastInstantBusinessStatus(ctx, currentEval, i);
+			else calculateFutureInstantBusinessStatus(ctx, currentEval, i);			
 		}				
 	}
 	
-	private void calculateRenPctStatus(AggregateActivityValues currentEval, int timeslot) 
+	private void calculateRenPctStatus(EvaluationContext ctx, AggregateActivityValues currentEval, int timeslot) 
 	{
-		List<PowerRenPercent> sortedErdsForecast = sort(currentEval.getTimestamp(), this.evalErdsForecasts);
+		List<PowerRenPercent> sortedErdsForecast = ctx.sortedForecasts(timeslot);
 		
 		double totalPowCons = currentEval.getTotalPowerConsumption().doubleValue(SI.WATT);
 		double remainingPower = totalPowCons;
@@ -232,22 +204,12 @@ public class EscalationManagerImpl implements EscalationManager
 		
 		// to calculate in dependence of the renPercent objective
 		
-		this.evalPowerObjective = null;
+		Objective powerObjective = ctx.getRenewableObjective();
 		
-		for(int j=0 ; j<this.evalDataCenterObjectives.size() ; j++)
-		{
-			Objective o = this.evalDataCenterObjectives.get(j);
-			if (o.getDataCenterId().equalsIgnoreCase(this.evalDataCenterName))
-			{
-				if (o.getId().equalsIgnoreCase("renewableObjective"))
-					this.evalPowerObjective = o;					
-			}				
-		}
+		if (powerObjective==null) throw new RuntimeException("No renewableObjective found");
 		
-		if (this.evalPowerObjective==null) throw new RuntimeException("No renewableObjective found");
-		
-		String operator = this.evalPowerObjective.getTarget().getOperator();
-		double targetValue = this.evalPowerObjective.getTarget().getValue();
+		String operator = powerObjective.getTarget().getOperator();
+		double targetValue = powerObjective.getTarget().getValue();
 				
 		AlertSeverity status=null;;
 		
@@ -285,32 +247,32 @@ public class EscalationManagerImpl implements EscalationManager
 		if(status != null)
 		{
 			StatusAlert alert = new StatusAlert();
-			if(this.currentEvaluationPeriod.equalsIgnoreCase(EscalationManagerImpl.DAY_NEXT))
+			if(ctx.currentEvaluationPeriod.equalsIgnoreCase(EscalationManagerImpl.DAY_NEXT))
 			{
-				timeslot += this.evalTimeRange.getNumOfTimeSlots();
+				timeslot += ctx.evalTimeRange.getNumOfTimeSlots();
 			}
 			alert.setStartTimeSlot(timeslot);
 			alert.setEndTimeSlot(timeslot+1);
 			alert.setType(AlertType.RENPCT);
 			alert.setSeverity(status);
 			alert.setMessage("RenPct objective: "+(Math.round(targetValue*10.0)/10)+" - timeslot value: "+(Math.round(weightedRenPercent*10.0)/10));			
-			this.alerts.add(alert);
+			ctx.alerts.add(alert);
 		}
 		
 	}
 
-	private void calculatePastInstantBusinessStatus(AggregateActivityValues currentEval, int timeslot) 
+	private void calculatePastInstantBusinessStatus(EvaluationContext ctx, AggregateActivityValues currentEval, int timeslot) 
 	{					
-		for(int i=0 ; i<this.evalEascServiceLevels.size() ; i++)
+		for(int i=0 ; i<ctx.evalEascServiceLevels.size() ; i++)
 		{
-			EascServiceLevels eascSL = this.evalEascServiceLevels.get(i);
+			EascServiceLevels eascSL = ctx.evalEascServiceLevels.get(i);
 			String eascName = eascSL.getEascName();
 			
 			for(int j=0 ; j<eascSL.getActivityServiceLevels().size() ; j++)
 			{
 				ActivityServiceLevels actSL = eascSL.getActivityServiceLevels().get(j);
 				String activityName = actSL.getActivityName();				
-				ServiceLevelObjective slObjective = findServiceLevelObjective(eascName, activityName, currentEval.timestamp);
+				ServiceLevelObjective slObjective = ctx.findServiceLevelObjective(eascName, activityName, currentEval.timestamp);
 				if (slObjective==null) throw new RuntimeException("Error: Service Level Objective not found");
 				
 				if (slObjective.getInstantBusinessObjective()!=null)
@@ -335,9 +297,9 @@ public class EscalationManagerImpl implements EscalationManager
 								if(slValue<slObjectiveValue)
 								{
 									StatusAlert alert = new StatusAlert();
-									if(this.currentEvaluationPeriod.equalsIgnoreCase(EscalationManagerImpl.DAY_NEXT))
+									if(ctx.currentEvaluationPeriod.equalsIgnoreCase(EscalationManagerImpl.DAY_NEXT))
 									{
-										timeslot += this.evalTimeRange.getNumOfTimeSlots();
+										timeslot += ctx.evalTimeRange.getNumOfTimeSlots();
 									}
 									alert.setStartTimeSlot(timeslot);
 									alert.setEndTimeSlot(timeslot+1);
@@ -354,7 +316,7 @@ public class EscalationManagerImpl implements EscalationManager
 											" (performance BELOW the Instant Service Level Objective)";
 									alert.setMessage(message);
 									
-									this.alerts.add(alert);
+									ctx.alerts.add(alert);
 								}
 							}						
 						}
@@ -364,7 +326,7 @@ public class EscalationManagerImpl implements EscalationManager
 		}
 	}
 
-	private void calculateFutureInstantBusinessStatus(AggregateActivityValues currentEval, int timeslot) 
+	private void calculateFutureInstantBusinessStatus(EvaluationContext ctx, AggregateActivityValues currentEval, int timeslot) 
 	{					
 		for(int i=0 ; i<currentEval.getInvolvedEascActivities().size() ; i++)
 		{
@@ -375,7 +337,7 @@ public class EscalationManagerImpl implements EscalationManager
 			{
 				Activity activity = eascAct.getInvolvedActivities().get(j);
 				String activityName = activity.getName();
-				ServiceLevelObjective slObjective = findServiceLevelObjective(eascName, activityName, currentEval.timestamp);
+				ServiceLevelObjective slObjective = ctx.findServiceLevelObjective(eascName, activityName, currentEval.timestamp);
 				if (slObjective==null) throw new RuntimeException("Error: Service Level Objective not found");
 				
 				if (slObjective.getInstantBusinessObjective()!=null)
@@ -402,9 +364,9 @@ public class EscalationManagerImpl implements EscalationManager
 								if(slValue<slObjectiveValue)
 								{
 									StatusAlert alert = new StatusAlert();
-									if(this.currentEvaluationPeriod.equalsIgnoreCase(EscalationManagerImpl.DAY_NEXT))
+									if(ctx.currentEvaluationPeriod.equalsIgnoreCase(EscalationManagerImpl.DAY_NEXT))
 									{
-										timeslot += this.evalTimeRange.getNumOfTimeSlots();
+										timeslot += ctx.evalTimeRange.getNumOfTimeSlots();
 									}
 									alert.setStartTimeSlot(timeslot);
 									alert.setEndTimeSlot(timeslot+1);
@@ -421,7 +383,7 @@ public class EscalationManagerImpl implements EscalationManager
 											" (performance BELOW the Instant Service Level Objective)";
 									alert.setMessage(message);
 									
-									this.alerts.add(alert);
+									ctx.alerts.add(alert);
 								}
 							}						
 						}
@@ -434,17 +396,17 @@ public class EscalationManagerImpl implements EscalationManager
 	
 	//for cumulative activities yet completed
 	//at the invoke time
-	private void calculateCompletedCumulativeBusinessStatus()
+	private void calculateCompletedCumulativeBusinessStatus(EvaluationContext ctx)
 	{
-		for(int i=0 ; i<this.evalEascServiceLevels.size() ; i++)
+		for(int i=0 ; i<ctx.evalEascServiceLevels.size() ; i++)
 		{
-			String eascName = this.evalEascServiceLevels.get(i).getEascName();
+			String eascName = ctx.evalEascServiceLevels.get(i).getEascName();
 			
-			List<ActivityServiceLevels> lasl = this.evalEascServiceLevels.get(i).getActivityServiceLevels();
+			List<ActivityServiceLevels> lasl = ctx.evalEascServiceLevels.get(i).getActivityServiceLevels();
 			for (int j=0 ; j<lasl.size() ; j++)
 			{				
 				String activityName = lasl.get(j).getActivityName();				
-				ServiceLevelObjective slObjective = findServiceLevelObjective(eascName, activityName, this.evalTimeRange.getDateFrom());
+				ServiceLevelObjective slObjective = ctx.findServiceLevelObjective(eascName, activityName, ctx.evalTimeRange.getDateFrom());
 				if (slObjective==null) throw new RuntimeException("Error: Service Level Objective not found");
 				
 				if (slObjective.getCumulativeBusinessObjective()!=null)
@@ -455,8 +417,8 @@ public class EscalationManagerImpl implements EscalationManager
 						ServiceLevel sl = lsl.get(lsl.size()-1);
 						if (sl!=null)
 						{
-							if(	sl.getDateTo().isBefore(this.dateNow) ||
-								sl.getDateTo().isEqual(this.dateNow) )
+							if(	sl.getDateTo().isBefore(ctx.dateNow) ||
+								sl.getDateTo().isEqual(ctx.dateNow) )
 							{
 								Amount<?> slAmount = sl.getCumulativeBusinessPerformance();
 								double slValue = slAmount.getEstimatedValue();
@@ -467,7 +429,7 @@ public class EscalationManagerImpl implements EscalationManager
 								{
 									StatusAlert alert = new StatusAlert();
 									int startTimeSlot = 0;
-									int endTimeSlot = this.evalTimeRange.getNumOfTimeSlots();
+									int endTimeSlot = ctx.evalTimeRange.getNumOfTimeSlots();
 									alert.setStartTimeSlot(startTimeSlot);
 									alert.setEndTimeSlot(endTimeSlot);
 									alert.setType(AlertType.BIZPERF);
@@ -483,7 +445,7 @@ public class EscalationManagerImpl implements EscalationManager
 											" (performance BELOW the Cumulative Service Level Objective)";
 									alert.setMessage(message);
 									
-									this.alerts.add(alert);
+									ctx.alerts.add(alert);
 								}
 							}								
 						}
@@ -497,13 +459,13 @@ public class EscalationManagerImpl implements EscalationManager
 	
 	//for cumulative activities not yet completed
 	//at the invoke time	
-	private void calculateCumulativeBusinessStatus() 
+	private void calculateCumulativeBusinessStatus(EvaluationContext ctx) 
 	{
 		// for all EascActivityPlan
-		for(int i=0 ; i<this.evalEascActivityPlans.size() ; i++)
+		for(int i=0 ; i<ctx.evalEascActivityPlans.size() ; i++)
 		{
-			String eascName = this.evalEascActivityPlans.get(i).getEascName();			
-			List<Activity> acts = this.evalEascActivityPlans.get(i).getActivities();
+			String eascName = ctx.evalEascActivityPlans.get(i).getEascName();			
+			List<Activity> acts = ctx.evalEascActivityPlans.get(i).getActivities();
 			// for all the Activities in the EascActPlan
 			for(int j=0 ; j<acts.size() ; j++)
 			{
@@ -513,7 +475,7 @@ public class EscalationManagerImpl implements EscalationManager
 				// for all the DC involved in the Activity
 				for(int k=0 ; !actInMyDC && k<actDC.size() ; k++)
 				{					
-					if(actDC.get(k).getDataCenterName().equalsIgnoreCase(this.evalDataCenterName))
+					if(actDC.get(k).getDataCenterName().equalsIgnoreCase(ctx.evalDataCenterName))
 					{
 						actInMyDC = true;
 					}
@@ -525,15 +487,15 @@ public class EscalationManagerImpl implements EscalationManager
 					{
 						ServiceLevel sl = activity.getServiceLevels().get(s);
 						if(sl.getCumulativeBusinessPerformance()!=null && 
-								(sl.getDateFrom().isEqual(this.evalTimeRange.getDateFrom()) && sl.getDateTo().isEqual(sl.getDateTo())))
+								(sl.getDateFrom().isEqual(ctx.evalTimeRange.getDateFrom()) && sl.getDateTo().isEqual(sl.getDateTo())))
 						{
 							Amount<?> slAmount = sl.getCumulativeBusinessPerformance();
 							double slValue = slAmount.getEstimatedValue();
-							ServiceLevelObjective slObjective = findServiceLevelObjective(eascName, activity.getName(), this.evalTimeRange.getDateFrom());
+							ServiceLevelObjective slObjective = ctx.findServiceLevelObjective(eascName, activity.getName(), ctx.evalTimeRange.getDateFrom());
 							if (slObjective==null) throw new RuntimeException("Error: Service Level Objective not found");						
 							Amount<?> slObjectiveAmount = slObjective.getCumulativeBusinessObjective();																				
 							double slObjectiveValue = slObjectiveAmount.getEstimatedValue();
-							slValue += getPastWorkDone(eascName, activity.getName(), slObjective);							
+							slValue += getPastWorkDone(ctx, eascName, activity.getName(), slObjective);							
 							
 							if (!(slAmount.getUnit().toString()).equals((slObjectiveAmount.getUnit().toString())))
 								throw new RuntimeException("Error: Service Level Amount not of the same measure unit");
@@ -542,11 +504,11 @@ public class EscalationManagerImpl implements EscalationManager
 							{
 								StatusAlert alert = new StatusAlert();
 								int startTimeSlot = 0;
-								int endTimeSlot = this.evalTimeRange.getNumOfTimeSlots();
-								if(this.currentEvaluationPeriod.equalsIgnoreCase(EscalationManagerImpl.DAY_NEXT))
+								int endTimeSlot = ctx.evalTimeRange.getNumOfTimeSlots();
+								if(ctx.currentEvaluationPeriod.equalsIgnoreCase(EscalationManagerImpl.DAY_NEXT))
 								{
-									startTimeSlot += this.evalTimeRange.getNumOfTimeSlots();
-									endTimeSlot += this.evalTimeRange.getNumOfTimeSlots();
+									startTimeSlot += ctx.evalTimeRange.getNumOfTimeSlots();
+									endTimeSlot += ctx.evalTimeRange.getNumOfTimeSlots();
 								}
 								alert.setStartTimeSlot(startTimeSlot);
 								alert.setEndTimeSlot(endTimeSlot);
@@ -563,7 +525,7 @@ public class EscalationManagerImpl implements EscalationManager
 										" (performance BELOW the Cumulative Service Level Objective)";
 								alert.setMessage(message);
 								
-								this.alerts.add(alert);
+								ctx.alerts.add(alert);
 							}
 							
 						}
@@ -573,12 +535,12 @@ public class EscalationManagerImpl implements EscalationManager
 		}				
 	}
 	
-	private void computeCumulativeBusinessStatus()
+	private void computeCumulativeBusinessStatus(EvaluationContext ctx)
 	{
-		for(int i=0 ; i<this.evalEascActivitySpecifications.size() ; i++)
+		for(int i=0 ; i<ctx.evalEascActivitySpecifications.size() ; i++)
 		{
-			String eascName = this.evalEascActivitySpecifications.get(i).getEascName();
-			List<ActivitySpecification> las = this.evalEascActivitySpecifications.get(i).getActivitySpecifications();
+			String eascName = ctx.evalEascActivitySpecifications.get(i).getEascName();
+			List<ActivitySpecification> las = ctx.evalEascActivitySpecifications.get(i).getActivitySpecifications();
 			for(int j=0 ; j<las.size() ; j++)
 			{
 				ActivitySpecification as = las.get(j);
@@ -588,7 +550,7 @@ public class EscalationManagerImpl implements EscalationManager
 				// for all the DC involved in the Activity
 				for(int k=0 ; !actInMyDC && k<actDC.size() ; k++)
 				{					
-					if(actDC.get(k).getDataCenterName().equalsIgnoreCase(this.evalDataCenterName))
+					if(actDC.get(k).getDataCenterName().equalsIgnoreCase(ctx.evalDataCenterName))
 					{
 						actInMyDC = true;
 					}
@@ -600,15 +562,15 @@ public class EscalationManagerImpl implements EscalationManager
 					{
 						if(lslo.get(0).getCumulativeBusinessObjective()!=null)
 						{
-							double slValue = computeInPast(eascName, activityName) + computeInFuture(eascName, activityName);
+							double slValue = computeInPast(ctx, eascName, activityName) + computeInFuture(ctx, eascName, activityName);
 							
 							ServiceLevelObjective slo = null;
 							boolean found = false;
 							for (int z=0 ; !found && z<lslo.size() ; z++)
 							{
 								slo = lslo.get(z);					 
-								if((this.evalTimeRange.getDateFrom().isEqual(slo.getDateFrom()) || this.evalTimeRange.getDateFrom().isAfter(slo.getDateFrom())) && 
-										this.evalTimeRange.getDateFrom().isBefore(slo.getDateTo()))
+								if((ctx.evalTimeRange.getDateFrom().isEqual(slo.getDateFrom()) || ctx.evalTimeRange.getDateFrom().isAfter(slo.getDateFrom())) && 
+										ctx.evalTimeRange.getDateFrom().isBefore(slo.getDateTo()))
 								{
 									found = true;
 								}
@@ -621,11 +583,11 @@ public class EscalationManagerImpl implements EscalationManager
 							{
 								StatusAlert alert = new StatusAlert();
 								int startTimeSlot = 0;
-								int endTimeSlot = this.evalTimeRange.getNumOfTimeSlots();
-								if(this.currentEvaluationPeriod.equalsIgnoreCase(EscalationManagerImpl.DAY_NEXT))
+								int endTimeSlot = ctx.evalTimeRange.getNumOfTimeSlots();
+								if(ctx.currentEvaluationPeriod.equalsIgnoreCase(EscalationManagerImpl.DAY_NEXT))
 								{
-									startTimeSlot += this.evalTimeRange.getNumOfTimeSlots();
-									endTimeSlot += this.evalTimeRange.getNumOfTimeSlots();
+									startTimeSlot += ctx.evalTimeRange.getNumOfTimeSlots();
+									endTimeSlot += ctx.evalTimeRange.getNumOfTimeSlots();
 								}
 								alert.setStartTimeSlot(startTimeSlot);
 								alert.setEndTimeSlot(endTimeSlot);
@@ -642,7 +604,7 @@ public class EscalationManagerImpl implements EscalationManager
 										" (performance BELOW the Cumulative Service Level Objective)";
 								alert.setMessage(message);
 								
-								this.alerts.add(alert);
+								ctx.alerts.add(alert);
 							}						
 						}
 					}					
@@ -652,55 +614,33 @@ public class EscalationManagerImpl implements EscalationManager
 	}
 
 
-	private double computeInPast(String eascName, String activityName) 
+	private double computeInPast(EvaluationContext ctx, String eascName, String activityName) 
 	{
-		for(int i=0 ; i<this.evalEascServiceLevels.size() ; i++)
+		for (ActivityServiceLevels asl : ctx.getServiceLevels(eascName, activityName))
 		{
-			if(this.evalEascServiceLevels.get(i).getEascName().equalsIgnoreCase(eascName))
+			List<ServiceLevel> lsl = asl.getServiceLevels();
+			if (!lsl.isEmpty())
 			{
-				List<ActivityServiceLevels> lasl = this.evalEascServiceLevels.get(i).getActivityServiceLevels();
-				for (int j=0 ; j<lasl.size() ; j++)
+				ServiceLevel sl = lsl.get(lsl.size()-1);
+				if (sl!=null)
 				{
-					if(lasl.get(j).getActivityName().equalsIgnoreCase(activityName))
-					{
-						List<ServiceLevel> lsl = lasl.get(j).getServiceLevels();
-						if (!lsl.isEmpty())
-						{
-							ServiceLevel sl = lsl.get(lsl.size()-1);
-							if (sl!=null)
-							{
-								return sl.getCumulativeBusinessPerformance().getEstimatedValue();																
-							}							
-						}														
-					}
-				}
-			}
+					return sl.getCumulativeBusinessPerformance().getEstimatedValue();																
+				}							
+			}														
 		}
 		return 0.0;
 	}
 	
-	private double computeInFuture(String eascName, String activityName) 
+	private double computeInFuture(EvaluationContext ctx, String eascName, String activityName) 
 	{
-		for(int i=0 ; i<this.evalEascActivityPlans.size() ; i++)
+		for (Activity activity : ctx.getPlannedActivities(eascName, activityName))
 		{
-			if(this.evalEascActivityPlans.get(i).getEascName().equalsIgnoreCase(eascName))
+			for (ServiceLevel sl : activity.getServiceLevels())
 			{
-				List<Activity> acts = this.evalEascActivityPlans.get(i).getActivities();
-				for(int j=0 ; j<acts.size() ; j++)
+				if(sl.getCumulativeBusinessPerformance()!=null && 
+						(sl.getDateFrom().isEqual(ctx.evalTimeRange.getDateFrom()) && sl.getDateTo().isEqual(sl.getDateTo())))
 				{
-					if(acts.get(j).getName().equalsIgnoreCase(activityName))
-					{
-						List<ServiceLevel> serviceLevels = acts.get(j).getServiceLevels();
-						for (int s=0 ; s<serviceLevels.size() ; s++)
-						{
-							ServiceLevel sl = serviceLevels.get(s);
-							if(sl.getCumulativeBusinessPerformance()!=null && 
-									(sl.getDateFrom().isEqual(this.evalTimeRange.getDateFrom()) && sl.getDateTo().isEqual(sl.getDateTo())))
-							{
-								return sl.getCumulativeBusinessPerformance().getEstimatedValue();									
-							}
-						}
-					}
+					return sl.getCumulativeBusinessPerformance().getEstimatedValue();									
 				}
 			}
 		}
@@ -709,92 +649,30 @@ public class EscalationManagerImpl implements EscalationManager
 	
 	
 
-	private ServiceLevelObjective findServiceLevelObjective(String eascName, String activityName, DateTime timestamp) 
+	private double getPastWorkDone(EvaluationContext ctx, String eascName, String activityName, ServiceLevelObjective slo) 
 	{
-		for(int i=0 ; i<this.evalEascActivitySpecifications.size() ; i++)
+		for (ActivityServiceLevels asl : ctx.getServiceLevels(eascName, activityName))
 		{
-			if(this.evalEascActivitySpecifications.get(i).getEascName().equalsIgnoreCase(eascName))
+			List<ServiceLevel> lsl = asl.getServiceLevels();
+			if (!lsl.isEmpty())
 			{
-				List<ActivitySpecification> las = this.evalEascActivitySpecifications.get(i).getActivitySpecifications();
-				for(int j=0 ; j<las.size() ; j++)
+				ServiceLevel sl = lsl.get(lsl.size()-1);
+				if (sl!=null)
 				{
-					ActivitySpecification as = las.get(j);
-					if (as.getActivityName().equalsIgnoreCase(activityName))
+					if(	(sl.getDateFrom().isAfter(slo.getDateFrom()) || sl.getDateFrom().isEqual(slo.getDateFrom()))
+								&&
+						(sl.getDateTo().isBefore(slo.getDateTo()) || sl.getDateTo().isEqual(slo.getDateTo()))	
+					  )
 					{
-						List<ServiceLevelObjective> lslo = as.getServiceLevelObjectives();
-						for (int z=0 ; z<lslo.size() ; z++)
-						{
-							ServiceLevelObjective slo = lslo.get(z);
-					
-							// both for instant and cumulative SLO 
-							if((timestamp.isEqual(slo.getDateFrom())||timestamp.isAfter(slo.getDateFrom())) && timestamp.isBefore(slo.getDateTo()))
-							{
-								return slo;
-							}
-						}
-					}
-				}
-			}				
-		}
-		return null;
-	}
-	
-	private double getPastWorkDone(String eascName, String activityName, ServiceLevelObjective slo) 
-	{
-		for(int i=0 ; i<this.evalEascServiceLevels.size() ; i++)
-		{
-			if(this.evalEascServiceLevels.get(i).getEascName().equalsIgnoreCase(eascName))
-			{
-				List<ActivityServiceLevels> lasl = this.evalEascServiceLevels.get(i).getActivityServiceLevels();
-				for (int j=0 ; j<lasl.size() ; j++)
-				{
-					if(lasl.get(j).getActivityName().equalsIgnoreCase(activityName))
-					{
-						List<ServiceLevel> lsl = lasl.get(j).getServiceLevels();
-						if (!lsl.isEmpty())
-						{
-							ServiceLevel sl = lsl.get(lsl.size()-1);
-							if (sl!=null)
-							{
-								if(	(sl.getDateFrom().isAfter(slo.getDateFrom()) || sl.getDateFrom().isEqual(slo.getDateFrom()))
-											&&
-									(sl.getDateTo().isBefore(slo.getDateTo()) || sl.getDateTo().isEqual(slo.getDateTo()))	
-								  )
-								{
-									return sl.getCumulativeBusinessPerformance().getEstimatedValue();
-								}								
-							}							
-						}														
-					}
-				}
-			}
+						return sl.getCumulativeBusinessPerformance().getEstimatedValue();
+					}								
+				}							
+			}														
 		}
 		return 0.0;
 	}
 
-	private List<PowerRenPercent> sort(DateTime dateTime, List<ErdsForecast> evalErdsForecasts) 
-	{
-		List<PowerRenPercent> sortedRenPercent = new LinkedList<PowerRenPercent>();
-		
-		for(int i=0 ; i<evalErdsForecasts.size() ; i++)
-		{
-			ErdsForecast erds = evalErdsForecasts.get(i);
-			for(int j=0 ; j<erds.getTimeSlotForecasts().size() ; j++)
-			{
-				TimeSlotErdsForecast tsef = erds.getTimeSlotForecasts().get(j);
-				DateTime erdsTime = erds.getDateFrom().plus(tsef.getTimeSlot()*erds.getTimeSlotDuration().longValue(SI.MILLI(SI.SECOND)));
-				if(erdsTime.equals(dateTime))
-				{
-					PowerRenPercent prp = new PowerRenPercent(tsef.getPower(), tsef.getRenewablePercentage());
-					sortedRenPercent.add(prp);
-				}
-			}
-		}
-		Collections.sort(sortedRenPercent, Collections.reverseOrder());
-		return sortedRenPercent;
-	}
-
-	private void addWorks(List<AggregateActivityValues> aggrValues, List<Work> works,
+	private void addWorks(EvaluationContext ctx, List<AggregateActivityValues> aggrValues, List<Work> works,
 			Activity activity, EascActivityPlan easc) 
 	{
 		for(int i=0 ; i<works.size() ; i++)
@@ -804,43 +682,43 @@ public class EscalationManagerImpl implements EscalationManager
 			
 			//DateTime eascStartTime = easc.getDateFrom();
 			
-			long timeSlotInMillis = this.evalTimeRange.getTimeSlotDuration().longValue(SI.MILLI(SI.SECOND));
-			long startWorkTimeInMillis = this.evalTimeRange.getDateFrom().getMillis() + timeSlotInMillis*w.getStartTimeSlot();
+			long timeSlotInMillis = ctx.evalTimeRange.getTimeSlotDuration().longValue(SI.MILLI(SI.SECOND));
+			long startWorkTimeInMillis = ctx.evalTimeRange.getDateFrom().getMillis() + timeSlotInMillis*w.getStartTimeSlot();
 			
 			DateTime workStartTime = new DateTime(startWorkTimeInMillis);
 			DateTime workEndTime = new DateTime(startWorkTimeInMillis+(timeSlotInMillis*numTimeSlot));
 			
 			TimeSlotBasedEntity workInTimeEntity = new TimeSlotBasedEntity();
-			workInTimeEntity.setTimeSlotDuration(this.evalTimeRange.getTimeSlotDuration());
+			workInTimeEntity.setTimeSlotDuration(ctx.evalTimeRange.getTimeSlotDuration());
 			workInTimeEntity.setDateFrom(workStartTime);
 			workInTimeEntity.setDateTo(workEndTime);
 			
-			if(this.isTimeIntersection(workInTimeEntity, this.evalTimeRange))
+			if(isTimeIntersection(workInTimeEntity, ctx.evalTimeRange))
 			{
 				int startIndex = -1;
 				int endIndex = -1;
 				
-				if(workStartTime.isBefore(this.evalTimeRange.getDateFrom()))
+				if(workStartTime.isBefore(ctx.evalTimeRange.getDateFrom()))
 				{
 					// time intersection at the end
 					startIndex = 0;
-					long startDateInMillis = this.evalTimeRange.getDateFrom().getMillis();
+					long startDateInMillis = ctx.evalTimeRange.getDateFrom().getMillis();
 					endIndex = (int)((workEndTime.getMillis()-startDateInMillis)/timeSlotInMillis);
 				}
-				else if (workEndTime.isAfter(this.evalTimeRange.getDateTo()))
+				else if (workEndTime.isAfter(ctx.evalTimeRange.getDateTo()))
 				{
 					// time intersection at the start
-					endIndex = this.evalTimeRange.getNumOfTimeSlots();
-					startIndex = (int)((startWorkTimeInMillis-this.evalTimeRange.getDateFrom().getMillis())/timeSlotInMillis);					
+					endIndex = ctx.evalTimeRange.getNumOfTimeSlots();
+					startIndex = (int)((startWorkTimeInMillis-ctx.evalTimeRange.getDateFrom().getMillis())/timeSlotInMillis);					
 				}
 				else
 				{
 					// full intersection
-					startIndex = (int)((startWorkTimeInMillis-this.evalTimeRange.getDateFrom().getMillis())/timeSlotInMillis);
+					startIndex = (int)((startWorkTimeInMillis-ctx.evalTimeRange.getDateFrom().getMillis())/timeSlotInMillis);
 					endIndex = startIndex+numTimeSlot;
 				}
 				
-				//DateTime startTime = this.evalTimeRange.getDateFrom().plus(startIndex*timeSlotInMillis);
+				//DateTime startTime = ctx.evalTimeRange.getDateFrom().plus(startIndex*timeSlotInMillis);
 				
 				for(int j=startIndex ; j<endIndex ; j++)
 				{
@@ -852,48 +730,50 @@ public class EscalationManagerImpl implements EscalationManager
 		
 	}
 
-	private void splitTimeRange(TimeSlotBasedEntity timeRange, 
+	private void splitTimeRange(EvaluationContext ctx, TimeSlotBasedEntity timeRange, 
 			List<ErdsForecast> erdsForecasts, 
 			List<EascActivityPlan> eascActivityPlans) 
 	{
-		this.evalErdsForecasts = new LinkedList<ErdsForecast>();
-		this.evalEascActivityPlans = new LinkedList<EascActivityPlan>();
+		List<ErdsForecast> evalErdsForecasts = new ArrayList<ErdsForecast>();
+		List<EascActivityPlan> evalEascActivityPlans = new ArrayList<EascActivityPlan>();
 		
-		this.evalTimeRange = new TimeSlotBasedEntity();
-		this.evalTimeRange.setTimeSlotDuration(timeRange.getTimeSlotDuration());
+		TimeSlotBasedEntity evalTimeRange = new TimeSlotBasedEntity();
+		evalTimeRange.setTimeSlotDuration(timeRange.getTimeSlotDuration());
 		
-		if(this.currentEvaluationPeriod.equalsIgnoreCase(EscalationManagerImpl.DAY_CURRENT))
+		if(ctx.currentEvaluationPeriod.equalsIgnoreCase(EscalationManagerImpl.DAY_CURRENT))
 		{			
-			this.evalTimeRange.setDateFrom(timeRange.getDateFrom());
-			this.evalTimeRange.setDateTo(this.evalTimeRange.getDateFrom().plusDays(1));
+			evalTimeRange.setDateFrom(timeRange.getDateFrom());
+			evalTimeRange.setDateTo(evalTimeRange.getDateFrom().plusDays(1));
 		}
-		else if(this.currentEvaluationPeriod.equalsIgnoreCase(EscalationManagerImpl.DAY_NEXT))
+		else if(ctx.currentEvaluationPeriod.equalsIgnoreCase(EscalationManagerImpl.DAY_NEXT))
 		{
-			this.evalTimeRange.setDateTo(timeRange.getDateTo());
-			this.evalTimeRange.setDateFrom(timeRange.getDateTo().minusDays(1));
+			evalTimeRange.setDateTo(timeRange.getDateTo());
+			evalTimeRange.setDateFrom(timeRange.getDateTo().minusDays(1));
 		}
 		else throw new RuntimeException("Unknown time range to evaluate");
 		
 		// add only erdsForecasts in the evalTimeRange
-		for(int i=0 ; i<erdsForecasts.size() ; i++)
+		for (ErdsForecast erdsForecast : erdsForecasts)
 		{	
-			if(isTimeIntersection(erdsForecasts.get(i), evalTimeRange))
+			if(isTimeIntersection(erdsForecast, evalTimeRange))
 			{
-				this.evalErdsForecasts.add(erdsForecasts.get(i));
+				evalErdsForecasts.add(erdsForecast);
 			}
 		}
 			
 		// add only eascActivityPlans in the evalTimeRange
-		for(int i=0 ; i<eascActivityPlans.size() ; i++)
+		for (EascActivityPlan eascActivityPlan : eascActivityPlans)
 		{
-			if(isTimeIntersection(eascActivityPlans.get(i), evalTimeRange))
+			if(isTimeIntersection(eascActivityPlan, evalTimeRange))
 			{
-				this.evalEascActivityPlans.add(eascActivityPlans.get(i));
+				evalEascActivityPlans.add(eascActivityPlan);
 			}
 		}
+		
+		ctx.setPeriod(evalTimeRange, evalErdsForecasts, evalEascActivityPlans);
 	}
 
-	private boolean isTimeIntersection(TimeSlotBasedEntity target, TimeSlotBasedEntity reference)
+	private static boolean isTimeIntersection(TimeSlotBasedEntity target, TimeSlotBasedEntity reference)
 	{
 		if(target.getDateTo().isBefore(reference.getDateFrom()) || target.getDateFrom().isAfter(reference.getDateTo()))
 			return false;
@@ -941,186 +821,4 @@ public class EscalationManagerImpl implements EscalationManager
 	public void setWarnThreshold(int warnThreshold) {
 		this.warnThreshold = warnThreshold;
 	}
-
-	/**
-	 * @return the alerts
-	 */
-	public List<StatusAlert> getAlerts() {
-		return alerts;
-	}
-
-	/**
-	 * @param alerts the alerts to set
-	 */
-	public void setAlerts(List<StatusAlert> alerts) {
-		this.alerts = alerts;
-	}
-
-	/**
-	 * @return the dataCenterStatus
-	 */
-	public DataCenterStatus getDataCenterStatus() {
-		return dataCenterStatus;
-	}
-
-	/**
-	 * @param dataCenterStatus the dataCenterStatus to set
-	 */
-	public void setDataCenterStatus(DataCenterStatus dataCenterStatus) {
-		this.dataCenterStatus = dataCenterStatus;
-	}
-
-	/**
-	 * @return the evalDataCenterName
-	 */
-	public String getEvalDataCenterName() {
-		return evalDataCenterName;
-	}
-
-	/**
-	 * @param evalDataCenterName the evalDataCenterName to set
-	 */
-	public void setEvalDataCenterName(String evalDataCenterName) {
-		this.evalDataCenterName = evalDataCenterName;
-	}
-
-	/**
-	 * @return the evalTimeRange
-	 */
-	public TimeSlotBasedEntity getEvalTimeRange() {
-		return evalTimeRange;
-	}
-
-	/**
-	 * @param evalTimeRange the evalTimeRange to set
-	 */
-	public void setEvalTimeRange(TimeSlotBasedEntity evalTimeRange) {
-		this.evalTimeRange = evalTimeRange;
-	}
-
-	/**
-	 * @return the evalDataCenterObjectives
-	 */
-	public List<Objective> getEvalDataCenterObjectives() {
-		return evalDataCenterObjectives;
-	}
-
-	/**
-	 * @param evalDataCenterObjectives the evalDataCenterObjectives to set
-	 */
-	public void setEvalDataCenterObjectives(List<Objective> evalDataCenterObjectives) {
-		this.evalDataCenterObjectives = evalDataCenterObjectives;
-	}
-
-	/**
-	 * @return the evalErdsForecasts
-	 */
-	public List<ErdsForecast> getEvalErdsForecasts() {
-		return evalErdsForecasts;
-	}
-
-	/**
-	 * @param evalErdsForecasts the evalErdsForecasts to set
-	 */
-	public void setEvalErdsForecasts(List<ErdsForecast> evalErdsForecasts) {
-		this.evalErdsForecasts = evalErdsForecasts;
-	}
-
-	/**
-	 * @return the evalEascActivitySpecifications
-	 */
-	public List<EascActivitySpecifications> getEvalEascActivitySpecifications() {
-		return evalEascActivitySpecifications;
-	}
-
-	/**
-	 * @param evalEascActivitySpecifications the evalEascActivitySpecifications to set
-	 */
-	public void setEvalEascActivitySpecifications(List<EascActivitySpecifications> evalEascActivitySpecifications) {
-		this.evalEascActivitySpecifications = evalEascActivitySpecifications;
-	}
-
-	/**
-	 * @return the evalDataCenterPowerActual
-	 */
-	public DataCenterPower getEvalDataCenterPowerActual() {
-		return evalDataCenterPowerActual;
-	}
-
-	/**
-	 * @param evalDataCenterPowerActual the evalDataCenterPowerActual to set
-	 */
-	public void setEvalDataCenterPowerActual(DataCenterPower evalDataCenterPowerActual) {
-		this.evalDataCenterPowerActual = evalDataCenterPowerActual;
-	}
-
-	/**
-	 * @return the evalEascServiceLevels
-	 */
-	public List<EascServiceLevels> getEvalEascServiceLevels() {
-		return evalEascServiceLevels;
-	}
-
-	/**
-	 * @param evalEascServiceLevels the evalEascServiceLevels to set
-	 */
-	public void setEvalEascServiceLevels(List<EascServiceLevels> evalEascServiceLevels) {
-		this.evalEascServiceLevels = evalEascServiceLevels;
-	}
-
-	/**
-	 * @return the evalEascActivityPlans
-	 */
-	public List<EascActivityPlan> getEvalEascActivityPlans() {
-		return evalEascActivityPlans;
-	}
-
-	/**
-	 * @param evalEascActivityPlans the evalEascActivityPlans to set
-	 */
-	public void setEvalEascActivityPlans(List<EascActivityPlan> evalEascActivityPlans) {
-		this.evalEascActivityPlans = evalEascActivityPlans;
-	}
-
-	/**
-	 * @return the evalPowerObjective
-	 */
-	public Objective getEvalPowerObjective() {
-		return evalPowerObjective;
-	}
-
-	/**
-	 * @param evalPowerObjective the evalPowerObjective to set
-	 */
-	public void setEvalPowerObjective(Objective evalPowerObjective) {
-		this.evalPowerObjective = evalPowerObjective;
-	}
-
-	/**
-	 * @return the currentEvaluatioPeriod
-	 */
-	public String getCurrentEvaluationPeriod() {
-		return currentEvaluationPeriod;
-	}
-
-	/**
-	 * @param currentEvaluatioPeriod the currentEvaluatioPeriod to set
-	 */
-	public void setCurrentEvaluationPeriod(String currentEvaluatioPeriod) {
-		this.currentEvaluationPeriod = currentEvaluatioPeriod;
-	}
-
-	/**
-	 * @return the invokTimeRange
-	 */
-	public TimeSlotBasedEntity getInvokTimeRange() {
-		return invokTimeRange;
-	}
-
-	/**
-	 * @param invokTimeRange the invokTimeRange to set
-	 */
-	public void setInvokTimeRange(TimeSlotBasedEntity invokTimeRange) {
-		this.invokTimeRange = invokTimeRange;
-	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.dc4cities.controlsystem.modules.escalationmanager;
+
+import eu.dc4cities.configuration.goal.Objective;
+import eu.dc4cities.controlsystem.model.TimeSlotBasedEntity;
+import eu.dc4cities.controlsystem.model.datacenter.DataCenterPower;
+import eu.dc4cities.controlsystem.model.datacenter.StatusAlert;
+import eu.dc4cities.controlsystem.model.easc.*;
+import eu.dc4cities.controlsystem.model.erds.ErdsForecast;
+import eu.dc4cities.controlsystem.model.erds.TimeSlotErdsForecast;
+import org.joda.time.DateTime;
+
+import javax.measure.unit.SI;
+import java.util.*;
+
+/**
+ * The state of the evaluation of a data center status.
+ * <p>
+ * A new context is created at each {@link EscalationManagerImpl#determineDcStatus} call, so the escalation manager
+ * itself keeps no state between calls and can evaluate several data centers at once. The context also holds lookup
+ * structures: activity specifications and service levels are indexed by EASC and activity name (ignoring case, as the
+ * names are compared elsewhere) once per evaluation, activity plans and ERDS forecasts once per evaluated period, so
+ * that the per time slot evaluation does not scan the whole input again.
+ */
+class EvaluationContext 
+{
+	private static final String RENEWABLE_OBJECTIVE = "renewableObjective";
+	
+	// # EVALUATION INPUT # //
+	final String evalDataCenterName;
+	final DateTime dateNow;
+	final List<EascActivitySpecifications> evalEascActivitySpecifications;
+	final DataCenterPower evalDataCenterPowerActual; 
+	final List<EascServiceLevels> evalEascServiceLevels;
+	
+	// Evaluation results, per time slot
+	final List<StatusAlert> alerts = new LinkedList<StatusAlert>();
+	
+	// # PER EVALUATION PERIOD # //
+	String currentEvaluationPeriod;
+	TimeSlotBasedEntity evalTimeRange;
+	List<EascActivityPlan> evalEascActivityPlans;
+	
+	private final Map<String, List<ActivitySpecification>> specifications = new HashMap<>();
+	private final Map<String, List<ActivityServiceLevels>> serviceLevels = new HashMap<>();
+	private final Objective renewableObjective;
+	private Map<String, List<Activity>> plannedActivities;
+	private List<List<TimeSlotErdsForecast>> forecasts;
+	
+	/**
+	 * Creates the context of an evaluation and indexes the inputs that don't depend on the evaluated period.
+	 * 
+	 * @param dataCenterName the name of the evaluated data center
+	 * @param dateNow the invocation time of the evaluation
+	 * @param dataCenterObjectives the data center objectives
+	 * @param eascActivitySpecifications the activity specifications of all EASCs
+	 * @param dataCenterPowerActual the actual power consumption of the data center, may be null
+	 * @param eascServiceLevels the service levels of all EASCs
+	 */
+	EvaluationContext(String dataCenterName, DateTime dateNow, List<Objective> dataCenterObjectives,
+			List<EascActivitySpecifications> eascActivitySpecifications, DataCenterPower dataCenterPowerActual,
+			List<EascServiceLevels> eascServiceLevels)
+	{
+		this.evalDataCenterName = dataCenterName;
+		this.dateNow = dateNow;
+		this.evalEascActivitySpecifications = eascActivitySpecifications;
+		this.evalDataCenterPowerActual = dataCenterPowerActual;
+		this.evalEascServiceLevels = eascServiceLevels;
+		
+		Objective renewable = null;
+		if (dataCenterObjectives != null) 
+		{
+			for (Objective o : dataCenterObjectives) 
+			{
+				// the last matching objective is used
+				if (o.getDataCenterId().equalsIgnoreCase(dataCenterName) && o.getId().equalsIgnoreCase(RENEWABLE_OBJECTIVE))
+					renewable = o;
+			}
+		}
+		this.renewableObjective = renewable;
+		
+		for (EascActivitySpecifications eascSpecs : eascActivitySpecifications) 
+		{
+			for (ActivitySpecification as : eascSpecs.getActivitySpecifications())
+			{
+				add(this.specifications, key(eascSpecs.getEascName(), as.getActivityName()), as);
+			}
+		}
+		if (eascServiceLevels != null) 
+		{
+			for (EascServiceLevels eascSL : eascServiceLevels) 
+			{
+				for (ActivityServiceLevels actSL : eascSL.getActivityServiceLevels())
+				{
+					add(this.serviceLevels, key(eascSL.getEascName(), actSL.getActivityName()), actSL);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Sets the evaluated period and indexes its activity plans and ERDS forecasts. The forecasts are bucketed by the
+	 * time slot of the period they start at.
+	 * 
+	 * @param timeRange the evaluated period
+	 * @param erdsForecasts the ERDS forecasts intersecting the period
+	 * @param eascActivityPlans the activity plans intersecting the period
+	 */
+	void setPeriod(TimeSlotBasedEntity timeRange, List<ErdsForecast> erdsForecasts, 
+			List<EascActivityPlan> eascActivityPlans)
+	{
+		this.evalTimeRange = timeRange;
+		this.evalEascActivityPlans = eascActivityPlans;
+		this.plannedActivities = new HashMap<>();
+		for (EascActivityPlan plan : eascActivityPlans) 
+		{
+			for (Activity a : plan.getActivities()) 
+			{
+				add(this.plannedActivities, key(plan.getEascName(), a.getName()), a);
+			}
+		}
+		
+		int numOfTimeSlots = timeRange.getNumOfTimeSlots();
+		this.forecasts = new ArrayList<>(numOfTimeSlots);
+		for (int i = 0; i < numOfTimeSlots; i++) 
+		{
+			this.forecasts.add(new ArrayList<TimeSlotErdsForecast>());
+		}
+		DateTime dateFrom = timeRange.getDateFrom();
+		long timeSlotInMillis = timeRange.getTimeSlotDuration().longValue(SI.MILLI(SI.SECOND));
+		for (ErdsForecast erds : erdsForecasts) 
+		{
+			// time stamps of different chronologies never match 
+			if (!erds.getDateFrom().getChronology().equals(dateFrom.getChronology()))
+				continue;
+			long erdsTimeSlotInMillis = erds.getTimeSlotDuration().longValue(SI.MILLI(SI.SECOND));
+			for (TimeSlotErdsForecast tsef : erds.getTimeSlotForecasts()) 
+			{
+				long offset = erds.getDateFrom().getMillis() + tsef.getTimeSlot() * erdsTimeSlotInMillis 
+						- dateFrom.getMillis();
+				if (offset >= 0 && offset % timeSlotInMillis == 0 && offset / timeSlotInMillis < numOfTimeSlots) 
+				{
+					this.forecasts.get((int) (offset / timeSlotInMillis)).add(tsef);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * @return the renewable percentage objective of the data center, or null if not found
+	 */
+	Objective getRenewableObjective() 
+	{
+		return renewableObjective;
+	}
+	
+	/**
+	 * Returns the ERDS forecasts of a time slot of the evaluated period, sorted by decreasing renewable percentage.
+	 * 
+	 * @param timeSlot the time slot in the evaluated period
+	 * @return new power and renewable percentage pairs, that can be freely modified
+	 */
+	List<PowerRenPercent> sortedForecasts(int timeSlot) 
+	{
+		List<TimeSlotErdsForecast> slotForecasts = this.forecasts.get(timeSlot);
+		List<PowerRenPercent> sortedRenPercent = new ArrayList<PowerRenPercent>(slotForecasts.size());
+		for (TimeSlotErdsForecast tsef : slotForecasts) 
+		{
+			sortedRenPercent.add(new PowerRenPercent(tsef.getPower(), tsef.getRenewablePercentage()));
+		}
+		Collections.sort(sortedRenPercent, Collections.reverseOrder());
+		return sortedRenPercent;
+	}
+	
+	/**
+	 * Returns the first service level objective of an activity active at the given time.
+	 * 
+	 * @param eascName the EASC name
+	 * @param activityName the activity name
+	 * @param timestamp the time stamp to look for
+	 * @return the service level objective, or null if not found
+	 */
+	ServiceLevelObjective findServiceLevelObjective(String eascName, String activityName, DateTime timestamp) 
+	{
+		for (ActivitySpecification as : get(this.specifications, eascName, activityName)) 
+		{
+			for (ServiceLevelObjective slo : as.getServiceLevelObjectives()) 
+			{
+				// both for instant and cumulative SLO 
+				if ((timestamp.isEqual(slo.getDateFrom()) || timestamp.isAfter(slo.getDateFrom())) && timestamp.isBefore(slo.getDateTo()))
+				{
+					return slo;
+				}
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * @return the service levels of an activity, in the order of the input
+	 */
+	List<ActivityServiceLevels> getServiceLevels(String eascName, String activityName) 
+	{
+		return get(this.serviceLevels, eascName, activityName);
+	}
+	
+	/**
+	 * @return the planned activities with the given name in the evaluated period, in the order of the input
+	 */
+	List<Activity> getPlannedActivities(String eascName, String activityName) 
+	{
+		return get(this.plannedActivities, eascName, activityName);
+	}
+	
+	private static <T> void add(Map<String, List<T>> index, String key, T value) 
+	{
+		List<T> values = index.get(key);
+		if (values == null) 
+		{
+			values = new ArrayList<T>(1);
+			index.put(key, values);
+		}
+		values.add(value);
+	}
+	
+	private static <T> List<T> get(Map<String, List<T>> index, String eascName, String activityName) 
+	{
+		List<T> values = index.get(key(eascName, activityName));
+		return values == null ? Collections.<T>emptyList() : values;
+	}
+	
+	private static String key(String eascName, String activityName) 
+	{
+		return eascName.toLowerCase(Locale.ROOT) + '\u0000' + activityName.toLowerCase(Locale.ROOT);
+	}
+	
+}
@@ -0,0 +1,321 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.dc4cities.controlsystem.modules.escalationmanager;
+
+import eu.dc4cities.configuration.goal.Objective;
+import eu.dc4cities.configuration.goal.Target;
+import eu.dc4cities.controlsystem.model.TimeParameters;
+import eu.dc4cities.controlsystem.model.TimeSlotBasedEntity;
+import eu.dc4cities.controlsystem.model.TimeSlotPower;
+import eu.dc4cities.controlsystem.model.datacenter.DataCenterPower;
+import eu.dc4cities.controlsystem.model.datacenter.DataCenterStatus;
+import eu.dc4cities.controlsystem.model.datacenter.StatusAlert;
+import eu.dc4cities.controlsystem.model.easc.*;
+import eu.dc4cities.controlsystem.model.erds.ErdsForecast;
+import eu.dc4cities.controlsystem.model.erds.TimeSlotErdsForecast;
+import eu.dc4cities.controlsystem.model.unit.Units;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.jscience.physics.amount.Amount;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.measure.unit.NonSI;
+import javax.measure.unit.SI;
+import javax.measure.unit.Unit;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Characterization tests for {@link EscalationManagerImpl}. The alerts computed on a two day fixture with two EASCs,
+ * instant and cumulative activities spread over two data centers and two ERDS per data center are compared with the
+ * ones of the original implementation, recorded in {@code escalation-alerts-<data center>.txt}. The same alerts are
+ * expected when a single instance evaluates the data centers concurrently.
+ */
+public class EscalationManagerImplTest {
+
+	private static final DateTime FROM = new DateTime(2015, 5, 10, 0, 0, DateTimeZone.UTC);
+	private static final DateTime NOW = FROM.plusHours(10);
+	private static final int SLOTS = 48;
+	private static final Unit<?> REQ_PER_SECOND = Units.REQUEST.divide(SI.SECOND);
+	private static final Unit<?> GBIT = SI.GIGA(SI.BIT);
+
+	@Test
+	public void testAlertsDc1() throws IOException {
+		assertBaselineAlerts("dc1");
+	}
+
+	@Test
+	public void testAlertsDc2() throws IOException {
+		assertBaselineAlerts("dc2");
+	}
+
+	@Test
+	public void testConcurrentEvaluations() throws Exception {
+		// A single instance evaluates all the data centers in parallel, from the same EASC inputs
+		EscalationManagerImpl escalationManager = new EscalationManagerImpl();
+		List<EascActivitySpecifications> specifications = specifications();
+		List<EascServiceLevels> serviceLevels = serviceLevels();
+		List<EascActivityPlan> plans = plans();
+		List<String> dataCenterNames = Arrays.asList("dc1", "dc2");
+		Map<String, List<String>> expected = new HashMap<>();
+		for (String dataCenterName : dataCenterNames) {
+			expected.put(dataCenterName, baseline(dataCenterName));
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<DataCenterStatus>> futures = new ArrayList<>();
+			CountDownLatch start = new CountDownLatch(1);
+			for (int i = 0; i < 64; i++) {
+				String dataCenterName = dataCenterNames.get(i % dataCenterNames.size());
+				futures.add(executor.submit(() -> {
+					start.await();
+					return determineDcStatus(escalationManager, dataCenterName, specifications, serviceLevels, plans);
+				}));
+			}
+			start.countDown();
+			for (Future<DataCenterStatus> future : futures) {
+				DataCenterStatus status = future.get(30, TimeUnit.SECONDS);
+				Assert.assertEquals(expected.get(status.getDataCenterName()), describe(status.getAlerts()));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static void assertBaselineAlerts(String dataCenterName) throws IOException {
+		DataCenterStatus status = determineDcStatus(new EscalationManagerImpl(), dataCenterName);
+		Assert.assertEquals(dataCenterName, status.getDataCenterName());
+		Assert.assertEquals(FROM, status.getDateFrom());
+		Assert.assertEquals(FROM.plusDays(2), status.getDateTo());
+		Assert.assertEquals(baseline(dataCenterName), describe(status.getAlerts()));
+	}
+
+	static DataCenterStatus determineDcStatus(EscalationManagerImpl escalationManager, String dataCenterName) {
+		return determineDcStatus(escalationManager, dataCenterName, specifications(), serviceLevels(), plans());
+	}
+
+	private static DataCenterStatus determineDcStatus(EscalationManagerImpl escalationManager, String dataCenterName,
+			List<EascActivitySpecifications> specifications, List<EascServiceLevels> serviceLevels,
+			List<EascActivityPlan> plans) {
+		// Unit labels appear in the alert messages
+		Units.init();
+		escalationManager.setWarnThreshold(80);
+		TimeSlotBasedEntity range = range();
+		return escalationManager.determineDcStatus(dataCenterName, new TimeParameters(NOW, range), objectives(),
+				forecasts(dataCenterName, range), specifications, actuals(dataCenterName, range), serviceLevels,
+				plans);
+	}
+
+	private static TimeSlotBasedEntity range() {
+		TimeSlotBasedEntity range = new TimeSlotBasedEntity();
+		range.setDateFrom(FROM);
+		range.setDateTo(FROM.plusDays(2));
+		range.setTimeSlotDuration(Amount.valueOf(1, NonSI.HOUR));
+		return range;
+	}
+
+	static List<String> describe(List<StatusAlert> alerts) {
+		List<String> lines = new ArrayList<>(alerts.size());
+		for (StatusAlert alert : alerts) {
+			lines.add(alert.getStartTimeSlot() + "-" + alert.getEndTimeSlot() + " " + alert.getType() + " "
+					+ alert.getSeverity() + " " + alert.getEascName() + "/" + alert.getActivityName() + " "
+					+ alert.getMessage());
+		}
+		return lines;
+	}
+
+	private static List<String> baseline(String dataCenterName) throws IOException {
+		String resource = "escalation-alerts-" + dataCenterName + ".txt";
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+				EscalationManagerImplTest.class.getClassLoader().getResourceAsStream(resource),
+				StandardCharsets.UTF_8))) {
+			return reader.lines().collect(Collectors.toList());
+		}
+	}
+
+	private static List<Objective> objectives() {
+		return Arrays.asList(objective("dc1", "renewableObjective", Target.GREATER_EQUALS, 50),
+				objective("dc1", "costObjective", Target.LESS_THAN, 10),
+				objective("dc2", "renewableObjective", Target.GREATER_THAN, 45));
+	}
+
+	private static Objective objective(String dataCenterName, String id, String operator, double value) {
+		Target target = new Target();
+		target.setOperator(operator);
+		target.setValue(value);
+		Objective objective = new Objective();
+		objective.setId(id);
+		objective.setDataCenterId(dataCenterName);
+		objective.setTarget(target);
+		return objective;
+	}
+
+	private static List<ErdsForecast> forecasts(String dataCenterName, TimeSlotBasedEntity range) {
+		boolean dc1 = dataCenterName.equals("dc1");
+		ErdsForecast grid = new ErdsForecast("grid");
+		ErdsForecast pv = new ErdsForecast("pv");
+		grid.copyIntervalFrom(range);
+		pv.copyIntervalFrom(range);
+		grid.setTimeSlotForecasts(new ArrayList<>());
+		pv.setTimeSlotForecasts(new ArrayList<>());
+		for (int i = 0; i < SLOTS; i++) {
+			int hour = i % 24;
+			boolean daylight = hour >= 6 && hour < 18;
+			grid.getTimeSlotForecasts().add(erdsSlot(i, dc1 ? 25 : 40, 2000));
+			pv.getTimeSlotForecasts().add(erdsSlot(i, 100, daylight ? (dc1 ? 300 : 600) : 0));
+		}
+		return Arrays.asList(grid, pv);
+	}
+
+	private static TimeSlotErdsForecast erdsSlot(int timeSlot, double renPercent, double watts) {
+		TimeSlotErdsForecast forecast = new TimeSlotErdsForecast(timeSlot);
+		forecast.setPower(Amount.valueOf(watts, SI.WATT));
+		forecast.setRenewablePercentage(Amount.valueOf(renPercent, NonSI.PERCENT));
+		return forecast;
+	}
+
+	private static DataCenterPower actuals(String dataCenterName, TimeSlotBasedEntity range) {
+		DataCenterPower power = new DataCenterPower(dataCenterName);
+		power.copyIntervalFrom(range);
+		power.setPowerValues(new ArrayList<>());
+		for (int i = 0; i < 10; i++) {
+			double watts = dataCenterName.equals("dc1") ? 250 + 10 * i : 400;
+			power.getPowerValues().add(new TimeSlotPower(i, Amount.valueOf(watts, SI.WATT)));
+		}
+		return power;
+	}
+
+	private static List<EascActivitySpecifications> specifications() {
+		EascActivitySpecifications easc1 = new EascActivitySpecifications("easc1");
+		easc1.setActivitySpecifications(Arrays.asList(
+				specification("Web", Relocability.NO, Amount.valueOf(10, REQ_PER_SECOND), null, "dc1"),
+				specification("Batch", Relocability.MIGRATABLE, null, Amount.valueOf(1000, GBIT), "dc1", "dc2")));
+		EascActivitySpecifications easc2 = new EascActivitySpecifications("easc2");
+		easc2.setActivitySpecifications(Arrays.asList(
+				specification("Render", Relocability.NO, null, Amount.valueOf(50, GBIT), "dc2"),
+				specification("Api", Relocability.MIGRATABLE, Amount.valueOf(5, REQ_PER_SECOND), null, "dc1", "dc2")));
+		return Arrays.asList(easc1, easc2);
+	}
+
+	private static ActivitySpecification specification(String name, Relocability relocability,
+			Amount<?> instantObjective, Amount<?> cumulativeObjective, String... dataCenterNames) {
+		ActivitySpecification specification = new ActivitySpecification(name);
+		specification.setRelocability(relocability);
+		List<DataCenterSpecification> dataCenters = new ArrayList<>();
+		for (String dataCenterName : dataCenterNames) {
+			dataCenters.add(new DataCenterSpecification(dataCenterName));
+		}
+		specification.setDataCenters(dataCenters);
+		List<ServiceLevelObjective> objectives = new ArrayList<>();
+		for (int day = 0; day < 2; day++) {
+			objectives.add(new ServiceLevelObjective(FROM.plusDays(day), FROM.plusDays(day + 1), instantObjective,
+					cumulativeObjective, null, new ArrayList<>()));
+		}
+		specification.setServiceLevelObjectives(objectives);
+		return specification;
+	}
+
+	private static List<EascServiceLevels> serviceLevels() {
+		List<ServiceLevel> web = new ArrayList<>();
+		List<ServiceLevel> api = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			double[] webValues = {12, 9, 5};
+			web.add(instant(i, webValues[i % 3]));
+			api.add(instant(i, i % 2 == 0 ? 4 : 6));
+		}
+		EascServiceLevels easc1 = new EascServiceLevels("easc1");
+		easc1.setActivityServiceLevels(Arrays.asList(activityServiceLevels("Web", web),
+				activityServiceLevels("Batch", Arrays.asList(cumulative(FROM, NOW, 300)))));
+		EascServiceLevels easc2 = new EascServiceLevels("easc2");
+		easc2.setActivityServiceLevels(Arrays.asList(
+				activityServiceLevels("Render", Arrays.asList(cumulative(FROM, NOW, 10))),
+				activityServiceLevels("Api", api)));
+		return Arrays.asList(easc1, easc2);
+	}
+
+	private static ActivityServiceLevels activityServiceLevels(String name, List<ServiceLevel> serviceLevels) {
+		ActivityServiceLevels activityServiceLevels = new ActivityServiceLevels(name);
+		activityServiceLevels.setServiceLevels(serviceLevels);
+		return activityServiceLevels;
+	}
+
+	private static ServiceLevel instant(int timeSlot, double value) {
+		return new ServiceLevel(FROM.plusHours(timeSlot), FROM.plusHours(timeSlot + 1),
+				Amount.valueOf(value, REQ_PER_SECOND), null);
+	}
+
+	private static ServiceLevel cumulative(DateTime from, DateTime to, double value) {
+		return new ServiceLevel(from, to, null, Amount.valueOf(value, GBIT));
+	}
+
+	private static List<EascActivityPlan> plans() {
+		TimeSlotBasedEntity range = range();
+		Activity web = new Activity("Web");
+		web.getDataCenters().add(activityDataCenter("dc1", work(10, SLOTS, 200)));
+		double[] webValues = {11, 9.5, 7, 0};
+		for (int i = 10; i < SLOTS; i++) {
+			web.getServiceLevels().add(instant(i, webValues[i % 4]));
+		}
+		Activity batch = new Activity("Batch");
+		batch.getDataCenters().add(activityDataCenter("dc1", work(12, 18, 500), work(30, 36, 400)));
+		batch.getServiceLevels().add(cumulative(FROM, FROM.plusDays(1), 400));
+		batch.getServiceLevels().add(cumulative(FROM.plusDays(1), FROM.plusDays(2), 1200));
+		EascActivityPlan easc1 = new EascActivityPlan("easc1");
+		easc1.copyIntervalFrom(range);
+		easc1.setActivities(Arrays.asList(web, batch));
+
+		Activity render = new Activity("Render");
+		render.getDataCenters().add(activityDataCenter("dc2", work(20, 30, 300)));
+		render.getServiceLevels().add(cumulative(FROM, FROM.plusDays(1), 20));
+		render.getServiceLevels().add(cumulative(FROM.plusDays(1), FROM.plusDays(2), 60));
+		Activity api = new Activity("Api");
+		api.getDataCenters().add(activityDataCenter("dc1", work(40, SLOTS, 150)));
+		api.getDataCenters().add(activityDataCenter("dc2", work(10, SLOTS, 100)));
+		for (int i = 10; i < SLOTS; i++) {
+			api.getServiceLevels().add(instant(i, i >= 40 ? 3 : 6));
+		}
+		EascActivityPlan easc2 = new EascActivityPlan("easc2");
+		easc2.copyIntervalFrom(range);
+		easc2.setActivities(Arrays.asList(render, api));
+		return Arrays.asList(easc1, easc2);
+	}
+
+	private static ActivityDataCenter activityDataCenter(String dataCenterName, Work... works) {
+		ActivityDataCenter dataCenter = new ActivityDataCenter(dataCenterName);
+		dataCenter.setWorks(new ArrayList<>(Arrays.asList(works)));
+		return dataCenter;
+	}
+
+	private static Work work(int startTimeSlot, int endTimeSlot, double watts) {
+		return new Work(startTimeSlot, endTimeSlot, "WM1", 1, Amount.valueOf(watts, SI.WATT));
+	}
+
+}
@@ -23,14 +23,17 @@ import eu.dc4cities.controlsystem.model.datacenter.DataCenterPower;
 import eu.dc4cities.controlsystem.model.easc.*;
 import eu.dc4cities.controlsystem.model.erds.DataCenterForecast;
 import eu.dc4cities.controlsystem.model.erds.ErdsForecast;
+import eu.dc4cities.controlsystem.model.util.TimeRangeUtils;
 import eu.dc4cities.controlsystem.modules.ConsolidatorException;
 import eu.dc4cities.controlsystem.modules.OptionConsolidator;
 import eu.dc4cities.controlsystem.modules.optionconsolidator.opcp.*;
 import eu.dc4cities.controlsystem.modules.optionconsolidator.opcp.WorkingMode;
 import eu.dc4cities.controlsystem.modules.optionconsolidator.opcp.converter.ActivityOptionToSimpleActivity;
 import eu.dc4cities.controlsystem.modules.optionconsolidator.opcp.converter.ErdsForecastToPowerSource;
+import eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2.ModelCache;
 import eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2.Scheduler;
 import eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2.Splitter;
+import eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2.State;
 import eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2.Statistics;
 import eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2.reducer.Pass;
 import eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2.reducer.Reducer;
@@ -92,6 +95,13 @@ public class OptionConsolidatorImpl implements OptionConsolidator {
     private boolean optimize = true;
     private Map<String, List<String>> replays;
     public boolean profitBased = true;
+
+    private boolean warmStart = false;
+    private int workers = 0;
+    //The activity automata, re-used from one control loop to the next when shared between consolidators
+    private ModelCache modelCache = new ModelCache();
+    //The states of the last computed plan, shared between consolidators to survive the control loop
+    private WarmStartMemory warmStartMemory = new WarmStartMemory();
     /**
      * New instance.
      */
@@ -131,6 +141,11 @@ public class OptionConsolidatorImpl implements OptionConsolidator {
                 s.doOptimize(optimize);
                 s.replay(replays);
                 s.profitBased = profitBased;
+                s.workers(workers);
+                s.modelCache(modelCache);
+                if (warmStart) {
+                    s.warmStart(warmStartMemory.statesFor(s.getRange()));
+                }
                 gatherer.submit(() -> {return s.solve(timeOut);});
             }
             List<List<EascActivityPlan>> res = new ArrayList<>();
@@ -140,6 +155,9 @@ public class OptionConsolidatorImpl implements OptionConsolidator {
             for (Scheduler s : schedulers) {
                 subStats.add(s.getLastStatistics());
             }
+            if (warmStart) {
+                rememberStates(range, schedulers);
+            }
             stats = Merger.mergeStatistics(subStats);
             return Merger.merge(res);
         } catch (TimeIntervalExpressionException | ExecutionException | InterruptedException ex) {
@@ -151,6 +169,31 @@ public class OptionConsolidatorImpl implements OptionConsolidator {
         }
     }
 
+    /**
+     * Store the states retained by the schedulers, to seed the next optimization.
+     *
+     * @param range      the optimized range
+     * @param schedulers the schedulers that solved the range
+     */
+    private void rememberStates(TimeSlotBasedEntity range, List<Scheduler> schedulers) {
+        Map<String, List<String>> states = new HashMap<>();
+        for (Scheduler s : schedulers) {
+            int offset = TimeRangeUtils.getTimeSlotNumber(range.getDateFrom(), s.getRange().getDateFrom(),
+                    range.getTimeSlotDuration());
+            for (Map.Entry<String, List<State>> e : s.getLastStatistics().states().entrySet()) {
+                List<String> names = states.computeIfAbsent(e.getKey(), k -> new ArrayList<>());
+                List<State> sub = e.getValue();
+                while (names.size() < offset + sub.size()) {
+                    names.add("");
+                }
+                for (int t = 0; t < sub.size(); t++) {
+                    names.set(offset + t, sub.get(t).name());
+                }
+            }
+        }
+        warmStartMemory.remember(range, states);
+    }
+
     @Override
     public void replay(String activity, List<String> states) {
         replays.put(activity, states);
@@ -378,6 +421,55 @@ public class OptionConsolidatorImpl implements OptionConsolidator {
         return split;
     }
 
+    /**
+     * Seed each optimization with the working modes of the previous plan, for the time slots both plans have in
+     * common. This lets the solver start from a good solution instead of rediscovering it within the time limit.
+     *
+     * @param b {@code true} to enable the warm start
+     */
+    public void setWarmStart(boolean b) {
+        warmStart = b;
+    }
+
+    public boolean isWarmStart() {
+        return warmStart;
+    }
+
+    /**
+     * Set where the states of the computed plans are kept for the warm start. A new consolidator is created for each
+     * control loop, so the memory must be shared between consolidators for the warm start to use the plan of the
+     * previous loop.
+     *
+     * @param memory the memory to use
+     */
+    public void setWarmStartMemory(WarmStartMemory memory) {
+        warmStartMemory = memory;
+    }
+
+    /**
+     * Set the cache for the activity automata. A new consolidator is created for each control loop, so the cache must
+     * be shared between consolidators for the automata to be re-used from one loop to the next.
+     *
+     * @param cache the cache to use
+     */
+    public void setModelCache(ModelCache cache) {
+        modelCache = cache;
+    }
+
+    /**
+     * Set the number of solvers working in parallel on each sub problem. The solvers use different heuristics and
+     * share the best profit found so far, so more cores converge faster within the timeout.
+     *
+     * @param nb the number of solvers. {@code 0} for the default portfolio (1 solver, or 2 with an IPP)
+     */
+    public void setWorkers(int nb) {
+        workers = nb;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
     @Override
     public void doOptimize(boolean b) {
         optimize = b;
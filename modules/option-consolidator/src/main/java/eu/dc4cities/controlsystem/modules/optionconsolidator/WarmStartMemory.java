@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.dc4cities.controlsystem.modules.optionconsolidator;
+
+import eu.dc4cities.controlsystem.model.TimeSlotBasedEntity;
+import eu.dc4cities.controlsystem.model.util.TimeRangeUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The working modes of the last plan computed by an {@link OptionConsolidatorImpl}, used to warm start the next
+ * optimization.
+ * <p>
+ * A consolidator is created for each control loop, so the memory must outlive it: share a single instance between
+ * all the consolidators through {@link OptionConsolidatorImpl#setWarmStartMemory(WarmStartMemory)}. It is thread-safe.
+ */
+public class WarmStartMemory {
+
+    private volatile Plan last;
+
+    /**
+     * Store the states of a computed plan, replacing the previous ones.
+     *
+     * @param range  the range of the plan
+     * @param states the states per activity, starting at the beginning of the range
+     */
+    public void remember(TimeSlotBasedEntity range, Map<String, List<String>> states) {
+        last = new Plan(new TimeSlotBasedEntity(range), states);
+    }
+
+    /**
+     * Get the states of the last computed plan that overlap a given range.
+     *
+     * @param range the range to seed
+     * @return the states per activity, starting at the beginning of the range. {@code null} if there is no overlap
+     */
+    public Map<String, List<String>> statesFor(TimeSlotBasedEntity range) {
+        Plan plan = last;
+        if (plan == null
+                || !plan.range.getTimeSlotDuration().equals(range.getTimeSlotDuration())
+                || range.getDateFrom().isBefore(plan.range.getDateFrom())
+                || !range.getDateFrom().isBefore(plan.range.getDateTo())) {
+            return null;
+        }
+        int offset = TimeRangeUtils.getTimeSlotNumber(plan.range.getDateFrom(), range.getDateFrom(),
+                range.getTimeSlotDuration());
+        Map<String, List<String>> states = new HashMap<>();
+        for (Map.Entry<String, List<String>> e : plan.states.entrySet()) {
+            List<String> names = e.getValue();
+            if (offset < names.size()) {
+                states.put(e.getKey(), names.subList(offset, names.size()));
+            }
+        }
+        return states;
+    }
+
+    /**
+     * Forget the last plan.
+     */
+    public void clear() {
+        last = null;
+    }
+
+    private static class Plan {
+
+        private final TimeSlotBasedEntity range;
+        private final Map<String, List<String>> states;
+
+        private Plan(TimeSlotBasedEntity range, Map<String, List<String>> states) {
+            this.range = range;
+            this.states = states;
+        }
+    }
+}
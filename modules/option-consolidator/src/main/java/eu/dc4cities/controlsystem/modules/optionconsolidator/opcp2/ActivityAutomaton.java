@@ -23,6 +23,7 @@ import eu.dc4cities.controlsystem.modules.optionconsolidator.AllTuplesGenerator;
 import org.chocosolver.solver.constraints.nary.automata.FA.CostAutomaton;
 import org.chocosolver.solver.constraints.nary.automata.FA.FiniteAutomaton;
 import org.chocosolver.solver.constraints.nary.automata.FA.ICostAutomaton;
+import org.chocosolver.solver.constraints.nary.automata.FA.utils.ICounter;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -72,7 +73,36 @@ public class ActivityAutomaton {
         job = j;
         fa = makeAutomaton();
         makeTransitionCosts();
+        bindRevenues(j);
+    }
+
+    /**
+     * Make a generator that re-uses the states and the transitions of another one.
+     * The automaton is copied so the two generators can be used by different solvers.
+     *
+     * @param model the generator to re-use
+     * @param j     the activity to manipulate. Must have the same datacenter parts, working modes and transitions
+     */
+    private ActivityAutomaton(ActivityAutomaton model, MyActivity j) {
+        job = j;
+        fa = new FiniteAutomaton(model.fa);
+        states = model.states;
+        transitionCosts = model.transitionCosts;
+        bindRevenues(j);
+    }
 
+    /**
+     * Make a generator for an activity that only differs from the current one by its revenues.
+     * The states and the transitions costs are shared, only the automaton is copied.
+     *
+     * @param j the activity to manipulate. Must have the same datacenter parts, working modes and transitions
+     * @return the new generator
+     */
+    public ActivityAutomaton reuse(MyActivity j) {
+        return new ActivityAutomaton(this, j);
+    }
+
+    private void bindRevenues(MyActivity j) {
         //Energy consumption + 1 Rc per cumulative Pricing (+ 1 for instant pricing)
         nbCumulatives = j.cumulativeRevenues().size();
         if (!j.instantRevenues().isEmpty()) {
@@ -321,53 +351,118 @@ public class ActivityAutomaton {
     * and the possible migration cost for MIGRATABLE activities.
     */
     public ICostAutomaton costAutomaton(int nbSlots) {
-        int[][][][] c = new int[nbSlots][nbStates()][nbResources()][nbStates()];
-        //[timeslot][nextState][dimension][currentState] = Count
-        for (int t = 0; t < nbSlots; t++) {
-            for (int to = 0; to < nbStates(); to++) {
-                for (int rc = 0; rc < nbResources(); rc++) {
-                    for (int from = 0; from < nbStates(); from++) {
-                        State dest = state(to);
-                        int realPerf = dest.perf() - transitionCost(from, to);
-                        if (rc == instant()) {
-                            //We store here the revenue if there is an instant at t
-                            InstantRevenue r = job.instantRevenues(t);
-                            if (r != null) {
-                                /*if (realPerf > r.basePerf()) {
-                                    System.err.println("Useless mode at " + t + " " + dest);
-                                }*/
-                                //System.out.println(state(from) + "->" +dest + " at " + t + ": " + realPerf + "->" + r.revenue(realPerf));
-                                c[t][to][rc][from] = r.revenue(realPerf);
-                            }
-                        } else {
-                            //cumulative objective, we store the performance
-                            //the revenue will be derived from the resulting variable
-                            CumulativeRevenue r = cumulatives.get(rc);
-                            if (r.from() <= t && t < r.to()) {
-                                c[t][to][rc][from] = realPerf;
-                            }
-                        }
-                    }
-                }
+        return costAutomaton(costCounters(nbSlots));
+    }
+
+    /**
+     * Generate the cost automaton from pre-computed counters.
+     *
+     * @param counters the counters, as computed by {@link #costCounters(int)}
+     * @return the cost automaton
+     */
+    public ICostAutomaton costAutomaton(List<ICounter> counters) {
+        return new CostAutomaton(fa, counters);
+    }
+
+    /**
+     * Compute the counters of the cost automaton, one per resource.
+     * The counters only depend on the states, the transitions costs and the revenues so they can
+     * be shared between generators of identical activities.
+     *
+     * @param nbSlots the number of time slots
+     * @return the counters
+     */
+    public List<ICounter> costCounters(int nbSlots) {
+        //[nextState][currentState] = performance, whatever the timeslot
+        int[][] perfs = new int[nbStates()][nbStates()];
+        for (int to = 0; to < nbStates(); to++) {
+            State dest = state(to);
+            for (int from = 0; from < nbStates(); from++) {
+                perfs[to][from] = dest.perf() - transitionCost(from, to);
             }
         }
 
-        int[] lbs = new int[nbResources()];
-        int[] ubs = new int[nbResources()];
+        //One counter per dimension, with the costs of each timeslot as a [nextState][currentState] matrix.
+        //Timeslots outside a revenue range have no costs, the others share their matrix when their revenue is the same
+        List<ICounter> counters = new ArrayList<>(nbResources());
         int[] bounds = perfBounds();
-        for (int i = 0; i < nbResources(); i++) {
-            if (i != RC_INSTANT) {
-                lbs[i] = /*bounds[0] * nbSlots;*/0;
-                ubs[i] = bounds[1] * nbSlots;
-            } else {
+        for (int rc = 0; rc < nbResources(); rc++) {
+            int[][][] layers = new int[nbSlots][][];
+            if (rc == instant()) {
+                //We store here the revenue if there is an instant at t
+                InstantRevenue[] revenues = new InstantRevenue[nbSlots];
+                for (InstantRevenue r : instant) {
+                    if (r.at() >= 0 && r.at() < nbSlots && revenues[r.at()] == null) {
+                        revenues[r.at()] = r;
+                    }
+                }
+                Map<Pricing, int[][]> shared = new HashMap<>();
+                for (int t = 0; t < nbSlots; t++) {
+                    InstantRevenue r = revenues[t];
+                    if (r != null) {
+                        layers[t] = shared.computeIfAbsent(new Pricing(r), k -> revenues(r, perfs));
+                    }
+                }
                 int[] bs = instantRevenueBound();
-                lbs[i] = bs[0];
-                ubs[i] = bs[1];
+                counters.add(new LayeredCounter(layers, bs[0], bs[1]));
+            } else {
+                //cumulative objective, we store the performance
+                //the revenue will be derived from the resulting variable
+                CumulativeRevenue r = cumulatives.get(rc);
+                for (int t = Math.max(0, r.from()); t < Math.min(nbSlots, r.to()); t++) {
+                    layers[t] = perfs;
+                }
+                counters.add(new LayeredCounter(layers, /*bounds[0] * nbSlots;*/0, bounds[1] * nbSlots));
             }
         }
+        return counters;
+    }
 
-        //Add instant costs
-        return CostAutomaton.makeMultiResources(fa, c, lbs, ubs);
+    private static int[][] revenues(Revenue r, int[][] perfs) {
+        int[][] revenues = new int[perfs.length][];
+        for (int to = 0; to < perfs.length; to++) {
+            revenues[to] = new int[perfs[to].length];
+            for (int from = 0; from < perfs[to].length; from++) {
+                revenues[to][from] = r.revenue(perfs[to][from]);
+            }
+        }
+        return revenues;
+    }
+
+    /**
+     * The pricing of a revenue, regardless of its moment.
+     * Revenues with equal pricings give the same revenue for every performance.
+     */
+    private static class Pricing {
+
+        private int basePerf;
+
+        private int basePrice;
+
+        private List<Modifier> modifiers;
+
+        Pricing(Revenue r) {
+            basePerf = r.basePerf();
+            basePrice = r.basePrice();
+            modifiers = new ArrayList<>(r.modifiers());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Pricing pricing = (Pricing) o;
+            return basePerf == pricing.basePerf && basePrice == pricing.basePrice && modifiers.equals(pricing.modifiers);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(basePerf, basePrice, modifiers);
+        }
     }
 
     /**
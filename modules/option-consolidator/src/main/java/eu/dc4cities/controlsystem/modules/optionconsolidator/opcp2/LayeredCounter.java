@@ -0,0 +1,64 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2;
+
+import org.chocosolver.solver.constraints.nary.automata.FA.utils.Bounds;
+import org.chocosolver.solver.constraints.nary.automata.FA.utils.ICounter;
+
+/**
+ * A state dependent counter for a {@link org.chocosolver.solver.constraints.nary.automata.FA.CostAutomaton}
+ * that keeps the costs of each layer by reference.
+ * <p>
+ * The costs of a layer are a {@code [value][state]} matrix. Layers with the same costs can share
+ * the same matrix, and a {@code null} layer costs nothing. This avoids the dense
+ * {@code [layer][value][state]} copy made by {@code CostAutomaton.makeMultiResources()} when most of
+ * the layers are empty or identical.
+ */
+public class LayeredCounter implements ICounter {
+
+    private int[][][] layers;
+
+    private Bounds bounds;
+
+    /**
+     * New counter.
+     *
+     * @param layers the costs of each layer, indexed by value then state. {@code null} for a layer without cost
+     * @param lb     the lower bound of the counter
+     * @param ub     the upper bound of the counter
+     */
+    public LayeredCounter(int[][][] layers, int lb, int ub) {
+        this.layers = layers;
+        this.bounds = Bounds.makeBounds(lb, lb, null, ub, ub, null);
+    }
+
+    @Override
+    public Bounds bounds() {
+        return bounds;
+    }
+
+    @Override
+    public double cost(int layer, int value) {
+        return cost(layer, value, 0);
+    }
+
+    @Override
+    public double cost(int layer, int value, int state) {
+        int[][] costs = layers[layer];
+        return costs == null ? 0 : costs[value][state];
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2;
+
+import eu.dc4cities.controlsystem.model.easc.ForbiddenState;
+import eu.dc4cities.controlsystem.model.easc.ForbiddenWorkingMode;
+import eu.dc4cities.controlsystem.model.easc.PerformanceLevel;
+import org.chocosolver.solver.constraints.nary.automata.FA.ICostAutomaton;
+import org.chocosolver.solver.constraints.nary.automata.FA.utils.ICounter;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A cache for the parts of the {@link OPCP2} model that only depend on the activities.
+ * <p>
+ * Building the automaton of an activity and the costs of its transitions is a large part of the model
+ * construction, while activity specifications rarely change between two control loops. The automata are
+ * cached by the content of the activity structure (datacenter parts, working modes, transitions, current
+ * working modes and forbidden states), so a new time window or new revenues re-use the states and the
+ * transitions. The cost counters are cached by the content of the whole activity, including its revenues, so
+ * the solvers of a portfolio share them.
+ * <p>
+ * The cache keeps the most recently used entries only. It is thread-safe.
+ */
+public class ModelCache {
+
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final Map<String, ActivityAutomaton> automata;
+
+    private final Map<String, List<ICounter>> counters;
+
+    /**
+     * New cache with the default capacity.
+     */
+    public ModelCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * New cache.
+     *
+     * @param capacity the maximum number of automata and counters to keep
+     */
+    public ModelCache(int capacity) {
+        automata = lru(capacity);
+        counters = lru(capacity);
+    }
+
+    private static <V> Map<String, V> lru(int capacity) {
+        return new LinkedHashMap<String, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Get the automaton of an activity.
+     * The automaton is built from the states and the transitions of a cached one when the activity has
+     * the same structure.
+     *
+     * @param a the activity
+     * @return a new automaton for the activity
+     */
+    public synchronized ActivityAutomaton automaton(MyActivity a) {
+        String key = structureKey(a);
+        ActivityAutomaton cached = automata.get(key);
+        if (cached == null) {
+            cached = new ActivityAutomaton(a);
+            automata.put(key, cached);
+        }
+        return cached.reuse(a);
+    }
+
+    /**
+     * Get the cost automaton of an activity.
+     *
+     * @param aa      the automaton of the activity, from {@link #automaton(MyActivity)}
+     * @param nbSlots the number of time slots
+     * @return the cost automaton
+     */
+    public ICostAutomaton costAutomaton(ActivityAutomaton aa, int nbSlots) {
+        String key = structureKey(aa.activity()) + revenueKey(aa.activity()) + "|" + nbSlots;
+        List<ICounter> cs;
+        synchronized (this) {
+            cs = counters.get(key);
+        }
+        if (cs == null) {
+            cs = aa.costCounters(nbSlots);
+            synchronized (this) {
+                counters.put(key, cs);
+            }
+        }
+        return aa.costAutomaton(cs);
+    }
+
+    /**
+     * Get the number of cached automata.
+     *
+     * @return a positive integer
+     */
+    public synchronized int size() {
+        return automata.size();
+    }
+
+    /**
+     * Remove all the cached entries.
+     */
+    public synchronized void clear() {
+        automata.clear();
+        counters.clear();
+    }
+
+    private static String structureKey(MyActivity a) {
+        StringBuilder b = new StringBuilder();
+        b.append(a.pretty()).append('|').append(a.relocatibility()).append('|').append(a.migrationCost());
+        for (DatacenterPart p : a.parts()) {
+            b.append("|dc=").append(p.getName())
+                    .append(",def=").append(name(p.getDefaultWM()))
+                    .append(",cur=").append(name(p.currentWM()));
+            for (WM w : p.getWorkingModes()) {
+                b.append(";wm=").append(w.name()).append(',').append(w.getValue());
+                for (PerfLevel pl : w.perfs()) {
+                    b.append(",pl=").append(pl.id()).append(':').append(pl.perf()).append(':').append(pl.power());
+                    PerformanceLevel backend = pl.backend();
+                    if (backend != null) {
+                        b.append(':').append(backend.getBusinessPerformance()).append(':').append(backend.getPower());
+                    }
+                }
+                for (WM to : p.getWorkingModes()) {
+                    int c = p.getTransitionCost(w, to);
+                    if (c != 0) {
+                        b.append(",tr=").append(to.name()).append(':').append(c);
+                    }
+                }
+            }
+        }
+        for (ForbiddenState st : a.forbiddenStates()) {
+            b.append("|fs=");
+            for (ForbiddenWorkingMode wm : st.getWorkingModes()) {
+                b.append(wm.getDataCenterName()).append('/').append(wm.getWorkingModeName()).append(',');
+            }
+        }
+        return b.toString();
+    }
+
+    private static String revenueKey(MyActivity a) {
+        StringBuilder b = new StringBuilder();
+        for (CumulativeRevenue r : a.cumulativeRevenues()) {
+            b.append("|cr=").append(r.from()).append(',').append(r.to()).append(',').append(r.base()).append(',');
+            pricing(b, r);
+        }
+        for (InstantRevenue r : a.instantRevenues()) {
+            b.append("|ir=").append(r.at()).append(',');
+            pricing(b, r);
+        }
+        return b.toString();
+    }
+
+    private static void pricing(StringBuilder b, Revenue r) {
+        b.append(r.basePerf()).append(',').append(r.basePrice());
+        for (Modifier m : r.modifiers()) {
+            b.append(',').append(m);
+        }
+    }
+
+    private static String name(WM w) {
+        return w == null ? "-" : w.name();
+    }
+}
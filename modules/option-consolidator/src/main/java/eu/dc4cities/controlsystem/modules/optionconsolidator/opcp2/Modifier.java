@@ -16,6 +16,8 @@
 
 package eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2;
 
+import java.util.Objects;
+
 /**
  * A modifier to apply over a {@link Revenue} or a {@link Cost}.
  *
@@ -73,6 +75,24 @@ public class Modifier {
         return penalty;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Modifier modifier = (Modifier) o;
+        return threshold == modifier.threshold && penalty == modifier.penalty
+                && flat == modifier.flat && stepping == modifier.stepping;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(threshold, penalty, flat, stepping);
+    }
+
     @Override
     public String toString() {
         return "{threshold=" + threshold + ", penaltyVariable=" + penalty + (flat ? "; flat" : "; linear; stepping=" + stepping) + "}";
@@ -29,9 +29,12 @@ import org.chocosolver.solver.constraints.Operator;
 import org.chocosolver.solver.constraints.nary.automata.FA.ICostAutomaton;
 import org.chocosolver.solver.constraints.nary.automata.PropMultiCostRegular;
 import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.objective.ObjectiveManager;
+import org.chocosolver.solver.search.loop.monitors.IMonitorOpenNode;
 import org.chocosolver.solver.search.loop.monitors.IMonitorSolution;
 import org.chocosolver.solver.search.loop.monitors.SMF;
 import org.chocosolver.solver.search.strategy.IntStrategyFactory;
+import org.chocosolver.solver.search.strategy.selectors.IntValueSelector;
 import org.chocosolver.solver.search.strategy.strategy.IntStrategy;
 import org.chocosolver.solver.search.strategy.strategy.StrategiesSequencer;
 import org.chocosolver.solver.trace.Chatterbox;
@@ -89,6 +92,9 @@ public class OPCP2 {
 
     private IntVar[][] resources;
 
+    //How far a slot can move when the greener first order is randomized
+    private static final int PERTURBATION_WINDOW = 4;
+
     //Default timelimit in seconds.
     private long timeLimit = 5;
 
@@ -100,6 +106,12 @@ public class OPCP2 {
 
     private List<PowerSource> ipp;
 
+    private Map<IntVar, Integer> warmStart;
+
+    private ProfitBound sharedProfit;
+
+    private Random random;
+
     private boolean pretty = true;
     private IntVar globalEnergy, globalCost, globalRevenues;
 
@@ -109,6 +121,20 @@ public class OPCP2 {
     }
 
     public OPCP2(String n, int nbSlots, List<PowerSource> sources, List<MyActivity> activities, boolean noInstantWaste) {
+        this(n, nbSlots, sources, activities, noInstantWaste, null);
+    }
+
+    /**
+     * New problem.
+     *
+     * @param n              the problem name
+     * @param nbSlots        the number of time slots
+     * @param sources        the power sources
+     * @param activities     the activities to schedule
+     * @param noInstantWaste {@code true} to prune the working modes that exceed the instant revenues
+     * @param cache          the cache to get the activity automata from. {@code null} to build them from scratch
+     */
+    public OPCP2(String n, int nbSlots, List<PowerSource> sources, List<MyActivity> activities, boolean noInstantWaste, ModelCache cache) {
         this.name = n;
         this.noIWaste = noInstantWaste;
         this.nbSlots = nbSlots;
@@ -151,9 +177,9 @@ public class OPCP2 {
 
         i = 0;
         for (MyActivity a : activities) {
-            ActivityAutomaton aa = new ActivityAutomaton(a);
+            ActivityAutomaton aa = cache == null ? new ActivityAutomaton(a) : cache.automaton(a);
             automaton.add(aa);
-            ICostAutomaton ca = aa.costAutomaton(nbSlots);
+            ICostAutomaton ca = cache == null ? aa.costAutomaton(nbSlots) : cache.costAutomaton(aa, nbSlots);
             costAutomatons.add(ca);
 
             allStates[i] = makeStateVariables(s, nbSlots, aa, ca.getNbStates());
@@ -486,6 +512,10 @@ public class OPCP2 {
 
         SMF.limitTime(s, timeLimit() * 1000);
 
+        if (opt && sharedProfit != null) {
+            shareProfit(s);
+        }
+
         if (ipp == null) {
             //The search heuristic
             List<IntStrategy> strats = new ArrayList<>();
@@ -531,12 +561,12 @@ public class OPCP2 {
                 RenPct r = (RenPct) dynCosts.get(0);
                 int best = r.basePerf();
                 strats.add(custom(IntStrategyFactory.minDomainSize_var_selector(),
-                        profitBased ?
+                        hinted(profitBased ?
                                 new WorkingModeSelector2(this, where, best, t) :
-                                new WorkingModeSelector(this, where, best, t)
+                                new WorkingModeSelector(this, where, best, t))
                         , where));
             } else {
-                strats.add(custom(IntStrategyFactory.minDomainSize_var_selector(), mid_value_selector(true), where));
+                strats.add(custom(IntStrategyFactory.minDomainSize_var_selector(), hinted(mid_value_selector(true)), where));
             }
             //now the power dispatch. Greener sources in first
             IntVar[] where2 = new IntVar[sourcePowerUsage.length];
@@ -587,7 +617,11 @@ public class OPCP2 {
 
     private List<IntStrategy> greenerFirst() {
         List<IntStrategy> strats = new ArrayList<>();
-        for (int t : slotsByRenCapa(false)) {
+        Integer[] ts = slotsByRenCapa(false);
+        if (random != null) {
+            perturb(ts);
+        }
+        for (int t : ts) {
             //State per activity at t
             IntVar[] where = new IntVar[allStates.length];
             for (int i = 0; i < allStates.length; i++) {
@@ -598,12 +632,12 @@ public class OPCP2 {
                 RenPct r = (RenPct) dynCosts.get(0);
                 int best = r.basePerf();
                 strats.add(custom(IntStrategyFactory.minDomainSize_var_selector(),
-                        profitBased ?
+                        hinted(profitBased ?
                                 new WorkingModeSelector2(this, where, best, t) :
-                                new WorkingModeSelector(this, where, best, t)
+                                new WorkingModeSelector(this, where, best, t))
                         , where));
             } else {
-                strats.add(custom(IntStrategyFactory.minDomainSize_var_selector(), mid_value_selector(true), where));
+                strats.add(custom(IntStrategyFactory.minDomainSize_var_selector(), hinted(mid_value_selector(true)), where));
             }
             //now the power dispatch. Greener sources in first
             IntVar[] where2 = new IntVar[sourcePowerUsage.length];
@@ -618,6 +652,54 @@ public class OPCP2 {
         return strats;
     }
 
+    /**
+     * Randomly move each slot by a few positions, so the order stays mostly greener first
+     * but every seed explores the slots differently.
+     *
+     * @param ts the slots to shuffle
+     */
+    private void perturb(Integer[] ts) {
+        for (int i = 0; i < ts.length - 1; i++) {
+            int j = i + random.nextInt(Math.min(PERTURBATION_WINDOW, ts.length - i));
+            Integer tmp = ts[i];
+            ts[i] = ts[j];
+            ts[j] = tmp;
+        }
+    }
+
+    /**
+     * Publish the profit of every solution to the shared bound, and
+     * use the best published profit as a cut before opening a node.
+     *
+     * @param s the solver
+     */
+    private void shareProfit(Solver s) {
+        s.plugMonitor((IMonitorSolution) () -> sharedProfit.offer(profit.getValue()));
+        s.plugMonitor(new IMonitorOpenNode() {
+            @Override
+            public void beforeOpenNode() {
+                if (sharedProfit.isSet()) {
+                    objectiveManager(s).updateBestLB(sharedProfit.get());
+                }
+            }
+
+            @Override
+            public void afterOpenNode() {
+            }
+        });
+    }
+
+    /**
+     * The solver only exposes a raw objective manager. The objective is the integer profit variable.
+     *
+     * @param s the solver
+     * @return the objective manager of the solver
+     */
+    @SuppressWarnings("unchecked")
+    private static ObjectiveManager<IntVar, Integer> objectiveManager(Solver s) {
+        return (ObjectiveManager<IntVar, Integer>) s.getObjectiveManager();
+    }
+
     private String merge(List<List<WM>> states) {
         StringBuilder b = new StringBuilder();
         int from = 0;
@@ -1114,6 +1196,53 @@ public class OPCP2 {
         this.ipp = ipp;
     }
 
+    /**
+     * Seed the search with the states of a previous plan.
+     * The working mode heuristics try the given states first, so the first
+     * solution rebuilds the previous plan whenever it is still feasible and
+     * the remaining time is spent improving it.
+     *
+     * @param states the state per activity and time slot [aId][slotId]. {@code -1} for no hint
+     */
+    public void warmStart(int[][] states) {
+        warmStart = new HashMap<>();
+        for (int aId = 0; aId < states.length; aId++) {
+            for (int t = 0; t < states[aId].length && t < nbSlots; t++) {
+                if (states[aId][t] >= 0) {
+                    warmStart.put(allStates[aId][t], states[aId][t]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Share the profit bound with other solvers working on the same problem.
+     * Every solution found by this solver is published, and the best published
+     * profit becomes a lower bound for the objective.
+     *
+     * @param bound the shared bound
+     */
+    public void shareProfit(ProfitBound bound) {
+        sharedProfit = bound;
+    }
+
+    /**
+     * Randomize the order the greener first heuristic visits the slots.
+     * Solvers with different seeds explore different parts of the search space.
+     *
+     * @param seed the random seed
+     */
+    public void randomize(long seed) {
+        random = new Random(seed);
+    }
+
+    private IntValueSelector hinted(IntValueSelector selector) {
+        if (warmStart == null || warmStart.isEmpty()) {
+            return selector;
+        }
+        return new WarmStartSelector(warmStart, selector);
+    }
+
     public void pretty(boolean b) {
         pretty = b;
     }
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The best profit found so far by a portfolio of solvers working on the same problem.
+ * <p>
+ * Each solver publishes the profit of its solutions and uses the best published profit
+ * as a lower bound for its own objective, so a solution found by one solver
+ * immediately prunes the search of the others.
+ */
+public class ProfitBound {
+
+    private AtomicInteger best = new AtomicInteger(Integer.MIN_VALUE);
+
+    /**
+     * Publish the profit of a new solution.
+     *
+     * @param profit the profit
+     * @return {@code true} if the profit improves the best one
+     */
+    public boolean offer(int profit) {
+        int cur = best.get();
+        while (profit > cur) {
+            if (best.compareAndSet(cur, profit)) {
+                return true;
+            }
+            cur = best.get();
+        }
+        return false;
+    }
+
+    /**
+     * Get the best published profit.
+     *
+     * @return the profit. {@link Integer#MIN_VALUE} if no solution was published
+     */
+    public int get() {
+        return best.get();
+    }
+
+    /**
+     * Check if a solution was published.
+     *
+     * @return {@code true} if there is a profit
+     */
+    public boolean isSet() {
+        return best.get() != Integer.MIN_VALUE;
+    }
+}
@@ -36,9 +36,15 @@ import org.jscience.physics.amount.Amount;
 
 import javax.xml.datatype.DatatypeConfigurationException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2.Converter.timeSlot;
 
@@ -47,6 +53,17 @@ import static eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2.Conver
  */
 public class Scheduler {
 
+    /**
+     * The threads running the solvers of a portfolio, shared by all the schedulers.
+     * Idle threads are reused by the next portfolios.
+     */
+    private static final AtomicInteger SOLVER_THREAD_COUNT = new AtomicInteger();
+    private static final ExecutorService SOLVER_THREADS = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "opcp2-solver-" + SOLVER_THREAD_COUNT.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+
     private TimeSlotBasedEntity range;
     private List<Objective> objectives;
     private List<DataCenterForecast> forecasts;
@@ -62,7 +79,10 @@ public class Scheduler {
     public boolean profitBased = false;
     private boolean optimize = true;
     private Map<String, List<String>> replays;
+    private Map<String, List<String>> warmStart;
     private boolean ippHeuristic;
+    private int workers = 0;
+    private ModelCache cache;
 
     private List<DataCenterPowerPlan> ipp;
 
@@ -129,10 +149,14 @@ public class Scheduler {
         List<OPCP2> pbs = new ArrayList<>();
         List<Solver> solvers = new ArrayList<>();
         List<Statistics> allStats = new ArrayList<>();
-        int nb = 1;
-        if (ipp != null) {
-            nb++;
-        }
+        //The default portfolio: greener first, plus a second solver when there is an IPP
+        int nbDefaults = ipp != null ? 2 : 1;
+        //Extra workers run a randomized greener first heuristic
+        int nb = Math.max(nbDefaults, workers);
+        ProfitBound bound = new ProfitBound();
+        //The solvers share the activity automata
+        ModelCache models = cache != null ? cache : new ModelCache();
+        Reducer reducer = oWnd;
         int nbSlots = Converter.timeSlot(range, range.getDateTo());
         List<MyActivity> activities = convert(range, specs, pastSLOs, eascMetrics);
 
@@ -151,13 +175,12 @@ public class Scheduler {
             }
 
             try {
-                /*if (oWnd == null) {
-                    oWnd = new Pass();
-                }
-                oWnd = oWnd.copy();
-                oWnd.reset();*/
+                //One reducer per solver
+                reducer = reducer.copy();
+                reducer.reset();
+                final Reducer r = reducer;
                 String name = range.getDateFrom().toString("dd/MM/YY");
-                OPCP2 pb = new OPCP2(name + "#" + i, nbSlots, sources, activities, replays.isEmpty());
+                OPCP2 pb = new OPCP2(name + "#" + i, nbSlots, sources, activities, replays.isEmpty(), models);
 
                 costs.forEach(pb::add);
                 injectBudgets(range, pb, budgets);
@@ -165,16 +188,25 @@ public class Scheduler {
                 pb.timeLimit(to);
 
                 force(pb);
+                if (warmStart != null) {
+                    pb.warmStart(hints(pb));
+                }
                 //pb.pretty(false);
                 if (i == 0) {
                     pb.ippHeuristic(null);
-                } else if (ippHeuristic && ipp != null) {
-                    pb.ippHeuristic(convert(ipp));
+                } else if (i < nbDefaults) {
+                    if (ippHeuristic) {
+                        pb.ippHeuristic(convert(ipp));
+                    }
+                } else {
+                    pb.randomize(i);
                 }
+                pb.shareProfit(bound);
+                r.prepare(pb);
                 pb.profitBased = profitBased;
                 pbs.add(pb);
                 pb.getSolver().plugMonitor((IMonitorSolution) () -> {
-                    //oWnd.reduce(pb);
+                    r.reduce(pb);
 
                     st.newSolution(((IntVar) pb.getSolver().getObjectives()[0]).getValue());
                     for (int a = 0; a < pb.getAutomaton().size(); a++) {
@@ -195,9 +227,7 @@ public class Scheduler {
         }
 
         SMF.prepareForParallelResolution(solvers);
-        pbs.parallelStream().forEach(pb -> {
-            pb.solve(optimize);
-        });
+        runAll(pbs);
 
         //We catch the solver that computed the best solution
         OPCP2 best = pbs.get(0);
@@ -240,6 +270,52 @@ public class Scheduler {
         return plans;
     }
 
+    /**
+     * Run the solvers in parallel, one thread per solver, and wait for all of them.
+     * Dedicated threads ensure every worker of the portfolio searches during the whole time limit.
+     * The threads are taken from a pool shared by all the schedulers.
+     *
+     * @param pbs the problems to solve
+     */
+    private void runAll(List<OPCP2> pbs) {
+        if (pbs.size() == 1) {
+            pbs.get(0).solve(optimize);
+            return;
+        }
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (OPCP2 pb : pbs) {
+                futures.add(SOLVER_THREADS.submit(() -> pb.solve(optimize)));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ConsolidatorException("Interrupted while solving", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new ConsolidatorException("Unable to solve the problem: " + ex.getCause().getMessage(), ex.getCause());
+        } finally {
+            //Stop the other solvers if one failed
+            for (Future<?> f : futures) {
+                f.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Set the cache to get the activity automata from.
+     * Without a cache, the automata are only shared by the solvers of a same call to {@link #solve(int)}.
+     *
+     * @param c the cache. May be {@code null}
+     */
+    public void modelCache(ModelCache c) {
+        this.cache = c;
+    }
+
     public void replays(Map<String, List<String>> r) {
         this.replays = r;
     }
@@ -272,6 +348,32 @@ public class Scheduler {
         }
     }
 
+    /**
+     * Convert the warm start states to state indexes.
+     * States that are unknown to the activity automaton are ignored.
+     *
+     * @param pb the problem to seed
+     * @return the hinted state per activity and time slot. {@code -1} for no hint
+     */
+    private int[][] hints(OPCP2 pb) {
+        int[][] hints = new int[pb.getAutomaton().size()][pb.getNbSlots()];
+        for (int aId = 0; aId < hints.length; aId++) {
+            Arrays.fill(hints[aId], -1);
+            ActivityAutomaton ca = pb.getAutomaton().get(aId);
+            List<String> states = warmStart.get(ca.activity().pretty());
+            if (states == null) {
+                continue;
+            }
+            for (int t = 0; t < pb.getNbSlots() && t < states.size(); t++) {
+                String state = states.get(t);
+                if (!state.isEmpty()) {
+                    hints[aId][t] = ca.state(state);
+                }
+            }
+        }
+        return hints;
+    }
+
     private List<DynCost> convertCosts(List<Objective> powerObjectives, TimeSlotBasedEntity range, List<PowerSource> pastPowerUsage) throws TimeIntervalExpressionException, DatatypeConfigurationException {
         List<DynCost> costs = new ArrayList<>();
         for (Objective o : powerObjectives) {
@@ -521,6 +623,16 @@ public class Scheduler {
         this.replays = replays;
     }
 
+    /**
+     * Seed the search with the states of a previous plan.
+     *
+     * @param states the state names per activity, indexed by activity identifier (see {@link MyActivity#pretty()})
+     *               and starting at the first time slot of the range. An empty name means no hint
+     */
+    public void warmStart(Map<String, List<String>> states) {
+        this.warmStart = states;
+    }
+
     public void doOptimize(boolean o) {
         this.optimize = o;
     }
@@ -528,4 +640,16 @@ public class Scheduler {
     public void ippHeuristic(boolean b) {
         this.ippHeuristic = b;
     }
+
+    /**
+     * Set the number of solvers that work in parallel on the problem.
+     * The first solver uses the greener first heuristic, the second one the IPP based heuristic
+     * when it is enabled and an IPP is available, and the others a randomized greener first heuristic.
+     * The solvers share the best profit they found to prune each other's search.
+     *
+     * @param nb the number of solvers. Values below the default (1, or 2 with an IPP) are ignored
+     */
+    public void workers(int nb) {
+        this.workers = nb;
+    }
 }
@@ -20,7 +20,10 @@ import eu.dc4cities.configuration.goal.Objective;
 import eu.dc4cities.configuration.goal.interval.TimeIntervalExpression;
 import eu.dc4cities.configuration.goal.interval.TimeIntervalExpressionException;
 import eu.dc4cities.configuration.goal.interval.TimeIntervalExpressionFactory;
+import eu.dc4cities.configuration.goal.utils.ObjectiveUtils;
+import eu.dc4cities.controlsystem.model.PowerPlan;
 import eu.dc4cities.controlsystem.model.TimeSlotBasedEntity;
+import eu.dc4cities.controlsystem.model.TimeSlotListView;
 import eu.dc4cities.controlsystem.model.TimeSlotPower;
 import eu.dc4cities.controlsystem.model.datacenter.DataCenterPower;
 import eu.dc4cities.controlsystem.model.easc.*;
@@ -37,6 +40,7 @@ import javax.measure.quantity.Duration;
 import javax.measure.unit.SI;
 import javax.measure.unit.Unit;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 /**
@@ -62,12 +66,17 @@ public class Splitter {
             }
         }
 
+        //The split points are the ends of the slots, so the objectives are evaluated over the range shifted by one slot
+        TimeSlotBasedEntity ends = subRange(range, at(range.getDateFrom(), range.getTimeSlotDuration(), 1),
+                at(range.getDateTo(), range.getTimeSlotDuration(), 1));
+        BitSet activeObjectives = ObjectiveUtils.activeTimeSlots(objectives, ends);
+
         List<Scheduler> subs = new ArrayList<>();
         DateTime to = new DateTime(range.getDateFrom());
         DateTime from = new DateTime(range.getDateFrom());
-        while (to.isBefore(range.getDateTo())) {
+        for (int slot = 0; to.isBefore(range.getDateTo()); slot++) {
             to = to.plusSeconds((int) range.getTimeSlotDuration().longValue(SI.SECOND));
-            if (splittableSLOs(slos, to) && splittableObjectives(objectives, to) && splittableBudgets(budgets, to)) {
+            if (splittableSLOs(slos, to) && !activeObjectives.get(slot) && splittableBudgets(budgets, to)) {
                 if (!to.equals(range.getDateTo())) {
                     LOGGER.debug("Split at " + to);
                 }
@@ -230,7 +239,6 @@ public class Splitter {
 
             for (DataCenterPowerPlan pp : budget.getDataCenterQuotas()) {
                 DataCenterPowerPlan sub = new DataCenterPowerPlan(pp.getDataCenterName());
-                sub.setPowerQuotas(new ArrayList<>());
 
                 if (pp.getDateFrom() == null) {
                     pp.setDateFrom(from);
@@ -241,16 +249,7 @@ public class Splitter {
                 if (pp.getTimeSlotDuration() == null) {
                     pp.setTimeSlotDuration(p.getTimeSlotDuration());
                 }
-                //Copy only viable slots
-                for (TimeSlotPower tsp : pp.getPowerQuotas()) {
-                    //We have to change the timeslot offset against the new sub
-                    DateTime d = Converter.timeSlot(pp, tsp.getTimeSlot());
-                    if (isIn(from, to, d)) {
-                        int offset = Converter.offset(from, pp.getTimeSlotDuration(), d);
-                        TimeSlotPower newP = new TimeSlotPower(offset, tsp.getPower());
-                        sub.getPowerQuotas().add(newP);
-                    }
-                }
+                sub.setPowerQuotas(subQuotas(pp, from, to));
                 sub.setEnergyQuotas(new ArrayList<>());
                 for (EnergyQuota quota : pp.getEnergyQuotas()) {
                     DateTime a = Converter.timeSlot(pp, quota.getStartTimeSlot());
@@ -280,22 +279,47 @@ public class Splitter {
             copy.setDateFrom(from);
             copy.setDateTo(to);
             copy.setTimeSlotDuration(plan.getTimeSlotDuration());
-            copy.setPowerQuotas(new ArrayList<>());
-            //Copy only viable slots
-            for (TimeSlotPower tsp : plan.getPowerQuotas()) {
-                //We have to change the timeslot offset against the new sub
-                DateTime d = Converter.timeSlot(plan, tsp.getTimeSlot());
-                if (isIn(from, to, d)) {
-                    int offset = Converter.offset(from, plan.getTimeSlotDuration(), d);
-                    TimeSlotPower newP = new TimeSlotPower(offset, tsp.getPower());
-                    copy.getPowerQuotas().add(newP);
-                }
-            }
+            copy.setPowerQuotas(subQuotas(plan, from, to));
             dcs.add(copy);
         }
         return dcs;
     }
 
+    /**
+     * Get the power quotas of a plan that are in a range, numbered from the start of the range.
+     * Plans whose quotas are numbered from 0 with no gaps are served by a read-only view
+     * sharing the quotas of the plan; other plans are filtered slot by slot.
+     *
+     * @param plan the plan
+     * @param from the start of the range
+     * @param to the end of the range (exclusive)
+     * @return the quotas in the range
+     */
+    private static List<TimeSlotPower> subQuotas(PowerPlan plan, DateTime from, DateTime to) {
+        List<TimeSlotPower> quotas = plan.getPowerQuotas();
+        int nbQuotas = quotas.size();
+        long msec = plan.getTimeSlotDuration().longValue(SI.MILLI(SI.SECOND));
+        long shift = from.getMillis() - plan.getDateFrom().getMillis();
+        if (shift >= 0 && shift % msec == 0 && (nbQuotas == 0 || (quotas.get(0).getTimeSlot() == 0
+                && quotas.get(nbQuotas - 1).getTimeSlot() == nbQuotas - 1))) {
+            int start = (int) Math.min(shift / msec, nbQuotas);
+            long length = to.getMillis() - plan.getDateFrom().getMillis();
+            int end = (int) Math.min(Math.max(0, (length + msec - 1) / msec), nbQuotas);
+            return TimeSlotListView.of(quotas, start, Math.max(start, end), TimeSlotPower::new);
+        }
+        List<TimeSlotPower> sub = new ArrayList<>();
+        //Copy only viable slots
+        for (TimeSlotPower tsp : quotas) {
+            //We have to change the timeslot offset against the new sub
+            DateTime d = Converter.timeSlot(plan, tsp.getTimeSlot());
+            if (isIn(from, to, d)) {
+                int offset = Converter.offset(from, plan.getTimeSlotDuration(), d);
+                sub.add(new TimeSlotPower(offset, tsp.getPower()));
+            }
+        }
+        return sub;
+    }
+
     public static List<DataCenterForecast> subForeCasts(List<DataCenterForecast> forecasts, DateTime from, DateTime to) {
         List<DataCenterForecast> sub = new ArrayList<>();
         for (DataCenterForecast fc : forecasts) {
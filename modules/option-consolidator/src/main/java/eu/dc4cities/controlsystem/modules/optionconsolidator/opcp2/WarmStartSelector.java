@@ -0,0 +1,58 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2;
+
+import org.chocosolver.solver.search.strategy.selectors.IntValueSelector;
+import org.chocosolver.solver.variables.IntVar;
+
+import java.util.Map;
+
+/**
+ * Value selector that tries first the state a variable had in a previous plan.
+ * When there is no hint for the variable, or the hinted state has been
+ * removed from its domain, the choice is left to the wrapped selector.
+ * <p>
+ * Since the states of consecutive plans are usually close, the first dive
+ * of the search rebuilds the previous plan and provides a good incumbent
+ * at once. Refuted hints are not selected again as they leave the domain.
+ */
+public class WarmStartSelector implements IntValueSelector {
+
+    private Map<IntVar, Integer> hints;
+
+    private IntValueSelector fallback;
+
+    /**
+     * New selector.
+     *
+     * @param hints    the hinted value for each variable
+     * @param fallback the selector to use when no hint is usable
+     */
+    public WarmStartSelector(Map<IntVar, Integer> hints, IntValueSelector fallback) {
+        this.hints = hints;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public int selectValue(IntVar v) {
+        Integer hint = hints.get(v);
+        if (hint != null && v.contains(hint)) {
+            return hint;
+        }
+        return fallback.selectValue(v);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2.reducer;
+
+import eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2.OPCP2;
+
+import java.util.BitSet;
+
+/**
+ * A neighborhood that relaxes the states of a random subset of activities over the whole horizon.
+ */
+public class ActivityNeighbor extends StateNeighbor {
+
+    private int nbActivities;
+
+    private int initialSize;
+
+    private int size;
+
+    private BitSet selected;
+
+    /**
+     * New neighborhood.
+     *
+     * @param pb   the problem to explore
+     * @param seed the random seed
+     */
+    public ActivityNeighbor(OPCP2 pb, long seed) {
+        super(pb, seed);
+        nbActivities = states.length;
+        initialSize = Math.max(1, nbActivities / 4);
+        size = initialSize;
+        selected = new BitSet(nbActivities);
+    }
+
+    @Override
+    protected void reset() {
+        size = initialSize;
+    }
+
+    @Override
+    public void restrictLess() {
+        size = Math.min(nbActivities, size + 1);
+    }
+
+    @Override
+    protected void select() {
+        selected.clear();
+        while (selected.cardinality() < Math.min(size, nbActivities)) {
+            selected.set(random.nextInt(nbActivities));
+        }
+    }
+
+    @Override
+    protected boolean relaxed(int aId, int t) {
+        return selected.get(aId);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2.reducer;
+
+import eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2.OPCP2;
+import org.chocosolver.solver.search.limits.FailCounter;
+import org.chocosolver.solver.search.loop.SLF;
+import org.chocosolver.solver.search.loop.lns.neighbors.AdaptiveNeighborhood;
+
+/**
+ * Turn the optimization into a Large Neighborhood Search.
+ * <p>
+ * Once a first solution is computed, the solver repeatedly relaxes either a time window
+ * ({@link TimeWindowNeighbor}) or a subset of activities ({@link ActivityNeighbor}) around the
+ * incumbent, and restarts after a solution or a given number of fails. The neighborhood to use is
+ * chosen adaptively, depending on the improvements it led to.
+ * <p>
+ * The search is no longer complete: it stops at the time limit.
+ */
+public class LNSReducer implements Reducer {
+
+    public static final int DEFAULT_FAIL_LIMIT = 200;
+
+    private long seed;
+
+    private int failLimit;
+
+    /**
+     * New reducer with a default seed and fail limit.
+     */
+    public LNSReducer() {
+        this(0, DEFAULT_FAIL_LIMIT);
+    }
+
+    /**
+     * New reducer.
+     *
+     * @param seed      the random seed
+     * @param failLimit the number of fails before giving up a neighborhood
+     */
+    public LNSReducer(long seed, int failLimit) {
+        this.seed = seed;
+        this.failLimit = failLimit;
+    }
+
+    @Override
+    public void prepare(OPCP2 pb) {
+        AdaptiveNeighborhood neighbors = new AdaptiveNeighborhood(seed,
+                new TimeWindowNeighbor(pb, seed),
+                new ActivityNeighbor(pb, seed + 1));
+        SLF.lns(pb.getSolver(), neighbors, new FailCounter(pb.getSolver(), failLimit));
+    }
+
+    @Override
+    public void reduce(OPCP2 pb) {
+        //The neighborhoods are managed by the search loop
+    }
+
+    @Override
+    public void reset() {
+
+    }
+
+    /**
+     * {@inheritDoc}
+     * Each copy uses the next seed, so that solvers working in parallel explore different neighborhoods.
+     */
+    @Override
+    public Reducer copy() {
+        return new LNSReducer(seed + 1, failLimit);
+    }
+}
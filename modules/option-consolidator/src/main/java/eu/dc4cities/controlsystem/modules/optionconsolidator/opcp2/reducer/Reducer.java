@@ -25,6 +25,15 @@ import eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2.OPCP2;
  */
 public interface Reducer {
 
+    /**
+     * This method is called once the problem is stated, before solving it.
+     * It allows to customize the search.
+     *
+     * @param pb the problem to solve
+     */
+    default void prepare(OPCP2 pb) {
+    }
+
     /**
      * This method is called each time a solution is computed.
      * It allows then to post new constraints to reduce the CSP
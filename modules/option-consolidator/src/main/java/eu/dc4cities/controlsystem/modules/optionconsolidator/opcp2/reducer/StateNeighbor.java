@@ -0,0 +1,125 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2.reducer;
+
+import eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2.OPCP2;
+import org.chocosolver.solver.search.loop.lns.neighbors.INeighbor;
+import org.chocosolver.solver.search.strategy.decision.Decision;
+import org.chocosolver.solver.search.strategy.decision.IntMetaDecision;
+import org.chocosolver.solver.variables.IntVar;
+
+import java.util.Random;
+
+/**
+ * A neighborhood over the states of the activities of a {@link OPCP2} problem.
+ * <p>
+ * After each restart, the states outside the relaxed fragment are fixed to their value in the
+ * incumbent solution, so the search only re-optimizes the fragment.
+ * The fragment grows when too many neighborhoods in a row did not improve the incumbent,
+ * and goes back to its initial size once a better solution is found.
+ */
+public abstract class StateNeighbor implements INeighbor {
+
+    //Number of neighborhoods without improvement before growing the fragment
+    private static final int PATIENCE = 10;
+
+    protected final IntVar[][] states;
+
+    protected final int[][] incumbent;
+
+    protected final Random random;
+
+    private final IntMetaDecision decision;
+
+    private int nbCalls;
+
+    private boolean complete;
+
+    /**
+     * New neighborhood.
+     *
+     * @param pb   the problem to explore
+     * @param seed the random seed
+     */
+    public StateNeighbor(OPCP2 pb, long seed) {
+        states = pb.getAllStates();
+        incumbent = new int[states.length][];
+        for (int aId = 0; aId < states.length; aId++) {
+            incumbent[aId] = new int[states[aId].length];
+        }
+        random = new Random(seed);
+        decision = new IntMetaDecision();
+    }
+
+    @Override
+    public void init() {
+    }
+
+    @Override
+    public void recordSolution() {
+        for (int aId = 0; aId < states.length; aId++) {
+            for (int t = 0; t < states[aId].length; t++) {
+                incumbent[aId][t] = states[aId][t].getValue();
+            }
+        }
+        nbCalls = 0;
+        reset();
+    }
+
+    @Override
+    public Decision fixSomeVariables() {
+        decision.free();
+        if (++nbCalls % PATIENCE == 0) {
+            restrictLess();
+        }
+        select();
+        int fixed = 0;
+        for (int aId = 0; aId < states.length; aId++) {
+            for (int t = 0; t < states[aId].length; t++) {
+                if (!relaxed(aId, t) && states[aId][t].contains(incumbent[aId][t])) {
+                    decision.add(states[aId][t], incumbent[aId][t]);
+                    fixed++;
+                }
+            }
+        }
+        complete = fixed == 0;
+        return decision;
+    }
+
+    @Override
+    public boolean isSearchComplete() {
+        return complete;
+    }
+
+    /**
+     * Restore the initial size of the fragment.
+     */
+    protected abstract void reset();
+
+    /**
+     * Pick the fragment to relax for the next neighborhood.
+     */
+    protected abstract void select();
+
+    /**
+     * Check if a state belongs to the selected fragment.
+     *
+     * @param aId the activity identifier
+     * @param t   the time slot
+     * @return {@code true} if the state is left free
+     */
+    protected abstract boolean relaxed(int aId, int t);
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2.reducer;
+
+import eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2.OPCP2;
+
+/**
+ * A neighborhood that relaxes the states of all the activities over a random time window.
+ */
+public class TimeWindowNeighbor extends StateNeighbor {
+
+    private int nbSlots;
+
+    private int initialWidth;
+
+    private int width;
+
+    private int from;
+
+    /**
+     * New neighborhood.
+     *
+     * @param pb   the problem to explore
+     * @param seed the random seed
+     */
+    public TimeWindowNeighbor(OPCP2 pb, long seed) {
+        super(pb, seed);
+        nbSlots = pb.getNbSlots();
+        initialWidth = Math.max(1, nbSlots / 8);
+        width = initialWidth;
+    }
+
+    @Override
+    protected void reset() {
+        width = initialWidth;
+    }
+
+    @Override
+    public void restrictLess() {
+        width = Math.min(nbSlots, width + width / 2 + 1);
+    }
+
+    @Override
+    protected void select() {
+        from = random.nextInt(nbSlots - width + 1);
+    }
+
+    @Override
+    protected boolean relaxed(int aId, int t) {
+        return t >= from && t < from + width;
+    }
+}
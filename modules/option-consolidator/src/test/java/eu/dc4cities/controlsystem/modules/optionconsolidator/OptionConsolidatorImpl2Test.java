@@ -28,14 +28,17 @@ import eu.dc4cities.controlsystem.model.json.JsonUtils;
 import eu.dc4cities.controlsystem.model.unit.Units;
 import eu.dc4cities.controlsystem.modules.ConsolidatorException;
 import eu.dc4cities.controlsystem.modules.OptionConsolidator;
+import eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2.ModelCache;
 import org.joda.time.DateTime;
 import org.jscience.physics.amount.Amount;
 import org.junit.Assert;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.mockito.Mockito;
 
 import javax.measure.quantity.DataAmount;
 import javax.measure.quantity.Duration;
+import javax.measure.unit.NonSI;
 import javax.measure.unit.SI;
 import javax.measure.unit.Unit;
 import javax.measure.unit.UnitFormat;
@@ -285,6 +288,98 @@ public class OptionConsolidatorImpl2Test {
         System.out.println(oc.getLastStatistics());
     }
 
+    private List<EascActivityPlan> buildTwoDayPlans(OptionConsolidatorImpl oc) throws ConsolidatorException {
+        Units.init();
+        UnitFormat.getInstance().label(SI.GIGA(SI.BIT), "Gbit");
+        EascActivitySpecifications spec = loadJson("easc-activity-specifications-2d-instant", EascActivitySpecifications.class);
+        //The activity is not relocatable so it runs in dc1 only. The fixture modifiers do not match the threshold
+        //units, only the objectives matter here
+        ActivitySpecification activity = spec.getActivitySpecifications().get(0);
+        activity.setDataCenters(activity.getDataCenters().subList(0, 1));
+        for (ServiceLevelObjective slo : activity.getServiceLevelObjectives()) {
+            slo.getPriceModifiers().clear();
+        }
+        DateTime start = spec.getActivitySpecifications().get(0).getServiceLevelObjectives().get(0).getDateFrom();
+        Amount<Duration> d = Amount.valueOf(15, NonSI.MINUTE);
+        TimeSlotBasedEntity range = new TimeSlotBasedEntity();
+        range.setDateFrom(start);
+        range.setDateTo(start.plusDays(2));
+        range.setTimeSlotDuration(d);
+        List<DataCenterForecast> forecasts = new ArrayList<>();
+        ActivityMetrics am = new ActivityMetrics("Activity 1");
+        am.setDataCenters(new ArrayList<>());
+        for (DataCenterSpecification dc : activity.getDataCenters()) {
+            ErdsForecast fc = new ErdsForecast("erds");
+            fc.copyIntervalFrom(range);
+            fc.setTimeSlotForecasts(new ArrayList<>());
+            for (int i = 0; i < 96 * 2; i++) {
+                TimeSlotErdsForecast ts = new TimeSlotErdsForecast(i);
+                ts.setRenewablePercentage(Amount.valueOf(10, Units.PERCENTAGE_POINT));
+                ts.setConsumptionPrice(Amount.valueOf(0.16, Units.EUR_PER_KWH));
+                ts.setPower(Amount.valueOf(5000, SI.WATT));
+                fc.getTimeSlotForecasts().add(ts);
+            }
+            DataCenterForecast dFc = new DataCenterForecast(dc.getDataCenterName());
+            dFc.copyIntervalFrom(range);
+            dFc.setErdsForecasts(Arrays.asList(fc));
+            forecasts.add(dFc);
+            ActivityDataCenterMetrics dm = new ActivityDataCenterMetrics(dc.getDataCenterName());
+            dm.setWorkingModeName(dc.getDefaultWorkingMode());
+            am.getDataCenters().add(dm);
+        }
+        EascMetrics metrics = new EascMetrics(spec.getEascName());
+        metrics.setActivities(Arrays.asList(am));
+        oc.setTimeout(1);
+        return oc.buildActivityPlans(range, new ArrayList<>(), forecasts, new ArrayList<>(), new ArrayList<>(),
+                Arrays.asList(spec), new ArrayList<>(), new ArrayList<>(), Arrays.asList(metrics));
+    }
+
+    @Test
+    public void testWarmStartAcrossConsolidators() throws ConsolidatorException {
+        //Each control loop has its own consolidator, only the memory is shared
+        WarmStartMemory memory = Mockito.spy(new WarmStartMemory());
+        OptionConsolidatorImpl first = new OptionConsolidatorImpl();
+        first.setWarmStart(true);
+        first.setWarmStartMemory(memory);
+        buildTwoDayPlans(first);
+        Mockito.verify(memory).remember(Mockito.any(), Mockito.any());
+
+        List<Map<String, List<String>>> seeds = new ArrayList<>();
+        Mockito.doAnswer(invocation -> {
+            @SuppressWarnings("unchecked")
+            Map<String, List<String>> states = (Map<String, List<String>>) invocation.callRealMethod();
+            seeds.add(states);
+            return states;
+        }).when(memory).statesFor(Mockito.any());
+        OptionConsolidatorImpl second = new OptionConsolidatorImpl();
+        second.setWarmStart(true);
+        second.setWarmStartMemory(memory);
+        buildTwoDayPlans(second);
+        Assert.assertFalse(seeds.isEmpty());
+        for (Map<String, List<String>> seed : seeds) {
+            Assert.assertNotNull(seed);
+            Assert.assertFalse(seed.isEmpty());
+        }
+    }
+
+    @Test
+    public void testModelCacheAcrossConsolidators() throws ConsolidatorException {
+        //Each control loop has its own consolidator, only the cache is shared
+        ModelCache cache = new ModelCache();
+        buildTwoDayPlans(consolidator(cache));
+        int automata = cache.size();
+        Assert.assertTrue(automata > 0);
+        buildTwoDayPlans(consolidator(cache));
+        //Same activities, so the automata of the first loop are re-used
+        Assert.assertEquals(automata, cache.size());
+    }
+
+    private static OptionConsolidatorImpl consolidator(ModelCache cache) {
+        OptionConsolidatorImpl oc = new OptionConsolidatorImpl();
+        oc.setModelCache(cache);
+        return oc;
+    }
+
     private <T> T loadJson(String name, Class<T> clazz) {
         return JsonUtils.loadResource(name + ".json", clazz);
     }
@@ -241,6 +241,33 @@ public class ActivityAutomatonTest {
         }
     }
 
+    @Test
+    public void testInstantCosts() {
+        int nbSlots = 4;
+        MyActivity a = new MyActivity("foo");
+        DatacenterPart d1 = new DatacenterPart("dc1");
+        d1.add(WM("w1", 10, 10)).add(WM("w2", 20, 20));
+        a.add(d1);
+        InstantRevenue r0 = new InstantRevenue(0, 15, 5);
+        InstantRevenue r1 = new InstantRevenue(1, 15, 8);
+        InstantRevenue r2 = new InstantRevenue(2, 15, 5);
+        r0.add(new Modifier(10, 2));
+        r2.add(new Modifier(10, 2));
+        a.add(r0).add(r1).add(r2);
+        ActivityAutomaton aa = new ActivityAutomaton(a);
+        ICostAutomaton ic = aa.costAutomaton(nbSlots);
+        for (int i = 0; i < aa.nbStates(); i++) {
+            for (int j = 0; j < aa.nbStates(); j++) {
+                int perf = aa.state(j).perf() - aa.transitionCost(i, j);
+                Assert.assertEquals(r0.revenue(perf), (int) ic.getCostByResourceAndState(0, j, aa.instant(), i));
+                Assert.assertEquals(r1.revenue(perf), (int) ic.getCostByResourceAndState(1, j, aa.instant(), i));
+                Assert.assertEquals(r0.revenue(perf), (int) ic.getCostByResourceAndState(2, j, aa.instant(), i));
+                //No revenue at the last slot
+                Assert.assertEquals(0, (int) ic.getCostByResourceAndState(3, j, aa.instant(), i));
+            }
+        }
+    }
+
     @Test
     public void testForbiddenStates() {
         MyActivity a = new MyActivity("foo");
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2;
+
+import org.chocosolver.solver.constraints.nary.automata.FA.ICostAutomaton;
+import org.junit.Assert;
+import org.junit.Test;
+
+import static eu.dc4cities.controlsystem.modules.optionconsolidator.Utils.WM;
+
+public class ModelCacheTest {
+
+    private static MyActivity activity(int price) {
+        MyActivity a = new MyActivity("foo");
+        DatacenterPart d1 = new DatacenterPart("dc1");
+        d1.add(WM("w1", 10, 10)).add(WM("w2", 20, 20));
+        a.add(d1);
+        a.add(new InstantRevenue(0, 15, price)).add(new InstantRevenue(1, 15, price));
+        return a;
+    }
+
+    @Test
+    public void testReuse() {
+        ModelCache cache = new ModelCache();
+        MyActivity a = activity(5);
+        MyActivity b = activity(8);
+        ActivityAutomaton aa = cache.automaton(a);
+        ActivityAutomaton ab = cache.automaton(b);
+        Assert.assertEquals(1, cache.size());
+        Assert.assertSame(b, ab.activity());
+        Assert.assertSame(aa.state(0), ab.state(0));
+        Assert.assertNotSame(aa.automaton(), ab.automaton());
+
+        //The costs must be the ones of a fresh automaton
+        int nbSlots = 3;
+        ActivityAutomaton fresh = new ActivityAutomaton(b);
+        ICostAutomaton expected = fresh.costAutomaton(nbSlots);
+        ICostAutomaton got = cache.costAutomaton(ab, nbSlots);
+        for (int t = 0; t < nbSlots; t++) {
+            for (int i = 0; i < ab.nbStates(); i++) {
+                for (int j = 0; j < ab.nbStates(); j++) {
+                    Assert.assertEquals(expected.getCostByResourceAndState(t, j, fresh.instant(), i),
+                            got.getCostByResourceAndState(t, j, ab.instant(), i), 0);
+                }
+            }
+        }
+        Assert.assertNotEquals(cache.costAutomaton(aa, nbSlots).getCostByResourceAndState(0, 1, aa.instant(), 1),
+                got.getCostByResourceAndState(0, 1, ab.instant(), 1), 0);
+
+        //A new structure gets its own automaton
+        MyActivity c = activity(5);
+        c.parts().get(0).add(WM("w3", 30, 30));
+        Assert.assertEquals(3, cache.automaton(c).nbStates());
+        Assert.assertEquals(2, cache.size());
+    }
+}
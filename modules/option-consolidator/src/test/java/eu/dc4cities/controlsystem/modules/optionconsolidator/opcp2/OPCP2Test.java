@@ -18,6 +18,7 @@ package eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2;
 
 import eu.dc4cities.controlsystem.model.easc.Relocability;
 import eu.dc4cities.controlsystem.modules.ConsolidatorException;
+import eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2.reducer.LNSReducer;
 import org.apache.log4j.ConsoleAppender;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
@@ -27,7 +28,9 @@ import org.chocosolver.util.ESat;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import static eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2.Utils.WM;
 import static eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2.Utils.*;
@@ -582,4 +585,101 @@ public class OPCP2Test {
         pb.timeLimit(2);
         Assert.assertEquals(ESat.TRUE, pb.solve());
     }
-}
\ No newline at end of file
+
+    /**
+     * The first solution must follow the hinted states when they are feasible.
+     */
+    @Test
+    public void testWarmStart() {
+        int slots = 10;
+        PowerSource grid = new PowerSource("grid", makeSlots(makeLinearProfile(slots, 400, 25), makeProfile(slots, 1))).dcId("dc1");
+        WM s = WM("WM1", 17, 370);
+        WM m = WM("WM2", 25, 440);
+        MyActivity a = new MyActivity("a");
+        a.add(new DatacenterPart("dc1").add(s).add(m));
+        a.add(new CumulativeRevenue(0, slots, 150, 500));
+        OPCP2 pb = new OPCP2(slots, Arrays.asList(grid), Arrays.asList(a));
+        ActivityAutomaton aa = pb.getAutomaton().get(0);
+        int low = 0;
+        int high = 0;
+        for (int i = 0; i < aa.nbStates(); i++) {
+            if (aa.state(i).power() < aa.state(low).power()) {
+                low = i;
+            } else if (aa.state(i).power() > aa.state(high).power()) {
+                high = i;
+            }
+        }
+        int[][] hints = new int[1][slots];
+        for (int t = 0; t < slots; t++) {
+            hints[0][t] = t % 2 == 0 && t >= 4 ? high : low;
+        }
+        pb.warmStart(hints);
+        Assert.assertEquals(ESat.TRUE, pb.solve(false));
+        for (int t = 0; t < slots; t++) {
+            Assert.assertEquals(hints[0][t], pb.val(pb.getAllStates()[0][t]));
+        }
+    }
+
+    private OPCP2 sharedProfitProblem(ProfitBound bound) {
+        int slots = 10;
+        PowerSource grid = new PowerSource("grid", makeSlots(makeLinearProfile(slots, 400, 25), makeProfile(slots, 1))).dcId("dc1");
+        MyActivity a = new MyActivity("a");
+        a.add(new DatacenterPart("dc1").add(WM("WM1", 17, 370)).add(WM("WM2", 25, 440)));
+        a.add(new CumulativeRevenue(0, slots, 150, 500));
+        OPCP2 pb = new OPCP2(slots, Arrays.asList(grid), Arrays.asList(a));
+        pb.timeLimit(5);
+        pb.shareProfit(bound);
+        return pb;
+    }
+
+    /**
+     * A solver must only look for solutions at least as good as the profit shared by the others.
+     */
+    @Test
+    public void testSharedProfit() {
+        ProfitBound bound = new ProfitBound();
+        OPCP2 first = sharedProfitProblem(bound);
+        Assert.assertEquals(ESat.TRUE, first.solve());
+        int best = first.val(first.getProfit());
+        Assert.assertEquals(best, bound.get());
+
+        OPCP2 same = sharedProfitProblem(bound);
+        same.randomize(1);
+        Assert.assertEquals(ESat.TRUE, same.solve());
+        Assert.assertEquals(best, same.val(same.getProfit()));
+
+        ProfitBound better = new ProfitBound();
+        better.offer(best + 1);
+        Assert.assertEquals(ESat.FALSE, sharedProfitProblem(better).solve());
+    }
+
+    private OPCP2 lnsProblem() {
+        int slots = 12;
+        PowerSource grid = new PowerSource("grid", makeSlots(makeLinearProfile(slots, 400, 25), makeProfile(slots, 1))).dcId("dc1");
+        List<MyActivity> activities = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            MyActivity a = new MyActivity("a" + i);
+            a.add(new DatacenterPart("dc1").add(WM("WM1", 17, 100)).add(WM("WM2", 25, 140)));
+            a.add(new CumulativeRevenue(0, slots, 150, 500));
+            activities.add(a);
+        }
+        OPCP2 pb = new OPCP2(slots, Arrays.asList(grid), activities);
+        pb.timeLimit(2);
+        return pb;
+    }
+
+    /**
+     * The Large Neighborhood Search must reach the optimum of a small problem.
+     */
+    @Test
+    public void testLNS() {
+        OPCP2 complete = lnsProblem();
+        Assert.assertEquals(ESat.TRUE, complete.solve());
+        Assert.assertFalse(complete.getSolver().hasReachedLimit());
+
+        OPCP2 pb = lnsProblem();
+        new LNSReducer().prepare(pb);
+        Assert.assertEquals(ESat.TRUE, pb.solve());
+        Assert.assertEquals(complete.val(complete.getProfit()), pb.val(pb.getProfit()));
+    }
+}
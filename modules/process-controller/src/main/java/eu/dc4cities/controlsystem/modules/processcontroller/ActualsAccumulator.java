@@ -0,0 +1,472 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.dc4cities.controlsystem.modules.processcontroller;
+
+import eu.dc4cities.controlsystem.model.TimeSlotPower;
+import eu.dc4cities.controlsystem.model.datacenter.DataCenterPower;
+import eu.dc4cities.controlsystem.model.easc.*;
+import org.joda.time.DateTime;
+import org.jscience.physics.amount.Amount;
+
+import javax.measure.quantity.Power;
+import javax.measure.unit.NonSI;
+import javax.measure.unit.Unit;
+import java.util.*;
+
+/**
+ * Aggregates EASC metrics measurements into per time slot actuals, as described in
+ * {@link FederationStatus#updateEascMetrics(DateTime, List)}.
+ * <p>
+ * Measurements are not kept: each call to {@link #add(List)} updates running sums and counts for each data center
+ * and each (EASC, activity) pair, stored in arrays indexed by ids assigned the first time an entity is seen. Closing a
+ * time slot only visits the entities measured in that time slot, so memory use and the cost of closing a time slot do
+ * not depend on the number of measurements collected.
+ * <p>
+ * This class is not thread safe; FederationStatus serializes access to it.
+ */
+final class ActualsAccumulator {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private final int timeSlotWidth;
+	// Ids of the entities seen so far; activities are keyed by EASC name and activity name
+	private final Map<String, Integer> dataCenterIds = new HashMap<>();
+	private final Map<String, Integer> activityIds = new HashMap<>();
+	private String[] dataCenterNames = new String[INITIAL_CAPACITY];
+	private String[] eascNames = new String[INITIAL_CAPACITY];
+	private String[] activityNames = new String[INITIAL_CAPACITY];
+	// Running sums and counts for the current time slot
+	private final Sums powerSums = new Sums();
+	private int[] powerCounts = new int[INITIAL_CAPACITY];
+	// The number of the last measurement in which each data center was found, to count each measurement only once
+	private int[] powerMeasurements = new int[INITIAL_CAPACITY];
+	private int numOfMeasurements;
+	private final Sums instantPerfSums = new Sums();
+	private int[] instantPerfCounts = new int[INITIAL_CAPACITY];
+	private final Sums cumulativePerfs = new Sums();
+	// The total performance of an activity over its data centers: 0 is instant, 1 is cumulative
+	private final Sums activityTotals = new Sums();
+	// Entities measured in the current time slot, in order of first measurement, and a marker for each entity to list
+	// it only once even when it has no values
+	private int[] measuredDataCenters = new int[INITIAL_CAPACITY];
+	private int numOfMeasuredDataCenters;
+	private boolean[] dataCenterMeasured = new boolean[INITIAL_CAPACITY];
+	private int[] measuredActivities = new int[INITIAL_CAPACITY];
+	private int numOfMeasuredActivities;
+	private boolean[] activityMeasured = new boolean[INITIAL_CAPACITY];
+	// The items of the actuals lists for each entity, looked up by name the first time they are needed
+	private DataCenterPower[] powerActuals = new DataCenterPower[INITIAL_CAPACITY];
+	private ActivityServiceLevels[] serviceLevels = new ActivityServiceLevels[INITIAL_CAPACITY];
+
+	/**
+	 * Creates a new accumulator.
+	 *
+	 * @param timeSlotWidth the time slot width in minutes
+	 */
+	ActualsAccumulator(int timeSlotWidth) {
+		this.timeSlotWidth = timeSlotWidth;
+	}
+
+	/**
+	 * Adds a measurement to the current time slot.
+	 *
+	 * @param eascMetrics the metrics returned by all EASCs in a monitoring call
+	 */
+	void add(List<EascMetrics> eascMetrics) {
+		numOfMeasurements++;
+		for (EascMetrics easc : eascMetrics) {
+			String eascName = easc.getEascName();
+			for (ActivityMetrics activity : easc.getActivities()) {
+				activityTotals.reset(0);
+				activityTotals.reset(1);
+				for (ActivityDataCenterMetrics dataCenter : activity.getDataCenters()) {
+					addPower(dataCenter.getDataCenterName(), dataCenter.getPower());
+					Amount<?> instantPerf = dataCenter.getInstantBusinessPerformance();
+					if (instantPerf != null) {
+						activityTotals.add(0, instantPerf);
+					}
+					Amount<?> cumulativePerf = dataCenter.getCumulativeBusinessPerformance();
+					if (cumulativePerf != null) {
+						activityTotals.add(1, cumulativePerf);
+					}
+				}
+				// At least one between instant and cumulative performance is available at this point since the
+				// EASC is required to provide at least one of those
+				int id = getActivityId(eascName, activity.getName());
+				if (!activityTotals.isEmpty(0)) {
+					instantPerfSums.add(id, activityTotals, 0);
+					instantPerfCounts[id]++;
+				}
+				if (!activityTotals.isEmpty(1)) {
+					// The EASC returns a monotone increasing value, so the last measurement is the one to keep
+					cumulativePerfs.reset(id);
+					cumulativePerfs.add(id, activityTotals, 1);
+				}
+			}
+		}
+	}
+
+	private void addPower(String dataCenterName, Amount<Power> power) {
+		int id = getDataCenterId(dataCenterName);
+		powerSums.add(id, power);
+		if (powerMeasurements[id] != numOfMeasurements) {
+			powerMeasurements[id] = numOfMeasurements;
+			powerCounts[id]++;
+		}
+	}
+
+	private int getDataCenterId(String dataCenterName) {
+		Integer id = dataCenterIds.get(dataCenterName);
+		if (id == null) {
+			id = dataCenterIds.size();
+			dataCenterIds.put(dataCenterName, id);
+			if (id == dataCenterNames.length) {
+				int capacity = id * 2;
+				dataCenterNames = Arrays.copyOf(dataCenterNames, capacity);
+				powerCounts = Arrays.copyOf(powerCounts, capacity);
+				powerMeasurements = Arrays.copyOf(powerMeasurements, capacity);
+				measuredDataCenters = Arrays.copyOf(measuredDataCenters, capacity);
+				dataCenterMeasured = Arrays.copyOf(dataCenterMeasured, capacity);
+				powerActuals = Arrays.copyOf(powerActuals, capacity);
+				powerSums.ensureCapacity(capacity);
+			}
+			dataCenterNames[id] = dataCenterName;
+		}
+		if (!dataCenterMeasured[id]) {
+			dataCenterMeasured[id] = true;
+			measuredDataCenters[numOfMeasuredDataCenters++] = id;
+		}
+		return id;
+	}
+
+	private int getActivityId(String eascName, String activityName) {
+		String key = eascName + '\u0000' + activityName;
+		Integer id = activityIds.get(key);
+		if (id == null) {
+			id = activityIds.size();
+			activityIds.put(key, id);
+			if (id == activityNames.length) {
+				int capacity = id * 2;
+				eascNames = Arrays.copyOf(eascNames, capacity);
+				activityNames = Arrays.copyOf(activityNames, capacity);
+				instantPerfCounts = Arrays.copyOf(instantPerfCounts, capacity);
+				measuredActivities = Arrays.copyOf(measuredActivities, capacity);
+				activityMeasured = Arrays.copyOf(activityMeasured, capacity);
+				serviceLevels = Arrays.copyOf(serviceLevels, capacity);
+				instantPerfSums.ensureCapacity(capacity);
+				cumulativePerfs.ensureCapacity(capacity);
+			}
+			eascNames[id] = eascName;
+			activityNames[id] = activityName;
+		}
+		if (!activityMeasured[id]) {
+			activityMeasured[id] = true;
+			measuredActivities[numOfMeasuredActivities++] = id;
+		}
+		return id;
+	}
+
+	/**
+	 * Appends the averages of the current time slot to the given actuals and starts a new time slot.
+	 *
+	 * @param timeSlotStart the start of the time slot
+	 * @param timeSlotEnd the end of the time slot
+	 * @param dataCenterPowerActuals the power actuals to update
+	 * @param eascServiceLevels the service levels to update
+	 */
+	void closeTimeSlot(DateTime timeSlotStart, DateTime timeSlotEnd, List<DataCenterPower> dataCenterPowerActuals,
+			List<EascServiceLevels> eascServiceLevels) {
+		for (int i = 0; i < numOfMeasuredDataCenters; i++) {
+			int id = measuredDataCenters[i];
+			long average = Math.round(powerSums.doubleValue(id) / powerCounts[id]);
+			@SuppressWarnings("unchecked")
+			Amount<Power> powerActual = (Amount<Power>) Amount.valueOf(average, powerSums.getUnit(id));
+			addPowerActual(id, powerActual, timeSlotStart, timeSlotEnd, dataCenterPowerActuals);
+		}
+		for (int i = 0; i < numOfMeasuredActivities; i++) {
+			int id = measuredActivities[i];
+			Amount<?> instantPerf = null;
+			if (instantPerfCounts[id] > 0) {
+				instantPerf = instantPerfSums.toAmount(id).divide(instantPerfCounts[id]);
+			}
+			Amount<?> cumulativePerf = cumulativePerfs.isEmpty(id) ? null : cumulativePerfs.toAmount(id);
+			ServiceLevel serviceLevel = new ServiceLevel(timeSlotStart, timeSlotEnd);
+			serviceLevel.setInstantBusinessPerformance(instantPerf);
+			serviceLevel.setCumulativeBusinessPerformance(cumulativePerf);
+			getServiceLevels(id, eascServiceLevels).getServiceLevels().add(serviceLevel);
+		}
+		discardTimeSlot();
+	}
+
+	private void addPowerActual(int id, Amount<Power> powerActual, DateTime timeSlotStart, DateTime timeSlotEnd,
+			List<DataCenterPower> dataCenterPowerActuals) {
+		DataCenterPower dataCenterPower = getPowerActuals(id, timeSlotStart, dataCenterPowerActuals);
+		List<TimeSlotPower> powerValues = dataCenterPower.getPowerValues();
+		int lastTimeSlot;
+		if (powerValues.size() > 0) {
+			lastTimeSlot = powerValues.get(powerValues.size() - 1).getTimeSlot();
+		} else {
+			lastTimeSlot = -1;
+		}
+		// Check for gaps in measurements (may be caused by repeated errors in REST monitoring calls)
+		long gapMillis = timeSlotStart.getMillis() - dataCenterPower.getDateTo().getMillis();
+		int gapTimeSlots = (int) (gapMillis / (timeSlotWidth * 60000));
+		TimeSlotPower newPowerValue = new TimeSlotPower(lastTimeSlot + gapTimeSlots + 1, powerActual);
+		powerValues.add(newPowerValue);
+		dataCenterPower.setDateTo(timeSlotEnd);
+	}
+
+	private DataCenterPower getPowerActuals(int id, DateTime timeSlotStart,
+			List<DataCenterPower> dataCenterPowerActuals) {
+		if (powerActuals[id] != null) {
+			return powerActuals[id];
+		}
+		String dataCenter = dataCenterNames[id];
+		for (DataCenterPower powerActual : dataCenterPowerActuals) {
+			if (powerActual.getDataCenterName().equals(dataCenter)) {
+				powerActuals[id] = powerActual;
+				return powerActual;
+			}
+		}
+		DataCenterPower powerActual = new DataCenterPower(dataCenter);
+		powerActual.setDateFrom(timeSlotStart);
+		powerActual.setDateTo(timeSlotStart);
+		powerActual.setTimeSlotDuration(Amount.valueOf(timeSlotWidth, NonSI.MINUTE));
+		dataCenterPowerActuals.add(powerActual);
+		powerActuals[id] = powerActual;
+		return powerActual;
+	}
+
+	private ActivityServiceLevels getServiceLevels(int id, List<EascServiceLevels> eascServiceLevels) {
+		if (serviceLevels[id] != null) {
+			return serviceLevels[id];
+		}
+		String easc = eascNames[id];
+		String activity = activityNames[id];
+		ActivityServiceLevels activityLevels = null;
+		for (EascServiceLevels eascLevels : eascServiceLevels) {
+			if (eascLevels.getEascName().equals(easc)) {
+				List<ActivityServiceLevels> activityLevelsList = eascLevels.getActivityServiceLevels();
+				for (ActivityServiceLevels item : activityLevelsList) {
+					if (item.getActivityName().equals(activity)) {
+						activityLevels = item;
+						break;
+					}
+				}
+				if (activityLevels == null) {
+					activityLevels = new ActivityServiceLevels(activity);
+					activityLevelsList.add(activityLevels);
+				}
+				break;
+			}
+		}
+		if (activityLevels == null) {
+			EascServiceLevels eascLevels = new EascServiceLevels(easc);
+			activityLevels = new ActivityServiceLevels(activity);
+			eascLevels.getActivityServiceLevels().add(activityLevels);
+			eascServiceLevels.add(eascLevels);
+		}
+		serviceLevels[id] = activityLevels;
+		return activityLevels;
+	}
+
+	/**
+	 * Drops the measurements of the current time slot and starts a new time slot.
+	 */
+	void discardTimeSlot() {
+		for (int i = 0; i < numOfMeasuredDataCenters; i++) {
+			int id = measuredDataCenters[i];
+			powerSums.reset(id);
+			powerCounts[id] = 0;
+			dataCenterMeasured[id] = false;
+		}
+		numOfMeasuredDataCenters = 0;
+		for (int i = 0; i < numOfMeasuredActivities; i++) {
+			int id = measuredActivities[i];
+			instantPerfSums.reset(id);
+			instantPerfCounts[id] = 0;
+			cumulativePerfs.reset(id);
+			activityMeasured[id] = false;
+		}
+		numOfMeasuredActivities = 0;
+	}
+
+	/**
+	 * Forgets the items of the actuals lists found so far. Must be called when the lists are cleared or replaced.
+	 */
+	void forgetActuals() {
+		Arrays.fill(powerActuals, null);
+		Arrays.fill(serviceLevels, null);
+	}
+
+	/**
+	 * Returns the sums collected in the current time slot, which can be serialized to JSON.
+	 *
+	 * @return the state of the current time slot
+	 */
+	State toState() {
+		State state = new State();
+		for (int i = 0; i < numOfMeasuredDataCenters; i++) {
+			int id = measuredDataCenters[i];
+			DataCenterState item = new DataCenterState();
+			item.dataCenterName = dataCenterNames[id];
+			item.powerSum = powerSums.toAmount(id);
+			item.count = powerCounts[id];
+			state.dataCenters.add(item);
+		}
+		for (int i = 0; i < numOfMeasuredActivities; i++) {
+			int id = measuredActivities[i];
+			ActivityState item = new ActivityState();
+			item.eascName = eascNames[id];
+			item.activityName = activityNames[id];
+			item.instantSum = instantPerfSums.isEmpty(id) ? null : instantPerfSums.toAmount(id);
+			item.instantCount = instantPerfCounts[id];
+			item.cumulative = cumulativePerfs.isEmpty(id) ? null : cumulativePerfs.toAmount(id);
+			state.activities.add(item);
+		}
+		return state;
+	}
+
+	/**
+	 * Replaces the sums of the current time slot with the given ones.
+	 *
+	 * @param state the state returned by {@link #toState()}
+	 */
+	void restoreState(State state) {
+		discardTimeSlot();
+		for (DataCenterState item : state.dataCenters) {
+			int id = getDataCenterId(item.dataCenterName);
+			powerSums.add(id, item.powerSum);
+			powerCounts[id] = item.count;
+		}
+		for (ActivityState item : state.activities) {
+			int id = getActivityId(item.eascName, item.activityName);
+			if (item.instantSum != null) {
+				instantPerfSums.add(id, item.instantSum);
+				instantPerfCounts[id] = item.instantCount;
+			}
+			if (item.cumulative != null) {
+				cumulativePerfs.add(id, item.cumulative);
+			}
+		}
+	}
+
+	/**
+	 * Running sums of amounts, indexed by entity id. Each sum keeps the unit of the first amount added to it and stays
+	 * exact as long as all amounts added are exact and in the same unit.
+	 */
+	private static final class Sums {
+
+		private Unit<?>[] units = new Unit<?>[INITIAL_CAPACITY];
+		private long[] exactValues = new long[INITIAL_CAPACITY];
+		private double[] values = new double[INITIAL_CAPACITY];
+		private boolean[] inexact = new boolean[INITIAL_CAPACITY];
+
+		void ensureCapacity(int capacity) {
+			if (capacity > units.length) {
+				units = Arrays.copyOf(units, capacity);
+				exactValues = Arrays.copyOf(exactValues, capacity);
+				values = Arrays.copyOf(values, capacity);
+				inexact = Arrays.copyOf(inexact, capacity);
+			}
+		}
+
+		boolean isEmpty(int id) {
+			return id >= units.length || units[id] == null;
+		}
+
+		Unit<?> getUnit(int id) {
+			return units[id];
+		}
+
+		double doubleValue(int id) {
+			return inexact[id] ? values[id] : exactValues[id];
+		}
+
+		void add(int id, Amount<?> amount) {
+			if (amount.isExact()) {
+				add(id, amount.getUnit(), true, amount.getExactValue(), amount.getExactValue());
+			} else {
+				add(id, amount.getUnit(), false, 0, amount.getEstimatedValue());
+			}
+		}
+
+		void add(int id, Sums other, int otherId) {
+			if (other.inexact[otherId]) {
+				add(id, other.units[otherId], false, 0, other.values[otherId]);
+			} else {
+				add(id, other.units[otherId], true, other.exactValues[otherId], other.exactValues[otherId]);
+			}
+		}
+
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		private void add(int id, Unit<?> unit, boolean exact, long exactValue, double value) {
+			if (units[id] == null) {
+				units[id] = unit;
+			} else if (!units[id].equals(unit)) {
+				value = ((Unit) unit).getConverterTo(units[id]).convert(value);
+				exact = false;
+			}
+			if (exact && !inexact[id]) {
+				exactValues[id] += exactValue;
+			} else {
+				if (!inexact[id]) {
+					values[id] = exactValues[id];
+					inexact[id] = true;
+				}
+				values[id] += value;
+			}
+		}
+
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		Amount<?> toAmount(int id) {
+			Unit unit = units[id];
+			return inexact[id] ? Amount.valueOf(values[id], unit) : Amount.valueOf(exactValues[id], unit);
+		}
+
+		void reset(int id) {
+			units[id] = null;
+			exactValues[id] = 0;
+			values[id] = 0;
+			inexact[id] = false;
+		}
+
+	}
+
+	/**
+	 * The sums collected in a time slot, as saved in {@link FederationStatus.Snapshot}.
+	 */
+	static class State {
+		public List<DataCenterState> dataCenters = new ArrayList<>();
+		public List<ActivityState> activities = new ArrayList<>();
+	}
+
+	static class DataCenterState {
+		public String dataCenterName;
+		public Amount<?> powerSum;
+		public int count;
+	}
+
+	static class ActivityState {
+		public String eascName;
+		public String activityName;
+		public Amount<?> instantSum;
+		public int instantCount;
+		public Amount<?> cumulative;
+	}
+
+}
@@ -21,24 +21,28 @@ import eu.dc4cities.configuration.goal.GoalConfiguration;
 import eu.dc4cities.configuration.goal.Objective;
 import eu.dc4cities.configuration.technical.DataCenterConfiguration;
 import eu.dc4cities.configuration.technical.TechnicalConfiguration;
+import eu.dc4cities.controlsystem.model.CompactPowerPlan;
 import eu.dc4cities.controlsystem.model.PowerPlan;
 import eu.dc4cities.controlsystem.model.TimeParameters;
 import eu.dc4cities.controlsystem.model.TimeSlotBasedEntity;
-import eu.dc4cities.controlsystem.model.TimeSlotPower;
 import eu.dc4cities.controlsystem.model.datacenter.*;
 import eu.dc4cities.controlsystem.model.easc.*;
 import eu.dc4cities.controlsystem.model.erds.DataCenterForecast;
 import eu.dc4cities.controlsystem.model.erds.ErdsForecast;
+import eu.dc4cities.controlsystem.model.erds.TimeSlotErdsForecast;
 import eu.dc4cities.controlsystem.model.util.TimeRangeUtils;
 import eu.dc4cities.controlsystem.modules.*;
 import org.joda.time.DateTime;
-import org.jscience.physics.amount.Amount;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.measure.quantity.Power;
 import javax.measure.unit.SI;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Executes the EASC control loop.
@@ -54,6 +58,10 @@ public class ControlLoop {
     private EascHandler eascHandler;
     private OptionConsolidator optionConsolidator;
 	private Map<String, EscalationManager> escalationManagers;
+	private ExecutorService statusExecutor;
+	private ExecutorService planningExecutor;
+	private long planningTimeout;
+	private DryRunCache dryRunCache = new DryRunCache();
 
     /**
      * Creates a new instance using the given components. Components that work on a single data center per instance are
@@ -77,6 +85,41 @@ public class ControlLoop {
         this.optionConsolidator = optionConsolidator;
         this.escalationManagers = escalationManagers;
     }
+    
+    /**
+     * Sets the executor used to determine the status of the data centers in parallel. Escalation managers must be
+     * safe to call from several threads when an executor is set. By default the status is determined for one data
+     * center after another.
+     * 
+     * @param statusExecutor the executor or {@code null} to determine the status sequentially
+     */
+    public void setStatusExecutor(ExecutorService statusExecutor) {
+    	this.statusExecutor = statusExecutor;
+    }
+    
+    /**
+     * Sets the executor used to calculate the power plans of the data centers in parallel. All data centers must
+     * complete within {@code timeout} milliseconds from the start of the calculation. A failure in a data center
+     * doesn't stop the calculation for the others; the loop fails once all data centers are done, reporting every
+     * failed data center. By default power plans are calculated for one data center after another.
+     * 
+     * @param planningExecutor the executor or {@code null} to calculate power plans sequentially
+     * @param timeout the maximum time to calculate the power plans of all data centers, in milliseconds
+     */
+    public void setPlanningExecutor(ExecutorService planningExecutor, long timeout) {
+    	this.planningExecutor = planningExecutor;
+    	this.planningTimeout = timeout;
+    }
+
+    /**
+     * Sets the cache of the dry run plans. Control loops are usually created for a single run, so the cache must be
+     * shared between them for a dry run to be reused. By default each control loop has its own cache.
+     * 
+     * @param dryRunCache the cache to use
+     */
+    public void setDryRunCache(DryRunCache dryRunCache) {
+    	this.dryRunCache = dryRunCache;
+    }
 
     /**
      * Executes the EASC control loop, optimizing activity execution over the given time range.
@@ -106,12 +149,12 @@ public class ControlLoop {
     			+ "eascServiceLevels = " + eascServiceLevels + ", "
     			+ "eascMetrics = " + eascMetrics + ", "
     			+ "currentExecutionPlans = " + currentExecutionPlans);
+    	List<EascActivitySpecifications> eascActivitySpecifications = getActivitySpecifications(timeParameters);
     	if (currentExecutionPlans == null) {
     		// Execute a dry run to initialize the consolidated power plan
     		logger.debug("Optimization started without a consolidated power plan, executing dry run");
-    		List<DataCenterResult> results = doExecute(timeParameters, dataCenterForecasts,
-    				dataCenterPowerActuals,	eascServiceLevels, eascMetrics, null);
-    		currentExecutionPlans = DataCenterResult.getExecutionPlans(results);
+    		currentExecutionPlans = dryRun(timeParameters, dataCenterForecasts, eascActivitySpecifications,
+    				dataCenterPowerActuals,	eascServiceLevels, eascMetrics);
     		logger.debug("Re-running with consolidated power plan after dry run.");
     	} else {
     		// The power planner needs a consolidated plan spanning the whole optimization interval, so initialize any
@@ -119,21 +162,46 @@ public class ControlLoop {
     		TimeParameters missingRange = getMissingExecutionPlanTimeRange(timeParameters, currentExecutionPlans);
     		if (missingRange != null) {
         		logger.debug("Optimization started with a partial consolidated power plan, executing dry run");
-        		List<DataCenterForecast> trimmedForecasts = DataCenterForecast.copyOfRange(dataCenterForecasts, 
+        		List<DataCenterForecast> trimmedForecasts = DataCenterForecast.rangeView(dataCenterForecasts, 
         				missingRange.getDateFrom(), missingRange.getDateTo());
-        		List<DataCenterResult> results = doExecute(missingRange, trimmedForecasts, dataCenterPowerActuals,
-        				eascServiceLevels, eascMetrics, null);
-        		List<DataCenterExecutionPlan> missingExecutionPlans = DataCenterResult.getExecutionPlans(results);
+        		// The specifications of the whole range also cover the missing part
+        		List<EascActivitySpecifications> trimmedSpecifications = EascActivitySpecifications.rangeView(
+        				eascActivitySpecifications, missingRange.getDateFrom(), missingRange.getDateTo());
+        		List<DataCenterExecutionPlan> missingExecutionPlans = dryRun(missingRange, trimmedForecasts, 
+        				trimmedSpecifications, dataCenterPowerActuals, eascServiceLevels, eascMetrics);
         		currentExecutionPlans = mergeConsolidatedPlans(currentExecutionPlans, missingExecutionPlans);
         		logger.debug("Extended execution plans after dry run: " + currentExecutionPlans);
         		logger.debug("Re-running with extended consolidated power plan after dry run.");
     		}
     	}
-    	List<DataCenterResult> results = doExecute(timeParameters, dataCenterForecasts, 
+    	List<DataCenterResult> results = doExecute(timeParameters, dataCenterForecasts, eascActivitySpecifications,
     			dataCenterPowerActuals, eascServiceLevels, eascMetrics,	currentExecutionPlans);
     	return DataCenterResult.getOptimizations(results);
     }
     
+    private List<EascActivitySpecifications> getActivitySpecifications(TimeParameters timeParameters) {
+        logger.debug("Requesting EASC activity specifications...");
+        List<EascActivitySpecifications> eascActivitySpecifications = 
+        		eascHandler.getActivitySpecifications(timeParameters);
+        logger.debug("Got activity specifications: " + eascActivitySpecifications);
+        return eascActivitySpecifications;
+    }
+    
+    /**
+     * Executes a dry run over the given time range, returning the resulting consolidated power plans. The plans of
+     * a previous dry run with the same inputs are reused, see {@link DryRunCache}.
+     */
+    private List<DataCenterExecutionPlan> dryRun(TimeParameters timeParameters, 
+    		List<DataCenterForecast> dataCenterForecasts, List<EascActivitySpecifications> eascActivitySpecifications,
+    		List<DataCenterPower> dataCenterPowerActuals, List<EascServiceLevels> eascServiceLevels, 
+    		List<EascMetrics> eascMetrics) {
+    	return dryRunCache.get(timeParameters, dataCenterForecasts, eascActivitySpecifications, () -> {
+    		List<DataCenterResult> results = doExecute(timeParameters, dataCenterForecasts, 
+    				eascActivitySpecifications, dataCenterPowerActuals, eascServiceLevels, eascMetrics, null);
+    		return DataCenterResult.getExecutionPlans(results);
+    	});
+    }
+    
     private TimeParameters getMissingExecutionPlanTimeRange(TimeParameters timeParameters, 
     		List<DataCenterExecutionPlan> executionPlans) {
     	DateTime availableEnd = executionPlans.get(0).getConsolidatedPowerPlan().getDateTo();
@@ -161,26 +229,22 @@ public class ControlLoop {
     			throw new IllegalArgumentException("Data center names don't match");
     		}
     		DataCenterExecutionPlan mergedItem = new DataCenterExecutionPlan(plan1.getDataCenterName());
-    		PowerPlan mergedPlan = new PowerPlan(plan1.getConsolidatedPowerPlan());
-    		mergedPlan.append(plan2.getConsolidatedPowerPlan());
-    		mergedItem.setConsolidatedPowerPlan(mergedPlan);
+    		CompactPowerPlan mergedPlan = CompactPowerPlan.valueOf(plan1.getConsolidatedPowerPlan());
+    		mergedPlan.append(CompactPowerPlan.valueOf(plan2.getConsolidatedPowerPlan()));
+    		mergedItem.setConsolidatedPowerPlan(mergedPlan.toPowerPlan());
     		merged.add(mergedItem);
     	}
     	return merged;
     }
     
     private List<DataCenterResult> doExecute(TimeParameters timeParameters, 
-    		List<DataCenterForecast> dataCenterForecasts, List<DataCenterPower> dataCenterPowerActuals,
-    		List<EascServiceLevels> eascServiceLevels, List<EascMetrics> eascMetrics,
-    		List<DataCenterExecutionPlan> currentExecutionPlans) {
+    		List<DataCenterForecast> dataCenterForecasts, List<EascActivitySpecifications> eascActivitySpecifications,
+    		List<DataCenterPower> dataCenterPowerActuals, List<EascServiceLevels> eascServiceLevels, 
+    		List<EascMetrics> eascMetrics, List<DataCenterExecutionPlan> currentExecutionPlans) {
     	boolean dryRun = (currentExecutionPlans == null);
     	TimeSlotBasedEntity timeRange = new TimeSlotBasedEntity(timeParameters);
     	List<DataCenterResult> dataCenterResults = calcPowerPlans(timeRange, dataCenterForecasts, 
     			currentExecutionPlans);
-        logger.debug("Requesting EASC activity specifications...");
-        List<EascActivitySpecifications> eascActivitySpecifications = 
-        		eascHandler.getActivitySpecifications(timeParameters);
-        logger.debug("Got activity specifications: " + eascActivitySpecifications);
         List<Objective> powerObjectives = getPowerObjectives();
         List<EascPowerPlan> mergedEascPlans = mergeEascPowerPlans(dataCenterResults);
         logger.debug("Merged EASC power plans: " + mergedEascPlans);
@@ -211,64 +275,125 @@ public class ControlLoop {
 			List<DataCenterForecast> dataCenterForecasts, List<DataCenterExecutionPlan> currentExecutionPlans) {
 		List<DataCenterResult> results = new ArrayList<>(technicalConfig.getDataCenters().size());
     	for (DataCenterConfiguration dataCenterConfig : technicalConfig.getDataCenters()) {
-    		String dataCenterName = dataCenterConfig.getName();
-    		DataCenterForecast forecast = getDataCenterForecast(dataCenterName, dataCenterForecasts);
-    		if (forecast == null) {
-    			throw new IllegalArgumentException("Missing forecast for data center " + dataCenterName);
-    		}
     		DataCenterResult result = new DataCenterResult();
-            result.dataCenterName = dataCenterName;
+            result.dataCenterName = dataCenterConfig.getName();
             results.add(result);
-    		double pue = dataCenterConfig.getPue();
-    		// Skip calculating the ideal power plan in dry runs
-    		if (currentExecutionPlans != null) {
-    			DataCenterExecutionPlan executionPlan = getDataCenterExecutionPlan(dataCenterName, 
+    	}
+    	if (planningExecutor == null) {
+    		for (int i = 0; i < results.size(); i++) {
+    			calcPowerPlan(results.get(i), technicalConfig.getDataCenters().get(i), timeRange, dataCenterForecasts,
     					currentExecutionPlans);
-    			if (executionPlan == null) {
-        			throw new IllegalArgumentException("Missing execution plan for data center " + dataCenterName);
-        		}
-    			PowerPlan previousPlan = executionPlan.getConsolidatedPowerPlan();
-    			if (previousPlan == null) {
-        			throw new IllegalArgumentException("Found null consolidated power plan for data center " + 
-        					dataCenterName);
-        		} else if (previousPlan.getDateTo().compareTo(timeRange.getDateTo()) != 0) {
-        			throw new IllegalArgumentException("Consolidated power plan for data center "
-        					+ dataCenterName + " ends at " + previousPlan.getDateTo() + " but requested "
-        					+ "time range ends at " + timeRange.getDateTo());
-        		}
-    			DateTime dateFrom = timeRange.getDateFrom();
-    			if (previousPlan.getDateFrom().compareTo(dateFrom) != 0) {
-    				// Trim to the requested time range as required by the power planner
-    				previousPlan = previousPlan.copyOfRange(timeRange.getDateFrom());
+    		}
+    		return results;
+    	}
+    	List<Future<?>> futures = new ArrayList<>(results.size());
+    	RuntimeException failure = null;
+    	try {
+    		for (int i = 0; i < results.size(); i++) {
+    			DataCenterResult result = results.get(i);
+    			DataCenterConfiguration dataCenterConfig = technicalConfig.getDataCenters().get(i);
+    			futures.add(planningExecutor.submit(() -> calcPowerPlan(result, dataCenterConfig, timeRange, 
+    					dataCenterForecasts, currentExecutionPlans)));
+    		}
+    		long deadline = System.currentTimeMillis() + planningTimeout;
+    		for (int i = 0; i < results.size(); i++) {
+    			String dataCenterName = results.get(i).dataCenterName;
+    			Throwable cause;
+    			try {
+    				futures.get(i).get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+    				continue;
+    			} catch (ExecutionException ex) {
+    				cause = ex.getCause();
+    			} catch (TimeoutException ex) {
+    				futures.get(i).cancel(true);
+    				cause = new IllegalStateException("Power plan calculation for data center " + dataCenterName
+    						+ " did not complete within " + planningTimeout + " ms");
     			}
-    			PowerPlanner powerPlanner = powerPlanners.get(dataCenterName);
-        		if (powerPlanner == null) {
-        			throw new IllegalArgumentException("Power planner not configured for data center " + dataCenterName);
-        		}
-        		logger.debug(dataCenterName + " - Calculating ideal power plan...");
-        		PowerPlan idealPlan = powerPlanner.calculateIdealPowerPlan(timeRange, forecast.getErdsForecasts(), 
-        				previousPlan);
-                logger.debug(dataCenterName + " - Ideal power plan: " + idealPlan);
-                result.idealPowerPlan = idealPlan;
-                PowerPlan pueIdealPlan = new PowerPlan(idealPlan);
-                pueIdealPlan.scalePowerAmounts(1 / pue);
-                logger.debug(dataCenterName + " - Ideal power plan reduced by PUE: " + pueIdealPlan);
-                result.pueIdealPowerPlan = pueIdealPlan;
+    			logger.error(dataCenterName + " - Could not calculate power plans", cause);
+    			failure = addFailure(failure, dataCenterName, cause);
     		}
-            PowerSplitter powerSplitter = powerSplitters.get(dataCenterName);
-    		if (powerSplitter == null) {
-    			throw new IllegalArgumentException("Power splitter not configured for data center " + dataCenterName);
+    	} catch (InterruptedException ex) {
+    		Thread.currentThread().interrupt();
+    		throw new IllegalStateException("Interrupted while calculating power plans", ex);
+    	} finally {
+    		for (Future<?> future : futures) {
+    			future.cancel(true);
     		}
-            logger.debug(dataCenterName + " - Calculating EASC power quotas...");
-            PowerPlan maxPowerPlan = calcMaxPowerPlan(timeRange, forecast.getErdsForecasts(), 
-            		dataCenterConfig.getMaxPower(), pue);
-            List<EascPowerPlan> eascPowerPlans = powerSplitter.splitPowerForEasc(maxPowerPlan);
-            logger.debug(dataCenterName + " - EASC power quotas: " + eascPowerPlans);
-            result.eascPowerPlans = eascPowerPlans;
+    	}
+    	if (failure != null) {
+    		throw failure;
     	}
     	return results;
     }
     
+    private static RuntimeException addFailure(RuntimeException failure, String dataCenterName, Throwable cause) {
+    	if (failure != null) {
+    		failure.addSuppressed(cause);
+    		return failure;
+    	} else if (cause instanceof RuntimeException) {
+    		return (RuntimeException) cause;
+    	} else {
+    		return new IllegalStateException("Could not calculate power plans for data center " + dataCenterName, 
+    				cause);
+    	}
+    }
+    
+    private void calcPowerPlan(DataCenterResult result, DataCenterConfiguration dataCenterConfig,
+    		TimeSlotBasedEntity timeRange, List<DataCenterForecast> dataCenterForecasts,
+    		List<DataCenterExecutionPlan> currentExecutionPlans) {
+    	String dataCenterName = dataCenterConfig.getName();
+    	DataCenterForecast forecast = getDataCenterForecast(dataCenterName, dataCenterForecasts);
+    	if (forecast == null) {
+    		throw new IllegalArgumentException("Missing forecast for data center " + dataCenterName);
+    	}
+    	double pue = dataCenterConfig.getPue();
+    	// Skip calculating the ideal power plan in dry runs
+    	if (currentExecutionPlans != null) {
+    		DataCenterExecutionPlan executionPlan = getDataCenterExecutionPlan(dataCenterName, 
+    				currentExecutionPlans);
+    		if (executionPlan == null) {
+    			throw new IllegalArgumentException("Missing execution plan for data center " + dataCenterName);
+    		}
+    		PowerPlan previousPlan = executionPlan.getConsolidatedPowerPlan();
+    		if (previousPlan == null) {
+    			throw new IllegalArgumentException("Found null consolidated power plan for data center " + 
+    					dataCenterName);
+    		} else if (previousPlan.getDateTo().compareTo(timeRange.getDateTo()) != 0) {
+    			throw new IllegalArgumentException("Consolidated power plan for data center "
+    					+ dataCenterName + " ends at " + previousPlan.getDateTo() + " but requested "
+    					+ "time range ends at " + timeRange.getDateTo());
+    		}
+    		DateTime dateFrom = timeRange.getDateFrom();
+    		if (previousPlan.getDateFrom().compareTo(dateFrom) != 0) {
+    			// Trim to the requested time range as required by the power planner
+    			previousPlan = CompactPowerPlan.valueOf(previousPlan).copyOfRange(dateFrom).toPowerPlan();
+    		}
+    		PowerPlanner powerPlanner = powerPlanners.get(dataCenterName);
+    		if (powerPlanner == null) {
+    			throw new IllegalArgumentException("Power planner not configured for data center " + dataCenterName);
+    		}
+    		logger.debug(dataCenterName + " - Calculating ideal power plan...");
+    		PowerPlan idealPlan = powerPlanner.calculateIdealPowerPlan(timeRange, forecast.getErdsForecasts(), 
+    				previousPlan);
+            logger.debug(dataCenterName + " - Ideal power plan: " + idealPlan);
+            result.idealPowerPlan = idealPlan;
+            CompactPowerPlan pueIdealPlan = CompactPowerPlan.valueOf(idealPlan);
+            pueIdealPlan.scalePower(1 / pue);
+            result.pueIdealPowerPlan = pueIdealPlan.toPowerPlan();
+            logger.debug(dataCenterName + " - Ideal power plan reduced by PUE: " + result.pueIdealPowerPlan);
+    	}
+        PowerSplitter powerSplitter = powerSplitters.get(dataCenterName);
+    	if (powerSplitter == null) {
+    		throw new IllegalArgumentException("Power splitter not configured for data center " + dataCenterName);
+    	}
+        logger.debug(dataCenterName + " - Calculating EASC power quotas...");
+        PowerPlan maxPowerPlan = calcMaxPowerPlan(timeRange, forecast.getErdsForecasts(), 
+        		dataCenterConfig.getMaxPower(), pue);
+        List<EascPowerPlan> eascPowerPlans = powerSplitter.splitPowerForEasc(maxPowerPlan);
+        logger.debug(dataCenterName + " - EASC power quotas: " + eascPowerPlans);
+        result.eascPowerPlans = eascPowerPlans;
+    }
+    
     private DataCenterForecast getDataCenterForecast(String dataCenterName, List<DataCenterForecast> forecasts) {
     	for (DataCenterForecast forecast : forecasts) {
     		if (forecast.getDataCenterName().equals(dataCenterName)) {
@@ -280,7 +405,7 @@ public class ControlLoop {
     
     private PowerPlan calcMaxPowerPlan(TimeSlotBasedEntity timeRange, List<ErdsForecast> forecasts, 
     		int dataCenterMaxPower,	double pue) {
-    	PowerPlan maxPowerPlan = new PowerPlan(timeRange, Amount.valueOf(0, SI.WATT));
+    	CompactPowerPlan maxPowerPlan = new CompactPowerPlan(timeRange);
     	// Assume all forecasts use the same time interval
     	DateTime rangeFrom = timeRange.getDateFrom();
     	DateTime forecastFrom = forecasts.get(0).getDateFrom();
@@ -290,20 +415,16 @@ public class ControlLoop {
     		throw new IllegalArgumentException("timeRange.dateTo is after forecasts.dateTo");
     	}
     	int offset = TimeRangeUtils.getTimeSlotNumber(forecastFrom, rangeFrom, timeRange.getTimeSlotDuration());
-    	List<TimeSlotPower> maxPowerQuotas = maxPowerPlan.getPowerQuotas();
-    	for (int i = 0; i < maxPowerQuotas.size(); i++) {
-    		TimeSlotPower powerQuota = maxPowerQuotas.get(i);
-    		Amount<Power> maxPower = powerQuota.getPower();
-    		for (ErdsForecast forecast : forecasts) {
-    			maxPower = maxPower.plus(forecast.getTimeSlotForecasts().get(i + offset).getPower());
-    		}
-    		if (maxPower.getExactValue() > dataCenterMaxPower) {
-    			maxPower = Amount.valueOf(dataCenterMaxPower, SI.WATT);
+    	for (ErdsForecast forecast : forecasts) {
+    		List<TimeSlotErdsForecast> timeSlotForecasts = forecast.getTimeSlotForecasts();
+    		for (int i = 0; i < maxPowerPlan.size(); i++) {
+    			double power = timeSlotForecasts.get(i + offset).getPower().doubleValue(SI.WATT);
+    			maxPowerPlan.setPower(i, maxPowerPlan.getPower(i) + power);
     		}
-    		powerQuota.setPower(maxPower);
-    		powerQuota.scalePower(1 / pue);
     	}
-		return maxPowerPlan;
+    	maxPowerPlan.limitPower(dataCenterMaxPower);
+    	maxPowerPlan.scalePower(1 / pue);
+		return maxPowerPlan.toPowerPlan();
     }
     
     private DataCenterPower getDataCenterPower(String dataCenterName, List<DataCenterPower> powerItems) {
@@ -372,20 +493,17 @@ public class ControlLoop {
     
     private void calcConsolidatedPowerPlans(TimeSlotBasedEntity timeRange, List<EascActivityPlan> eascActivityPlans, 
     		List<DataCenterResult> destItems) {
-    	Map<String, Map<Integer, TimeSlotPower>> consolidatedDcQuotas = new HashMap<>();
+    	Map<String, CompactPowerPlan> consolidatedPlans = new HashMap<>();
     	for (DataCenterResult destItem : destItems) {
-    		PowerPlan consolidatedPlan = new PowerPlan(timeRange, Amount.valueOf(0, SI.WATT));
-    		destItem.consolidatedPowerPlan = consolidatedPlan;
-    		consolidatedDcQuotas.put(destItem.dataCenterName, consolidatedPlan.getPowerQuotasMap());
+    		consolidatedPlans.put(destItem.dataCenterName, new CompactPowerPlan(timeRange));
     	}
     	for (EascActivityPlan eascActivityPlan : eascActivityPlans) {
     		for (Activity activity : eascActivityPlan.getActivities()) {
     			for (ActivityDataCenter dataCenter : activity.getDataCenters()) {
-    				Map<Integer, TimeSlotPower> powerQuotas = consolidatedDcQuotas.get(dataCenter.getDataCenterName());
+    				CompactPowerPlan consolidatedPlan = consolidatedPlans.get(dataCenter.getDataCenterName());
     				for (Work work : dataCenter.getWorks()) {
-        				for (int ts = work.getStartTimeSlot(); ts < work.getEndTimeSlot(); ts++) {
-        					powerQuotas.get(ts).addPower(work.getPower());
-        				}
+    					consolidatedPlan.addPower(work.getStartTimeSlot(), work.getEndTimeSlot(), 
+    							work.getPower().doubleValue(SI.WATT));
         			}
     			}
     		}
@@ -394,9 +512,13 @@ public class ControlLoop {
     		String dataCenterName = destItem.dataCenterName;
     		DataCenterConfiguration dataCenterConfig = technicalConfig.getDataCenter(dataCenterName);
     		double pue = dataCenterConfig.getPue();
-    		PowerPlan consolidatedPlan = destItem.consolidatedPowerPlan;
-    		consolidatedPlan.scalePowerAmounts(pue);
-    		logger.debug(dataCenterName + " - Consolidated power plan (including PUE): " + consolidatedPlan);
+    		CompactPowerPlan consolidatedPlan = consolidatedPlans.get(dataCenterName);
+    		consolidatedPlan.scalePower(pue);
+    		destItem.consolidatedPowerPlan = consolidatedPlan.toPowerPlan();
+    		if (logger.isDebugEnabled()) {
+    			logger.debug(dataCenterName + " - Consolidated power plan (including PUE): " 
+    					+ destItem.consolidatedPowerPlan);
+    		}
     	}
     }
     
@@ -404,32 +526,66 @@ public class ControlLoop {
     		List<EascActivitySpecifications> eascActivitySpecifications, List<DataCenterPower> dataCenterPowerActuals,
     		List<EascServiceLevels> eascServiceLevels, List<EascActivityPlan> eascActivityPlans,
     		List<DataCenterResult> results) {
-    	for (DataCenterResult result : results) {
-    		String dataCenterName = result.dataCenterName;
-    		EscalationManager escalationManager = escalationManagers.get(dataCenterName);
-    		if (escalationManager == null) {
-    			throw new IllegalArgumentException("Escalation Manager not configured for data center " 
-    					+ dataCenterName);
+    	if (statusExecutor == null) {
+    		for (DataCenterResult result : results) {
+    			result.status = determineStatus(result.dataCenterName, timeParameters, dataCenterForecasts,
+    					eascActivitySpecifications, dataCenterPowerActuals, eascServiceLevels, eascActivityPlans);
     		}
-    		List<Objective> powerObjectives = getPowerObjectives(dataCenterName);
-    		DataCenterForecast forecast = getDataCenterForecast(dataCenterName, dataCenterForecasts);
-    		if (forecast == null) {
-    			throw new IllegalArgumentException("Missing forecast for data center " + dataCenterName);
+    		return;
+    	}
+    	List<Future<DataCenterStatus>> futures = new ArrayList<>(results.size());
+    	try {
+    		for (DataCenterResult result : results) {
+    			futures.add(statusExecutor.submit(() -> determineStatus(result.dataCenterName, timeParameters, 
+    					dataCenterForecasts, eascActivitySpecifications, dataCenterPowerActuals, eascServiceLevels,
+    					eascActivityPlans)));
     		}
-    		// powerActual can be null when no previous metrics are available (at the beginning of the day)
-    		DataCenterPower powerActual = getDataCenterPower(dataCenterName, dataCenterPowerActuals);
-    		// Make sure dateFrom is the beginning of the day, the escalation manager needs to work on full days
-    		TimeParameters extendedTimeParameters = new TimeParameters(timeParameters);
-    		extendedTimeParameters.setDateFrom(timeParameters.getDateFrom().withTimeAtStartOfDay());
-    		logger.debug(dataCenterName + " - Analyzing status...");
-    		DataCenterStatus status = escalationManager.determineDcStatus(dataCenterName, extendedTimeParameters,
-    				powerObjectives, forecast.getErdsForecasts(), eascActivitySpecifications, powerActual,
-    				eascServiceLevels, eascActivityPlans);
-    		logger.debug(dataCenterName + " - Status: " + status);
-    		postProcessStatus(status, eascActivitySpecifications);
-    		logger.debug(dataCenterName + " - Post-processed status: " + status);
-    		result.status = status;
+    		for (int i = 0; i < results.size(); i++) {
+    			results.get(i).status = futures.get(i).get();
+    		}
+    	} catch (ExecutionException ex) {
+    		Throwable cause = ex.getCause();
+    		if (cause instanceof RuntimeException) {
+    			throw (RuntimeException) cause;
+    		}
+    		throw new IllegalStateException("Could not determine data center status", cause);
+    	} catch (InterruptedException ex) {
+    		Thread.currentThread().interrupt();
+    		throw new IllegalStateException("Interrupted while determining data center status", ex);
+    	} finally {
+    		for (Future<DataCenterStatus> future : futures) {
+    			future.cancel(true);
+    		}
+    	}
+    }
+    
+    private DataCenterStatus determineStatus(String dataCenterName, TimeParameters timeParameters, 
+    		List<DataCenterForecast> dataCenterForecasts, List<EascActivitySpecifications> eascActivitySpecifications,
+    		List<DataCenterPower> dataCenterPowerActuals, List<EascServiceLevels> eascServiceLevels,
+    		List<EascActivityPlan> eascActivityPlans) {
+    	EscalationManager escalationManager = escalationManagers.get(dataCenterName);
+    	if (escalationManager == null) {
+    		throw new IllegalArgumentException("Escalation Manager not configured for data center " 
+    				+ dataCenterName);
+    	}
+    	List<Objective> powerObjectives = getPowerObjectives(dataCenterName);
+    	DataCenterForecast forecast = getDataCenterForecast(dataCenterName, dataCenterForecasts);
+    	if (forecast == null) {
+    		throw new IllegalArgumentException("Missing forecast for data center " + dataCenterName);
     	}
+    	// powerActual can be null when no previous metrics are available (at the beginning of the day)
+    	DataCenterPower powerActual = getDataCenterPower(dataCenterName, dataCenterPowerActuals);
+    	// Make sure dateFrom is the beginning of the day, the escalation manager needs to work on full days
+    	TimeParameters extendedTimeParameters = new TimeParameters(timeParameters);
+    	extendedTimeParameters.setDateFrom(timeParameters.getDateFrom().withTimeAtStartOfDay());
+    	logger.debug(dataCenterName + " - Analyzing status...");
+    	DataCenterStatus status = escalationManager.determineDcStatus(dataCenterName, extendedTimeParameters,
+    			powerObjectives, forecast.getErdsForecasts(), eascActivitySpecifications, powerActual,
+    			eascServiceLevels, eascActivityPlans);
+    	logger.debug(dataCenterName + " - Status: " + status);
+    	postProcessStatus(status, eascActivitySpecifications);
+    	logger.debug(dataCenterName + " - Post-processed status: " + status);
+    	return status;
     }
     
     private void postProcessStatus(DataCenterStatus dataCenterStatus, 
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.dc4cities.controlsystem.modules.processcontroller;
+
+import eu.dc4cities.controlsystem.model.PowerPlan;
+import eu.dc4cities.controlsystem.model.TimeParameters;
+import eu.dc4cities.controlsystem.model.datacenter.DataCenterExecutionPlan;
+import eu.dc4cities.controlsystem.model.easc.EascActivitySpecifications;
+import eu.dc4cities.controlsystem.model.erds.DataCenterForecast;
+import eu.dc4cities.controlsystem.model.json.JsonUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the consolidated power plans of the last dry run, so that they are returned again as long as the time range,
+ * the forecasts and the activity specifications are the same. Other inputs are not considered, since the dry run only
+ * provides the initial plan for the power planner.
+ * <p>
+ * A new {@link ControlLoop} is created for each run, so the cache is owned by the {@link OptimizationManager} and
+ * shared by all the control loops. It is thread-safe.
+ */
+public class DryRunCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(DryRunCache.class);
+	
+	private volatile DryRunResult lastDryRun;
+	
+	/**
+	 * Returns the consolidated power plans of the dry run for the given inputs, executing it only if they differ
+	 * from the inputs of the last dry run.
+	 * 
+	 * @param timeParameters the time range of the dry run
+	 * @param dataCenterForecasts the energy forecasts for all data centers in the federation
+	 * @param eascActivitySpecifications the activity specifications of all EASCs in the federation
+	 * @param dryRun executes the dry run
+	 * @return the execution plans with the consolidated power plans, that can be freely modified
+	 */
+	public List<DataCenterExecutionPlan> get(TimeParameters timeParameters, 
+			List<DataCenterForecast> dataCenterForecasts, List<EascActivitySpecifications> eascActivitySpecifications,
+			Supplier<List<DataCenterExecutionPlan>> dryRun) {
+		DryRunKey key = new DryRunKey(timeParameters, dataCenterForecasts, eascActivitySpecifications);
+		DryRunResult cached = lastDryRun;
+		if (cached != null && cached.key.equals(key)) {
+			logger.debug("Reusing consolidated power plans of a previous dry run");
+			return copyExecutionPlans(cached.executionPlans);
+		}
+		List<DataCenterExecutionPlan> executionPlans = dryRun.get();
+		lastDryRun = new DryRunResult(key, copyExecutionPlans(executionPlans));
+		return executionPlans;
+	}
+	
+	/**
+	 * Forgets the last dry run.
+	 */
+	public void clear() {
+		lastDryRun = null;
+	}
+	
+	private static List<DataCenterExecutionPlan> copyExecutionPlans(List<DataCenterExecutionPlan> executionPlans) {
+		List<DataCenterExecutionPlan> copy = new ArrayList<>(executionPlans.size());
+		for (DataCenterExecutionPlan executionPlan : executionPlans) {
+			DataCenterExecutionPlan item = new DataCenterExecutionPlan(executionPlan.getDataCenterName());
+			item.setConsolidatedPowerPlan(new PowerPlan(executionPlan.getConsolidatedPowerPlan()));
+			copy.add(item);
+		}
+		return copy;
+	}
+	
+	private static class DryRunKey {
+		
+		private long dateFrom;
+		private long dateTo;
+		private String timeSlotDuration;
+		private byte[] forecastDigest;
+		private byte[] specificationDigest;
+		
+		public DryRunKey(TimeParameters timeParameters, List<DataCenterForecast> dataCenterForecasts,
+				List<EascActivitySpecifications> eascActivitySpecifications) {
+			dateFrom = timeParameters.getDateFrom().getMillis();
+			dateTo = timeParameters.getDateTo().getMillis();
+			timeSlotDuration = String.valueOf(timeParameters.getTimeSlotDuration());
+			forecastDigest = digest(dataCenterForecasts);
+			specificationDigest = digest(eascActivitySpecifications);
+		}
+		
+		private static byte[] digest(Object object) {
+			try {
+				MessageDigest digest = MessageDigest.getInstance("SHA-256");
+				return digest.digest(JsonUtils.toString(object).getBytes(StandardCharsets.UTF_8));
+			} catch (NoSuchAlgorithmException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			} else if (!(obj instanceof DryRunKey)) {
+				return false;
+			}
+			DryRunKey other = (DryRunKey) obj;
+			return dateFrom == other.dateFrom && dateTo == other.dateTo 
+					&& timeSlotDuration.equals(other.timeSlotDuration)
+					&& Arrays.equals(forecastDigest, other.forecastDigest)
+					&& Arrays.equals(specificationDigest, other.specificationDigest);
+		}
+		
+		@Override
+		public int hashCode() {
+			return Objects.hash(dateFrom, dateTo, timeSlotDuration, Arrays.hashCode(forecastDigest), 
+					Arrays.hashCode(specificationDigest));
+		}
+		
+	}
+	
+	private static class DryRunResult {
+		
+		private final DryRunKey key;
+		private final List<DataCenterExecutionPlan> executionPlans;
+		
+		public DryRunResult(DryRunKey key, List<DataCenterExecutionPlan> executionPlans) {
+			this.key = key;
+			this.executionPlans = executionPlans;
+		}
+		
+	}
+	
+}
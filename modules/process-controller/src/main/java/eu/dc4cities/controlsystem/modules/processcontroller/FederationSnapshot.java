@@ -0,0 +1,126 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.dc4cities.controlsystem.modules.processcontroller;
+
+import eu.dc4cities.controlsystem.model.datacenter.DataCenterExecutionPlan;
+import eu.dc4cities.controlsystem.model.datacenter.DataCenterStatus;
+import eu.dc4cities.controlsystem.model.json.JsonUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable view of the federation state published by the {@code OptimizationManager} for readers outside the
+ * optimization loops, such as the REST API. A new snapshot with a higher version is published each time a control loop
+ * updates the execution plans, so readers never need to lock the live {@code FederationStatus}.
+ * <p>
+ * Execution plans are indexed by data center name and also kept in their JSON form, serialized once when the snapshot
+ * is created. Plans, statuses and JSON arrays are shared with all readers and must not be modified.
+ */
+public final class FederationSnapshot {
+
+	/**
+	 * The snapshot published before any execution plan is available.
+	 */
+	public static final FederationSnapshot EMPTY = new FederationSnapshot(0, null, null);
+
+	private final long version;
+	private final List<DataCenterExecutionPlan> executionPlans;
+	private final List<DataCenterStatus> statuses;
+	private final Map<String, DataCenterExecutionPlan> plansByDataCenter;
+	private final Map<String, byte[]> planJsonByDataCenter;
+
+	/**
+	 * Creates a new snapshot, serializing the given execution plans to JSON.
+	 *
+	 * @param version the version of the snapshot
+	 * @param executionPlans the execution plans of all data centers, or {@code null} if not available
+	 * @param statuses the statuses of all data centers, or {@code null} if not available
+	 */
+	public FederationSnapshot(long version, List<DataCenterExecutionPlan> executionPlans,
+			List<DataCenterStatus> statuses) {
+		this.version = version;
+		this.executionPlans = executionPlans == null ? null : Collections.unmodifiableList(executionPlans);
+		this.statuses = statuses == null ? null : Collections.unmodifiableList(statuses);
+		Map<String, DataCenterExecutionPlan> plans = new HashMap<>();
+		Map<String, byte[]> planJson = new HashMap<>();
+		if (executionPlans != null) {
+			for (DataCenterExecutionPlan plan : executionPlans) {
+				String dataCenterName = plan.getDataCenterName();
+				// Keep the first plan for a data center, as a linear search of the list would do
+				if (!plans.containsKey(dataCenterName)) {
+					plans.put(dataCenterName, plan);
+					planJson.put(dataCenterName, JsonUtils.toString(plan).getBytes(StandardCharsets.UTF_8));
+				}
+			}
+		}
+		this.plansByDataCenter = Collections.unmodifiableMap(plans);
+		this.planJsonByDataCenter = Collections.unmodifiableMap(planJson);
+	}
+
+	/**
+	 * Returns the version of this snapshot. Versions increase each time a new snapshot is published.
+	 *
+	 * @return the version of the snapshot
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Returns the execution plans of all data centers.
+	 *
+	 * @return the unmodifiable list of execution plans, or {@code null} if not available
+	 */
+	public List<DataCenterExecutionPlan> getExecutionPlans() {
+		return executionPlans;
+	}
+
+	/**
+	 * Returns the statuses of all data centers.
+	 *
+	 * @return the unmodifiable list of statuses, or {@code null} if not available
+	 */
+	public List<DataCenterStatus> getStatuses() {
+		return statuses;
+	}
+
+	/**
+	 * Returns the execution plan for the given data center.
+	 *
+	 * @param dataCenter the name of the data center
+	 * @return the execution plan for the data center or {@code null} if not found
+	 */
+	public DataCenterExecutionPlan getExecutionPlan(String dataCenter) {
+		return plansByDataCenter.get(dataCenter);
+	}
+
+	/**
+	 * Returns the JSON representation of the execution plan for the given data center, encoded in UTF-8. The
+	 * returned array is shared and must not be modified.
+	 *
+	 * @param dataCenter the name of the data center
+	 * @return the JSON bytes of the execution plan or {@code null} if not found
+	 */
+	public byte[] getExecutionPlanJson(String dataCenter) {
+		return planJsonByDataCenter.get(dataCenter);
+	}
+
+}
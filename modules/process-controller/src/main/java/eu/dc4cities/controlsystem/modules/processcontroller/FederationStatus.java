@@ -43,7 +43,7 @@ public class FederationStatus {
 	private TechnicalConfiguration technicalConfiguration;
 	// The time slot width in minutes
 	private int timeSlotWidth;
-	// The start date of the current time slot (for which items are accumulated in eascMetricsBuffer)
+	// The start date of the current time slot (for which measurements are accumulated in timeSlotActuals)
 	private DateTime timeSlotStart;
 	// The end date of the current time slot
 	private DateTime timeSlotEnd;
@@ -57,15 +57,17 @@ public class FederationStatus {
 	// The most recent EASC metrics measurement
 	private DateTime latestEascMetricsDate;
 	private List<EascMetrics> latestEascMetrics;
-	// The EASC metrics measurements collected during the current time slot; at the end of the time slot they are
-	// aggregated in order to update dataCenterPowerActuals and eascServiceLevels
-	private List<EascMetricsItem> eascMetricsBuffer = new LinkedList<>();
+	// The running sums of the EASC metrics measurements collected during the current time slot; at the end of the
+	// time slot they are used to update dataCenterPowerActuals and eascServiceLevels
+	private ActualsAccumulator timeSlotActuals;
 	// The actual power usage of each data center in the federation, from the start of the current day up to the
 	// current time slot
 	private List<DataCenterPower> dataCenterPowerActuals = new LinkedList<>();
 	// The actual performance levels of each EASC in the federation, from the start of the current day up to the
 	// current time slot
 	private List<EascServiceLevels> eascServiceLevels = new LinkedList<>();
+	// The journal where mutations are recorded, null if the status is not persisted
+	private FederationStatusJournal journal;
 	
 	/**
 	 * Creates a new FederationStatus.
@@ -78,6 +80,66 @@ public class FederationStatus {
 		this.timeSlotWidth = technicalConfiguration.getTimeSlotWidth();
 		this.timeSlotStart = firstTimeSlotStart;
 		this.timeSlotEnd = timeSlotStart.plusMinutes(timeSlotWidth);
+		this.timeSlotActuals = new ActualsAccumulator(timeSlotWidth);
+	}
+	
+	/**
+	 * Restores a FederationStatus from a snapshot taken with {@link #toSnapshot()}.
+	 * 
+	 * @param snapshot the snapshot to restore
+	 * @param technicalConfiguration the technical configuration
+	 */
+	FederationStatus(Snapshot snapshot, TechnicalConfiguration technicalConfiguration) {
+		this(snapshot.timeSlotStart, technicalConfiguration);
+		dataCenterForecasts = snapshot.dataCenterForecasts;
+		dataCenterExecutionPlans = snapshot.dataCenterExecutionPlans;
+		dataCenterStatuses = snapshot.dataCenterStatuses;
+		latestEascMetricsDate = snapshot.latestEascMetricsDate;
+		latestEascMetrics = snapshot.latestEascMetrics;
+		dataCenterPowerActuals.addAll(snapshot.dataCenterPowerActuals);
+		eascServiceLevels.addAll(snapshot.eascServiceLevels);
+		if (snapshot.timeSlotActuals != null) {
+			timeSlotActuals.restoreState(snapshot.timeSlotActuals);
+		}
+	}
+	
+	/**
+	 * Returns a snapshot of the whole status, which can be serialized to JSON and restored later.
+	 * 
+	 * @return the snapshot
+	 */
+	Snapshot toSnapshot() {
+		Snapshot snapshot = new Snapshot();
+		snapshot.timeSlotStart = timeSlotStart;
+		snapshot.dataCenterForecasts = dataCenterForecasts;
+		snapshot.dataCenterExecutionPlans = dataCenterExecutionPlans;
+		snapshot.dataCenterStatuses = dataCenterStatuses;
+		snapshot.latestEascMetricsDate = latestEascMetricsDate;
+		snapshot.latestEascMetrics = latestEascMetrics;
+		snapshot.timeSlotActuals = timeSlotActuals.toState();
+		snapshot.dataCenterPowerActuals = dataCenterPowerActuals;
+		snapshot.eascServiceLevels = eascServiceLevels;
+		return snapshot;
+	}
+	
+	/**
+	 * Starts recording all further mutations of the status in the given journal. A snapshot of the current status is
+	 * written immediately, so that the journal can be replayed on top of it.
+	 * 
+	 * @param journal the journal to record mutations in
+	 */
+	public void setJournal(FederationStatusJournal journal) {
+		this.journal = journal;
+		journal.writeSnapshot(this);
+	}
+	
+	/**
+	 * Returns the start date of the time slot for which EASC metrics are currently being collected.
+	 * 
+	 * @return the start of the current time slot
+	 */
+	public DateTime getTimeSlotStart() {
+		return timeSlotStart;
 	}
 	
 	/**
@@ -90,18 +152,23 @@ public class FederationStatus {
 	}
 
 	/**
-	 * Returns a copy of the data center forecasts trimmed to the given time range. Throws an exception if the available
-	 * forecasts do not cover the requested range.
+	 * Returns a read-only view of the data center forecasts trimmed to the given time range. Throws an exception if the
+	 * available forecasts do not cover the requested range.
 	 * 
 	 * @param timeRange the requested time range
 	 * @return the forecast trimmed to the requested range
+	 * @see DataCenterForecast#rangeView(DateTime, DateTime)
 	 */
 	public List<DataCenterForecast> getDataCenterForecasts(TimeSlotBasedEntity timeRange) {
-		return DataCenterForecast.copyOfRange(dataCenterForecasts, timeRange.getDateFrom(), timeRange.getDateTo());
+		return DataCenterForecast.rangeView(dataCenterForecasts, timeRange.getDateFrom(), timeRange.getDateTo());
 	}
 	
 	public void setDataCenterForecasts(List<DataCenterForecast> dataCenterForecasts) {
+		if (journal != null) {
+			journal.recordDataCenterForecasts(dataCenterForecasts);
+		}
 		this.dataCenterForecasts = dataCenterForecasts;
+		checkpoint();
 	}
 
 	public List<DataCenterExecutionPlan> getDataCenterExecutionPlans() {
@@ -109,7 +176,11 @@ public class FederationStatus {
 	}
 
 	public void setDataCenterExecutionPlans(List<DataCenterExecutionPlan> dataCenterExecutionPlans) {
+		if (journal != null) {
+			journal.recordDataCenterExecutionPlans(dataCenterExecutionPlans);
+		}
 		this.dataCenterExecutionPlans = dataCenterExecutionPlans;
+		checkpoint();
 	}
 
 	public List<DataCenterStatus> getDataCenterStatuses() {
@@ -117,7 +188,18 @@ public class FederationStatus {
 	}
 
 	public void setDataCenterStatuses(List<DataCenterStatus> dataCenterStatuses) {
+		if (journal != null) {
+			journal.recordDataCenterStatuses(dataCenterStatuses);
+		}
 		this.dataCenterStatuses = dataCenterStatuses;
+		checkpoint();
+	}
+	
+	// Gives the journal a chance to replace its records with a snapshot once a mutation is complete
+	private void checkpoint() {
+		if (journal != null) {
+			journal.checkpoint(this);
+		}
 	}
 
 	public List<EascMetrics> getLatestEascMetrics() {
@@ -131,10 +213,50 @@ public class FederationStatus {
 	public List<EascServiceLevels> getEascServiceLevels() {
 		return eascServiceLevels;
 	}
+	
+	/**
+	 * Returns a copy of the power actuals that is not affected by later calls to {@code updateEascMetrics}, for use
+	 * outside the status lock. Time slot values are shared with the status, since they are never changed once added.
+	 * 
+	 * @return the copy of the power actuals
+	 */
+	public List<DataCenterPower> copyOfDataCenterPowerActuals() {
+		List<DataCenterPower> copy = new ArrayList<>(dataCenterPowerActuals.size());
+		for (DataCenterPower powerActual : dataCenterPowerActuals) {
+			DataCenterPower powerCopy = new DataCenterPower(powerActual.getDataCenterName());
+			powerCopy.setDateFrom(powerActual.getDateFrom());
+			powerCopy.setDateTo(powerActual.getDateTo());
+			powerCopy.setTimeSlotDuration(powerActual.getTimeSlotDuration());
+			powerCopy.setPowerValues(new ArrayList<>(powerActual.getPowerValues()));
+			copy.add(powerCopy);
+		}
+		return copy;
+	}
+	
+	/**
+	 * Returns a copy of the service levels that is not affected by later calls to {@code updateEascMetrics}, for use
+	 * outside the status lock. Service levels of single time slots are shared with the status, since they are never
+	 * changed once added.
+	 * 
+	 * @return the copy of the service levels
+	 */
+	public List<EascServiceLevels> copyOfEascServiceLevels() {
+		List<EascServiceLevels> copy = new ArrayList<>(eascServiceLevels.size());
+		for (EascServiceLevels eascLevels : eascServiceLevels) {
+			EascServiceLevels eascCopy = new EascServiceLevels(eascLevels.getEascName());
+			for (ActivityServiceLevels activityLevels : eascLevels.getActivityServiceLevels()) {
+				ActivityServiceLevels activityCopy = new ActivityServiceLevels(activityLevels.getActivityName());
+				activityCopy.setServiceLevels(new ArrayList<>(activityLevels.getServiceLevels()));
+				eascCopy.getActivityServiceLevels().add(activityCopy);
+			}
+			copy.add(eascCopy);
+		}
+		return copy;
+	}
 
 	/**
 	 * Updates the metrics for the day with the given measurements from the EASCs. If the monitoring interval is shorter
-	 * than the time slot width, new measurements are stored in a buffer until dateNow reaches the end of the time slot.
+	 * than the time slot width, new measurements are accumulated until dateNow reaches the end of the time slot.
 	 * At that point, dataCenterPowerActuals and eascServiceLevels are updated with metrics for the time slot that has
 	 * completed. The measurement collected at the end of the time slot is considered the last one in that time slot
 	 * (not the first one in the next time slot).
@@ -158,6 +280,17 @@ public class FederationStatus {
 	 * @param eascMetrics the updated metrics
 	 */
 	public void updateEascMetrics(DateTime dateNow, List<EascMetrics> eascMetrics) {
+		if (journal != null) {
+			journal.recordEascMetrics(dateNow, eascMetrics);
+		}
+		try {
+			doUpdateEascMetrics(dateNow, eascMetrics);
+		} finally {
+			checkpoint();
+		}
+	}
+	
+	private void doUpdateEascMetrics(DateTime dateNow, List<EascMetrics> eascMetrics) {
 		// Always save the latest metrics even if before timeSlotStart as they represent the last known state of the
 		// system
 		latestEascMetricsDate = dateNow;
@@ -166,84 +299,30 @@ public class FederationStatus {
 			// Don't consider this measurement as it belongs to the previous time slot
 			return;
 		}
-		eascMetricsBuffer.add(new EascMetricsItem(dateNow, eascMetrics));
-		// Do the check in a loop in case errors in monitoring have caused updates to be skipped
-		while (dateNow.compareTo(timeSlotEnd) >= 0) {
-			List<EascMetricsItem> timeSlotMetrics = new LinkedList<>();
-			Iterator<EascMetricsItem> iterator = eascMetricsBuffer.iterator();
-			while (iterator.hasNext()) {
-				EascMetricsItem item = iterator.next();
-				if (item.date.compareTo(timeSlotEnd) <= 0) {
-					timeSlotMetrics.add(item);
-					iterator.remove();
-				} else {
-					break;
-				}
-			}
-			if (timeSlotEnd.getMillisOfDay() == 0) {
-				// Reset metrics at midnight to start a new SLA day
-				dataCenterPowerActuals.clear();
-				eascServiceLevels.clear();
-			} else {
-				addTimeSlotActuals(timeSlotMetrics);
-			}
-			timeSlotStart = timeSlotEnd;
-			timeSlotEnd = timeSlotStart.plusMinutes(timeSlotWidth);
+		// Close the time slots that ended before this measurement; do it in a loop in case errors in monitoring have
+		// caused updates to be skipped
+		while (dateNow.compareTo(timeSlotEnd) > 0) {
+			closeTimeSlot();
 		}
-	}
-	
-	// Appends a new time slot to actual metrics, with values calculated as the average among arguments
-	private void addTimeSlotActuals(List<EascMetricsItem> eascMetricsItems) {
-		// The list of power measurements for each data center, collected within the time slot.
-		// Use a linked hash map to achieve predictable order in output objects (required for test verifications, also
-		// useful when inspecting logs for debugging)
-		Map<String, List<Amount<Power>>> dataCenterPowerMeasurements = new LinkedHashMap<>();
-		Map<String, Map<String, ActivityPerformance>> activityPerfsMap = new LinkedHashMap<>();
-		for (EascMetricsItem metricsItem : eascMetricsItems) {
-			// The total power consumptions of each data center at the time of the monitoring call
-			Map<String, Amount<Power>> dataCenterPowerTotals = new LinkedHashMap<>();
-			for (EascMetrics eascMetrics : metricsItem.eascMetrics) {
-				String eascName = eascMetrics.getEascName();
-				for (ActivityMetrics activity : eascMetrics.getActivities()) {
-					String activityName = activity.getName();
-					Amount<?> totalInstantPerf = null;
-					Amount<?> totalCumulativePerf = null;
-					for (ActivityDataCenterMetrics dataCenter : activity.getDataCenters()) {
-						String dataCenterName = dataCenter.getDataCenterName();
-						Amount<Power> dataCenterPower = dataCenter.getPower();
-						sumPower(dataCenterName, dataCenterPower, dataCenterPowerTotals);
-						Amount<?> instantPerf = dataCenter.getInstantBusinessPerformance();
-						if (instantPerf != null) {
-							totalInstantPerf = sumAmount(instantPerf, totalInstantPerf);
-						}
-						Amount<?> cumulativePerf = dataCenter.getCumulativeBusinessPerformance();
-						if (cumulativePerf != null) {
-							totalCumulativePerf = sumAmount(cumulativePerf, totalCumulativePerf);
-						}
-					}
-					// At least one between totalInstantPerf and totalCumulativePerf is non-null at this point since the
-					// EASC is required to provide at least one of those
-					updatePerfMeasurements(eascName, activityName, totalInstantPerf, totalCumulativePerf, 
-							activityPerfsMap);
-				}
-			}
-			for (Map.Entry<String, Amount<Power>> total : dataCenterPowerTotals.entrySet()) {
-				addPowerMeasurement(total.getKey(), total.getValue(), dataCenterPowerMeasurements);
-			}
+		timeSlotActuals.add(eascMetrics);
+		if (dateNow.compareTo(timeSlotEnd) == 0) {
+			closeTimeSlot();
 		}
-		addPowerActualsForCurrentTimeSlot(dataCenterPowerMeasurements);
-		addServiceLevelsForCurrentTimeSlot(activityPerfsMap);
 	}
 	
-	private void sumPower(String dataCenter, Amount<Power> power, 
-			Map<String, Amount<Power>> dataCenterTotals) {
-		Amount<Power> powerTotal = dataCenterTotals.get(dataCenter);
-		if (powerTotal == null) {
-			powerTotal = power;
+	// Appends the current time slot to actual metrics, with values calculated as the average among measurements
+	private void closeTimeSlot() {
+		if (timeSlotEnd.getMillisOfDay() == 0) {
+			// Reset metrics at midnight to start a new SLA day
+			dataCenterPowerActuals.clear();
+			eascServiceLevels.clear();
+			timeSlotActuals.forgetActuals();
+			timeSlotActuals.discardTimeSlot();
 		} else {
-			powerTotal = powerTotal.plus(power);
+			timeSlotActuals.closeTimeSlot(timeSlotStart, timeSlotEnd, dataCenterPowerActuals, eascServiceLevels);
 		}
-		dataCenterTotals.put(dataCenter, powerTotal);
+		timeSlotStart = timeSlotEnd;
+		timeSlotEnd = timeSlotStart.plusMinutes(timeSlotWidth);
 	}
 	
 	private Amount<?> sumAmount(Amount<?> amount, Amount<?> total) {
@@ -254,151 +333,24 @@ public class FederationStatus {
 		}
 	}
 	
-	private void addPowerMeasurement(String dataCenter, Amount<Power> power, 
-			Map<String, List<Amount<Power>>> dataCenterMeasurements) {
-		List<Amount<Power>> measurements = dataCenterMeasurements.get(dataCenter);
-		if (measurements == null) {
-			measurements = new LinkedList<>();
-			dataCenterMeasurements.put(dataCenter, measurements);
-		}
-		measurements.add(power);
-	}
-	
-	private void updatePerfMeasurements(String easc, String activity, Amount<?> instantPerf, Amount<?> cumulativePerf,
-			Map<String, Map<String, ActivityPerformance>> measurementsMap) {
-		Map<String, ActivityPerformance> eascMeasurements = measurementsMap.get(easc);
-		if (eascMeasurements == null) {
-			eascMeasurements = new LinkedHashMap<>();
-			measurementsMap.put(easc, eascMeasurements);
-		}
-		ActivityPerformance activityPerf = eascMeasurements.get(activity);
-		if (activityPerf == null) {
-			activityPerf = new ActivityPerformance();
-			eascMeasurements.put(activity, activityPerf);
-		}
-		if (instantPerf != null) {
-			activityPerf.instantPerformances.add(instantPerf);
-		}
-		if (cumulativePerf != null) {
-			activityPerf.cumulativePerformance = cumulativePerf;
-		}
-	}
-	
-	private void addPowerActualsForCurrentTimeSlot(Map<String, List<Amount<Power>>> powerMeasurementsMap) {
-		for (Map.Entry<String, List<Amount<Power>>> dataCenterEntry : powerMeasurementsMap.entrySet()) {
-			String dataCenter = dataCenterEntry.getKey();
-			Amount<Power> timeSlotAvgPower = calcAveragePower(dataCenterEntry.getValue());
-			addPowerActualForCurrentTimeSlot(dataCenter, timeSlotAvgPower);
-		}
-	}
-	
-	private Amount<Power> calcAveragePower(List<Amount<Power>> powerValues) {
-		double total = 0;
-		for (Amount<Power> value : powerValues) {
-			total += value.getEstimatedValue();
-		}
-		long average = Math.round(total / powerValues.size());
-		return Amount.valueOf(average, powerValues.get(0).getUnit());
-	}
-	
-	private void addPowerActualForCurrentTimeSlot(String dataCenter, Amount<Power> powerActual) {
-		DataCenterPower dataCenterPower = getDataCenterPowerActuals(dataCenter);
-		List<TimeSlotPower> powerValues = dataCenterPower.getPowerValues();
-		int lastTimeSlot;
-		if (powerValues.size() > 0) {
-			lastTimeSlot = powerValues.get(powerValues.size() - 1).getTimeSlot();
-		} else {
-			lastTimeSlot = -1;
-		}
-		// Check for gaps in measurements (may be caused by repeated errors in REST monitoring calls)
-		long gapMillis = timeSlotStart.getMillis() - dataCenterPower.getDateTo().getMillis();
-		int gapTimeSlots = (int) (gapMillis / (timeSlotWidth * 60000));
-		TimeSlotPower newPowerValue = new TimeSlotPower(lastTimeSlot + gapTimeSlots + 1, powerActual);
-		powerValues.add(newPowerValue);
-		dataCenterPower.setDateTo(timeSlotEnd);
-	}
-	
-	private DataCenterPower getDataCenterPowerActuals(String dataCenter) {
-		for (DataCenterPower powerActuals : dataCenterPowerActuals) {
-			if (powerActuals.getDataCenterName().equals(dataCenter)) {
-				return powerActuals;
-			}
-		}
-		DataCenterPower powerActuals = new DataCenterPower(dataCenter);
-		powerActuals.setDateFrom(timeSlotStart);
-		powerActuals.setDateTo(timeSlotStart);
-		powerActuals.setTimeSlotDuration(Amount.valueOf(timeSlotWidth, NonSI.MINUTE));
-		dataCenterPowerActuals.add(powerActuals);
-		return powerActuals;
-	}
-	
-	private void addServiceLevelsForCurrentTimeSlot(Map<String, Map<String, ActivityPerformance>> activityPerfsMap) {
-		for (Map.Entry<String, Map<String, ActivityPerformance>> eascEntry : activityPerfsMap.entrySet()) {
-			String easc = eascEntry.getKey();
-			for (Map.Entry<String, ActivityPerformance> activityEntry : eascEntry.getValue().entrySet()) {
-				String activity = activityEntry.getKey();
-				ActivityPerformance activityPerf = activityEntry.getValue();
-				List<Amount<?>> perfValues = activityPerf.instantPerformances;
-				Amount<?> perfAvg = null;
-				if (perfValues.size() > 0) {
-					Amount<?> perfTotal = perfValues.get(0);
-					for (int i = 1; i < perfValues.size(); i++) {
-						perfTotal = perfTotal.plus(perfValues.get(i));
-					}
-					perfAvg = perfTotal.divide(perfValues.size());
-				}
-				addServiceLevelForCurrentTimeSlot(easc, activity, perfAvg, activityPerf.cumulativePerformance);
-			}
-		}
-	}
-	
-	private void addServiceLevelForCurrentTimeSlot(String easc, String activity, Amount<?> instantPerf, 
-			Amount<?> cumulativePerf) {
-		ActivityServiceLevels activityLevels = getActivityServiceLevels(easc, activity);
-		ServiceLevel serviceLevel = new ServiceLevel(timeSlotStart, timeSlotEnd);
-		serviceLevel.setInstantBusinessPerformance(instantPerf);
-		serviceLevel.setCumulativeBusinessPerformance(cumulativePerf);
-		activityLevels.getServiceLevels().add(serviceLevel);
-	}
-	
-	private ActivityServiceLevels getActivityServiceLevels(String easc, String activity) {
-		for (EascServiceLevels eascLevels : eascServiceLevels) {
-			if (eascLevels.getEascName().equals(easc)) {
-				List<ActivityServiceLevels> activityLevelsList = eascLevels.getActivityServiceLevels();
-				for (ActivityServiceLevels activityLevels : activityLevelsList) {
-					if (activityLevels.getActivityName().equals(activity)) {
-						return activityLevels;
-					}
-				}
-				ActivityServiceLevels activityLevels = new ActivityServiceLevels(activity);
-				activityLevelsList.add(activityLevels);
-				return activityLevels;
-			}
-		}
-		EascServiceLevels eascLevels = new EascServiceLevels(easc);
-		ActivityServiceLevels activityLevels = new ActivityServiceLevels(activity);
-		eascLevels.getActivityServiceLevels().add(activityLevels);
-		eascServiceLevels.add(eascLevels);
-		return activityLevels;
-	}
-	
-	private static class EascMetricsItem {
-		
-		public DateTime date;
-		public List<EascMetrics> eascMetrics;
+	/**
+	 * The full content of a FederationStatus, as saved by {@link FederationStatusJournal}.
+	 */
+	static class Snapshot {
 		
-		public EascMetricsItem(DateTime date, List<EascMetrics> eascMetrics) {
-			this.date = date;
-			this.eascMetrics = eascMetrics;
-		}
+		public long sequence;
+		public DateTime timeSlotStart;
+		public List<DataCenterForecast> dataCenterForecasts;
+		public List<DataCenterExecutionPlan> dataCenterExecutionPlans;
+		public List<DataCenterStatus> dataCenterStatuses;
+		public DateTime latestEascMetricsDate;
+		public List<EascMetrics> latestEascMetrics;
+		public ActualsAccumulator.State timeSlotActuals;
+		public List<DataCenterPower> dataCenterPowerActuals;
+		public List<EascServiceLevels> eascServiceLevels;
 		
 	}
 	
-	private static class ActivityPerformance {
-		public List<Amount<?>> instantPerformances = new LinkedList<>();
-		public Amount<?> cumulativePerformance;		
-	}
-	
 	/**
 	 * Returns the historical database metrics for all data centers in the federation, based on the latest EASC metrics
 	 * and the data center forecasts for the corresponding time slot. 
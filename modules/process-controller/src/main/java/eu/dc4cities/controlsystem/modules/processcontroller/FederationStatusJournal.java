@@ -0,0 +1,317 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.dc4cities.controlsystem.modules.processcontroller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.dc4cities.configuration.technical.TechnicalConfiguration;
+import eu.dc4cities.controlsystem.model.datacenter.DataCenterExecutionPlan;
+import eu.dc4cities.controlsystem.model.datacenter.DataCenterStatus;
+import eu.dc4cities.controlsystem.model.easc.EascMetrics;
+import eu.dc4cities.controlsystem.model.erds.DataCenterForecast;
+import eu.dc4cities.controlsystem.model.json.JsonUtils;
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Persists a {@link FederationStatus} on disk, so that a restarted controller can resume with the forecasts, plans and
+ * actual metrics collected before the restart.
+ * <p>
+ * Every mutation of the status is appended to a journal file and synced to disk before being applied (write-ahead).
+ * After a configurable number of records, the whole status is saved to a snapshot file and the journal is truncated.
+ * Both files contain JSON in the same format used by the REST APIs, the journal having one record per line. Recovery
+ * loads the snapshot and replays the journal records that follow it; a record truncated by a crash is discarded.
+ * <p>
+ * The journal is not thread safe: it must be used under the same lock that guards the federation status.
+ */
+public class FederationStatusJournal implements Closeable {
+
+	private static final Logger logger = LoggerFactory.getLogger(FederationStatusJournal.class);
+
+	private static final String JOURNAL_FILE = "federation-status.journal";
+	private static final String SNAPSHOT_FILE = "federation-status.snapshot";
+
+	private File journalFile;
+	private File snapshotFile;
+	private int snapshotInterval;
+	private ObjectMapper mapper = JsonUtils.getDc4CitiesObjectMapper();
+	private FileChannel channel;
+	private long sequence;
+	private int recordsSinceSnapshot;
+	private boolean snapshotDue;
+
+	/**
+	 * Creates a journal in the given directory.
+	 *
+	 * @param directory the directory holding the journal and snapshot files; created if missing
+	 * @param snapshotInterval the number of journal records after which a new snapshot is taken
+	 */
+	public FederationStatusJournal(File directory, int snapshotInterval) {
+		if (snapshotInterval <= 0) {
+			throw new IllegalArgumentException("snapshotInterval must be > 0");
+		} else if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IllegalArgumentException("Could not create journal directory " + directory);
+		}
+		this.journalFile = new File(directory, JOURNAL_FILE);
+		this.snapshotFile = new File(directory, SNAPSHOT_FILE);
+		this.snapshotInterval = snapshotInterval;
+	}
+
+	/**
+	 * Rebuilds the federation status saved in the journal and opens the journal for recording. This method must be
+	 * called once, before the journal is attached to a status.
+	 * <p>
+	 * If the saved files cannot be read or replayed, they are renamed with a {@code .failed-<timestamp>} suffix and the
+	 * journal starts empty.
+	 *
+	 * @param technicalConfiguration the technical configuration to create the status with
+	 * @return the recovered status, or {@code null} if nothing was saved or it could not be recovered
+	 * @throws IOException if the journal cannot be opened, or unreadable files cannot be moved aside
+	 */
+	public FederationStatus recover(TechnicalConfiguration technicalConfiguration) throws IOException {
+		if (channel != null) {
+			throw new IllegalStateException("The journal has already been opened");
+		}
+		FederationStatus status = null;
+		long validLength = 0;
+		int replayed = 0;
+		try {
+			if (snapshotFile.exists()) {
+				FederationStatus.Snapshot snapshot = mapper.readValue(snapshotFile, FederationStatus.Snapshot.class);
+				sequence = snapshot.sequence;
+				status = new FederationStatus(snapshot, technicalConfiguration);
+			}
+			if (journalFile.exists()) {
+				byte[] content = Files.readAllBytes(journalFile.toPath());
+				int lineStart = 0;
+				for (int i = 0; i < content.length; i++) {
+					if (content[i] != '\n') {
+						continue;
+					}
+					Record record;
+					try {
+						record = mapper.readValue(content, lineStart, i - lineStart, Record.class);
+					} catch (IOException e) {
+						logger.warn("Discarding corrupted federation status journal from offset " + lineStart, e);
+						break;
+					}
+					lineStart = i + 1;
+					validLength = lineStart;
+					// Records older than the snapshot were written before a crash interrupted the journal truncation
+					if (record.sequence <= sequence) {
+						continue;
+					}
+					if (status == null) {
+						throw new IOException("Found federation status journal without snapshot");
+					}
+					apply(record, status);
+					sequence = record.sequence;
+					replayed++;
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			// Keep the files for inspection but out of the way, otherwise every restart would fail on them again
+			logger.error("Could not recover federation status from journal, starting with an empty status", e);
+			moveAside(snapshotFile);
+			moveAside(journalFile);
+			status = null;
+			sequence = 0;
+			validLength = 0;
+			replayed = 0;
+		}
+		channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		// Drop any partial record left by a crash, so new records are appended after the last complete one
+		channel.truncate(validLength);
+		channel.position(validLength);
+		recordsSinceSnapshot = replayed;
+		if (status != null) {
+			logger.info("Recovered federation status at " + status.getTimeSlotStart() + " from snapshot and "
+					+ replayed + " journal records");
+		}
+		return status;
+	}
+
+	private void moveAside(File file) throws IOException {
+		if (file.exists()) {
+			File target = new File(file.getPath() + ".failed-" + System.currentTimeMillis());
+			Files.move(file.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			logger.warn("Moved " + file + " to " + target);
+		}
+	}
+
+	private void apply(Record record, FederationStatus status) {
+		switch (record.type) {
+		case EASC_METRICS:
+			status.updateEascMetrics(record.date, record.eascMetrics);
+			break;
+		case FORECASTS:
+			status.setDataCenterForecasts(record.dataCenterForecasts);
+			break;
+		case EXECUTION_PLANS:
+			status.setDataCenterExecutionPlans(record.dataCenterExecutionPlans);
+			break;
+		case STATUSES:
+			status.setDataCenterStatuses(record.dataCenterStatuses);
+			break;
+		default:
+			throw new IllegalArgumentException("Unsupported journal record type: " + record.type);
+		}
+	}
+
+	void recordEascMetrics(DateTime date, List<EascMetrics> eascMetrics) {
+		Record record = new Record(RecordType.EASC_METRICS);
+		record.date = date;
+		record.eascMetrics = eascMetrics;
+		append(record);
+	}
+
+	void recordDataCenterForecasts(List<DataCenterForecast> dataCenterForecasts) {
+		Record record = new Record(RecordType.FORECASTS);
+		record.dataCenterForecasts = dataCenterForecasts;
+		append(record);
+	}
+
+	void recordDataCenterExecutionPlans(List<DataCenterExecutionPlan> dataCenterExecutionPlans) {
+		Record record = new Record(RecordType.EXECUTION_PLANS);
+		record.dataCenterExecutionPlans = dataCenterExecutionPlans;
+		append(record);
+	}
+
+	void recordDataCenterStatuses(List<DataCenterStatus> dataCenterStatuses) {
+		Record record = new Record(RecordType.STATUSES);
+		record.dataCenterStatuses = dataCenterStatuses;
+		append(record);
+	}
+
+	private void append(Record record) {
+		if (channel == null) {
+			throw new IllegalStateException("The journal must be recovered before recording");
+		}
+		if (snapshotDue) {
+			// The journal is out of sync after a failed write, the next snapshot will replace it
+			return;
+		}
+		record.sequence = sequence + 1;
+		try {
+			byte[] json = mapper.writeValueAsBytes(record);
+			ByteBuffer buffer = ByteBuffer.allocate(json.length + 1);
+			buffer.put(json).put((byte) '\n').flip();
+			writeFully(channel, buffer);
+			sequence = record.sequence;
+			recordsSinceSnapshot++;
+		} catch (IOException e) {
+			logger.error("Could not write federation status journal, a snapshot will be taken after this update", e);
+			snapshotDue = true;
+		}
+	}
+
+	/**
+	 * Takes a snapshot if enough records have been written since the last one, or if the last write failed.
+	 *
+	 * @param status the status the journal belongs to, after the last recorded mutation has been applied
+	 */
+	void checkpoint(FederationStatus status) {
+		if (snapshotDue || recordsSinceSnapshot >= snapshotInterval) {
+			writeSnapshot(status);
+		}
+	}
+
+	/**
+	 * Saves the whole status to the snapshot file and truncates the journal. If the snapshot cannot be written, the
+	 * journal is left untouched and a new attempt is made at the next checkpoint.
+	 *
+	 * @param status the status to save
+	 */
+	void writeSnapshot(FederationStatus status) {
+		if (channel == null) {
+			throw new IllegalStateException("The journal must be recovered before recording");
+		}
+		FederationStatus.Snapshot snapshot = status.toSnapshot();
+		// A snapshot consumes a sequence number so that it supersedes all records written so far, including any
+		// record whose write failed halfway
+		sequence++;
+		snapshot.sequence = sequence;
+		File tmpFile = new File(snapshotFile.getPath() + ".tmp");
+		try {
+			try (FileChannel out = FileChannel.open(tmpFile.toPath(), StandardOpenOption.CREATE,
+					StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				writeFully(out, ByteBuffer.wrap(mapper.writeValueAsBytes(snapshot)));
+			}
+			Files.move(tmpFile.toPath(), snapshotFile.toPath(), StandardCopyOption.ATOMIC_MOVE,
+					StandardCopyOption.REPLACE_EXISTING);
+			channel.truncate(0);
+			channel.position(0);
+			channel.force(false);
+			recordsSinceSnapshot = 0;
+			snapshotDue = false;
+		} catch (IOException e) {
+			logger.error("Could not write federation status snapshot", e);
+			snapshotDue = true;
+		}
+	}
+
+	private void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			out.write(buffer);
+		}
+		out.force(false);
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (channel != null) {
+			channel.close();
+		}
+	}
+
+	enum RecordType {
+		EASC_METRICS, FORECASTS, EXECUTION_PLANS, STATUSES
+	}
+
+	/**
+	 * A single mutation of the federation status. Only the fields relevant to the record type are set.
+	 */
+	static class Record {
+
+		public long sequence;
+		public RecordType type;
+		public DateTime date;
+		public List<EascMetrics> eascMetrics;
+		public List<DataCenterForecast> dataCenterForecasts;
+		public List<DataCenterExecutionPlan> dataCenterExecutionPlans;
+		public List<DataCenterStatus> dataCenterStatuses;
+
+		// Used for JSON deserialization
+		public Record() {}
+
+		public Record(RecordType type) {
+			this.type = type;
+		}
+
+	}
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.dc4cities.controlsystem.modules.processcontroller;
+
+import org.kairosdb.client.builder.MetricBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Collects metrics to be uploaded to the historical database in as few requests as possible. Metrics are split into
+ * multiple requests only when the number of data points in a request would exceed the configured limit. A single
+ * metric is never split, so a request may exceed the limit if one metric alone does.
+ * <p>
+ * Batches are created by {@link HistoricalDbDao#newBatch()}, filled with the {@code add*} methods of the DAO and
+ * uploaded with {@link HistoricalDbDao#writeBatch(HdbMetricBatch)}.
+ */
+public class HdbMetricBatch {
+
+	private int maxDataPointsPerRequest;
+	private List<MetricBuilder> requests = new ArrayList<>();
+	private int currentDataPoints;
+	private int totalDataPoints;
+
+	HdbMetricBatch(int maxDataPointsPerRequest) {
+		if (maxDataPointsPerRequest <= 0) {
+			throw new IllegalArgumentException("maxDataPointsPerRequest must be > 0");
+		}
+		this.maxDataPointsPerRequest = maxDataPointsPerRequest;
+	}
+
+	/**
+	 * Returns the builder to add a new metric to, starting a new request if the metric does not fit into the current
+	 * one.
+	 *
+	 * @param dataPoints the number of data points the new metric will hold
+	 * @return the builder for the request the metric belongs to
+	 */
+	MetricBuilder builderFor(int dataPoints) {
+		if (requests.isEmpty() ||
+				(currentDataPoints > 0 && currentDataPoints + dataPoints > maxDataPointsPerRequest)) {
+			requests.add(MetricBuilder.getInstance());
+			currentDataPoints = 0;
+		}
+		currentDataPoints += dataPoints;
+		totalDataPoints += dataPoints;
+		return requests.get(requests.size() - 1);
+	}
+
+	/**
+	 * Returns the requests making up the batch, one builder per request.
+	 *
+	 * @return the list of requests, empty if no metric was added
+	 */
+	List<MetricBuilder> getRequests() {
+		return Collections.unmodifiableList(requests);
+	}
+
+	/**
+	 * Returns the number of requests needed to upload the batch.
+	 *
+	 * @return the number of requests
+	 */
+	public int getNumOfRequests() {
+		return requests.size();
+	}
+
+	/**
+	 * Returns the total number of data points in the batch.
+	 *
+	 * @return the number of data points
+	 */
+	public int getNumOfDataPoints() {
+		return totalDataPoints;
+	}
+
+	/**
+	 * Returns whether the batch contains no metrics.
+	 *
+	 * @return true if the batch is empty, false otherwise
+	 */
+	public boolean isEmpty() {
+		return requests.isEmpty();
+	}
+
+}
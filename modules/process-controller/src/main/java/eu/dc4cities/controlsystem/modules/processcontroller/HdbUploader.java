@@ -0,0 +1,426 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.dc4cities.controlsystem.modules.processcontroller;
+
+import eu.dc4cities.controlsystem.model.datacenter.DataCenterStatus;
+import eu.dc4cities.controlsystem.model.json.JsonUtils;
+import org.joda.time.DateTime;
+import org.kairosdb.client.builder.MetricBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Uploads metrics to the historical database and alerts to Energis in the background, so that optimization loops
+ * don't have to wait for slow or unavailable endpoints. Uploads are queued in a bounded queue and processed in order by
+ * a single worker thread. When the queue is full, depending on the {@link OverflowPolicy}, either the submitting thread
+ * waits for a free slot or the oldest queued upload is discarded.
+ * <p>
+ * If a spill directory is set, metric requests that cannot be uploaded (because of an error or because they are
+ * discarded from a full queue) are saved to disk and uploaded again, oldest first, as soon as the historical database is
+ * reachable. Spilled requests are always uploaded before newer ones, so that old values never overwrite new values with
+ * the same timestamps, such as those of execution plans and alert states. The number of spilled requests is bounded, the oldest ones are deleted when the limit is reached. Energis
+ * alerts are never spilled, since they are superseded by the alerts of the next control loop.
+ */
+public class HdbUploader implements Closeable {
+
+	private static final Logger logger = LoggerFactory.getLogger(HdbUploader.class);
+
+	private static final String SPILL_FILE_PREFIX = "hdb-";
+	private static final String SPILL_FILE_SUFFIX = ".json";
+	private static final long SHUTDOWN_TIMEOUT = 10000;
+
+	/**
+	 * What to do when an upload is submitted while the queue is full.
+	 */
+	public enum OverflowPolicy {
+		/** Wait until the worker frees a slot in the queue. */
+		BLOCK,
+		/** Discard (or spill, if enabled) the oldest queued upload to make room for the new one. */
+		DROP_OLDEST
+	}
+
+	private HistoricalDbDao hdbDao;
+	private int capacity;
+	private OverflowPolicy overflowPolicy;
+	private File spillDirectory;
+	private int maxSpillFiles;
+	private LinkedBlockingDeque<Upload> queue;
+	private Thread worker;
+	private volatile boolean running;
+	private volatile long currentUploadSubmitTime;
+	private volatile DateTime lastUploadDate;
+	private AtomicLong uploaded = new AtomicLong();
+	private AtomicLong failed = new AtomicLong();
+	private AtomicLong dropped = new AtomicLong();
+	private AtomicLong spillSequence = new AtomicLong();
+
+	/**
+	 * Creates a new uploader. The uploader does nothing until {@link #start()} is called.
+	 *
+	 * @param hdbDao the DAO used to perform uploads
+	 * @param capacity the maximum number of uploads waiting in the queue
+	 * @param overflowPolicy what to do when the queue is full
+	 * @param spillDirectory the directory where to save failed metric requests, or {@code null} to discard them
+	 * @param maxSpillFiles the maximum number of requests kept in the spill directory
+	 */
+	public HdbUploader(HistoricalDbDao hdbDao, int capacity, OverflowPolicy overflowPolicy, File spillDirectory,
+			int maxSpillFiles) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("capacity must be > 0");
+		} else if (spillDirectory != null && maxSpillFiles <= 0) {
+			throw new IllegalArgumentException("maxSpillFiles must be > 0");
+		}
+		this.hdbDao = hdbDao;
+		this.capacity = capacity;
+		this.overflowPolicy = overflowPolicy;
+		this.spillDirectory = spillDirectory;
+		this.maxSpillFiles = maxSpillFiles;
+		this.queue = new LinkedBlockingDeque<>(capacity);
+		if (spillDirectory != null && !spillDirectory.isDirectory() && !spillDirectory.mkdirs()) {
+			throw new IllegalArgumentException("Could not create spill directory " + spillDirectory);
+		}
+	}
+
+	/**
+	 * Starts the worker thread. Requests spilled by a previous run are uploaded first.
+	 */
+	public synchronized void start() {
+		if (running) {
+			return;
+		}
+		running = true;
+		worker = new Thread(this::processQueue, "hdb-uploader");
+		worker.setDaemon(true);
+		worker.start();
+	}
+
+	/**
+	 * Queues a batch of metrics and the related Energis alerts for upload. Depending on the overflow policy, this
+	 * method either waits for room in the queue or discards the oldest queued upload when the queue is full.
+	 *
+	 * @param batch the metrics to upload to the historical database
+	 * @param statuses the statuses whose alerts must be uploaded to Energis, or {@code null} if none
+	 */
+	public void submit(HdbMetricBatch batch, List<DataCenterStatus> statuses) {
+		Upload upload = new Upload(batch.getRequests(), statuses);
+		if (overflowPolicy == OverflowPolicy.BLOCK) {
+			try {
+				queue.putLast(upload);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while waiting for the HDB upload queue", e);
+			}
+		} else {
+			while (!queue.offerLast(upload)) {
+				Upload oldest = queue.pollFirst();
+				if (oldest != null) {
+					dropped.incrementAndGet();
+					logger.warn("HDB upload queue full, discarding upload submitted at "
+							+ new DateTime(oldest.submitTime));
+					spill(oldest.requests);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns a snapshot of the upload queue state.
+	 *
+	 * @return the current statistics
+	 */
+	public Statistics getStatistics() {
+		long oldestSubmitTime = currentUploadSubmitTime;
+		if (oldestSubmitTime == 0) {
+			Upload head = queue.peekFirst();
+			if (head != null) {
+				oldestSubmitTime = head.submitTime;
+			}
+		}
+		long lag = oldestSubmitTime == 0 ? 0 : System.currentTimeMillis() - oldestSubmitTime;
+		return new Statistics(queue.size(), capacity, lag, uploaded.get(), failed.get(), dropped.get(),
+				listSpillFiles().length, lastUploadDate);
+	}
+
+	private void processQueue() {
+		replaySpill();
+		while (running) {
+			Upload upload;
+			try {
+				upload = queue.pollFirst(1, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				break;
+			}
+			if (upload == null) {
+				continue;
+			}
+			currentUploadSubmitTime = upload.submitTime;
+			try {
+				if (replaySpill()) {
+					uploadMetrics(upload.requests);
+				} else {
+					// Keep the new requests after the spilled ones
+					failed.incrementAndGet();
+					spill(upload.requests);
+				}
+				uploadAlerts(upload.statuses);
+			} finally {
+				currentUploadSubmitTime = 0;
+			}
+		}
+	}
+
+	private void uploadMetrics(List<MetricBuilder> requests) {
+		for (int i = 0; i < requests.size(); i++) {
+			try {
+				hdbDao.writeRequest(requests.get(i));
+			} catch (Exception ex) {
+				failed.incrementAndGet();
+				logger.error("Could not upload metrics to historical database", ex);
+				spill(requests.subList(i, requests.size()));
+				return;
+			}
+		}
+		uploaded.incrementAndGet();
+		lastUploadDate = DateTime.now();
+	}
+
+	private void uploadAlerts(List<DataCenterStatus> statuses) {
+		if (statuses == null || statuses.isEmpty()) {
+			return;
+		}
+		try {
+			hdbDao.writeStatusAlerts(statuses);
+		} catch (Exception ex) {
+			logger.error("Could not upload status alarms to Energis", ex);
+		}
+	}
+
+	private void spill(List<MetricBuilder> requests) {
+		if (spillDirectory == null) {
+			return;
+		}
+		for (MetricBuilder request : requests) {
+			// Zero-padded names sort in upload order
+			String name = String.format("%s%013d-%09d", SPILL_FILE_PREFIX, System.currentTimeMillis(),
+					spillSequence.incrementAndGet());
+			File tmpFile = new File(spillDirectory, name + ".tmp");
+			File file = new File(spillDirectory, name + SPILL_FILE_SUFFIX);
+			try {
+				Files.write(tmpFile.toPath(), request.build().getBytes(StandardCharsets.UTF_8));
+				Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+			} catch (IOException e) {
+				logger.error("Could not spill HDB request to " + file, e);
+				tmpFile.delete();
+			}
+		}
+		File[] files = listSpillFiles();
+		for (int i = 0; i < files.length - maxSpillFiles; i++) {
+			logger.warn("Too many spilled HDB requests, deleting " + files[i]);
+			files[i].delete();
+		}
+	}
+
+	// Returns true if no spilled requests are left
+	private boolean replaySpill() {
+		for (File file : listSpillFiles()) {
+			try {
+				String json = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+				hdbDao.writeRequest(json);
+			} catch (Exception ex) {
+				logger.warn("Could not upload spilled HDB request " + file + ", will retry later", ex);
+				return false;
+			}
+			if (!file.delete()) {
+				logger.warn("Could not delete spilled HDB request " + file);
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private File[] listSpillFiles() {
+		if (spillDirectory == null) {
+			return new File[0];
+		}
+		File[] files = spillDirectory.listFiles((dir, name) ->
+				name.startsWith(SPILL_FILE_PREFIX) && name.endsWith(SPILL_FILE_SUFFIX));
+		if (files == null) {
+			return new File[0];
+		}
+		Arrays.sort(files);
+		return files;
+	}
+
+	/**
+	 * Stops the worker thread, waiting for the current upload to complete. Uploads still in the queue are spilled to
+	 * disk if enabled, otherwise they are lost.
+	 */
+	@Override
+	public void close() {
+		Thread workerToStop;
+		synchronized (this) {
+			running = false;
+			workerToStop = worker;
+			worker = null;
+		}
+		if (workerToStop != null) {
+			try {
+				workerToStop.join(SHUTDOWN_TIMEOUT);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		Upload upload;
+		while ((upload = queue.pollFirst()) != null) {
+			dropped.incrementAndGet();
+			spill(upload.requests);
+		}
+	}
+
+	private static class Upload {
+
+		private long submitTime = System.currentTimeMillis();
+		private List<MetricBuilder> requests;
+		private List<DataCenterStatus> statuses;
+
+		private Upload(List<MetricBuilder> requests, List<DataCenterStatus> statuses) {
+			this.requests = requests;
+			this.statuses = statuses == null ? Collections.emptyList() : statuses;
+		}
+
+	}
+
+	/**
+	 * Upload queue statistics. Counters are accumulated since the uploader was created.
+	 */
+	public static class Statistics {
+
+		private int queueDepth;
+		private int queueCapacity;
+		private long lag;
+		private long uploaded;
+		private long failed;
+		private long dropped;
+		private int spilled;
+		private DateTime lastUploadDate;
+
+		private Statistics(int queueDepth, int queueCapacity, long lag, long uploaded, long failed, long dropped,
+				int spilled, DateTime lastUploadDate) {
+			this.queueDepth = queueDepth;
+			this.queueCapacity = queueCapacity;
+			this.lag = lag;
+			this.uploaded = uploaded;
+			this.failed = failed;
+			this.dropped = dropped;
+			this.spilled = spilled;
+			this.lastUploadDate = lastUploadDate;
+		}
+
+		/**
+		 * Returns the number of uploads waiting in the queue, excluding the one in progress.
+		 *
+		 * @return the queue depth
+		 */
+		public int getQueueDepth() {
+			return queueDepth;
+		}
+
+		/**
+		 * Returns the maximum number of uploads that can wait in the queue.
+		 *
+		 * @return the queue capacity
+		 */
+		public int getQueueCapacity() {
+			return queueCapacity;
+		}
+
+		/**
+		 * Returns how long the oldest pending upload (in progress or queued) has been waiting since it was submitted.
+		 *
+		 * @return the lag in milliseconds, 0 if there are no pending uploads
+		 */
+		public long getLag() {
+			return lag;
+		}
+
+		/**
+		 * Returns the number of batches uploaded successfully.
+		 *
+		 * @return the number of uploaded batches
+		 */
+		public long getUploaded() {
+			return uploaded;
+		}
+
+		/**
+		 * Returns the number of batches that could not be uploaded.
+		 *
+		 * @return the number of failed batches
+		 */
+		public long getFailed() {
+			return failed;
+		}
+
+		/**
+		 * Returns the number of batches removed from the queue without being uploaded, because the queue was full or
+		 * the uploader was closed.
+		 *
+		 * @return the number of dropped batches
+		 */
+		public long getDropped() {
+			return dropped;
+		}
+
+		/**
+		 * Returns the number of requests saved in the spill directory and waiting to be uploaded again.
+		 *
+		 * @return the number of spilled requests
+		 */
+		public int getSpilled() {
+			return spilled;
+		}
+
+		/**
+		 * Returns the date of the last successful batch upload.
+		 *
+		 * @return the last upload date or {@code null} if nothing has been uploaded yet
+		 */
+		public DateTime getLastUploadDate() {
+			return lastUploadDate;
+		}
+
+		@Override
+		public String toString() {
+			return JsonUtils.toString(this);
+		}
+
+	}
+
+}
@@ -23,6 +23,15 @@ import eu.dc4cities.controlsystem.model.datacenter.*;
 import eu.dc4cities.controlsystem.model.metrics.MetricCatalog;
 import eu.dc4cities.controlsystem.model.unit.Units;
 import eu.dc4cities.controlsystem.modules.processcontroller.EnergisAlertFeed.EnergisAlertFeedDelete;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
 import org.joda.time.DateTime;
 import org.jscience.physics.amount.Amount;
 import org.kairosdb.client.HttpClient;
@@ -35,30 +44,47 @@ import org.springframework.web.client.RestOperations;
 import javax.measure.quantity.Power;
 import javax.measure.unit.NonSI;
 import javax.measure.unit.SI;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 import static javax.measure.unit.NonSI.PERCENT;
 import static javax.measure.unit.SI.*;
 
 /**
- * Implements access to the historical database.
+ * Implements access to the historical database. The DAO keeps a pool of connections to KairosDB for its whole life, so
+ * it must be closed when no longer needed.
+ * <p>
+ * Metrics can be uploaded one group at a time with the {@code write*} methods, or collected into an
+ * {@link HdbMetricBatch} with the {@code add*} methods and uploaded together with {@link #writeBatch(HdbMetricBatch)},
+ * which takes as few requests as the configured data point limit allows.
  */
-public class HistoricalDbDao {
+public class HistoricalDbDao implements Closeable {
 	
+	// Uploads are serialized on the KairosDB client (see uploadMetrics), so a couple of connections are enough
+	private static final int MAX_HDB_CONNECTIONS = 2;
+	private static final int DEFAULT_MAX_DATA_POINTS_PER_REQUEST = 20000;
 	private static final String METRIC_ALERT_STATE = "alert_state";
 	private static final String REFERENCE_ACTUAL = "ACTUAL";
 	private static final String GRANULARITY_5_MIN = "FIVE_MINUTE";
 	private static final String GRANULARITY_15_MIN = "FIFTEEN_MINUTE";
+	private static final ContentType CONTENT_TYPE_GZIP = ContentType.create("application/gzip");
 	
 	private String hdbUrl;
 	private String energisUrl;
 	private String energisApiKey;
 	private String companyCode;
 	private RestOperations restOps;
+	private CloseableHttpClient httpClient;
+	private HttpClient hdbClient;
+	private int maxDataPointsPerRequest = DEFAULT_MAX_DATA_POINTS_PER_REQUEST;
+	private boolean compressionEnabled;
 	
 	/**
 	 * Creates a DAO that can upload metrics to KairosDB.
@@ -69,6 +95,15 @@ public class HistoricalDbDao {
 	public HistoricalDbDao(String hdbUrl, String companyCode) {
 		this.hdbUrl = trimLastSlash(hdbUrl);
 		this.companyCode = companyCode;
+		PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+		connectionManager.setMaxTotal(MAX_HDB_CONNECTIONS);
+		connectionManager.setDefaultMaxPerRoute(MAX_HDB_CONNECTIONS);
+		httpClient = HttpClients.custom().setConnectionManager(connectionManager).build();
+		try {
+			hdbClient = new PooledHdbClient(this.hdbUrl, httpClient);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Invalid historical DB URL: " + hdbUrl, e);
+		}
 	}
 	
 	/**
@@ -95,101 +130,179 @@ public class HistoricalDbDao {
 		return url;
 	}
 	
+	/**
+	 * Sets the maximum number of data points uploaded in a single request. Default is
+	 * {@value #DEFAULT_MAX_DATA_POINTS_PER_REQUEST}.
+	 * 
+	 * @param maxDataPointsPerRequest the maximum number of data points per request
+	 */
+	public void setMaxDataPointsPerRequest(int maxDataPointsPerRequest) {
+		if (maxDataPointsPerRequest <= 0) {
+			throw new IllegalArgumentException("maxDataPointsPerRequest must be > 0");
+		}
+		this.maxDataPointsPerRequest = maxDataPointsPerRequest;
+	}
+	
+	/**
+	 * Sets whether metric uploads are gzip-compressed. Default is false.
+	 * 
+	 * @param compressionEnabled true to compress uploads
+	 */
+	public void setCompressionEnabled(boolean compressionEnabled) {
+		this.compressionEnabled = compressionEnabled;
+	}
+	
+	/**
+	 * Creates an empty batch to collect metrics into.
+	 * 
+	 * @return the new batch
+	 */
+	public HdbMetricBatch newBatch() {
+		return new HdbMetricBatch(maxDataPointsPerRequest);
+	}
+	
+	/**
+	 * Uploads all metrics in a batch, one request at a time. The upload stops at the first failed request.
+	 * 
+	 * @param batch the batch to upload
+	 */
+	public void writeBatch(HdbMetricBatch batch) {
+		for (MetricBuilder request : batch.getRequests()) {
+			uploadMetrics(request);
+		}
+	}
+	
 	public void writeDataCenterMetrics(DateTime date, List<HdbDataCenterMetrics> dataCenterMetrics) {
-		MetricBuilder builder = MetricBuilder.getInstance();
+		HdbMetricBatch batch = newBatch();
+		addDataCenterMetrics(batch, date, dataCenterMetrics);
+		writeBatch(batch);
+	}
+	
+	public void addDataCenterMetrics(HdbMetricBatch batch, DateTime date, List<HdbDataCenterMetrics> dataCenterMetrics) {
 		for (HdbDataCenterMetrics dataCenter : dataCenterMetrics) {
 			String dataCenterName = dataCenter.getDataCenterName();
-			setActualDataCenterMetric(builder, dataCenterName, MetricCatalog.POWER.getName(), date.getMillis(), 
+			setActualDataCenterMetric(batch, dataCenterName, MetricCatalog.POWER.getName(), date.getMillis(), 
 					dataCenter.getPowerConsumption().doubleValue(WATT));
-			setActualDataCenterMetric(builder, dataCenterName, MetricCatalog.RENEWABLE_ENERGY_PERCENTAGE.getName(),
+			setActualDataCenterMetric(batch, dataCenterName, MetricCatalog.RENEWABLE_ENERGY_PERCENTAGE.getName(),
 					date.getMillis(), dataCenter.getGridRenewablePercentage().doubleValue(PERCENT));
 			Amount<Power> renPowerAmount = dataCenter.getRenewablePower();
 			if (renPowerAmount == null) {
 				// Energis requires renewable power to be set to 0 if not present
 				renPowerAmount = Amount.valueOf(0, SI.WATT);
 			}
-			setActualDataCenterMetric(builder, dataCenterName, MetricCatalog.RENEWABLE_POWER.getName(),
+			setActualDataCenterMetric(batch, dataCenterName, MetricCatalog.RENEWABLE_POWER.getName(),
 					date.getMillis(), renPowerAmount.doubleValue(WATT));
-			setActualDataCenterMetric(builder, dataCenterName, "electricity_co2_factor",
+			setActualDataCenterMetric(batch, dataCenterName, "electricity_co2_factor",
 					date.getMillis(), dataCenter.getCo2Factor().doubleValue(Units.KG_PER_KWH));
-			setActualDataCenterMetric(builder, dataCenterName, "electricity_consumption_price",
+			setActualDataCenterMetric(batch, dataCenterName, "electricity_consumption_price",
 					date.getMillis(), dataCenter.getConsumptionPrice().doubleValue(Units.EUR_PER_KWH));
-			setActualDataCenterMetric(builder, dataCenterName, "electricity_primary_energy_factor",
+			setActualDataCenterMetric(batch, dataCenterName, "electricity_primary_energy_factor",
 					date.getMillis(), dataCenter.getPrimaryEnergyFactor());
 			for (HdbEascMetrics easc : dataCenter.getEascs()) {
 				String eascName = easc.getEascName();
 				for (HdbActivityMetrics activity : easc.getActivities()) {
 					String activityName = activity.getActivityName();
-					setActualActivityMetric(builder, dataCenterName, eascName, activityName, 
+					setActualActivityMetric(batch, dataCenterName, eascName, activityName, 
 							MetricCatalog.BIZPERF_ITEMS_RATE.getName(), date.getMillis(), 
 							activity.getInstantBusinessPerformance().getEstimatedValue());
 					Amount<?> cumulativePerf = activity.getCumulativeBusinessPerformance();
 					if (cumulativePerf != null) {
-						setActualActivityMetric(builder, dataCenterName, eascName, activityName, 
+						setActualActivityMetric(batch, dataCenterName, eascName, activityName, 
 								MetricCatalog.BIZPERF_ITEMS.getName(), date.getMillis(),
 								cumulativePerf.getEstimatedValue());
 					}
-					setActualActivityMetric(builder, dataCenterName, eascName, activityName, "working_mode",
+					setActualActivityMetric(batch, dataCenterName, eascName, activityName, "working_mode",
 							date.getMillis(), activity.getWorkingModeValue());
-					setActualActivityMetric(builder, dataCenterName, eascName, activityName, 
+					setActualActivityMetric(batch, dataCenterName, eascName, activityName, 
 							MetricCatalog.POWER.getName(), date.getMillis(), activity.getPower().doubleValue(WATT));
 				}
 			}
 		}
-		uploadMetrics(builder);
 	}
 	
 	public void writeExecutionPlanMetrics(List<DataCenterExecutionPlan> dataCenterExecutionPlans) {
+		HdbMetricBatch batch = newBatch();
+		addExecutionPlanMetrics(batch, dataCenterExecutionPlans);
+		writeBatch(batch);
+	}
+	
+	public void addExecutionPlanMetrics(HdbMetricBatch batch, List<DataCenterExecutionPlan> dataCenterExecutionPlans) {
 		for (DataCenterExecutionPlan executionPlan : dataCenterExecutionPlans) {
 			String dataCenter = executionPlan.getDataCenterName();
-			uploadPowerPlanMetrics(dataCenter, "IDEAL", executionPlan.getIdealPowerPlan());
-			uploadPowerPlanMetrics(dataCenter, "PLANNED", executionPlan.getConsolidatedPowerPlan());
+			setPowerPlanMetrics(batch, dataCenter, "IDEAL", executionPlan.getIdealPowerPlan());
+			setPowerPlanMetrics(batch, dataCenter, "PLANNED", executionPlan.getConsolidatedPowerPlan());
 		}
 	}
 	
-	private void uploadPowerPlanMetrics(String assetCode, String reference, PowerPlan powerPlan) {
+	private void setPowerPlanMetrics(HdbMetricBatch batch, String assetCode, String reference, PowerPlan powerPlan) {
 		if (powerPlan.getTimeSlotDuration().longValue(NonSI.MINUTE) != 15) {
 			throw new IllegalArgumentException("Historical DB requires 15-minute time slots");
 		}
-		MetricBuilder builder = MetricBuilder.getInstance();
-		Metric metric = newDataCenterMetric(builder, assetCode, MetricCatalog.POWER.getName(), reference,
-		                                    GRANULARITY_15_MIN);
+		List<TimeSlotPower> powerQuotas = powerPlan.getPowerQuotas();
+		Metric metric = newDataCenterMetric(batch.builderFor(powerQuotas.size()), assetCode,
+		                                    MetricCatalog.POWER.getName(), reference, GRANULARITY_15_MIN);
 		long slotDuration = powerPlan.getTimeSlotDuration().to(MILLI(SECOND)).getExactValue();
 		long startMillis = powerPlan.getDateFrom().getMillis();
-		for (TimeSlotPower quotas : powerPlan.getPowerQuotas()) {
+		for (TimeSlotPower quotas : powerQuotas) {
 			long timestamp = startMillis + slotDuration * quotas.getTimeSlot();
 			double power = quotas.getPower().doubleValue(WATT);
 			metric.addDataPoint(timestamp, power);
 		}
-		uploadMetrics(builder);
 	}
 	
+	/**
+	 * Uploads the alert states of the given statuses to KairosDB and the related alert messages to Energis.
+	 * 
+	 * @param dataCenterStatuses the statuses to upload
+	 */
 	public void writeStatusMetrics(List<DataCenterStatus> dataCenterStatuses) {
+		HdbMetricBatch batch = newBatch();
+		addStatusMetrics(batch, dataCenterStatuses);
+		writeBatch(batch);
+		writeStatusAlerts(dataCenterStatuses);
+	}
+	
+	/**
+	 * Adds the alert states of the given statuses to a batch. Alert messages for Energis are not part of the batch and
+	 * must be uploaded separately with {@link #writeStatusAlerts(List)}.
+	 * 
+	 * @param batch the batch to add metrics to
+	 * @param dataCenterStatuses the statuses to add
+	 */
+	public void addStatusMetrics(HdbMetricBatch batch, List<DataCenterStatus> dataCenterStatuses) {
 		for (DataCenterStatus status : dataCenterStatuses) {
 			if (status.getTimeSlotDuration().longValue(NonSI.MINUTE) != 15) {
 				throw new IllegalArgumentException("Historical DB requires 15-minute time slots");
 			}
-			uploadAlertStates(status);
+			setAlertStates(batch, status);
+		}
+	}
+	
+	/**
+	 * Uploads the alert messages of the given statuses to Energis.
+	 * 
+	 * @param dataCenterStatuses the statuses to upload
+	 */
+	public void writeStatusAlerts(List<DataCenterStatus> dataCenterStatuses) {
+		for (DataCenterStatus status : dataCenterStatuses) {
 			uploadAlertMessages(status);
 		}
 	}
 	
-	private void uploadAlertStates(DataCenterStatus status) {
-		MetricBuilder builder = MetricBuilder.getInstance();
+	private void setAlertStates(HdbMetricBatch batch, DataCenterStatus status) {
 		String dataCenterName = status.getDataCenterName();
-		setAlertStateMetrics(builder, dataCenterName, null, null, status, status.getAlerts(), AlertType.RENPCT);
+		setAlertStateMetrics(batch, dataCenterName, null, null, status, status.getAlerts(), AlertType.RENPCT);
 		for (EascStatus easc : status.getEascs()) {
 			String eascName = easc.getEascName();
 			for (ActivityStatus activity : easc.getActivities()) {
 				String activityName = activity.getActivityName();
-				setAlertStateMetrics(builder, dataCenterName, eascName, activityName, status, activity.getAlerts(),
+				setAlertStateMetrics(batch, dataCenterName, eascName, activityName, status, activity.getAlerts(),
 						AlertType.BIZPERF);
 			}
 		}
-		uploadMetrics(builder);
 	}
 	
-	private void setAlertStateMetrics(MetricBuilder builder, String dataCenterName, String eascName,
+	private void setAlertStateMetrics(HdbMetricBatch batch, String dataCenterName, String eascName,
 			String activityName, TimeSlotBasedEntity timeRange, List<StatusAlert> alerts, AlertType alertType) {
 		// Any previous alert states for the same interval must be overwritten, so initialize to none and then
 		// set the alert state for time slots that have a relevant alarm.
@@ -202,6 +315,7 @@ public class HistoricalDbDao {
 				Arrays.fill(alertStates, alert.getStartTimeSlot(), alert.getEndTimeSlot(), alertState);
 			}
 		}
+		MetricBuilder builder = batch.builderFor(numOfTimeSlots);
 		Metric metric;
 		if (activityName == null) {
 			metric = newDataCenterMetric(builder, dataCenterName, METRIC_ALERT_STATE, REFERENCE_ACTUAL, 
@@ -237,9 +351,10 @@ public class HistoricalDbDao {
 		restOps.exchange(request, Void.class);
 	}
 	
-	private void setActualDataCenterMetric(MetricBuilder builder, String dataCenterName, String metricName,
+	private void setActualDataCenterMetric(HdbMetricBatch batch, String dataCenterName, String metricName,
 			long timestamp,	double value) {
-		Metric metric = newDataCenterMetric(builder, dataCenterName, metricName, REFERENCE_ACTUAL, GRANULARITY_5_MIN);
+		Metric metric = newDataCenterMetric(batch.builderFor(1), dataCenterName, metricName, REFERENCE_ACTUAL,
+				GRANULARITY_5_MIN);
 		metric.addDataPoint(timestamp, value);
 	}
 	
@@ -253,10 +368,10 @@ public class HistoricalDbDao {
 		              .addTag("granularity", granularity);
 	}
 	
-	private void setActualActivityMetric(MetricBuilder builder, String dataCenterName, String eascName, 
+	private void setActualActivityMetric(HdbMetricBatch batch, String dataCenterName, String eascName, 
 			String activityName, String metricName, long timestamp, double value) {
-		Metric metric = newActivityMetric(builder, dataCenterName, eascName, activityName, metricName, REFERENCE_ACTUAL, 
-				GRANULARITY_5_MIN);
+		Metric metric = newActivityMetric(batch.builderFor(1), dataCenterName, eascName, activityName, metricName, 
+				REFERENCE_ACTUAL, GRANULARITY_5_MIN);
 		metric.addDataPoint(timestamp, value);
 	}
 	
@@ -270,16 +385,44 @@ public class HistoricalDbDao {
 		              .addTag("granularity", granularity);
 	}
 	
+	/**
+	 * Uploads a single request of a batch.
+	 * 
+	 * @param request the request to upload, as returned by {@link HdbMetricBatch#getRequests()}
+	 */
+	void writeRequest(MetricBuilder request) {
+		uploadMetrics(request);
+	}
+	
+	/**
+	 * Uploads a request previously serialized with {@link MetricBuilder#build()}.
+	 * 
+	 * @param json the request in KairosDB JSON format
+	 */
+	public void writeRequest(String json) {
+		try {
+			postMetrics(json);
+		} catch (IOException e) {
+			throw newUploadException(null, e);
+		}
+	}
+	
 	private void uploadMetrics(MetricBuilder metricBuilder) {
-		HttpClient client = null;
 		try {
-			client = new HttpClient(hdbUrl);
-			// Don't do retries at the KairosDB client level since the underlying Apache HttpClient already does retries
-			// for transient errors. Doing more retries in the KairosDB client may cause the upload operation to last for
-			// minutes unsuccessfully and accumulate delays in control loops scheduling. So it's better to abort a metric
-			// upload than losing planning cycles.
-			client.setRetryCount(0);
-			Response response = client.pushMetrics(metricBuilder);
+			if (compressionEnabled) {
+				postMetrics(metricBuilder.build());
+				return;
+			}
+			Response response;
+			synchronized (hdbClient) {
+				// Don't do retries at the KairosDB client level since the underlying Apache HttpClient already does
+				// retries for transient errors. Doing more retries in the KairosDB client may cause the upload operation
+				// to last for minutes unsuccessfully and accumulate delays in control loops scheduling. So it's better
+				// to abort a metric upload than losing planning cycles. The retry count must be reset before every
+				// upload since the KairosDB client increments it at each request.
+				hdbClient.setRetryCount(0);
+				response = hdbClient.pushMetrics(metricBuilder);
+			}
 			int status = response.getStatusCode();
 			if (status < 200 || status >= 300) {
 				throw newUploadException("HTTP " + status + ": " + response.getErrors(), null);
@@ -288,13 +431,35 @@ public class HistoricalDbDao {
 			throw newUploadException(null, e);
 		} catch (URISyntaxException e) {
 			throw newUploadException(null, e);
-		} finally {
-			if (client != null) {
-				try { client.shutdown(); } catch (Exception e) {}
+		}
+	}
+	
+	private void postMetrics(String json) throws IOException {
+		// The KairosDB client can only send metric builders as plain JSON, so compressed or already serialized uploads
+		// go directly to the datapoints endpoint through the same connection pool
+		HttpPost post = new HttpPost(hdbUrl + "/api/v1/datapoints");
+		if (compressionEnabled) {
+			post.setEntity(new ByteArrayEntity(gzip(json), CONTENT_TYPE_GZIP));
+		} else {
+			post.setEntity(new StringEntity(json, ContentType.APPLICATION_JSON));
+		}
+		try (CloseableHttpResponse response = httpClient.execute(post)) {
+			int status = response.getStatusLine().getStatusCode();
+			String body = response.getEntity() == null ? null : EntityUtils.toString(response.getEntity());
+			if (status < 200 || status >= 300) {
+				throw newUploadException("HTTP " + status + ": " + body, null);
 			}
 		}
 	}
 	
+	private byte[] gzip(String json) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+			out.write(json.getBytes(StandardCharsets.UTF_8));
+		}
+		return bytes.toByteArray();
+	}
+	
 	private RuntimeException newUploadException(String description, Throwable e) {
 		String message = "Error uploading metrics to the historical DB";
 		if (description != null) {
@@ -303,4 +468,26 @@ public class HistoricalDbDao {
 		return new RuntimeException(message, e);
 	}
 	
+	/**
+	 * Releases the connections to the historical DB.
+	 */
+	@Override
+	public void close() throws IOException {
+		hdbClient.shutdown();
+	}
+	
+	/**
+	 * KairosDB client backed by a bounded pool of keep-alive connections, reused for all uploads.
+	 */
+	private static class PooledHdbClient extends HttpClient {
+		
+		public PooledHdbClient(String url, CloseableHttpClient pooledClient) throws IOException {
+			super(url);
+			// Release the default client created by the superclass, it is replaced by the pooled one
+			shutdown();
+			setClient(pooledClient);
+		}
+		
+	}
+	
 }
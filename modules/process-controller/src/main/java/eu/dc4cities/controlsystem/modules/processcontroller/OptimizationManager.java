@@ -20,8 +20,10 @@ import eu.dc4cities.configuration.technical.TechnicalConfiguration;
 import eu.dc4cities.controlsystem.model.TimeParameters;
 import eu.dc4cities.controlsystem.model.TimeSlotBasedEntity;
 import eu.dc4cities.controlsystem.model.datacenter.DataCenterExecutionPlan;
+import eu.dc4cities.controlsystem.model.datacenter.DataCenterPower;
 import eu.dc4cities.controlsystem.model.datacenter.DataCenterStatus;
 import eu.dc4cities.controlsystem.model.easc.EascMetrics;
+import eu.dc4cities.controlsystem.model.easc.EascServiceLevels;
 import eu.dc4cities.controlsystem.model.erds.DataCenterForecast;
 import eu.dc4cities.controlsystem.model.util.TimeRangeUtils;
 import org.joda.time.DateTime;
@@ -29,7 +31,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.TaskScheduler;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 /**
  * Handles the lifecycle of optimization loops. This bean is intended as a singleton, which lives for the life of
@@ -49,15 +59,90 @@ public abstract class OptimizationManager {
 	private TechnicalConfiguration technicalConfiguration;
 	private TaskScheduler taskScheduler;
 	private HistoricalDbDao hdbDao;
+	private HdbUploader hdbUploader;
+	private FederationStatusJournal statusJournal;
 	private Object optimizationLock = new Object();
 	private Object statusLock = new Object();
 	private FederationStatus federationStatus;
+	// Control loops are created for each run, the dry run plans are kept here to be reused from one run to the next
+	private DryRunCache dryRunCache = new DryRunCache();
+	private AtomicReference<FederationSnapshot> federationSnapshot = 
+			new AtomicReference<FederationSnapshot>(FederationSnapshot.EMPTY);
+	private Executor monitoringExecutor;
+	private Executor powerExecutor;
+	private Executor controlExecutor;
+	// Incremented each time a control loop is submitted, so a queued control loop can tell a newer one is pending
+	private AtomicLong controlRequests = new AtomicLong();
+	private LoopTracker monitoringTracker;
+	private LoopTracker powerTracker;
+	private LoopTracker controlTracker;
 	
 	public OptimizationManager(TechnicalConfiguration technicalConfiguration, TaskScheduler taskScheduler, 
 			HistoricalDbDao hdbDao) {
+		this(technicalConfiguration, taskScheduler, hdbDao, null);
+	}
+	
+	/**
+	 * Creates a manager that uploads metrics to the historical database in the background through the given
+	 * uploader, so that loops don't wait for uploads to complete. If the uploader is {@code null}, uploads are done
+	 * synchronously at the end of each loop run.
+	 * 
+	 * @param technicalConfiguration the technical configuration
+	 * @param taskScheduler the scheduler used to run loops
+	 * @param hdbDao the DAO for the historical database, {@code null} if HDB upload is disabled
+	 * @param hdbUploader the background uploader, or {@code null} for synchronous uploads
+	 */
+	public OptimizationManager(TechnicalConfiguration technicalConfiguration, TaskScheduler taskScheduler, 
+			HistoricalDbDao hdbDao, HdbUploader hdbUploader) {
 		this.technicalConfiguration = technicalConfiguration;
 		this.taskScheduler = taskScheduler;
 		this.hdbDao = hdbDao;
+		this.hdbUploader = hdbUploader;
+		this.monitoringTracker = new LoopTracker("Monitoring", technicalConfiguration.getMonitoringLoopInterval());
+		this.powerTracker = new LoopTracker("Power", technicalConfiguration.getPowerLoopInterval());
+		this.controlTracker = new LoopTracker("Control", technicalConfiguration.getControlLoopInterval());
+	}
+	
+	/**
+	 * Sets the journal used to persist the federation status. When set, the status saved by a previous run is restored
+	 * at the first loop execution, provided it belongs to the same day; otherwise a new status is started.
+	 * 
+	 * @param statusJournal the journal or {@code null} to keep the status in memory only
+	 */
+	public void setStatusJournal(FederationStatusJournal statusJournal) {
+		this.statusJournal = statusJournal;
+	}
+	
+	/**
+	 * Sets the executors used to pipeline loops. Each run submits its monitoring, power and control loops to the
+	 * corresponding executor, so that a long control loop doesn't delay the next monitoring loop. Each executor must
+	 * run one task at a time to keep loops of the same type in order, and may have a bounded queue. A control loop
+	 * still queued when a newer one is submitted is skipped, as well as any loop rejected by a full executor; skipped
+	 * loops are counted as overruns. If not set, the loops of each run are executed one after another in the scheduler
+	 * thread.
+	 * 
+	 * @param monitoringExecutor the executor for monitoring loops
+	 * @param powerExecutor the executor for power loops
+	 * @param controlExecutor the executor for control loops and the upload of their metrics
+	 */
+	public void setLoopExecutors(Executor monitoringExecutor, Executor powerExecutor, Executor controlExecutor) {
+		this.monitoringExecutor = monitoringExecutor;
+		this.powerExecutor = powerExecutor;
+		this.controlExecutor = controlExecutor;
+	}
+	
+	/**
+	 * Returns the timing statistics of scheduled loops, by loop type ({@code monitoring}, {@code power} and
+	 * {@code control}). Immediate optimizations are not included.
+	 * 
+	 * @return the statistics of each loop type
+	 */
+	public Map<String, LoopStatistics> getLoopStatistics() {
+		Map<String, LoopStatistics> statistics = new LinkedHashMap<>();
+		statistics.put("monitoring", monitoringTracker.getStatistics());
+		statistics.put("power", powerTracker.getStatistics());
+		statistics.put("control", controlTracker.getStatistics());
+		return statistics;
 	}
 	
 	/**
@@ -67,16 +152,33 @@ public abstract class OptimizationManager {
 	 * @return the execution plan for the data center or {@code null} if not found
 	 */
 	public DataCenterExecutionPlan getDataCenterExecutionPlan(String dataCenter) {
+		return federationSnapshot.get().getExecutionPlan(dataCenter);
+	}
+	
+	/**
+	 * Returns the latest snapshot of the federation state. Snapshots are immutable and replaced as a whole each time a
+	 * control loop updates the execution plans, so they can be read without locking while loops are running.
+	 * 
+	 * @return the latest snapshot, never {@code null}
+	 */
+	public FederationSnapshot getFederationSnapshot() {
+		return federationSnapshot.get();
+	}
+	
+	/**
+	 * Publishes a new snapshot with the execution plans and statuses of the given federation status. Snapshots are
+	 * published by the first run, under the optimization lock, and by control loops, which in pipelined mode run on the
+	 * control executor without that lock; the version is therefore incremented atomically.
+	 */
+	private void publishSnapshot(FederationStatus status) {
+		List<DataCenterExecutionPlan> executionPlans;
+		List<DataCenterStatus> statuses;
 		synchronized (statusLock) {
-			if (federationStatus != null && federationStatus.getDataCenterExecutionPlans() != null) {
-				for (DataCenterExecutionPlan plan : federationStatus.getDataCenterExecutionPlans()) {
-					if (plan.getDataCenterName().equals(dataCenter)) {
-						return plan;
-					}
-				}
-			}
-			return null;
+			executionPlans = status.getDataCenterExecutionPlans();
+			statuses = status.getDataCenterStatuses();
 		}
+		federationSnapshot.updateAndGet(
+				snapshot -> new FederationSnapshot(snapshot.getVersion() + 1, executionPlans, statuses));
 	}
 	
 	/**
@@ -100,7 +202,7 @@ public abstract class OptimizationManager {
 		if (startAt == null || startAt.isBeforeNow()) {
 			startAt = TimeRangeUtils.calcNextTimeSlot(technicalConfiguration.getTimeSlotWidth());
 		}
-		LoopExecutor loopExecutor = new LoopExecutor(startAt);
+		LoopExecutor loopExecutor = new LoopExecutor(startAt, true);
 		taskScheduler.scheduleAtFixedRate(loopExecutor, startAt.toDate(), monitoringInterval * 60000);
 	}
 	
@@ -140,7 +242,37 @@ public abstract class OptimizationManager {
 		if (!TimeRangeUtils.isTimeSlotStart(dateNow, technicalConfiguration.getTimeSlotWidth())) {
 			throw new IllegalArgumentException("dateNow must be aligned to a time slot");
 		}
-		taskScheduler.schedule(new LoopExecutor(dateNow), DateTime.now().toDate());
+		taskScheduler.schedule(new LoopExecutor(dateNow, false), DateTime.now().toDate());
+	}
+	
+	private FederationStatus initFederationStatus(DateTime dateNow) {
+		if (statusJournal == null) {
+			return new FederationStatus(dateNow, technicalConfiguration);
+		}
+		FederationStatus status = null;
+		boolean journalOpen = false;
+		try {
+			status = statusJournal.recover(technicalConfiguration);
+			journalOpen = true;
+		} catch (Exception ex) {
+			logger.error("Could not open federation status journal, the status will be kept in memory only", ex);
+		}
+		if (status != null) {
+			DateTime savedTimeSlot = status.getTimeSlotStart();
+			// Actuals are reset at midnight, so a status saved on another day is of no use
+			if (savedTimeSlot.isAfter(dateNow) || 
+					!savedTimeSlot.withTimeAtStartOfDay().equals(dateNow.withTimeAtStartOfDay())) {
+				logger.info("Discarding federation status saved at " + savedTimeSlot);
+				status = null;
+			}
+		}
+		if (status == null) {
+			status = new FederationStatus(dateNow, technicalConfiguration);
+		}
+		if (journalOpen) {
+			status.setJournal(statusJournal);
+		}
+		return status;
 	}
 	
 	/**
@@ -169,6 +301,7 @@ public abstract class OptimizationManager {
 		private DateTime nextExecutionDate;
 		private DateTime nextPowerLoopDate;
 		private DateTime nextControlLoopDate;
+		private boolean scheduled;
 		
 		private int powerLoopInterval = technicalConfiguration.getPowerLoopInterval();
 		private int controlLoopInterval = technicalConfiguration.getControlLoopInterval();
@@ -182,17 +315,21 @@ public abstract class OptimizationManager {
 		 * monitoring interval.
 		 * 
 		 * @param firstExecutionDate the first scheduled execution date of the executor; must be aligned to a time slot
+		 * @param scheduled {@code true} if the executor runs at its execution dates, so that loop lateness can be
+		 *        recorded, {@code false} for an immediate optimization
 		 */
-		public LoopExecutor(DateTime firstExecutionDate) {
+		public LoopExecutor(DateTime firstExecutionDate, boolean scheduled) {
 			this.nextExecutionDate = firstExecutionDate;
 			this.nextPowerLoopDate = firstExecutionDate;
 			this.nextControlLoopDate = firstExecutionDate;
+			this.scheduled = scheduled;
 		}
 		
 		@Override
 		public void run() {
 			try {
-				// Only one optimization job can run at a time
+				// Only one run at a time can start loops. In pipelined mode this only covers loop submission, while
+				// loops of different runs are kept in order by their executors.
 				synchronized (optimizationLock) {
 					DateTime dateNow = nextExecutionDate;
 					nextExecutionDate = nextExecutionDate.plusMinutes(monitoringLoopInterval);
@@ -209,62 +346,20 @@ public abstract class OptimizationManager {
 					}
 					synchronized (statusLock) {
 						if (federationStatus == null) {
-							federationStatus = new FederationStatus(dateNow, technicalConfiguration);
+							federationStatus = initFederationStatus(dateNow);
+							// Make plans recovered from the journal available at once
+							publishSnapshot(federationStatus);
 						}
 					}
-					try {
-						executeMonitoringLoop(dateNow);
-					} catch (Exception ex) {
-						logger.error("Could not complete monitoring loop", ex);
-					}
+					TimeSlotBasedEntity optimizationRange = null;
 					if (doPowerLoop || doControlLoop) {
 						int windowWidth = technicalConfiguration.getTimeWindowWidth();
-						TimeSlotBasedEntity optimizationRange = TimeRangeUtils.calcNearestTimeRange(dateNow, 
-								windowWidth, timeSlotWidth);
-						if (doPowerLoop) {
-							try {
-								executePowerLoop(optimizationRange);
-							} catch (Exception ex) {
-								logger.error("Could not complete power loop", ex);
-							}
-						}
-						if (doControlLoop) {
-							try {
-								executeControlLoop(dateNow, optimizationRange);
-							} catch (Exception ex) {
-								logger.error("Could not complete control loop", ex);
-							}
-						}
+						optimizationRange = TimeRangeUtils.calcNearestTimeRange(dateNow, windowWidth, timeSlotWidth);
 					}
-					if (technicalConfiguration.isHdbEnabled()) {
-						try {
-							List<HdbDataCenterMetrics> hdbMetrics;
-							List<DataCenterExecutionPlan> executionPlans = null;
-							List<DataCenterStatus> statuses = null;
-							synchronized (statusLock) {
-								hdbMetrics = federationStatus.getHdbMetrics();
-								if (doControlLoop) {
-									executionPlans = federationStatus.getDataCenterExecutionPlans();
-									statuses = federationStatus.getDataCenterStatuses();
-								}
-							}
-							logger.debug("Uploading data center metrics to historical database...");
-							hdbDao.writeDataCenterMetrics(dateNow, hdbMetrics);
-							logger.debug("Data center metrics uploaded");
-							if (doControlLoop) {
-								logger.debug("Uploading power plan metrics to historical database...");
-								hdbDao.writeExecutionPlanMetrics(executionPlans);
-								logger.debug("Power plan metrics uploaded");
-								// The list of statuses is empty if the escalation manager is disabled
-								if (statuses.size() > 0) {
-									logger.debug("Uploading status alarms to historical database...");
-									hdbDao.writeStatusMetrics(statuses);
-									logger.debug("Status alarms uploaded");
-								}
-							}
-						} catch (Exception ex) {
-							logger.error("Could not upload metrics to historical database", ex);
-						}
+					if (monitoringExecutor == null) {
+						runInSeries(dateNow, optimizationRange, doPowerLoop, doControlLoop);
+					} else {
+						runPipelined(dateNow, optimizationRange, doPowerLoop, doControlLoop);
 					}
 				}
 			} catch (Exception e) {
@@ -272,6 +367,180 @@ public abstract class OptimizationManager {
 			}
 		}
 		
+		private void runInSeries(DateTime dateNow, TimeSlotBasedEntity optimizationRange, boolean doPowerLoop, 
+				boolean doControlLoop) {
+			List<HdbDataCenterMetrics> hdbMetrics = monitor(dateNow);
+			if (doPowerLoop) {
+				plan(dateNow, optimizationRange);
+			}
+			FederationSnapshot snapshot = null;
+			if (doControlLoop) {
+				snapshot = control(dateNow, optimizationRange);
+			}
+			upload(dateNow, hdbMetrics, snapshot);
+		}
+		
+		/*
+		 * Each loop type has a single-threaded executor, so loops of the same type still run in order. The control
+		 * loop waits for the monitoring and power loops of this run, since it needs the actuals of the time slot just
+		 * ended and forecasts covering the new range; the monitoring loop of the next run doesn't wait for it.
+		 * When control loops overrun, only the latest queued one is run, since older ones would compute plans that are
+		 * replaced right away.
+		 */
+		private void runPipelined(final DateTime dateNow, final TimeSlotBasedEntity optimizationRange, 
+				boolean doPowerLoop, boolean doControlLoop) {
+			CompletableFuture<List<HdbDataCenterMetrics>> monitoring = 
+					submit(monitoringTracker, dateNow, () -> monitor(dateNow), monitoringExecutor);
+			CompletableFuture<Void> power;
+			if (doPowerLoop) {
+				power = submit(powerTracker, dateNow, () -> {
+					plan(dateNow, optimizationRange);
+					return null;
+				}, powerExecutor);
+			} else {
+				power = CompletableFuture.completedFuture(null);
+			}
+			CompletableFuture<FederationSnapshot> control;
+			if (doControlLoop) {
+				long request = controlRequests.incrementAndGet();
+				control = CompletableFuture.allOf(monitoring, power)
+						.thenApplyAsync(v -> {
+							if (controlRequests.get() != request) {
+								skip(controlTracker, dateNow, "a newer control loop is pending");
+								return null;
+							}
+							return control(dateNow, optimizationRange);
+						}, controlExecutor)
+						.exceptionally(ex -> {
+							if (ex.getCause() instanceof RejectedExecutionException) {
+								skip(controlTracker, dateNow, "the executor queue is full");
+							} else {
+								logger.error("Could not complete control loop", ex);
+							}
+							return null;
+						});
+			} else {
+				control = CompletableFuture.completedFuture(null);
+			}
+			monitoring.thenAcceptBothAsync(control, (hdbMetrics, snapshot) -> upload(dateNow, hdbMetrics, snapshot), 
+					controlExecutor)
+					.exceptionally(ex -> {
+						logger.error("Could not upload metrics for " + dateNow, ex);
+						return null;
+					});
+		}
+		
+		// Submits a loop to its executor, skipping it if the executor queue is full
+		private <T> CompletableFuture<T> submit(LoopTracker tracker, DateTime dateNow, Supplier<T> loop, 
+				Executor executor) {
+			try {
+				return CompletableFuture.supplyAsync(loop, executor);
+			} catch (RejectedExecutionException ex) {
+				skip(tracker, dateNow, "the executor queue is full");
+				return CompletableFuture.completedFuture(null);
+			}
+		}
+		
+		private void skip(LoopTracker tracker, DateTime dateNow, String reason) {
+			if (scheduled) {
+				tracker.skip(dateNow, reason);
+			} else {
+				logger.warn("Immediate optimization loop for " + dateNow + " skipped: " + reason);
+			}
+		}
+		
+		private List<HdbDataCenterMetrics> monitor(DateTime dateNow) {
+			long startTime = System.currentTimeMillis();
+			try {
+				executeMonitoringLoop(dateNow);
+			} catch (Exception ex) {
+				logger.error("Could not complete monitoring loop", ex);
+			}
+			track(monitoringTracker, dateNow, startTime);
+			if (!technicalConfiguration.isHdbEnabled()) {
+				return null;
+			}
+			// Take the metrics now, as they are those of the time slot measured by this loop
+			synchronized (statusLock) {
+				return federationStatus.getHdbMetrics();
+			}
+		}
+		
+		private void plan(DateTime dateNow, TimeSlotBasedEntity optimizationRange) {
+			long startTime = System.currentTimeMillis();
+			try {
+				executePowerLoop(optimizationRange);
+			} catch (Exception ex) {
+				logger.error("Could not complete power loop", ex);
+			}
+			track(powerTracker, dateNow, startTime);
+		}
+		
+		private FederationSnapshot control(DateTime dateNow, TimeSlotBasedEntity optimizationRange) {
+			long startTime = System.currentTimeMillis();
+			try {
+				executeControlLoop(dateNow, optimizationRange);
+			} catch (Exception ex) {
+				logger.error("Could not complete control loop", ex);
+			}
+			track(controlTracker, dateNow, startTime);
+			// Control loops are the only ones publishing snapshots, so this is the snapshot of this loop even when
+			// other loops are running
+			return federationSnapshot.get();
+		}
+		
+		private void track(LoopTracker tracker, DateTime dateNow, long startTime) {
+			if (scheduled) {
+				tracker.record(dateNow, startTime, System.currentTimeMillis());
+			}
+		}
+		
+		// The snapshot is null if the control loop was not run
+		private void upload(DateTime dateNow, List<HdbDataCenterMetrics> hdbMetrics, FederationSnapshot snapshot) {
+			if (hdbMetrics == null) {
+				return;
+			}
+			try {
+				List<DataCenterExecutionPlan> executionPlans = null;
+				List<DataCenterStatus> statuses = null;
+				if (snapshot != null) {
+					executionPlans = snapshot.getExecutionPlans();
+					statuses = snapshot.getStatuses();
+				}
+				// Collect all metrics of this run into a single batch, so they are uploaded in as few requests as
+				// possible
+				HdbMetricBatch batch = hdbDao.newBatch();
+				hdbDao.addDataCenterMetrics(batch, dateNow, hdbMetrics);
+				if (snapshot != null) {
+					hdbDao.addExecutionPlanMetrics(batch, executionPlans);
+					hdbDao.addStatusMetrics(batch, statuses);
+				}
+				if (hdbUploader != null) {
+					// Uploads are done in the background so the next loop is not delayed by slow endpoints
+					hdbUploader.submit(batch, statuses);
+					logger.debug("Queued " + batch.getNumOfDataPoints() + " data points for upload to "
+							+ "historical database");
+				} else {
+					uploadMetrics(batch, statuses);
+				}
+			} catch (Exception ex) {
+				logger.error("Could not upload metrics to historical database", ex);
+			}
+		}
+		
+		private void uploadMetrics(HdbMetricBatch batch, List<DataCenterStatus> statuses) {
+			logger.debug("Uploading " + batch.getNumOfDataPoints() + " data points to historical database in "
+					+ batch.getNumOfRequests() + " requests...");
+			hdbDao.writeBatch(batch);
+			logger.debug("Metrics uploaded");
+			// The list of statuses is empty if the escalation manager is disabled
+			if (statuses != null && statuses.size() > 0) {
+				logger.debug("Uploading status alarms to Energis...");
+				hdbDao.writeStatusAlerts(statuses);
+				logger.debug("Status alarms uploaded");
+			}
+		}
+		
 		private void executeMonitoringLoop(DateTime dateNow) {
 			MonitoringLoop monitoringLoop = newMonitoringLoop();
 			List<EascMetrics> eascMetrics = monitoringLoop.execute(dateNow);
@@ -328,18 +597,170 @@ public abstract class OptimizationManager {
 			// Forecasts must start from the beginning of the day to allow the optimizer to get the rec pct for the past
 			TimeSlotBasedEntity forecastRange = new TimeSlotBasedEntity(actualRange);
 			extendFromStartOfDay(forecastRange);
+			// Take the latest completed forecasts and metrics; copies of actuals are needed since a pipelined
+			// monitoring loop may update them while the control loop is running
+			List<DataCenterForecast> forecasts;
+			List<DataCenterPower> powerActuals;
+			List<EascServiceLevels> serviceLevels;
+			List<EascMetrics> latestMetrics;
+			List<DataCenterExecutionPlan> currentPlans;
+			synchronized (statusLock) {
+				forecasts = federationStatus.getDataCenterForecasts(forecastRange);
+				powerActuals = federationStatus.copyOfDataCenterPowerActuals();
+				serviceLevels = federationStatus.copyOfEascServiceLevels();
+				latestMetrics = federationStatus.getLatestEascMetrics();
+				currentPlans = federationStatus.getDataCenterExecutionPlans();
+			}
 			ControlLoop controlLoop = newControlLoop();
+			controlLoop.setDryRunCache(dryRunCache);
 			TimeParameters timeParameters = new TimeParameters(dateNow, actualRange);
-			List<DataCenterOptimization> optimizations = controlLoop.execute(timeParameters,
-					federationStatus.getDataCenterForecasts(forecastRange),
-					federationStatus.getDataCenterPowerActuals(), federationStatus.getEascServiceLevels(),
-					federationStatus.getLatestEascMetrics(), federationStatus.getDataCenterExecutionPlans());
+			List<DataCenterOptimization> optimizations = controlLoop.execute(timeParameters, forecasts, powerActuals,
+					serviceLevels, latestMetrics, currentPlans);
 			List<DataCenterExecutionPlan> executionPlans = DataCenterOptimization.getExecutionPlans(optimizations);
 			List<DataCenterStatus> statuses = DataCenterOptimization.getStatuses(optimizations);
 			synchronized (statusLock) {
 				federationStatus.setDataCenterExecutionPlans(executionPlans);
 				federationStatus.setDataCenterStatuses(statuses);
 			}
+			publishSnapshot(federationStatus);
+		}
+		
+	}
+	
+	/**
+	 * Records the lateness of the loops of one type, that is how long after their scheduled date they actually start.
+	 */
+	private static class LoopTracker {
+		
+		private String loopName;
+		private long intervalMillis;
+		private long runs;
+		private long overruns;
+		private long totalLateness;
+		private long maxLateness;
+		private long lastLateness;
+		private long lastDuration;
+		private DateTime lastRunDate;
+		
+		public LoopTracker(String loopName, int interval) {
+			this.loopName = loopName;
+			this.intervalMillis = interval * 60000L;
+		}
+		
+		public synchronized void record(DateTime dateNow, long startTime, long endTime) {
+			long lateness = Math.max(startTime - dateNow.getMillis(), 0);
+			runs++;
+			totalLateness += lateness;
+			maxLateness = Math.max(maxLateness, lateness);
+			lastLateness = lateness;
+			lastDuration = endTime - startTime;
+			lastRunDate = dateNow;
+			if (intervalMillis > 0 && lateness >= intervalMillis) {
+				overruns++;
+				logger.warn(loopName + " loop for " + dateNow + " started " + lateness + " ms late, after its next "
+						+ "scheduled run");
+			}
+		}
+		
+		public synchronized void skip(DateTime dateNow, String reason) {
+			overruns++;
+			logger.warn(loopName + " loop for " + dateNow + " skipped: " + reason);
+		}
+		
+		public synchronized LoopStatistics getStatistics() {
+			long averageLateness = runs > 0 ? totalLateness / runs : 0;
+			return new LoopStatistics(runs, overruns, lastLateness, averageLateness, maxLateness, lastDuration, 
+					lastRunDate);
+		}
+		
+	}
+	
+	/**
+	 * Timing statistics of the loops of one type. Counters are accumulated since the manager was created.
+	 */
+	public static class LoopStatistics {
+		
+		private long runs;
+		private long overruns;
+		private long lastLateness;
+		private long averageLateness;
+		private long maxLateness;
+		private long lastDuration;
+		private DateTime lastRunDate;
+		
+		private LoopStatistics(long runs, long overruns, long lastLateness, long averageLateness, long maxLateness,
+				long lastDuration, DateTime lastRunDate) {
+			this.runs = runs;
+			this.overruns = overruns;
+			this.lastLateness = lastLateness;
+			this.averageLateness = averageLateness;
+			this.maxLateness = maxLateness;
+			this.lastDuration = lastDuration;
+			this.lastRunDate = lastRunDate;
+		}
+		
+		/**
+		 * Returns the number of completed loops.
+		 * 
+		 * @return the number of loops
+		 */
+		public long getRuns() {
+			return runs;
+		}
+		
+		/**
+		 * Returns the number of loops that started when the next loop of the same type was already due, or that were
+		 * skipped because a newer loop was pending or their executor was full.
+		 * 
+		 * @return the number of overrunning loops
+		 */
+		public long getOverruns() {
+			return overruns;
+		}
+		
+		/**
+		 * Returns how long after its scheduled date the last loop started.
+		 * 
+		 * @return the lateness of the last loop in milliseconds
+		 */
+		public long getLastLateness() {
+			return lastLateness;
+		}
+		
+		/**
+		 * Returns the average lateness of all loops.
+		 * 
+		 * @return the average lateness in milliseconds
+		 */
+		public long getAverageLateness() {
+			return averageLateness;
+		}
+		
+		/**
+		 * Returns the highest lateness of all loops.
+		 * 
+		 * @return the maximum lateness in milliseconds
+		 */
+		public long getMaxLateness() {
+			return maxLateness;
+		}
+		
+		/**
+		 * Returns how long the last loop took to complete.
+		 * 
+		 * @return the duration of the last loop in milliseconds
+		 */
+		public long getLastDuration() {
+			return lastDuration;
+		}
+		
+		/**
+		 * Returns the scheduled date of the last loop.
+		 * 
+		 * @return the date of the last loop, {@code null} if no loop has run yet
+		 */
+		public DateTime getLastRunDate() {
+			return lastRunDate;
 		}
 		
 	}
@@ -17,32 +17,210 @@
 package eu.dc4cities.controlsystem.modules.processcontroller.rest;
 
 import eu.dc4cities.controlsystem.model.TimeParameters;
-import eu.dc4cities.controlsystem.model.datacenter.DataCenterExecutionPlan;
+import eu.dc4cities.controlsystem.modules.processcontroller.FederationSnapshot;
 import eu.dc4cities.controlsystem.modules.processcontroller.OptimizationManager;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
 @Controller
 public class FederationController {
 
     private OptimizationManager optimizationManager;
+    private AtomicReference<PlanResponseCache> planResponseCache = new AtomicReference<>();
     
     public FederationController(OptimizationManager optimizationManager) {
     	this.optimizationManager = optimizationManager;
     }
     
     /**
-     * Returns the current execution plan for the given data center.
+     * Returns the current execution plan for the given data center. The plan is read from the latest federation
+     * snapshot, which already holds its JSON representation, so requests neither wait for running loops nor serialize
+     * the plan again.
+     * <p>
+     * Responses carry an {@code ETag} derived from the plan content. If the request has a matching
+     * {@code If-None-Match} header the method returns HTTP 304 with no body, and the body is gzip-compressed when the
+     * client accepts it. The identity and gzip bodies carry distinct tags, and either tag is accepted as a match since
+     * both represent the same plan. Compressed bodies and tags are computed once per snapshot version and data center.
      * 
      * @param dataCenterName the name of the data center
-     * @return the current plan or {@code null} if none is available
+     * @param ifNoneMatch the value of the {@code If-None-Match} header, if any
+     * @param acceptEncoding the value of the {@code Accept-Encoding} header, if any
+     * @return the current plan or an empty body if none is available
      */
     @RequestMapping(value = "/v1/datacenters/{dataCenterName}/executionplan", method = RequestMethod.GET)
-    @ResponseBody
-    public DataCenterExecutionPlan getDataCenterExecutionPlan(@PathVariable String dataCenterName) {
-        return optimizationManager.getDataCenterExecutionPlan(dataCenterName);
+    public ResponseEntity<byte[]> getDataCenterExecutionPlan(@PathVariable String dataCenterName, 
+    		@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+    		@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+    	PlanResponse response = getPlanResponse(dataCenterName);
+        if (response == null) {
+        	// Same response as a null @ResponseBody
+        	return new ResponseEntity<byte[]>(HttpStatus.OK);
+        }
+        boolean gzip = acceptsGzip(acceptEncoding);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(gzip ? response.gzipEtag : response.etag);
+        headers.set(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (matchesETag(ifNoneMatch, response.etag) || matchesETag(ifNoneMatch, response.gzipEtag)) {
+        	return new ResponseEntity<byte[]>(headers, HttpStatus.NOT_MODIFIED);
+        }
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+        	headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        	return new ResponseEntity<byte[]>(response.getGzip(), headers, HttpStatus.OK);
+        }
+        return new ResponseEntity<byte[]>(response.json, headers, HttpStatus.OK);
+    }
+    
+    private PlanResponse getPlanResponse(String dataCenterName) {
+    	FederationSnapshot snapshot = optimizationManager.getFederationSnapshot();
+    	byte[] json = snapshot.getExecutionPlanJson(dataCenterName);
+    	if (json == null) {
+    		return null;
+    	}
+    	PlanResponseCache cache = planResponseCache.get();
+    	if (cache == null || cache.version != snapshot.getVersion()) {
+    		// Responses of older versions are dropped as a whole. If a concurrent request already installed the cache
+    		// for this version, use that one.
+    		PlanResponseCache newCache = new PlanResponseCache(snapshot.getVersion());
+    		if (planResponseCache.compareAndSet(cache, newCache)) {
+    			cache = newCache;
+    		} else {
+    			cache = planResponseCache.get();
+    			if (cache.version != snapshot.getVersion()) {
+    				// A different version was installed meanwhile, serve this one without caching
+    				return new PlanResponse(json);
+    			}
+    		}
+    	}
+    	PlanResponse response = cache.responses.get(dataCenterName);
+    	if (response == null) {
+    		response = new PlanResponse(json);
+    		PlanResponse existing = cache.responses.putIfAbsent(dataCenterName, response);
+    		if (existing != null) {
+    			response = existing;
+    		}
+    	}
+    	return response;
+    }
+    
+    private static boolean matchesETag(String ifNoneMatch, String etag) {
+    	if (ifNoneMatch == null) {
+    		return false;
+    	}
+    	for (String tag : ifNoneMatch.split(",")) {
+    		tag = tag.trim();
+    		// Weak comparison, as allowed for If-None-Match
+    		if (tag.startsWith("W/")) {
+    			tag = tag.substring(2);
+    		}
+    		if (tag.equals("*") || tag.equals(etag)) {
+    			return true;
+    		}
+    	}
+    	return false;
+    }
+    
+    private static boolean acceptsGzip(String acceptEncoding) {
+    	if (acceptEncoding == null) {
+    		return false;
+    	}
+    	for (String coding : acceptEncoding.split(",")) {
+    		String[] parts = coding.trim().split(";");
+    		if (parts[0].trim().equalsIgnoreCase("gzip")) {
+    			// Honour an explicit "gzip;q=0"
+    			for (int i = 1; i < parts.length; i++) {
+    				if (parts[i].replace(" ", "").matches("q=0(\\.0{0,3})?")) {
+    					return false;
+    				}
+    			}
+    			return true;
+    		}
+    	}
+    	return false;
+    }
+    
+    /**
+     * The responses for the plans of a single snapshot version.
+     */
+    private static class PlanResponseCache {
+    	
+    	private final long version;
+    	private final ConcurrentMap<String, PlanResponse> responses = new ConcurrentHashMap<>();
+    	
+    	private PlanResponseCache(long version) {
+    		this.version = version;
+    	}
+    	
+    }
+    
+    /**
+     * The response for a single plan. The tags are a hash of the JSON, so they don't change when a new snapshot holds
+     * the same plan, and the gzip body is only created when a client asks for it.
+     */
+    private static class PlanResponse {
+    	
+    	private final byte[] json;
+    	private final String etag;
+    	private final String gzipEtag;
+    	private volatile byte[] gzip;
+    	
+    	private PlanResponse(byte[] json) {
+    		this.json = json;
+    		String hash = toHex(sha256(json));
+    		this.etag = "\"" + hash + "\"";
+    		this.gzipEtag = "\"" + hash + "-gz\"";
+    	}
+    	
+    	private byte[] getGzip() {
+    		byte[] result = gzip;
+    		if (result == null) {
+    			// Concurrent requests may compress the same body twice, which is harmless
+    			result = compress(json);
+    			gzip = result;
+    		}
+    		return result;
+    	}
+    	
+    	private static byte[] sha256(byte[] data) {
+    		try {
+    			return MessageDigest.getInstance("SHA-256").digest(data);
+    		} catch (NoSuchAlgorithmException e) {
+    			throw new IllegalStateException(e);
+    		}
+    	}
+    	
+    	private static String toHex(byte[] data) {
+    		StringBuilder builder = new StringBuilder(data.length * 2);
+    		for (byte b : data) {
+    			builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+    		}
+    		return builder.toString();
+    	}
+    	
+    	private static byte[] compress(byte[] data) {
+    		ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+    		try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+    			gzipOut.write(data);
+    		} catch (IOException e) {
+    			// Cannot happen with an in-memory stream
+    			throw new IllegalStateException(e);
+    		}
+    		return out.toByteArray();
+    	}
+    	
     }
 
     /**
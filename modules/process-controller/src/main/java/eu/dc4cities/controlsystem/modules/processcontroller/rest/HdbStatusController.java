@@ -0,0 +1,48 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.dc4cities.controlsystem.modules.processcontroller.rest;
+
+import eu.dc4cities.controlsystem.modules.processcontroller.HdbUploader;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+
+@Controller
+public class HdbStatusController {
+
+	private HdbUploader hdbUploader;
+	
+	public HdbStatusController(HdbUploader hdbUploader) {
+		this.hdbUploader = hdbUploader;
+	}
+	
+	/**
+	 * Returns the state of the queue of uploads to the historical database.
+	 * 
+	 * @return the current upload statistics, or HTTP 404 if HDB upload is disabled
+	 */
+	@RequestMapping(value = "/v1/status/hdb", method = RequestMethod.GET)
+	public ResponseEntity<HdbUploader.Statistics> getHdbStatistics() {
+		if (hdbUploader == null) {
+			return new ResponseEntity<HdbUploader.Statistics>(HttpStatus.NOT_FOUND);
+		}
+		return new ResponseEntity<HdbUploader.Statistics>(hdbUploader.getStatistics(), HttpStatus.OK);
+	}
+	
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.dc4cities.controlsystem.modules.processcontroller.rest;
+
+import eu.dc4cities.controlsystem.modules.processcontroller.OptimizationManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+
+import java.util.Map;
+
+@Controller
+public class LoopStatusController {
+
+	private OptimizationManager optimizationManager;
+	
+	public LoopStatusController(OptimizationManager optimizationManager) {
+		this.optimizationManager = optimizationManager;
+	}
+	
+	/**
+	 * Returns the timing statistics of scheduled loops, including how late they start compared to their schedule.
+	 * 
+	 * @return the statistics of each loop type
+	 */
+	@RequestMapping(value = "/v1/status/loops", method = RequestMethod.GET)
+	public ResponseEntity<Map<String, OptimizationManager.LoopStatistics>> getLoopStatistics() {
+		return new ResponseEntity<Map<String, OptimizationManager.LoopStatistics>>(
+				optimizationManager.getLoopStatistics(), HttpStatus.OK);
+	}
+	
+}
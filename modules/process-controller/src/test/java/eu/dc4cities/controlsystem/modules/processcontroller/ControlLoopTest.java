@@ -37,7 +37,12 @@ import org.junit.Test;
 import org.mockito.ArgumentMatcher;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Matchers.isNull;
@@ -53,6 +58,9 @@ public class ControlLoopTest {
 	private EascHandler eascHandler;
 	private OptionConsolidator optionConsolidator;
 	private EscalationManager escalationManager1, escalationManager2;
+	private Map<String, PowerPlanner> powerPlanners;
+	private Map<String, PowerSplitter> powerSplitters;
+	private Map<String, EscalationManager> escalationManagers;
 	private ControlLoop controlLoopWithoutEscalation;
 	private ControlLoop controlLoopWithEscalation;
 	
@@ -78,19 +86,19 @@ public class ControlLoopTest {
 		goalConfig = loadJson("control-loop", "goal-configuration", GoalConfiguration.class);
 		powerPlanner1 = mock(PowerPlanner.class);
 		powerPlanner2 = mock(PowerPlanner.class);
-		Map<String, PowerPlanner> powerPlanners = new HashMap<>();
+		powerPlanners = new HashMap<>();
 		powerPlanners.put("dc1", powerPlanner1);
 		powerPlanners.put("dc2", powerPlanner2);
 		powerSplitter1 = mock(PowerSplitter.class);
 		powerSplitter2 = mock(PowerSplitter.class);
-		Map<String, PowerSplitter> powerSplitters = new HashMap<>();
+		powerSplitters = new HashMap<>();
 		powerSplitters.put("dc1", powerSplitter1);
 		powerSplitters.put("dc2", powerSplitter2);
 		eascHandler = mock(EascHandler.class);
 		optionConsolidator = mock(OptionConsolidator.class);
 		escalationManager1 = mock(EscalationManager.class);
 		escalationManager2 = mock(EscalationManager.class);
-		Map<String, EscalationManager> escalationManagers = new HashMap<>();
+		escalationManagers = new HashMap<>();
 		escalationManagers.put("dc1", escalationManager1);
 		escalationManagers.put("dc2", escalationManager2);
 		controlLoopWithoutEscalation = new ControlLoop(technicalConfig, goalConfig, powerPlanners, powerSplitters,
@@ -189,10 +197,69 @@ public class ControlLoopTest {
 		doTestDryRun(true);
 	}
 	
-	@SuppressWarnings("unchecked")
+	@Test
+	public void testDryRunWithParallelEscalation() {
+		// Same as above, determining the status of the data centers in parallel
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			controlLoopWithEscalation.setStatusExecutor(executor);
+			doTestDryRun(true);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	@Test
+	public void testDryRunWithParallelPlanning() {
+		// Same as testDryRun, calculating the power plans of the data centers in parallel
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			controlLoopWithoutEscalation.setPlanningExecutor(executor, 10000);
+			doTestDryRun(false);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	@Test
+	public void testParallelPlanningFailure() {
+		// A failure in a data center must not prevent the power plans of the other data centers from being calculated
+		jsonDir = "control-loop-midnight";
+		TimeParameters timeParameters = loadJson("time-parameters", TimeParameters.class);
+		List<DataCenterForecast> forecasts = loadJson("datacenter-forecasts", 
+				new TypeReference<List<DataCenterForecast>>() {});
+		IllegalStateException failure = new IllegalStateException("Splitter failure");
+		when(powerSplitter1.splitPowerForEasc(any(PowerPlan.class))).thenThrow(failure);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			controlLoopWithoutEscalation.setPlanningExecutor(executor, 10000);
+			controlLoopWithoutEscalation.execute(timeParameters, forecasts, new ArrayList<DataCenterPower>(0), 
+					new ArrayList<EascServiceLevels>(0), new ArrayList<EascMetrics>(0), null);
+			fail("Expected the power planning failure to be reported");
+		} catch (IllegalStateException e) {
+			assertSame(failure, e);
+		} finally {
+			executor.shutdownNow();
+		}
+		verify(powerSplitter2).splitPowerForEasc(any(PowerPlan.class));
+		verifyZeroInteractions(optionConsolidator);
+	}
+	
+	@Test
+	public void testDryRunReused() {
+		// Consecutive loops with the same forecasts and activity specifications execute the dry run only once, and
+		// each loop requests the activity specifications only once. Each run uses a new control loop, as the
+		// optimization manager does, sharing the dry run cache.
+		doTestDryRun(false, 2, new DryRunCache());
+	}
+	
 	private void doTestDryRun(boolean useEscalationManager) {
+		doTestDryRun(useEscalationManager, 1, null);
+	}
+	
+	@SuppressWarnings("unchecked")
+	private void doTestDryRun(boolean useEscalationManager, int numOfLoops, DryRunCache dryRunCache) {
 		jsonDir = "control-loop-midnight";
-		ControlLoop loopToTest = useEscalationManager ? controlLoopWithEscalation : controlLoopWithoutEscalation;
 		TimeParameters timeParameters = loadJson("time-parameters", TimeParameters.class);
 		TimeSlotBasedEntity timeRange = new TimeSlotBasedEntity(timeParameters);
 		JsonMatcher<TimeSlotBasedEntity> timeRangeMatcher = new JsonMatcher<>(timeRange);
@@ -260,10 +327,22 @@ public class ControlLoopTest {
 					eq(getObjectives("dc2")), eq(erdsForecasts2), eq(eascActivitySpecifications),
 					isNull(DataCenterPower.class), eq(eascServiceLevels), eq(eascActivityPlans))).thenReturn(status2);
 		}
-		List<DataCenterOptimization> actualOptimizations = loopToTest.execute(timeParameters, forecasts,
-				dataCenterPowerActuals, eascServiceLevels, eascMetrics,	executionPlansIn);
-		verify(eascHandler).sendActivityPlans(eascActivityPlans);
-		JsonTestUtils.assertJsonEquals(expectedOptimizations, actualOptimizations);
+		for (int i = 0; i < numOfLoops; i++) {
+			ControlLoop loopToTest = useEscalationManager ? controlLoopWithEscalation : controlLoopWithoutEscalation;
+			if (dryRunCache != null) {
+				loopToTest = new ControlLoop(technicalConfig, goalConfig, powerPlanners, powerSplitters, eascHandler,
+						optionConsolidator, useEscalationManager ? escalationManagers : null);
+				loopToTest.setDryRunCache(dryRunCache);
+			}
+			List<DataCenterOptimization> actualOptimizations = loopToTest.execute(timeParameters, forecasts,
+					dataCenterPowerActuals, eascServiceLevels, eascMetrics,	executionPlansIn);
+			JsonTestUtils.assertJsonEquals(expectedOptimizations, actualOptimizations);
+		}
+		verify(eascHandler, times(numOfLoops)).sendActivityPlans(eascActivityPlans);
+		verify(eascHandler, times(numOfLoops)).getActivitySpecifications(timeParameters);
+		verify(optionConsolidator, times(numOfLoops + 1)).buildActivityPlans(any(TimeSlotBasedEntity.class), 
+				any(List.class), any(List.class), any(List.class), any(List.class), any(List.class), any(List.class), 
+				any(List.class), any(List.class));
 	}
 	
 	@Test
@@ -432,6 +511,8 @@ public class ControlLoopTest {
 		List<DataCenterOptimization> actualOptimizations = controlLoopWithEscalation.execute(timeParameters,
 				forecasts, dataCenterPowerActuals, eascServiceLevels, eascMetrics, prevExecPlans);
 		verify(eascHandler).sendActivityPlans(eascActivityPlans);
+		// The partial dry run uses the specifications requested for the whole range
+		verify(eascHandler).getActivitySpecifications(any(TimeParameters.class));
 		JsonTestUtils.assertJsonEquals(expectedOptimizations, actualOptimizations);
 	}
 	
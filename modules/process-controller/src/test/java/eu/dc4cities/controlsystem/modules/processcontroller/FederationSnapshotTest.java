@@ -0,0 +1,51 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.dc4cities.controlsystem.modules.processcontroller;
+
+import eu.dc4cities.controlsystem.model.datacenter.DataCenterExecutionPlan;
+import eu.dc4cities.controlsystem.model.json.JsonUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class FederationSnapshotTest {
+
+	@Test
+	public void testEmptySnapshot() {
+		Assert.assertEquals(0, FederationSnapshot.EMPTY.getVersion());
+		Assert.assertNull(FederationSnapshot.EMPTY.getExecutionPlans());
+		Assert.assertNull(FederationSnapshot.EMPTY.getExecutionPlan("dc1"));
+		Assert.assertNull(FederationSnapshot.EMPTY.getExecutionPlanJson("dc1"));
+	}
+
+	@Test
+	public void testPlanLookup() {
+		DataCenterExecutionPlan plan1 = new DataCenterExecutionPlan("dc1");
+		DataCenterExecutionPlan plan2 = new DataCenterExecutionPlan("dc2");
+		FederationSnapshot snapshot = new FederationSnapshot(3, Arrays.asList(plan1, plan2), null);
+		Assert.assertEquals(3, snapshot.getVersion());
+		Assert.assertSame(plan1, snapshot.getExecutionPlan("dc1"));
+		Assert.assertSame(plan2, snapshot.getExecutionPlan("dc2"));
+		Assert.assertNull(snapshot.getExecutionPlan("dc3"));
+		Assert.assertEquals(JsonUtils.toString(plan2), 
+				new String(snapshot.getExecutionPlanJson("dc2"), StandardCharsets.UTF_8));
+		Assert.assertNull(snapshot.getExecutionPlanJson("dc3"));
+	}
+
+}
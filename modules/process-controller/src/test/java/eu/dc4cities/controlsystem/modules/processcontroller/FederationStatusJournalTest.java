@@ -0,0 +1,150 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.dc4cities.controlsystem.modules.processcontroller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import eu.dc4cities.configuration.technical.TechnicalConfiguration;
+import eu.dc4cities.controlsystem.model.easc.EascMetrics;
+import eu.dc4cities.controlsystem.model.erds.DataCenterForecast;
+import eu.dc4cities.controlsystem.model.json.JsonUtils;
+import org.joda.time.DateTime;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.measure.unit.SI;
+import javax.measure.unit.UnitFormat;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+public class FederationStatusJournalTest {
+
+	private static final String[] METRICS_FILES =
+			new String[] {"easc-metrics-1a", "easc-metrics-1b", "easc-metrics-1c", "easc-metrics-2a", "easc-metrics-2b"};
+
+	@Rule
+	public TemporaryFolder tempFolder = new TemporaryFolder();
+
+	private DateTime startDate = new DateTime(2015, 9, 1, 0, 0);
+	private TechnicalConfiguration technicalConfig;
+	private File journalDir;
+
+	@BeforeClass
+	public static void setUpBeforeClass() {
+		UnitFormat.getInstance().label(SI.GIGA(SI.BIT), "Gbit");
+	}
+
+	@Before
+	public void setUp() throws IOException {
+		technicalConfig = new TechnicalConfiguration();
+		technicalConfig.setTimeSlotWidth(15);
+		journalDir = tempFolder.newFolder("journal");
+	}
+
+	private List<EascMetrics> loadMetrics(String name) {
+		return JsonUtils.loadResource("federation-status-multi/" + name + ".json",
+				new TypeReference<List<EascMetrics>>() {});
+	}
+
+	// Applies the same updates to a journaled status and a plain one, returning the plain one for comparison
+	private FederationStatus populate(int snapshotInterval) throws IOException {
+		FederationStatus expected = new FederationStatus(startDate, technicalConfig);
+		try (FederationStatusJournal journal = new FederationStatusJournal(journalDir, snapshotInterval)) {
+			Assert.assertNull(journal.recover(technicalConfig));
+			FederationStatus journaled = new FederationStatus(startDate, technicalConfig);
+			journaled.setJournal(journal);
+			List<DataCenterForecast> forecasts = JsonUtils.loadResource(
+					"control-loop-after-midnight/datacenter-forecasts.json",
+					new TypeReference<List<DataCenterForecast>>() {});
+			journaled.setDataCenterForecasts(forecasts);
+			expected.setDataCenterForecasts(forecasts);
+			DateTime metricsDate = startDate;
+			for (String metricsFile : METRICS_FILES) {
+				metricsDate = metricsDate.plusMinutes(5);
+				journaled.updateEascMetrics(metricsDate, loadMetrics(metricsFile));
+				expected.updateEascMetrics(metricsDate, loadMetrics(metricsFile));
+			}
+		}
+		return expected;
+	}
+
+	private void assertRecovered(FederationStatus expected) throws IOException {
+		try (FederationStatusJournal journal = new FederationStatusJournal(journalDir, 100)) {
+			FederationStatus recovered = journal.recover(technicalConfig);
+			Assert.assertNotNull(recovered);
+			Assert.assertEquals(expected.getTimeSlotStart(), recovered.getTimeSlotStart());
+			JsonTestUtils.assertJsonEquals(expected.getDataCenterForecasts(), recovered.getDataCenterForecasts());
+			JsonTestUtils.assertJsonEquals(expected.getLatestEascMetrics(), recovered.getLatestEascMetrics());
+			JsonTestUtils.assertJsonEquals(expected.getDataCenterPowerActuals(), recovered.getDataCenterPowerActuals());
+			JsonTestUtils.assertJsonEquals(expected.getEascServiceLevels(), recovered.getEascServiceLevels());
+			// Completing the time slot verifies that buffered measurements have been restored as well
+			DateTime metricsDate = startDate.plusMinutes(30);
+			expected.updateEascMetrics(metricsDate, loadMetrics("easc-metrics-2c"));
+			recovered.updateEascMetrics(metricsDate, loadMetrics("easc-metrics-2c"));
+			JsonTestUtils.assertJsonEquals(expected.getDataCenterPowerActuals(), recovered.getDataCenterPowerActuals());
+			JsonTestUtils.assertJsonEquals(expected.getEascServiceLevels(), recovered.getEascServiceLevels());
+		}
+	}
+
+	@Test
+	public void testRecoverFromJournal() throws IOException {
+		assertRecovered(populate(100));
+	}
+
+	@Test
+	public void testRecoverFromSnapshotAndJournal() throws IOException {
+		assertRecovered(populate(4));
+	}
+
+	@Test
+	public void testRecoverWithTruncatedRecord() throws IOException {
+		FederationStatus expected = populate(100);
+		// Simulate a crash in the middle of a write
+		Files.write(new File(journalDir, "federation-status.journal").toPath(),
+				"{\"sequence\":99,\"type\":\"EASC_ME".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+		assertRecovered(expected);
+	}
+
+	@Test
+	public void testRecoverWithCorruptSnapshot() throws IOException {
+		populate(4);
+		File snapshotFile = new File(journalDir, "federation-status.snapshot");
+		Files.write(snapshotFile.toPath(), "{\"sequence\":".getBytes(StandardCharsets.UTF_8));
+		try (FederationStatusJournal journal = new FederationStatusJournal(journalDir, 100)) {
+			Assert.assertNull(journal.recover(technicalConfig));
+			// The journal is usable with a new status
+			FederationStatus status = new FederationStatus(startDate, technicalConfig);
+			status.setJournal(journal);
+			status.updateEascMetrics(startDate.plusMinutes(5), loadMetrics(METRICS_FILES[0]));
+		}
+		Assert.assertEquals(2, journalDir.listFiles((dir, name) -> name.contains(".failed-")).length);
+		// The next restart recovers what was recorded after the failure
+		try (FederationStatusJournal journal = new FederationStatusJournal(journalDir, 100)) {
+			FederationStatus recovered = journal.recover(technicalConfig);
+			Assert.assertNotNull(recovered);
+			JsonTestUtils.assertJsonEquals(loadMetrics(METRICS_FILES[0]), recovered.getLatestEascMetrics());
+		}
+	}
+
+}
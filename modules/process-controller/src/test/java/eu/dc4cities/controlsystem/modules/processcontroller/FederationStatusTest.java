@@ -19,10 +19,14 @@ package eu.dc4cities.controlsystem.modules.processcontroller;
 import com.fasterxml.jackson.core.type.TypeReference;
 import eu.dc4cities.configuration.technical.TechnicalConfiguration;
 import eu.dc4cities.controlsystem.model.datacenter.DataCenterPower;
+import eu.dc4cities.controlsystem.model.easc.ActivityDataCenterMetrics;
+import eu.dc4cities.controlsystem.model.easc.ActivityMetrics;
 import eu.dc4cities.controlsystem.model.easc.EascMetrics;
 import eu.dc4cities.controlsystem.model.easc.EascServiceLevels;
+import eu.dc4cities.controlsystem.model.easc.ServiceLevel;
 import eu.dc4cities.controlsystem.model.json.JsonUtils;
 import org.joda.time.DateTime;
+import org.jscience.physics.amount.Amount;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -30,6 +34,7 @@ import org.junit.Test;
 
 import javax.measure.unit.SI;
 import javax.measure.unit.UnitFormat;
+import java.util.Collections;
 import java.util.List;
 
 public class FederationStatusTest {
@@ -156,4 +161,32 @@ public class FederationStatusTest {
 		JsonTestUtils.assertJsonEquals(expectedServiceLevels, federationStatus.getEascServiceLevels());
 	}
 	
+	@Test
+	public void testMeasurementsWithoutPerformance() {
+		// Tests that an activity reporting neither instant nor cumulative performance is listed only once per time
+		// slot, also when it is measured more times than the initial capacity of the accumulator.
+		ActivityDataCenterMetrics dataCenter = new ActivityDataCenterMetrics("dc1");
+		dataCenter.setWorkingModeName("WM1");
+		dataCenter.setWorkingModeValue(1);
+		dataCenter.setPower(Amount.valueOf(470, SI.WATT));
+		ActivityMetrics activity = new ActivityMetrics("activity1");
+		activity.getDataCenters().add(dataCenter);
+		EascMetrics easc = new EascMetrics("easc1");
+		easc.setActivities(Collections.singletonList(activity));
+		List<EascMetrics> eascMetrics = Collections.singletonList(easc);
+		for (int i = 1; i <= 30; i++) {
+			federationStatus.updateEascMetrics(startDate.plusSeconds(i * 30), eascMetrics);
+		}
+		List<EascServiceLevels> serviceLevels = federationStatus.getEascServiceLevels();
+		Assert.assertEquals(1, serviceLevels.size());
+		Assert.assertEquals(1, serviceLevels.get(0).getActivityServiceLevels().size());
+		List<ServiceLevel> activityLevels = serviceLevels.get(0).getActivityServiceLevels().get(0).getServiceLevels();
+		Assert.assertEquals(1, activityLevels.size());
+		Assert.assertNull(activityLevels.get(0).getInstantBusinessPerformance());
+		Assert.assertNull(activityLevels.get(0).getCumulativeBusinessPerformance());
+		List<DataCenterPower> powerActuals = federationStatus.getDataCenterPowerActuals();
+		Assert.assertEquals(1, powerActuals.size());
+		Assert.assertEquals(1, powerActuals.get(0).getPowerValues().size());
+	}
+	
 }
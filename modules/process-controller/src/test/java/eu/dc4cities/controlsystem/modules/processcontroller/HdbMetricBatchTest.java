@@ -0,0 +1,65 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.dc4cities.controlsystem.modules.processcontroller;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.kairosdb.client.builder.MetricBuilder;
+
+public class HdbMetricBatchTest {
+
+	@Test
+	public void testEmptyBatch() {
+		HdbMetricBatch batch = new HdbMetricBatch(100);
+		Assert.assertTrue(batch.isEmpty());
+		Assert.assertEquals(0, batch.getNumOfRequests());
+		Assert.assertEquals(0, batch.getNumOfDataPoints());
+	}
+
+	@Test
+	public void testSingleRequest() {
+		HdbMetricBatch batch = new HdbMetricBatch(200);
+		MetricBuilder first = batch.builderFor(96);
+		MetricBuilder second = batch.builderFor(96);
+		MetricBuilder third = batch.builderFor(8);
+		Assert.assertSame(first, second);
+		Assert.assertSame(first, third);
+		Assert.assertEquals(1, batch.getNumOfRequests());
+		Assert.assertEquals(200, batch.getNumOfDataPoints());
+	}
+
+	@Test
+	public void testSplitRequests() {
+		HdbMetricBatch batch = new HdbMetricBatch(200);
+		MetricBuilder first = batch.builderFor(96);
+		batch.builderFor(96);
+		MetricBuilder second = batch.builderFor(96);
+		Assert.assertNotSame(first, second);
+		// A metric larger than the limit is never split and gets a request of its own
+		MetricBuilder third = batch.builderFor(300);
+		Assert.assertNotSame(second, third);
+		Assert.assertSame(third, batch.getRequests().get(2));
+		Assert.assertEquals(3, batch.getNumOfRequests());
+		Assert.assertEquals(588, batch.getNumOfDataPoints());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidLimit() {
+		new HdbMetricBatch(0);
+	}
+
+}
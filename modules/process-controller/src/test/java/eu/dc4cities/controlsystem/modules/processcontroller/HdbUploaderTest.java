@@ -0,0 +1,160 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.dc4cities.controlsystem.modules.processcontroller;
+
+import eu.dc4cities.controlsystem.model.datacenter.DataCenterStatus;
+import eu.dc4cities.controlsystem.modules.processcontroller.HdbUploader.OverflowPolicy;
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.kairosdb.client.builder.MetricBuilder;
+import org.mockito.InOrder;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class HdbUploaderTest {
+
+	@Rule
+	public TemporaryFolder tempFolder = new TemporaryFolder();
+
+	private HistoricalDbDao hdbDao;
+	private HdbUploader hdbUploader;
+
+	@Before
+	public void setUp() {
+		hdbDao = mock(HistoricalDbDao.class);
+	}
+
+	@After
+	public void tearDown() {
+		if (hdbUploader != null) {
+			hdbUploader.close();
+		}
+	}
+
+	private HdbMetricBatch buildBatch(int timeSlot) {
+		return buildBatch(timeSlot, 1000.0);
+	}
+
+	private HdbMetricBatch buildBatch(int timeSlot, double power) {
+		long timestamp = new DateTime(2015, 9, 1, 0, 0).plusMinutes(timeSlot * 15).getMillis();
+		HdbMetricBatch batch = new HdbMetricBatch(100);
+		batch.builderFor(1).addMetric("power").addTag("assetCode", "dc1").addDataPoint(timestamp, power);
+		return batch;
+	}
+
+	@Test
+	public void testUpload() {
+		hdbUploader = new HdbUploader(hdbDao, 4, OverflowPolicy.BLOCK, null, 0);
+		hdbUploader.start();
+		HdbMetricBatch batch = buildBatch(0);
+		List<DataCenterStatus> statuses = Collections.singletonList(new DataCenterStatus("dc1"));
+		hdbUploader.submit(batch, statuses);
+		verify(hdbDao, timeout(5000)).writeStatusAlerts(statuses);
+		verify(hdbDao).writeRequest(batch.getRequests().get(0));
+		HdbUploader.Statistics statistics = hdbUploader.getStatistics();
+		Assert.assertEquals(1, statistics.getUploaded());
+		Assert.assertEquals(0, statistics.getFailed());
+		Assert.assertNotNull(statistics.getLastUploadDate());
+	}
+
+	@Test
+	public void testSpillAndReplay() throws Exception {
+		File spillDirectory = tempFolder.newFolder("spill");
+		doThrow(new RuntimeException("HDB down")).when(hdbDao).writeRequest(any(MetricBuilder.class));
+		hdbUploader = new HdbUploader(hdbDao, 4, OverflowPolicy.BLOCK, spillDirectory, 10);
+		hdbUploader.start();
+		HdbMetricBatch failedBatch = buildBatch(0);
+		hdbUploader.submit(failedBatch, null);
+		verify(hdbDao, timeout(5000)).writeRequest(any(MetricBuilder.class));
+		hdbUploader.close();
+		Assert.assertEquals(1, hdbUploader.getStatistics().getFailed());
+		Assert.assertEquals(1, hdbUploader.getStatistics().getSpilled());
+		// A new uploader replays requests spilled by the previous one as soon as it starts
+		reset(hdbDao);
+		hdbUploader = new HdbUploader(hdbDao, 4, OverflowPolicy.BLOCK, spillDirectory, 10);
+		hdbUploader.start();
+		verify(hdbDao, timeout(5000)).writeRequest(failedBatch.getRequests().get(0).build());
+		hdbUploader.close();
+		Assert.assertEquals(0, hdbUploader.getStatistics().getSpilled());
+	}
+
+	@Test
+	public void testReplayBeforeNewerValues() throws Exception {
+		// A plan for the same time slot is uploaded again by the next loop: the spilled value must be written first,
+		// so that the newer one is the value kept by the historical database
+		File spillDirectory = tempFolder.newFolder("spill");
+		doThrow(new RuntimeException("HDB down")).doNothing().when(hdbDao).writeRequest(any(MetricBuilder.class));
+		hdbUploader = new HdbUploader(hdbDao, 4, OverflowPolicy.BLOCK, spillDirectory, 10);
+		hdbUploader.start();
+		HdbMetricBatch oldBatch = buildBatch(0, 1000.0);
+		hdbUploader.submit(oldBatch, null);
+		verify(hdbDao, timeout(5000)).writeRequest(any(MetricBuilder.class));
+		HdbMetricBatch newBatch = buildBatch(0, 2000.0);
+		hdbUploader.submit(newBatch, null);
+		verify(hdbDao, timeout(5000)).writeRequest(newBatch.getRequests().get(0));
+		InOrder inOrder = inOrder(hdbDao);
+		inOrder.verify(hdbDao).writeRequest(oldBatch.getRequests().get(0).build());
+		inOrder.verify(hdbDao).writeRequest(newBatch.getRequests().get(0));
+		Assert.assertEquals(0, hdbUploader.getStatistics().getSpilled());
+	}
+
+	@Test
+	public void testSpillWhenReplayFails() throws Exception {
+		File spillDirectory = tempFolder.newFolder("spill");
+		doThrow(new RuntimeException("HDB down")).when(hdbDao).writeRequest(any(MetricBuilder.class));
+		doThrow(new RuntimeException("HDB down")).when(hdbDao).writeRequest(anyString());
+		hdbUploader = new HdbUploader(hdbDao, 4, OverflowPolicy.BLOCK, spillDirectory, 10);
+		hdbUploader.start();
+		hdbUploader.submit(buildBatch(0, 1000.0), null);
+		verify(hdbDao, timeout(5000)).writeRequest(any(MetricBuilder.class));
+		// The new batch is not uploaded ahead of the spilled one, it is spilled after it
+		hdbUploader.submit(buildBatch(0, 2000.0), null);
+		verify(hdbDao, timeout(5000)).writeRequest(anyString());
+		hdbUploader.close();
+		verify(hdbDao, times(1)).writeRequest(any(MetricBuilder.class));
+		Assert.assertEquals(2, hdbUploader.getStatistics().getFailed());
+		Assert.assertEquals(2, hdbUploader.getStatistics().getSpilled());
+	}
+
+	@Test
+	public void testDropOldest() throws Exception {
+		File spillDirectory = tempFolder.newFolder("spill");
+		// The worker is not started, so uploads stay in the queue
+		hdbUploader = new HdbUploader(hdbDao, 2, OverflowPolicy.DROP_OLDEST, spillDirectory, 10);
+		hdbUploader.submit(buildBatch(0), null);
+		hdbUploader.submit(buildBatch(1), null);
+		hdbUploader.submit(buildBatch(2), null);
+		HdbUploader.Statistics statistics = hdbUploader.getStatistics();
+		Assert.assertEquals(2, statistics.getQueueDepth());
+		Assert.assertEquals(1, statistics.getDropped());
+		Assert.assertEquals(1, statistics.getSpilled());
+		Assert.assertTrue(statistics.getLag() >= 0);
+		verify(hdbDao, never()).writeRequest(anyString());
+	}
+
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.dc4cities.controlsystem.modules.processcontroller;
+
+import eu.dc4cities.configuration.technical.TechnicalConfiguration;
+import eu.dc4cities.controlsystem.model.TimeSlotBasedEntity;
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.*;
+
+public class OptimizationManagerTest {
+
+	private TaskScheduler taskScheduler;
+	private MonitoringLoop monitoringLoop;
+	private PowerLoop powerLoop;
+	private ControlLoop controlLoop;
+	private OptimizationManager optimizationManager;
+	private ThreadPoolExecutor[] loopExecutors;
+	
+	@Before
+	public void setUp() {
+		TechnicalConfiguration technicalConfig = new TechnicalConfiguration();
+		technicalConfig.setTimeSlotWidth(15);
+		technicalConfig.setTimeWindowWidth(24);
+		technicalConfig.setMonitoringLoopInterval(5);
+		technicalConfig.setPowerLoopInterval(15);
+		technicalConfig.setControlLoopInterval(15);
+		taskScheduler = mock(TaskScheduler.class);
+		monitoringLoop = mock(MonitoringLoop.class);
+		powerLoop = mock(PowerLoop.class);
+		controlLoop = mock(ControlLoop.class);
+		optimizationManager = new OptimizationManager(technicalConfig, taskScheduler, null) {
+			@Override
+			protected PowerLoop newPowerLoop() {
+				return powerLoop;
+			}
+			@Override
+			protected ControlLoop newControlLoop() {
+				return controlLoop;
+			}
+			@Override
+			protected MonitoringLoop newMonitoringLoop() {
+				return monitoringLoop;
+			}
+		};
+		loopExecutors = new ThreadPoolExecutor[] {newBoundedExecutor(Integer.MAX_VALUE), 
+				newBoundedExecutor(Integer.MAX_VALUE), newBoundedExecutor(Integer.MAX_VALUE)};
+	}
+	
+	@After
+	public void tearDown() {
+		for (ExecutorService executor : loopExecutors) {
+			executor.shutdownNow();
+		}
+	}
+	
+	private Runnable startScheduledLoops() {
+		optimizationManager.startScheduledLoops();
+		ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+		verify(taskScheduler).scheduleAtFixedRate(captor.capture(), any(Date.class), anyLong());
+		return captor.getValue();
+	}
+	
+	private static ThreadPoolExecutor newBoundedExecutor(int queueCapacity) {
+		return new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(queueCapacity));
+	}
+	
+	// Loops submit the next steps of their run to other executors, so wait for all of them to be idle before shutdown
+	private void awaitTermination() throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		int idleChecks = 0;
+		while (idleChecks < 2 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+			idleChecks = isIdle() ? idleChecks + 1 : 0;
+		}
+		Assert.assertEquals(2, idleChecks);
+		for (ExecutorService executor : loopExecutors) {
+			executor.shutdown();
+			Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+		}
+	}
+	
+	private boolean isIdle() {
+		for (ThreadPoolExecutor executor : loopExecutors) {
+			if (executor.getActiveCount() > 0 || !executor.getQueue().isEmpty()) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	@Test
+	public void testMonitoringNotBlockedByControlLoop() throws Exception {
+		optimizationManager.setLoopExecutors(loopExecutors[0], loopExecutors[1], loopExecutors[2]);
+		CountDownLatch monitoringDone = new CountDownLatch(2);
+		CountDownLatch controlStarted = new CountDownLatch(1);
+		CountDownLatch controlReleased = new CountDownLatch(1);
+		when(monitoringLoop.execute(any(DateTime.class))).thenAnswer(invocation -> {
+			monitoringDone.countDown();
+			return Collections.emptyList();
+		});
+		when(powerLoop.execute(any(TimeSlotBasedEntity.class))).thenReturn(Collections.emptyList());
+		when(controlLoop.execute(any(), any(), any(), any(), any(), any())).thenAnswer(invocation -> {
+			controlStarted.countDown();
+			controlReleased.await();
+			return Collections.emptyList();
+		});
+		Runnable loopExecutor = startScheduledLoops();
+		// The first run includes all loops, the second one only monitoring
+		loopExecutor.run();
+		Assert.assertTrue(controlStarted.await(5, TimeUnit.SECONDS));
+		loopExecutor.run();
+		Assert.assertTrue(monitoringDone.await(5, TimeUnit.SECONDS));
+		controlReleased.countDown();
+		awaitTermination();
+		Map<String, OptimizationManager.LoopStatistics> statistics = optimizationManager.getLoopStatistics();
+		Assert.assertEquals(2, statistics.get("monitoring").getRuns());
+		Assert.assertEquals(1, statistics.get("power").getRuns());
+		Assert.assertEquals(1, statistics.get("control").getRuns());
+		Assert.assertNotNull(optimizationManager.getFederationSnapshot().getExecutionPlans());
+	}
+	
+	@Test
+	public void testLoopsInSeries() {
+		when(monitoringLoop.execute(any(DateTime.class))).thenReturn(Collections.emptyList());
+		when(powerLoop.execute(any(TimeSlotBasedEntity.class))).thenReturn(Collections.emptyList());
+		when(controlLoop.execute(any(), any(), any(), any(), any(), any())).thenReturn(Collections.emptyList());
+		Runnable loopExecutor = startScheduledLoops();
+		loopExecutor.run();
+		verify(controlLoop).execute(any(), any(), any(), any(), any(), any());
+		Map<String, OptimizationManager.LoopStatistics> statistics = optimizationManager.getLoopStatistics();
+		Assert.assertEquals(1, statistics.get("monitoring").getRuns());
+		Assert.assertEquals(1, statistics.get("control").getRuns());
+		// One snapshot for the initial status and one for the control loop
+		Assert.assertEquals(2, optimizationManager.getFederationSnapshot().getVersion());
+	}
+	
+	@Test
+	public void testQueuedControlLoopSkipped() throws Exception {
+		ThreadPoolExecutor controlExecutor = loopExecutors[2];
+		optimizationManager.setLoopExecutors(loopExecutors[0], loopExecutors[1], controlExecutor);
+		CountDownLatch controlStarted = new CountDownLatch(1);
+		CountDownLatch controlReleased = new CountDownLatch(1);
+		when(monitoringLoop.execute(any(DateTime.class))).thenReturn(Collections.emptyList());
+		when(powerLoop.execute(any(TimeSlotBasedEntity.class))).thenReturn(Collections.emptyList());
+		when(controlLoop.execute(any(), any(), any(), any(), any(), any())).thenAnswer(invocation -> {
+			controlStarted.countDown();
+			controlReleased.await();
+			return Collections.emptyList();
+		});
+		Runnable loopExecutor = startScheduledLoops();
+		// Runs 1, 4 and 7 include a control loop; the second one is still queued when the third one is submitted
+		loopExecutor.run();
+		Assert.assertTrue(controlStarted.await(5, TimeUnit.SECONDS));
+		for (int i = 0; i < 6; i++) {
+			loopExecutor.run();
+		}
+		// Wait for the two control loops and the uploads of the four runs without a control loop to be queued
+		long deadline = System.currentTimeMillis() + 5000;
+		while (controlExecutor.getQueue().size() < 6 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		Assert.assertEquals(6, controlExecutor.getQueue().size());
+		controlReleased.countDown();
+		awaitTermination();
+		verify(controlLoop, times(2)).execute(any(), any(), any(), any(), any(), any());
+		OptimizationManager.LoopStatistics statistics = optimizationManager.getLoopStatistics().get("control");
+		Assert.assertEquals(2, statistics.getRuns());
+		Assert.assertEquals(1, statistics.getOverruns());
+	}
+	
+	@Test
+	public void testFullLoopQueue() throws Exception {
+		ThreadPoolExecutor monitoringExecutor = newBoundedExecutor(1);
+		loopExecutors[0].shutdown();
+		loopExecutors[0] = monitoringExecutor;
+		optimizationManager.setLoopExecutors(monitoringExecutor, loopExecutors[1], loopExecutors[2]);
+		CountDownLatch monitoringStarted = new CountDownLatch(1);
+		CountDownLatch monitoringReleased = new CountDownLatch(1);
+		when(monitoringLoop.execute(any(DateTime.class))).thenAnswer(invocation -> {
+			monitoringStarted.countDown();
+			monitoringReleased.await();
+			return Collections.emptyList();
+		});
+		when(powerLoop.execute(any(TimeSlotBasedEntity.class))).thenReturn(Collections.emptyList());
+		when(controlLoop.execute(any(), any(), any(), any(), any(), any())).thenReturn(Collections.emptyList());
+		Runnable loopExecutor = startScheduledLoops();
+		// The second monitoring loop fills the queue, so the third one is rejected
+		loopExecutor.run();
+		Assert.assertTrue(monitoringStarted.await(5, TimeUnit.SECONDS));
+		loopExecutor.run();
+		loopExecutor.run();
+		monitoringReleased.countDown();
+		awaitTermination();
+		OptimizationManager.LoopStatistics statistics = optimizationManager.getLoopStatistics().get("monitoring");
+		Assert.assertEquals(2, statistics.getRuns());
+		Assert.assertEquals(1, statistics.getOverruns());
+		verify(controlLoop).execute(any(), any(), any(), any(), any(), any());
+	}
+	
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.dc4cities.controlsystem.modules.processcontroller.rest;
+
+import eu.dc4cities.controlsystem.model.datacenter.DataCenterExecutionPlan;
+import eu.dc4cities.controlsystem.modules.processcontroller.FederationSnapshot;
+import eu.dc4cities.controlsystem.modules.processcontroller.OptimizationManager;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class FederationControllerTest {
+
+	private OptimizationManager optimizationManager;
+	private FederationController controller;
+	private FederationSnapshot snapshot;
+	
+	@Before
+	public void setUp() {
+		optimizationManager = mock(OptimizationManager.class);
+		controller = new FederationController(optimizationManager);
+		snapshot = new FederationSnapshot(1, Arrays.asList(new DataCenterExecutionPlan("dc1")), null);
+		when(optimizationManager.getFederationSnapshot()).thenReturn(snapshot);
+	}
+	
+	@Test
+	public void testUnknownDataCenter() {
+		ResponseEntity<byte[]> response = controller.getDataCenterExecutionPlan("dc2", null, null);
+		Assert.assertEquals(HttpStatus.OK, response.getStatusCode());
+		Assert.assertNull(response.getBody());
+	}
+	
+	@Test
+	public void testNotModified() {
+		ResponseEntity<byte[]> response = controller.getDataCenterExecutionPlan("dc1", null, null);
+		Assert.assertEquals(HttpStatus.OK, response.getStatusCode());
+		Assert.assertArrayEquals(snapshot.getExecutionPlanJson("dc1"), response.getBody());
+		String etag = response.getHeaders().getETag();
+		Assert.assertNotNull(etag);
+		response = controller.getDataCenterExecutionPlan("dc1", "\"other\", " + etag, null);
+		Assert.assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+		Assert.assertNull(response.getBody());
+		// A new version holding the same plan keeps the same tag
+		FederationSnapshot newSnapshot = new FederationSnapshot(2, 
+				Collections.singletonList(new DataCenterExecutionPlan("dc1")), null);
+		when(optimizationManager.getFederationSnapshot()).thenReturn(newSnapshot);
+		response = controller.getDataCenterExecutionPlan("dc1", etag, null);
+		Assert.assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+	}
+	
+	@Test
+	public void testGzip() throws IOException {
+		ResponseEntity<byte[]> response = controller.getDataCenterExecutionPlan("dc1", null, "deflate, gzip");
+		Assert.assertEquals("gzip", response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		Assert.assertArrayEquals(snapshot.getExecutionPlanJson("dc1"), gunzip(response.getBody()));
+		Assert.assertSame(response.getBody(), 
+				controller.getDataCenterExecutionPlan("dc1", null, "gzip").getBody());
+		response = controller.getDataCenterExecutionPlan("dc1", null, "gzip;q=0");
+		Assert.assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+	}
+
+	@Test
+	public void testGzipETag() {
+		// The compressed body has its own strong tag, but either tag of the same plan is accepted
+		String etag = controller.getDataCenterExecutionPlan("dc1", null, null).getHeaders().getETag();
+		String gzipEtag = controller.getDataCenterExecutionPlan("dc1", null, "gzip").getHeaders().getETag();
+		Assert.assertNotNull(gzipEtag);
+		Assert.assertNotEquals(etag, gzipEtag);
+		ResponseEntity<byte[]> response = controller.getDataCenterExecutionPlan("dc1", gzipEtag, "gzip");
+		Assert.assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+		Assert.assertEquals(gzipEtag, response.getHeaders().getETag());
+		response = controller.getDataCenterExecutionPlan("dc1", gzipEtag, null);
+		Assert.assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+		Assert.assertEquals(etag, response.getHeaders().getETag());
+		response = controller.getDataCenterExecutionPlan("dc1", etag, "gzip");
+		Assert.assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+		Assert.assertEquals(gzipEtag, response.getHeaders().getETag());
+	}
+	
+	private static byte[] gunzip(byte[] data) throws IOException {
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+			byte[] buffer = new byte[data.length * 10 + 1024];
+			int length = 0;
+			int read;
+			while ((read = in.read(buffer, length, buffer.length - length)) > 0) {
+				length += read;
+			}
+			return Arrays.copyOf(buffer, length);
+		}
+	}
+	
+}
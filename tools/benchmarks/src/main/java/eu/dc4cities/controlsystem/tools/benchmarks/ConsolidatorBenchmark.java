@@ -0,0 +1,74 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.dc4cities.controlsystem.tools.benchmarks;
+
+import eu.dc4cities.controlsystem.model.easc.EascActivityPlan;
+import eu.dc4cities.controlsystem.modules.ConsolidatorException;
+import eu.dc4cities.controlsystem.modules.optionconsolidator.OptionConsolidatorImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the whole consolidation pipeline as the control loop does: split, parallel solve of the sub-problems and merge
+ * of the resulting plans.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ConsolidatorBenchmark {
+
+	/** The solver time limit, in seconds. */
+	@Param({ "5" })
+	public int timeout;
+
+	@Param({ "true" })
+	public boolean split;
+
+	@Benchmark
+	public List<EascActivityPlan> buildActivityPlans(ScenarioState state, SolveCounters counters) {
+		Scenario scenario = state.scenario;
+		OptionConsolidatorImpl consolidator = new OptionConsolidatorImpl();
+		consolidator.setTimeout(timeout);
+		consolidator.split(split);
+		try {
+			List<EascActivityPlan> plans = consolidator.buildActivityPlans(scenario.getTimeRange(),
+					scenario.getObjectives(), scenario.getDataCenterForecasts(), scenario.getIdealPowerPlans(),
+					scenario.getEascPowerPlans(), scenario.getActivitySpecifications(), scenario.getPastPowerUsage(),
+					scenario.getPastServiceLevels(), scenario.getEascMetrics());
+			counters.record(consolidator.getLastStatistics());
+			return plans;
+		} catch (ConsolidatorException e) {
+			counters.recordFailure();
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.dc4cities.controlsystem.tools.benchmarks;
+
+import eu.dc4cities.controlsystem.model.easc.ActivityMetrics;
+import eu.dc4cities.controlsystem.model.easc.ActivitySpecification;
+import eu.dc4cities.controlsystem.model.easc.EascActivitySpecifications;
+import eu.dc4cities.controlsystem.model.easc.EascMetrics;
+import eu.dc4cities.controlsystem.model.easc.ServiceLevel;
+import eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2.ActivityAutomaton;
+import eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2.Converter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the cost automata of all the activities in the scenario, which is the bulk of the OPCP2 model creation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CostAutomatonBenchmark {
+
+	private List<ActivityAutomaton> automata;
+	private int numOfTimeSlots;
+
+	@Setup(Level.Trial)
+	public void setUp(ScenarioState state) {
+		Scenario scenario = state.scenario;
+		automata = new ArrayList<>();
+		for (int i = 0; i < scenario.getActivitySpecifications().size(); i++) {
+			EascActivitySpecifications easc = scenario.getActivitySpecifications().get(i);
+			EascMetrics metrics = scenario.getEascMetrics().get(i);
+			for (int j = 0; j < easc.getActivitySpecifications().size(); j++) {
+				ActivitySpecification activity = easc.getActivitySpecifications().get(j);
+				ActivityMetrics activityMetrics = metrics.getActivities().get(j);
+				automata.add(new ActivityAutomaton(Converter.myActivity(scenario.getTimeRange(), easc.getEascName(),
+						activity, Collections.<ServiceLevel>emptyList(), activityMetrics)));
+			}
+		}
+		numOfTimeSlots = scenario.getTimeRange().getNumOfTimeSlots();
+	}
+
+	@Benchmark
+	public void costAutomaton(Blackhole blackhole) {
+		for (ActivityAutomaton automaton : automata) {
+			blackhole.consume(automaton.costAutomaton(numOfTimeSlots));
+		}
+	}
+
+}
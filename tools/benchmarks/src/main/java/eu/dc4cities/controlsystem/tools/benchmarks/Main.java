@@ -0,0 +1,49 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.dc4cities.controlsystem.tools.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler enabled, so that allocation rates are reported next to the timings. Accepts
+ * the usual JMH command line options, e.g. {@code java -jar benchmarks.jar Scheduler -p timeSlots=96}.
+ */
+public class Main {
+
+	public static void main(String[] args) {
+		try {
+			Options options = new OptionsBuilder()
+					.parent(new CommandLineOptions(args))
+					.addProfiler(GCProfiler.class)
+					.build();
+			new Runner(options).run();
+		} catch (CommandLineOptionException e) {
+			System.err.println("Invalid command line: " + e.getMessage());
+			System.exit(1);
+		} catch (RunnerException e) {
+			e.printStackTrace();
+			System.exit(1);
+		}
+	}
+
+}
@@ -0,0 +1,370 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.dc4cities.controlsystem.tools.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.dc4cities.configuration.goal.Objective;
+import eu.dc4cities.configuration.goal.ObjectiveType;
+import eu.dc4cities.configuration.goal.Target;
+import eu.dc4cities.configuration.goal.TimeFrame;
+import eu.dc4cities.controlsystem.model.TimeSlotBasedEntity;
+import eu.dc4cities.controlsystem.model.datacenter.DataCenterPower;
+import eu.dc4cities.controlsystem.model.easc.ActivityDataCenterMetrics;
+import eu.dc4cities.controlsystem.model.easc.ActivityMetrics;
+import eu.dc4cities.controlsystem.model.easc.ActivitySpecification;
+import eu.dc4cities.controlsystem.model.easc.DataCenterPowerPlan;
+import eu.dc4cities.controlsystem.model.easc.DataCenterSpecification;
+import eu.dc4cities.controlsystem.model.easc.EascActivitySpecifications;
+import eu.dc4cities.controlsystem.model.easc.EascMetrics;
+import eu.dc4cities.controlsystem.model.easc.EascPowerPlan;
+import eu.dc4cities.controlsystem.model.easc.EascServiceLevels;
+import eu.dc4cities.controlsystem.model.easc.PerformanceLevel;
+import eu.dc4cities.controlsystem.model.easc.PriceModifier;
+import eu.dc4cities.controlsystem.model.easc.Relocability;
+import eu.dc4cities.controlsystem.model.easc.ServiceLevelObjective;
+import eu.dc4cities.controlsystem.model.easc.Transition;
+import eu.dc4cities.controlsystem.model.easc.WorkingMode;
+import eu.dc4cities.controlsystem.model.erds.DataCenterForecast;
+import eu.dc4cities.controlsystem.model.erds.ErdsForecast;
+import eu.dc4cities.controlsystem.model.erds.TimeSlotErdsForecast;
+import eu.dc4cities.controlsystem.model.json.JsonUtils;
+import eu.dc4cities.controlsystem.model.unit.Units;
+import org.joda.time.DateTime;
+import org.jscience.physics.amount.Amount;
+
+import javax.measure.unit.NonSI;
+import javax.measure.unit.SI;
+import javax.measure.unit.UnitFormat;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Synthetic input for the option consolidator, scaled from the test fixtures of the option-consolidator module.
+ * <p>
+ * Every activity is a copy of the activity in {@code easc-activity-specifications.json}, spreadable over all the
+ * data centers with the working modes of its first data center. Additional working modes repeat the last one with
+ * increasing performance and power. Service level objectives repeat the first fixture objective every day, while the
+ * forecasts of each data center cycle over the time slots in {@code datacenter-forecasts.json}, with the renewable
+ * share following a daily profile and the power scaled with the number of activities. Current metrics are taken from
+ * {@code easc-metrics.json}. Each data center has a daily renewable energy objective, as set in the goal configuration.
+ */
+public class Scenario {
+
+	private static final String SPECIFICATIONS_RESOURCE = "easc-activity-specifications.json";
+	private static final String METRICS_RESOURCE = "easc-metrics.json";
+	private static final String FORECASTS_RESOURCE = "datacenter-forecasts.json";
+	private static final int TIME_SLOTS_PER_DAY = 96;
+
+	static {
+		Units.init();
+		UnitFormat.getInstance().label(SI.GIGA(SI.BIT), "Gbit");
+	}
+
+	private ObjectMapper mapper = JsonUtils.getDc4CitiesObjectMapper();
+
+	private TimeSlotBasedEntity timeRange;
+	private List<Objective> objectives = new ArrayList<>();
+	private List<DataCenterForecast> dataCenterForecasts = new ArrayList<>();
+	private List<DataCenterPowerPlan> idealPowerPlans = new ArrayList<>();
+	private List<EascPowerPlan> eascPowerPlans = new ArrayList<>();
+	private List<EascActivitySpecifications> activitySpecifications = new ArrayList<>();
+	private List<DataCenterPower> pastPowerUsage = new ArrayList<>();
+	private List<EascServiceLevels> pastServiceLevels = new ArrayList<>();
+	private List<EascMetrics> eascMetrics = new ArrayList<>();
+
+	/**
+	 * Generates a new scenario.
+	 *
+	 * @param numOfEascs the number of EASCs
+	 * @param activitiesPerEasc the number of activities of each EASC
+	 * @param numOfDataCenters the number of data centers, all of them hosting all the activities
+	 * @param numOfTimeSlots the number of 15 minutes time slots to plan
+	 * @param numOfWorkingModes the number of working modes of an activity in each data center
+	 */
+	public Scenario(int numOfEascs, int activitiesPerEasc, int numOfDataCenters, int numOfTimeSlots,
+			int numOfWorkingModes) {
+		if (numOfEascs <= 0 || activitiesPerEasc <= 0 || numOfDataCenters <= 0 || numOfTimeSlots <= 0
+				|| numOfWorkingModes <= 0) {
+			throw new IllegalArgumentException("All scenario sizes must be > 0");
+		}
+		EascActivitySpecifications template = JsonUtils.loadResource(SPECIFICATIONS_RESOURCE,
+				EascActivitySpecifications.class);
+		ActivitySpecification templateActivity = template.getActivitySpecifications().get(0);
+		EascMetrics templateMetrics = JsonUtils.loadResource(METRICS_RESOURCE, EascMetrics.class);
+		ActivityDataCenterMetrics templateDataCenterMetrics =
+				templateMetrics.getActivities().get(0).getDataCenters().get(0);
+		DateTime dateFrom = templateActivity.getServiceLevelObjectives().get(0).getDateFrom();
+		timeRange = new TimeSlotBasedEntity();
+		timeRange.setDateFrom(dateFrom);
+		timeRange.setDateTo(dateFrom.plusMinutes(numOfTimeSlots * 15));
+		timeRange.setTimeSlotDuration(Amount.valueOf(15, NonSI.MINUTE));
+		for (int e = 1; e <= numOfEascs; e++) {
+			EascActivitySpecifications easc = new EascActivitySpecifications("easc" + e);
+			EascMetrics metrics = new EascMetrics(easc.getEascName());
+			List<ActivitySpecification> activities = new ArrayList<>(activitiesPerEasc);
+			List<ActivityMetrics> activityMetrics = new ArrayList<>(activitiesPerEasc);
+			for (int a = 1; a <= activitiesPerEasc; a++) {
+				ActivitySpecification activity = createActivity(templateActivity, "Activity " + a, numOfDataCenters,
+						numOfWorkingModes);
+				activities.add(activity);
+				activityMetrics.add(createMetrics(activity, templateDataCenterMetrics));
+			}
+			easc.setActivitySpecifications(activities);
+			metrics.setActivities(activityMetrics);
+			activitySpecifications.add(easc);
+			eascMetrics.add(metrics);
+		}
+		List<DataCenterForecast> templateForecasts = JsonUtils.loadResource(FORECASTS_RESOURCE,
+				new TypeReference<List<DataCenterForecast>>() {});
+		ErdsForecast templateErds = templateForecasts.get(0).getErdsForecasts().get(0);
+		for (int d = 1; d <= numOfDataCenters; d++) {
+			dataCenterForecasts.add(createForecast("dc" + d, templateErds, numOfEascs * activitiesPerEasc));
+			objectives.add(createRenewableObjective("dc" + d));
+		}
+	}
+
+	private ActivitySpecification createActivity(ActivitySpecification template, String name, int numOfDataCenters,
+			int numOfWorkingModes) {
+		ActivitySpecification activity = new ActivitySpecification(name);
+		if (numOfDataCenters > 1 && template.getRelocability() == Relocability.NO) {
+			// Activities that cannot be relocated run in a single data center
+			activity.setRelocability(Relocability.SPREADABLE);
+		} else {
+			activity.setRelocability(template.getRelocability());
+		}
+		activity.setMigrationPerformanceCost(template.getMigrationPerformanceCost());
+		activity.setForbiddenStates(template.getForbiddenStates());
+		DataCenterSpecification templateDataCenter = template.getDataCenters().get(0);
+		List<DataCenterSpecification> dataCenters = new ArrayList<>(numOfDataCenters);
+		for (int d = 1; d <= numOfDataCenters; d++) {
+			DataCenterSpecification dataCenter = new DataCenterSpecification("dc" + d);
+			dataCenter.setDefaultWorkingMode(templateDataCenter.getDefaultWorkingMode());
+			dataCenter.setWorkingModes(createWorkingModes(templateDataCenter.getWorkingModes(), numOfWorkingModes));
+			dataCenters.add(dataCenter);
+		}
+		activity.setDataCenters(dataCenters);
+		activity.setServiceLevelObjectives(createObjectives(template.getServiceLevelObjectives().get(0)));
+		return activity;
+	}
+
+	private ActivityMetrics createMetrics(ActivitySpecification activity, ActivityDataCenterMetrics template) {
+		ActivityMetrics metrics = new ActivityMetrics(activity.getActivityName());
+		List<ActivityDataCenterMetrics> dataCenters = new ArrayList<>(activity.getDataCenters().size());
+		for (DataCenterSpecification dataCenter : activity.getDataCenters()) {
+			ActivityDataCenterMetrics dataCenterMetrics = new ActivityDataCenterMetrics(dataCenter.getDataCenterName());
+			dataCenterMetrics.setInstantBusinessPerformance(template.getInstantBusinessPerformance());
+			dataCenterMetrics.setCumulativeBusinessPerformance(template.getCumulativeBusinessPerformance());
+			dataCenterMetrics.setPower(template.getPower());
+			// Activities start from the fixture working mode when the scenario has it, from the default one otherwise
+			String workingModeName = template.getWorkingModeName();
+			if (!containsWorkingMode(dataCenter.getWorkingModes(), workingModeName)) {
+				workingModeName = dataCenter.getDefaultWorkingMode();
+			}
+			for (WorkingMode workingMode : dataCenter.getWorkingModes()) {
+				if (workingMode.getName().equals(workingModeName)) {
+					dataCenterMetrics.setWorkingModeName(workingMode.getName());
+					dataCenterMetrics.setWorkingModeValue(workingMode.getValue());
+				}
+			}
+			dataCenters.add(dataCenterMetrics);
+		}
+		metrics.setDataCenters(dataCenters);
+		return metrics;
+	}
+
+	private List<WorkingMode> createWorkingModes(List<WorkingMode> template, int numOfWorkingModes) {
+		List<WorkingMode> workingModes = new ArrayList<>(numOfWorkingModes);
+		for (int i = 0; i < Math.min(template.size(), numOfWorkingModes); i++) {
+			workingModes.add(copy(template.get(i), WorkingMode.class));
+		}
+		WorkingMode last = template.get(template.size() - 1);
+		for (int value = template.size(); value < numOfWorkingModes; value++) {
+			double factor = (double) value / last.getValue();
+			WorkingMode workingMode = new WorkingMode("WM" + value, value);
+			List<PerformanceLevel> performanceLevels = new ArrayList<>();
+			for (PerformanceLevel level : last.getPerformanceLevels()) {
+				long watts = Math.round(level.getPower().doubleValue(SI.WATT) * factor);
+				performanceLevels.add(new PerformanceLevel(level.getBusinessPerformance().times(factor),
+						Amount.valueOf(watts, SI.WATT)));
+			}
+			workingMode.setPerformanceLevels(performanceLevels);
+			workingModes.add(workingMode);
+		}
+		// Drop transitions to the template modes that are not part of the scenario
+		for (WorkingMode workingMode : workingModes) {
+			if (workingMode.getTransitions() == null) {
+				continue;
+			}
+			Iterator<Transition> it = workingMode.getTransitions().iterator();
+			while (it.hasNext()) {
+				if (!containsWorkingMode(workingModes, it.next().getTarget())) {
+					it.remove();
+				}
+			}
+		}
+		return workingModes;
+	}
+
+	private boolean containsWorkingMode(List<WorkingMode> workingModes, String name) {
+		for (WorkingMode workingMode : workingModes) {
+			if (workingMode.getName().equals(name)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private List<ServiceLevelObjective> createObjectives(ServiceLevelObjective template) {
+		List<ServiceLevelObjective> objectives = new ArrayList<>();
+		DateTime dateFrom = timeRange.getDateFrom();
+		while (dateFrom.isBefore(timeRange.getDateTo())) {
+			DateTime dateTo = dateFrom.plusDays(1);
+			if (dateTo.isAfter(timeRange.getDateTo())) {
+				dateTo = timeRange.getDateTo();
+			}
+			ServiceLevelObjective objective = copy(template, ServiceLevelObjective.class);
+			objective.setDateFrom(dateFrom);
+			objective.setDateTo(dateTo);
+			extendLowestModifier(objective.getPriceModifiers());
+			objectives.add(objective);
+			dateFrom = dateTo;
+		}
+		return objectives;
+	}
+
+	/**
+	 * The fixture defines no price below its lowest threshold, which the solver rejects as a non monotonic revenue.
+	 * Extend the lowest modifier down to zero performance.
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private void extendLowestModifier(List<PriceModifier> priceModifiers) {
+		if (priceModifiers == null || priceModifiers.isEmpty()) {
+			return;
+		}
+		PriceModifier lowest = priceModifiers.get(0);
+		for (PriceModifier priceModifier : priceModifiers) {
+			if (priceModifier.getThreshold().compareTo((Amount) lowest.getThreshold()) < 0) {
+				lowest = priceModifier;
+			}
+		}
+		if (lowest.getThreshold().getEstimatedValue() > 0) {
+			Amount zero = Amount.valueOf(0, lowest.getThreshold().getUnit());
+			priceModifiers.add(new PriceModifier(zero, lowest.getModifier()));
+		}
+	}
+
+	private DataCenterForecast createForecast(String dataCenterName, ErdsForecast template, int numOfActivities) {
+		int numOfTimeSlots = timeRange.getNumOfTimeSlots();
+		List<TimeSlotErdsForecast> templateSlots = template.getTimeSlotForecasts();
+		List<TimeSlotErdsForecast> timeSlotForecasts = new ArrayList<>(numOfTimeSlots);
+		for (int i = 0; i < numOfTimeSlots; i++) {
+			TimeSlotErdsForecast forecast = new TimeSlotErdsForecast(templateSlots.get(i % templateSlots.size()));
+			forecast.setTimeSlot(i);
+			forecast.setPower(forecast.getPower().times(numOfActivities));
+			// Renewable energy peaks at noon and is at its minimum at midnight
+			double hour = (i % TIME_SLOTS_PER_DAY) / 4.0;
+			double dailyFactor = 1 - Math.cos(2 * Math.PI * hour / 24);
+			long percentage = Math.min(100,
+					Math.round(forecast.getRenewablePercentage().doubleValue(Units.PERCENTAGE_POINT) * dailyFactor));
+			forecast.setRenewablePercentage(Amount.valueOf(percentage, Units.PERCENTAGE_POINT));
+			timeSlotForecasts.add(forecast);
+		}
+		ErdsForecast erdsForecast = new ErdsForecast(template.getErdsName());
+		erdsForecast.copyIntervalFrom(timeRange);
+		erdsForecast.setTimeSlotForecasts(timeSlotForecasts);
+		DataCenterForecast dataCenterForecast = new DataCenterForecast(dataCenterName);
+		dataCenterForecast.copyIntervalFrom(timeRange);
+		dataCenterForecast.setErdsForecasts(Collections.singletonList(erdsForecast));
+		return dataCenterForecast;
+	}
+
+	private Objective createRenewableObjective(String dataCenterName) {
+		Objective objective = new Objective();
+		objective.setId("renewableObjective-" + dataCenterName);
+		objective.setName("Renewable Energy Objective");
+		objective.setType(ObjectiveType.ENERGY);
+		objective.setImplementationType("MUST");
+		objective.setEnabled(true);
+		objective.setDataCenterId(dataCenterName);
+		objective.setPriority(0);
+		Target target = new Target();
+		target.setMetric("renewablePercentage");
+		target.setOperator("gt");
+		target.setValue(80);
+		objective.setTarget(target);
+		TimeFrame timeFrame = new TimeFrame();
+		timeFrame.setRecurrentExpression("0 0 0 ? * *");
+		timeFrame.setDuration("P1D");
+		timeFrame.setStartDate(timeRange.getDateFrom().toDate());
+		objective.setTimeFrame(timeFrame);
+		List<PriceModifier> priceModifiers = new ArrayList<>(2);
+		priceModifiers.add(new PriceModifier(Amount.valueOf("75 %"), Amount.valueOf("0 EUR")));
+		priceModifiers.add(new PriceModifier(Amount.valueOf("0 %"), Amount.valueOf("-1 EUR/pp")));
+		objective.setPriceModifiers(priceModifiers);
+		return objective;
+	}
+
+	private <T> T copy(T value, Class<T> type) {
+		try {
+			return mapper.readValue(mapper.writeValueAsBytes(value), type);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public TimeSlotBasedEntity getTimeRange() {
+		return timeRange;
+	}
+
+	public List<Objective> getObjectives() {
+		return objectives;
+	}
+
+	public List<DataCenterForecast> getDataCenterForecasts() {
+		return dataCenterForecasts;
+	}
+
+	public List<DataCenterPowerPlan> getIdealPowerPlans() {
+		return idealPowerPlans;
+	}
+
+	public List<EascPowerPlan> getEascPowerPlans() {
+		return eascPowerPlans;
+	}
+
+	public List<EascActivitySpecifications> getActivitySpecifications() {
+		return activitySpecifications;
+	}
+
+	public List<DataCenterPower> getPastPowerUsage() {
+		return pastPowerUsage;
+	}
+
+	public List<EascServiceLevels> getPastServiceLevels() {
+		return pastServiceLevels;
+	}
+
+	public List<EascMetrics> getEascMetrics() {
+		return eascMetrics;
+	}
+
+}
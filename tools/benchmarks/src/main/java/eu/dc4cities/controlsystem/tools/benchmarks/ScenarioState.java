@@ -0,0 +1,54 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.dc4cities.controlsystem.tools.benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The scenario shared by all the benchmarks, sized by the benchmark parameters. Override the defaults from the command
+ * line, e.g. {@code -p eascs=8 -p dataCenters=1}.
+ */
+@State(Scope.Benchmark)
+public class ScenarioState {
+
+	@Param({ "1", "4" })
+	public int eascs;
+
+	@Param({ "2" })
+	public int activitiesPerEasc;
+
+	@Param({ "1", "2" })
+	public int dataCenters;
+
+	@Param({ "96", "192", "288" })
+	public int timeSlots;
+
+	@Param({ "3", "5" })
+	public int workingModes;
+
+	public Scenario scenario;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		scenario = new Scenario(eascs, activitiesPerEasc, dataCenters, timeSlots, workingModes);
+	}
+
+}
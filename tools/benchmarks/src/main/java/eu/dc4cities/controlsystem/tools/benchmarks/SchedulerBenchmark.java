@@ -0,0 +1,87 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.dc4cities.controlsystem.tools.benchmarks;
+
+import eu.dc4cities.controlsystem.model.easc.EascActivityPlan;
+import eu.dc4cities.controlsystem.modules.ConsolidatorException;
+import eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2.Scheduler;
+import eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2.reducer.LNSReducer;
+import eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2.reducer.Pass;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Solves the whole scenario as a single OPCP2 problem, without splitting it.
+ * <p>
+ * {@link #firstSolution} stops at the first solution; {@link #bestSolution} optimizes until the solver proves the
+ * optimum or reaches the time limit, and reports in {@link SolveCounters} when the first and the best solutions were
+ * found.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SchedulerBenchmark {
+
+	/** The solver time limit, in seconds. */
+	@Param({ "5" })
+	public int timeout;
+
+	/** Whether the optimization uses a Large Neighborhood Search instead of a complete search. */
+	@Param({ "false", "true" })
+	public boolean lns;
+
+	@Benchmark
+	public List<EascActivityPlan> firstSolution(ScenarioState state, SolveCounters counters) {
+		return solve(state.scenario, false, counters);
+	}
+
+	@Benchmark
+	public List<EascActivityPlan> bestSolution(ScenarioState state, SolveCounters counters) {
+		return solve(state.scenario, true, counters);
+	}
+
+	private List<EascActivityPlan> solve(Scenario scenario, boolean optimize, SolveCounters counters) {
+		Scheduler scheduler = new Scheduler(scenario.getTimeRange(), scenario.getObjectives(),
+				scenario.getDataCenterForecasts(), scenario.getIdealPowerPlans(), scenario.getEascPowerPlans(),
+				scenario.getActivitySpecifications(), scenario.getPastPowerUsage(), scenario.getPastServiceLevels(),
+				scenario.getEascMetrics(), lns ? new LNSReducer() : new Pass());
+		scheduler.doOptimize(optimize);
+		try {
+			List<EascActivityPlan> plans = scheduler.solve(timeout);
+			counters.record(scheduler.getLastStatistics());
+			return plans;
+		} catch (ConsolidatorException e) {
+			counters.recordFailure();
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.dc4cities.controlsystem.tools.benchmarks;
+
+import eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2.Score;
+import eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2.Statistics;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Secondary results of a solver benchmark, taken from the solver statistics and reported by JMH next to the total
+ * solving time.
+ * <p>
+ * Solver benchmarks run in single shot mode, so each iteration holds exactly one solve and the counters are the values
+ * of that solve; JMH reports their average over the measurement iterations. Times are in milliseconds from the start
+ * of the solve. A solve that ends without any solution only increments {@link #failures}.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class SolveCounters {
+
+	public long timeToFirstSolution;
+	public long timeToBestSolution;
+	public long solutions;
+	public long failures;
+
+	@Setup(Level.Iteration)
+	public void reset() {
+		timeToFirstSolution = 0;
+		timeToBestSolution = 0;
+		solutions = 0;
+		failures = 0;
+	}
+
+	void record(Statistics statistics) {
+		List<Score> scores = statistics.scores();
+		if (scores.isEmpty()) {
+			failures++;
+			return;
+		}
+		timeToFirstSolution += scores.get(0).timestamp;
+		timeToBestSolution += scores.get(scores.size() - 1).timestamp;
+		solutions += scores.size();
+	}
+
+	void recordFailure() {
+		failures++;
+	}
+
+}
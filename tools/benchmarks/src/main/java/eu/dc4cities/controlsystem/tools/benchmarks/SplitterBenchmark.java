@@ -0,0 +1,52 @@
+/*
+ * Copyright 2016 The DC4Cities author.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.dc4cities.controlsystem.tools.benchmarks;
+
+import eu.dc4cities.configuration.goal.interval.TimeIntervalExpressionException;
+import eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2.Scheduler;
+import eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2.Splitter;
+import eu.dc4cities.controlsystem.modules.optionconsolidator.opcp2.reducer.Pass;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splits the scenario into independent sub-problems, as done before each consolidation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SplitterBenchmark {
+
+	@Benchmark
+	public List<Scheduler> split(ScenarioState state) throws TimeIntervalExpressionException {
+		Scenario scenario = state.scenario;
+		return Splitter.split(scenario.getTimeRange(), scenario.getObjectives(), scenario.getDataCenterForecasts(),
+				scenario.getIdealPowerPlans(), scenario.getEascPowerPlans(), scenario.getActivitySpecifications(),
+				scenario.getPastPowerUsage(), scenario.getPastServiceLevels(), scenario.getEascMetrics(), new Pass());
+	}
+
+}